@@ -0,0 +1,32 @@
+// this module contains a command-line application for baking IK poses offline
+
+plugins {
+    id("fabiko-conventions")
+    application
+}
+
+base {
+    description = "${rootProject.name}-baker"
+    archivesName = "${rootProject.name}-baker"
+}
+
+// disable the ability to publish the baker module to any maven (i.e. jitpack)
+tasks.withType<PublishToMavenRepository>().configureEach { enabled = false }
+tasks.withType<PublishToMavenLocal>().configureEach { enabled = false }
+
+application {
+    mainClass = "com.github.elenterius.fabiko.baker.Application"
+    applicationName = "Fabiko-Baker"
+}
+
+dependencies {
+    implementation(project(":core"))
+
+    testImplementation(platform(libs.junit.bom))
+    testImplementation(libs.junit.engine)
+    testRuntimeOnly(libs.junit.platform)
+}
+
+tasks.named<Test>("test") {
+    useJUnitPlatform()
+}
@@ -0,0 +1,142 @@
+package com.github.elenterius.fabiko.baker;
+
+import com.github.elenterius.fabiko.core.FabrikRigFormat;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/// Command-line application which bakes target trajectories into poses offline, see [TrajectoryBaker].
+///
+/// ```
+/// Fabiko-Baker --rig <rig file> --out <directory> [--threads <count>] <trajectory file>...
+/// ```
+///
+/// The trajectories are independent of each other and are baked in parallel, each trajectory is written to a `.pose`
+/// file of the same name in the output directory, so their file names without extension must be unique. At most `--threads` trajectories are baked at the same time, which
+/// bounds the memory used to one rig and one output buffer per thread.
+public class Application {
+
+	private static final String USAGE = "Usage: Fabiko-Baker --rig <rig file> --out <directory> [--threads <count>] <trajectory file>...";
+
+	public static void main(final String[] args) {
+		System.exit(run(args));
+	}
+
+	/// @return the exit code, `0` if all trajectories were baked, `1` if a trajectory failed and `2` for invalid arguments,
+	/// e.g. trajectories whose poses would be written to the same file
+	static int run(String[] args) {
+		@Nullable Path rigPath = null;
+		@Nullable Path outputDirectory = null;
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		List<Path> trajectories = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--rig" -> rigPath = Path.of(getValue(args, ++i));
+					case "--out" -> outputDirectory = Path.of(getValue(args, ++i));
+					case "--threads" -> threadCount = Integer.parseInt(getValue(args, ++i));
+					case "-h", "--help" -> {
+						System.out.println(USAGE);
+						return 0;
+					}
+					default -> trajectories.add(Path.of(args[i]));
+				}
+			}
+		}
+		catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			return 2;
+		}
+
+		if (rigPath == null || outputDirectory == null || trajectories.isEmpty() || threadCount < 1) {
+			System.err.println(USAGE);
+			return 2;
+		}
+
+		// the poses of two trajectories must not be written to the same file
+		Map<String, Path> trajectoryByPoseFileName = new HashMap<>();
+		for (Path trajectory : trajectories) {
+			String poseFileName = getPoseFileName(trajectory);
+			@Nullable Path previous = trajectoryByPoseFileName.putIfAbsent(poseFileName, trajectory);
+			if (previous != null) {
+				System.err.println("The poses of " + previous + " and " + trajectory + " would both be written to " + poseFileName);
+				return 2;
+			}
+		}
+
+		try {
+			Files.createDirectories(outputDirectory);
+		}
+		catch (IOException e) {
+			System.err.println("Failed to create output directory " + outputDirectory + ": " + e.getMessage());
+			return 1;
+		}
+
+		TrajectoryBaker baker;
+		try {
+			baker = new TrajectoryBaker(FabrikRigFormat.map(rigPath));
+		}
+		catch (IOException | IllegalArgumentException e) {
+			System.err.println("Failed to load rig " + rigPath + ": " + e.getMessage());
+			return 1;
+		}
+
+		return bake(baker, trajectories, outputDirectory, threadCount);
+	}
+
+	private static String getValue(String[] args, int index) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+		}
+		return args[index];
+	}
+
+	private static int bake(TrajectoryBaker baker, List<Path> trajectories, Path outputDirectory, int threadCount) {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, trajectories.size()));
+		try {
+			List<Future<Long>> frameCounts = new ArrayList<>(trajectories.size());
+			for (Path trajectory : trajectories) {
+				Path poses = outputDirectory.resolve(getPoseFileName(trajectory));
+				frameCounts.add(executor.submit(() -> baker.bake(trajectory, poses)));
+			}
+
+			int exitCode = 0;
+			for (int i = 0; i < trajectories.size(); i++) {
+				try {
+					System.out.println("Baked " + frameCounts.get(i).get() + " frames of " + trajectories.get(i));
+				}
+				catch (ExecutionException e) {
+					System.err.println("Failed to bake " + trajectories.get(i) + ": " + e.getCause());
+					exitCode = 1;
+				}
+			}
+			return exitCode;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return 1;
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	static String getPoseFileName(Path trajectory) {
+		String name = trajectory.getFileName().toString();
+		int extensionIndex = name.lastIndexOf('.');
+		return (extensionIndex > 0 ? name.substring(0, extensionIndex) : name) + ".pose";
+	}
+
+}
@@ -0,0 +1,156 @@
+package com.github.elenterius.fabiko.baker;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikRigFormat;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.FabrikStructure3f;
+import org.joml.Vector3f;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/// Bakes target trajectories of a rig into poses.
+///
+/// A trajectory is a text file with one frame per line. A frame either contains a single target `x y z` for the whole
+/// structure or one target per chain (`x0 y0 z0 x1 y1 z1 ...`) which replaces the embedded targets of the chains for
+/// that frame. Frames with a single target use the embedded targets of the rig, even if they follow a frame with one
+/// target per chain. Values are separated by whitespace or commas, empty lines and lines starting with `#` are skipped.
+///
+/// The trajectory is streamed: every frame is solved starting from the pose of the previous frame and its pose is
+/// appended to the output file as a [FabrikRigFormat] pose, so the memory used doesn't depend on the length of the
+/// trajectory. The poses can be read back one after another with [FabrikRigFormat#readPose(ByteBuffer, FabrikStructure3f)].
+///
+/// A baker can bake several trajectories at the same time, each bake loads its own copy of the rig.
+public final class TrajectoryBaker {
+
+	/// Poses are collected in a buffer of this size before they are written to the output file.
+	private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+	private final ByteBuffer rig;
+
+	/// @param rig a rig written by [FabrikRigFormat#writeRig(FabrikStructure3f, ByteBuffer)], e.g. a memory-mapped rig file
+	public TrajectoryBaker(ByteBuffer rig) {
+		this.rig = rig.asReadOnlyBuffer();
+		FabrikRigFormat.readRig(this.rig.duplicate()); // fail early on invalid rigs
+	}
+
+	/// Solve every frame of the trajectory and write the poses to the output file, replacing its content.
+	///
+	/// @return the number of baked frames
+	/// @throws IllegalArgumentException if a frame of the trajectory is malformed
+	public long bake(Path trajectory, Path poses) throws IOException {
+		FabrikStructure3f structure = FabrikRigFormat.readRig(rig.duplicate());
+		FabrikSolver3f solver = new FabrikSolver3f();
+
+		int chainCount = structure.getChainCount();
+		int poseSize = FabrikRigFormat.getPoseSize(structure);
+		ByteBuffer buffer = ByteBuffer.allocate(Math.max(OUTPUT_BUFFER_SIZE, poseSize));
+		float[] values = new float[Math.max(3, chainCount * 3)];
+		Vector3f target = new Vector3f();
+
+		boolean[] rigUsesEmbeddedTargets = new boolean[chainCount];
+		Vector3f[] rigEmbeddedTargets = new Vector3f[chainCount];
+		for (int i = 0; i < chainCount; i++) {
+			FabrikChain3f chain = structure.getChain(i);
+			rigUsesEmbeddedTargets[i] = chain.isEmbeddedTargetEnabled();
+			rigEmbeddedTargets[i] = new Vector3f(chain.getEmbeddedTarget());
+		}
+		boolean embeddedTargetsReplaced = false;
+
+		long frameCount = 0;
+		int lineNumber = 0;
+
+		try (BufferedReader reader = Files.newBufferedReader(trajectory, StandardCharsets.UTF_8);
+			 FileChannel channel = FileChannel.open(poses, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				int valueCount = parseValues(line, values, trajectory, lineNumber);
+				if (valueCount == 0) continue;
+
+				if (valueCount == 3) {
+					if (embeddedTargetsReplaced) {
+						for (int i = 0; i < chainCount; i++) {
+							FabrikChain3f chain = structure.getChain(i);
+							chain.setEmbeddedTargetFrom(rigEmbeddedTargets[i]);
+							chain.setUseEmbeddedTarget(rigUsesEmbeddedTargets[i]);
+						}
+						embeddedTargetsReplaced = false;
+					}
+					solver.solveForTarget(structure, target.set(values[0], values[1], values[2]));
+				}
+				else if (valueCount == chainCount * 3) {
+					for (int i = 0; i < chainCount; i++) {
+						FabrikChain3f chain = structure.getChain(i);
+						chain.setEmbeddedTargetFrom(target.set(values[i * 3], values[i * 3 + 1], values[i * 3 + 2]));
+						chain.setUseEmbeddedTarget(true);
+					}
+					embeddedTargetsReplaced = true;
+					solver.solveForTarget(structure, target);
+				}
+				else {
+					throw new IllegalArgumentException(trajectory + ":" + lineNumber + ": expected 3 or " + chainCount * 3 + " values but found " + valueCount + ".");
+				}
+
+				if (buffer.remaining() < poseSize) {
+					write(buffer, channel);
+				}
+				FabrikRigFormat.writePose(structure, buffer);
+				frameCount++;
+			}
+
+			write(buffer, channel);
+		}
+
+		return frameCount;
+	}
+
+	/// @return the number of parsed values, `0` for empty lines and comments
+	private static int parseValues(String line, float[] values, Path trajectory, int lineNumber) {
+		int count = 0;
+		int length = line.length();
+		int i = 0;
+
+		while (i < length) {
+			char c = line.charAt(i);
+			if (Character.isWhitespace(c) || c == ',') {
+				i++;
+				continue;
+			}
+			if (c == '#' && count == 0) break;
+
+			int start = i;
+			while (i < length && !Character.isWhitespace(line.charAt(i)) && line.charAt(i) != ',') {
+				i++;
+			}
+
+			if (count == values.length) {
+				throw new IllegalArgumentException(trajectory + ":" + lineNumber + ": expected at most " + values.length + " values.");
+			}
+			try {
+				values[count++] = Float.parseFloat(line.substring(start, i));
+			}
+			catch (NumberFormatException e) {
+				throw new IllegalArgumentException(trajectory + ":" + lineNumber + ": invalid number '" + line.substring(start, i) + "'.", e);
+			}
+		}
+
+		return count;
+	}
+
+	private static void write(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
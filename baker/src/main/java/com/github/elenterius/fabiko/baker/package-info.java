@@ -0,0 +1,4 @@
+@NullMarked
+package com.github.elenterius.fabiko.baker;
+
+import org.jspecify.annotations.NullMarked;
\ No newline at end of file
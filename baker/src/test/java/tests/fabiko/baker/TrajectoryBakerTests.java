@@ -0,0 +1,177 @@
+package tests.fabiko.baker;
+
+import com.github.elenterius.fabiko.baker.TrajectoryBaker;
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikRigFormat;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.FabrikStructure3f;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrajectoryBakerTests {
+
+	private static final Vector3fc UP = new Vector3f(0, 1, 0);
+	private static final Vector3fc RIGHT = new Vector3f(1, 0, 0);
+
+	@TempDir
+	public File tempDir;
+
+	@Test
+	public void testBakedPosesMatchSequentialSolves() throws IOException {
+		FabrikStructure3f expected = createRig();
+		TrajectoryBaker baker = new TrajectoryBaker(writeRig(expected));
+
+		// enough frames to flush the output buffer several times
+		Random random = new Random(42);
+		Vector3f[] targets = new Vector3f[2000];
+		StringBuilder trajectory = new StringBuilder("# x y z\n");
+		for (int i = 0; i < targets.length; i++) {
+			targets[i] = new Vector3f(random.nextFloat(-30f, 30f), random.nextFloat(-30f, 30f), random.nextFloat(-30f, 30f));
+			trajectory.append(String.format(Locale.ROOT, "%s %s %s%n", targets[i].x, targets[i].y, targets[i].z));
+		}
+		Path trajectoryPath = writeTrajectory("clip.txt", trajectory.toString());
+		Path posesPath = new File(tempDir, "clip.pose").toPath();
+
+		assertEquals(targets.length, baker.bake(trajectoryPath, posesPath));
+
+		ByteBuffer poses = FabrikRigFormat.map(posesPath);
+		assertEquals((long) targets.length * FabrikRigFormat.getPoseSize(expected), poses.capacity());
+
+		FabrikSolver3f solver = new FabrikSolver3f();
+		FabrikStructure3f actual = createRig();
+		for (Vector3f target : targets) {
+			solver.solveForTarget(expected, target);
+			FabrikRigFormat.readPose(poses, actual);
+			assertSamePose(expected, actual);
+		}
+		assertFalse(poses.hasRemaining());
+	}
+
+	@Test
+	public void testTargetPerChain() throws IOException {
+		FabrikStructure3f expected = createRig();
+		TrajectoryBaker baker = new TrajectoryBaker(writeRig(expected));
+
+		Path trajectoryPath = writeTrajectory("clip.txt", """
+				10, 20, 0,  -5, 15, 5
+
+				12, 18, 2,  -6, 14, 4
+				""");
+		Path posesPath = new File(tempDir, "clip.pose").toPath();
+		assertEquals(2, baker.bake(trajectoryPath, posesPath));
+
+		FabrikSolver3f solver = new FabrikSolver3f();
+		expected.getChain(0).setEmbeddedTargetFrom(new Vector3f(10, 20, 0));
+		expected.getChain(1).setEmbeddedTargetFrom(new Vector3f(-5, 15, 5));
+		expected.getChain(0).setUseEmbeddedTarget(true);
+		expected.getChain(1).setUseEmbeddedTarget(true);
+		solver.solveForTarget(expected, new Vector3f());
+
+		FabrikStructure3f actual = createRig();
+		FabrikRigFormat.readPose(FabrikRigFormat.map(posesPath), actual);
+		assertSamePose(expected, actual);
+	}
+
+	@Test
+	public void testSingleTargetAfterTargetPerChain() throws IOException {
+		FabrikStructure3f expected = createRig();
+		TrajectoryBaker baker = new TrajectoryBaker(writeRig(expected));
+
+		Path trajectoryPath = writeTrajectory("clip.txt", """
+				10, 20, 0,  -5, 15, 5
+				-20, 5, 10
+				-22, 4, 12
+				""");
+		Path posesPath = new File(tempDir, "clip.pose").toPath();
+		assertEquals(3, baker.bake(trajectoryPath, posesPath));
+
+		ByteBuffer poses = FabrikRigFormat.map(posesPath);
+		FabrikStructure3f actual = createRig();
+		FabrikSolver3f solver = new FabrikSolver3f();
+
+		expected.getChain(0).setEmbeddedTargetFrom(new Vector3f(10, 20, 0));
+		expected.getChain(1).setEmbeddedTargetFrom(new Vector3f(-5, 15, 5));
+		expected.getChain(0).setUseEmbeddedTarget(true);
+		expected.getChain(1).setUseEmbeddedTarget(true);
+		solver.solveForTarget(expected, new Vector3f());
+		FabrikRigFormat.readPose(poses, actual);
+		assertSamePose(expected, actual);
+
+		// the chains of the rig don't use embedded targets, so the single targets are solved by both chains
+		expected.getChain(0).setUseEmbeddedTarget(false);
+		expected.getChain(1).setUseEmbeddedTarget(false);
+		for (Vector3f target : new Vector3f[]{new Vector3f(-20, 5, 10), new Vector3f(-22, 4, 12)}) {
+			solver.solveForTarget(expected, target);
+			FabrikRigFormat.readPose(poses, actual);
+			assertSamePose(expected, actual);
+		}
+		assertFalse(poses.hasRemaining());
+	}
+
+	@Test
+	public void testMalformedTrajectoriesAreRejected() throws IOException {
+		TrajectoryBaker baker = new TrajectoryBaker(writeRig(createRig()));
+		Path posesPath = new File(tempDir, "clip.pose").toPath();
+
+		Path wrongValueCount = writeTrajectory("wrong-value-count.txt", "1 2 3\n1 2 3 4\n");
+		IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> baker.bake(wrongValueCount, posesPath));
+		assertTrue(exception.getMessage().contains(":2:"), exception.getMessage());
+
+		Path invalidNumber = writeTrajectory("invalid-number.txt", "1 2 x\n");
+		assertThrows(IllegalArgumentException.class, () -> baker.bake(invalidNumber, posesPath));
+
+		assertThrows(IllegalArgumentException.class, () -> new TrajectoryBaker(ByteBuffer.allocate(16)));
+	}
+
+	private Path writeTrajectory(String name, String content) throws IOException {
+		return Files.writeString(new File(tempDir, name).toPath(), content);
+	}
+
+	private static ByteBuffer writeRig(FabrikStructure3f structure) {
+		ByteBuffer rig = ByteBuffer.allocate(FabrikRigFormat.getRigSize(structure));
+		FabrikRigFormat.writeRig(structure, rig);
+		return rig.flip();
+	}
+
+	private static void assertSamePose(FabrikStructure3f expected, FabrikStructure3f actual) {
+		for (int i = 0; i < expected.getChainCount(); i++) {
+			FabrikChain3f expectedChain = expected.getChain(i);
+			for (int j = 0; j < expectedChain.getBoneCount(); j++) {
+				assertEquals(expectedChain.getBone(j).getStartLocation(), actual.getChain(i).getBone(j).getStartLocation());
+				assertEquals(expectedChain.getBone(j).getEndLocation(), actual.getChain(i).getBone(j).getEndLocation());
+			}
+		}
+	}
+
+	/// A spine with an arm connected to its second bone
+	private static FabrikStructure3f createRig() {
+		FabrikStructure3f structure = new FabrikStructure3f();
+
+		structure.addChain(FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), UP, 10f, Math.toRadians(30f), false)
+				.addRotorConstrainedBone(UP, 10f, Math.toRadians(20f), true)
+				.addRotorConstrainedBone(UP, 10f, Math.toRadians(20f), true)
+				.build());
+
+		structure.connectChain(FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), RIGHT, 8f, Math.toRadians(45f), true)
+				.addHingeConstrainedBone(RIGHT, 8f, UP, Math.toRadians(90f), 0f, RIGHT, true)
+				.build(), 0, 1);
+
+		return structure;
+	}
+
+}
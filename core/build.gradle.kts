@@ -33,8 +33,34 @@ dependencies {
     jmhImplementation(":caliko-1.3.8")
 }
 
+// the batch solver uses the incubating Vector API, it falls back to scalar code when the module isn't added at runtime
+val vectorApiModule = listOf("--add-modules", "jdk.incubator.vector")
+
+// only the vector kernel is compiled with the incubator module, the batch solver loads it reflectively
+val vector: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+tasks.named<JavaCompile>(vector.compileJavaTaskName) {
+    options.compilerArgs.addAll(vectorApiModule)
+}
+
+dependencies {
+    testRuntimeOnly(vector.output)
+    jmhRuntimeOnly(vector.output)
+}
+
+tasks.jar {
+    from(vector.output)
+}
+
+tasks.named<Jar>("sourcesJar") {
+    from(vector.allSource)
+}
+
 tasks.named<Test>("test") {
     useJUnitPlatform()
+    jvmArgs(vectorApiModule)
 }
 
 val buildDirectory = project.layout.buildDirectory
@@ -42,7 +68,10 @@ val timestamp = System.currentTimeMillis()
 
 jmh {
 //    profilers.add("stack")
-    includes.add("benchmarks.caliko.CalikoSolverBenchmarks.solveUnconstrainedChain")
+    // run the Caliko and Fabiko solver benchmarks side by side
+    includes.add("benchmarks.caliko.CalikoSolverBenchmarks")
+    includes.add("benchmarks.fabiko.FabikoSolverBenchmarks")
+    jvmArgsAppend.add("--add-modules=jdk.incubator.vector")
 
     //we pick json for displaying the results with JMH Visualizer
     resultFormat = "json" //text, csv, scsv, json, latex
@@ -3,12 +3,14 @@ package benchmarks.caliko;
 import au.edu.federation.caliko.FabrikBone3D;
 import au.edu.federation.caliko.FabrikChain3D;
 import au.edu.federation.caliko.FabrikJoint3D;
+import au.edu.federation.caliko.FabrikStructure3D;
 import au.edu.federation.utils.Vec3f;
 import org.openjdk.jmh.annotations.*;
 
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
+/// Caliko counterpart of [benchmarks.fabiko.FabikoSolverBenchmarks], both use the same chains, params and targets.
 @BenchmarkMode(Mode.AverageTime)
 @Warmup(iterations = 8, time = 1)
 @Measurement(iterations = 50, time = 5, timeUnit = TimeUnit.MILLISECONDS)
@@ -26,6 +28,10 @@ public class CalikoSolverBenchmarks {
 	FabrikChain3D rotor45degConstrained3dChain;
 	FabrikChain3D rotor90degConstrained3dChain;
 	FabrikChain3D localHingeConstrainedChain;
+	FabrikChain3D globalHingeConstrainedChain;
+
+	FabrikStructure3D structure;
+	Vec3f structureTarget;
 
 	@Setup
 	public void setup() {
@@ -36,6 +42,13 @@ public class CalikoSolverBenchmarks {
 		rotor45degConstrained3dChain = createRotorConstrainedChain(numberOfBones, boneLength, 45f);
 		rotor90degConstrained3dChain = createRotorConstrainedChain(numberOfBones, boneLength, 90f);
 		localHingeConstrainedChain = createLocalHingeConstrainedChain(numberOfBones, boneLength);
+		globalHingeConstrainedChain = createGlobalHingeConstrainedChain(numberOfBones, boneLength);
+
+		structure = new FabrikStructure3D();
+		structure.addChain(createRotorConstrainedChain(numberOfBones, boneLength, 45f));
+		structure.connectChain(createRotorConstrainedChain(numberOfBones, boneLength, 45f), 0, numberOfBones / 2);
+		structure.connectChain(createLocalHingeConstrainedChain(numberOfBones, boneLength), 0, numberOfBones - 1);
+		structureTarget = new Vec3f();
 	}
 
 	@Benchmark
@@ -50,7 +63,7 @@ public class CalikoSolverBenchmarks {
 
 	@Benchmark
 	public float solveRotor90degConstrainedChain() {
-		return solveChain(rotor45degConstrained3dChain);
+		return solveChain(rotor90degConstrained3dChain);
 	}
 
 	@Benchmark
@@ -58,6 +71,19 @@ public class CalikoSolverBenchmarks {
 		return solveChain(localHingeConstrainedChain);
 	}
 
+	@Benchmark
+	public float solveGlobalHingeConstrainedChain() {
+		return solveChain(globalHingeConstrainedChain);
+	}
+
+	@Benchmark
+	public FabrikStructure3D solveStructure() {
+		float halfLength = structure.getChain(0).getChainLength() / 2f;
+
+		structureTarget.set(random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength));
+		structure.solveForTarget(structureTarget);
+		return structure;
+	}
 
 	private float solveChain(FabrikChain3D chain) {
 		// Get half the length of the chain (to ensure target can be reached)
@@ -105,6 +131,19 @@ public class CalikoSolverBenchmarks {
 		return chain;
 	}
 
+	private FabrikChain3D createGlobalHingeConstrainedChain(int bonesToAdd, float boneLength) {
+		Vec3f RIGHT = new Vec3f(1f, 0f, 0f);
+		Vec3f UP = new Vec3f(0f, 1f, 0f);
+
+		FabrikChain3D chain = createBaseChain(RIGHT, boneLength);
+		chain.setFreelyRotatingGlobalHingedBasebone(UP);
+
+		for (int i = 1; i < bonesToAdd; i++) {
+			chain.addConsecutiveFreelyRotatingHingedBone(RIGHT, boneLength, FabrikJoint3D.JointType.GLOBAL_HINGE, UP);
+		}
+		return chain;
+	}
+
 	private FabrikChain3D createBaseChain(Vec3f direction, float boneLength) {
 		FabrikChain3D chain = new FabrikChain3D();
 		FabrikBone3D baseBone = new FabrikBone3D(new Vec3f(), direction.times(boneLength));
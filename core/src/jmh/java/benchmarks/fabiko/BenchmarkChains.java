@@ -0,0 +1,70 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+/// Builds the chains shared by the benchmarks, every chain starts at the origin and all of its bones point along the
+/// x-axis.
+final class BenchmarkChains {
+
+	static final Vector3fc RIGHT = new Vector3f(1f, 0f, 0f);
+	static final Vector3fc UP = new Vector3f(0f, 1f, 0f);
+
+	private BenchmarkChains() {
+	}
+
+	/// @return a chain with freely rotating local rotor joints
+	static FabrikChain3f createUnconstrainedChain(int boneCount, float boneLength) {
+		return createRotorChain(boneCount, boneLength, Math.PI_f, Math.PI_f, true);
+	}
+
+	/// @return a chain with local rotor joints
+	static FabrikChain3f createRotorChain(int boneCount, float boneLength, float constraintAngle) {
+		return createRotorChain(boneCount, boneLength, constraintAngle, constraintAngle, true);
+	}
+
+	/// @return a chain with local or global rotor joints
+	static FabrikChain3f createRotorChain(int boneCount, float boneLength, float constraintAngle, boolean isLocalRotor) {
+		return createRotorChain(boneCount, boneLength, constraintAngle, constraintAngle, isLocalRotor);
+	}
+
+	/// @param baseConstraintAngle the constraint angle of the base bone, e.g. [Math#PI_f] for a freely rotating base
+	///                            bone like the chains of the Caliko benchmarks
+	static FabrikChain3f createRotorChain(int boneCount, float boneLength, float baseConstraintAngle, float constraintAngle, boolean isLocalRotor) {
+		FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), RIGHT, boneLength, baseConstraintAngle, isLocalRotor);
+
+		for (int i = 1; i < boneCount; i++) {
+			builder.addRotorConstrainedBone(RIGHT, boneLength, constraintAngle, isLocalRotor);
+		}
+		return builder.build();
+	}
+
+	/// @return a chain whose hinges rotate about the y-axis by up to 90° clockwise and 45° anticlockwise
+	static FabrikChain3f createHingeChain(int boneCount, float boneLength, boolean isLocalHinge) {
+		float clockwiseAngle = Math.toRadians(90f);
+		float anticlockwiseAngle = Math.toRadians(45f);
+
+		FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder()
+				.addHingeConstrainedBaseBone(new Vector3f(), RIGHT, boneLength, UP, clockwiseAngle, anticlockwiseAngle, RIGHT, isLocalHinge);
+
+		for (int i = 1; i < boneCount; i++) {
+			builder.addHingeConstrainedBone(RIGHT, boneLength, UP, clockwiseAngle, anticlockwiseAngle, RIGHT, isLocalHinge);
+		}
+		return builder.build();
+	}
+
+	/// @return a chain whose hinges rotate freely about the given axis
+	static FabrikChain3f createFreelyRotatingHingeChain(int boneCount, float boneLength, Vector3fc rotationAxis, boolean isLocalHinge) {
+		FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder()
+				.addFreelyRotatingHingeBaseBone(new Vector3f(), RIGHT, boneLength, rotationAxis, isLocalHinge);
+
+		for (int i = 1; i < boneCount; i++) {
+			builder.addFreelyRotatingHingeBone(RIGHT, boneLength, rotationAxis, isLocalHinge);
+		}
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,101 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.FabrikStructure3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.fabiko.BenchmarkChains.UP;
+import static benchmarks.fabiko.BenchmarkChains.createFreelyRotatingHingeChain;
+import static benchmarks.fabiko.BenchmarkChains.createRotorChain;
+
+/// Measures the allocations of warm [FabrikSolver3f] solves.
+///
+/// Run with the gc profiler (`-prof gc` or `profilers.add("gc")` in the jmh block of `core/build.gradle.kts`),
+/// the `gc.alloc.rate.norm` metric should be close to `0 B/op` for every benchmark.
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 20, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoAllocationBenchmarks {
+
+	@Param({"10", "100"})
+	public int numberOfBones = 10;
+
+	Random random;
+	FabrikSolver3f solver;
+
+	FabrikChain3f unconstrainedChain;
+	FabrikChain3f localRotorChain;
+	FabrikChain3f localHingeChain;
+	FabrikChain3f globalHingeChain;
+
+	FabrikStructure3f structure;
+	float[] structureSolveDistances;
+
+	@Setup
+	public void setup() {
+		random = new Random(123);
+		solver = new FabrikSolver3f();
+
+		float boneLength = 10f;
+		unconstrainedChain = createRotorChain(numberOfBones, boneLength, (float) Math.PI);
+		localRotorChain = createRotorChain(numberOfBones, boneLength, (float) Math.toRadians(45));
+		localHingeChain = createFreelyRotatingHingeChain(numberOfBones, boneLength, UP, true);
+		globalHingeChain = createFreelyRotatingHingeChain(numberOfBones, boneLength, UP, false);
+
+		structure = new FabrikStructure3f();
+		structure.addChain(createRotorChain(numberOfBones, boneLength, (float) Math.toRadians(45)));
+		structure.connectChain(createRotorChain(numberOfBones, boneLength, (float) Math.toRadians(45)), 0, numberOfBones / 2);
+		structure.connectChain(createFreelyRotatingHingeChain(numberOfBones, boneLength, UP, true), 0, numberOfBones - 1);
+		structureSolveDistances = new float[structure.getChainCount()];
+	}
+
+	@Benchmark
+	public float solveUnconstrainedChain() {
+		return solveChain(unconstrainedChain);
+	}
+
+	@Benchmark
+	public float solveLocalRotorChain() {
+		return solveChain(localRotorChain);
+	}
+
+	@Benchmark
+	public float solveLocalHingeChain() {
+		return solveChain(localHingeChain);
+	}
+
+	@Benchmark
+	public float solveGlobalHingeChain() {
+		return solveChain(globalHingeChain);
+	}
+
+	@Benchmark
+	public float[] solveStructure() {
+		float halfLength = structure.getChain(0).getLength() / 2f;
+
+		float x = random.nextFloat(-halfLength, halfLength);
+		float y = random.nextFloat(-halfLength, halfLength);
+		float z = random.nextFloat(-halfLength, halfLength);
+
+		return solver.solveForTarget(structure, x, y, z, structureSolveDistances);
+	}
+
+	private float solveChain(FabrikChain3f chain) {
+		// Get half the length of the chain (to ensure target can be reached)
+		float halfLength = chain.getLength() / 2f;
+
+		float x = random.nextFloat(-halfLength, halfLength);
+		float y = random.nextFloat(-halfLength, halfLength);
+		float z = random.nextFloat(-halfLength, halfLength);
+
+		return solver.solveForTarget(chain, x, y, z);
+	}
+
+}
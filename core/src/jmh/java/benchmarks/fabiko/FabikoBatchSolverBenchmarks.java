@@ -0,0 +1,95 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikBatchSolver3f;
+import com.github.elenterius.fabiko.core.FabrikChainBatch3f;
+import com.github.elenterius.fabiko.core.FabrikPackedChain3f;
+import com.github.elenterius.fabiko.core.FabrikPackedSolver3f;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Compares solving many chains of the same shape one after another with the [FabrikPackedSolver3f] against solving
+/// them together with the [FabrikBatchSolver3f] at different vector widths (`0` solves the lanes one after another).
+///
+/// Requires `--add-modules jdk.incubator.vector`, otherwise every lane width falls back to `0`.
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 50, time = 5, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoBatchSolverBenchmarks {
+
+	@Param({"0", "128", "256", "512"})
+	public int laneWidth = 256;
+
+	@Param({"4", "10", "32"})
+	public int numberOfBones = 10;
+
+	@Param({"64"})
+	public int numberOfChains = 64;
+
+	Random random;
+
+	FabrikPackedSolver3f packedSolver;
+	FabrikBatchSolver3f batchSolver;
+
+	FabrikPackedChain3f[] packedChains;
+	FabrikChainBatch3f batch;
+
+	List<Vector3f> targets;
+
+	@Setup
+	public void setup() {
+		random = new Random(123);
+
+		packedSolver = new FabrikPackedSolver3f();
+		batchSolver = new FabrikBatchSolver3f(laneWidth);
+
+		packedChains = createChains(numberOfChains, numberOfBones);
+		batch = FabrikChainBatch3f.of(createChains(numberOfChains, numberOfBones));
+
+		targets = new ArrayList<>(numberOfChains);
+		for (int i = 0; i < numberOfChains; i++) {
+			targets.add(new Vector3f());
+		}
+	}
+
+	@Benchmark
+	public float solvePackedChains() {
+		updateTargets();
+
+		float solveDistance = 0f;
+		for (int i = 0; i < packedChains.length; i++) {
+			solveDistance += packedSolver.solveForTarget(packedChains[i], targets.get(i));
+		}
+		return solveDistance;
+	}
+
+	@Benchmark
+	public float[] solveBatch() {
+		updateTargets();
+		return batchSolver.solveForTargets(batch, targets);
+	}
+
+	private void updateTargets() {
+		// half the length of the chain ensures the targets can be reached
+		float halfLength = numberOfBones * 10f / 2f;
+		for (Vector3f target : targets) {
+			target.set(random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength));
+		}
+	}
+
+	private static FabrikPackedChain3f[] createChains(int numberOfChains, int bonesToAdd) {
+		FabrikPackedChain3f[] chains = new FabrikPackedChain3f[numberOfChains];
+		for (int i = 0; i < numberOfChains; i++) {
+			chains[i] = FabrikPackedChain3f.from(BenchmarkChains.createRotorChain(bonesToAdd, 10f, (float) Math.toRadians(45)));
+		}
+		return chains;
+	}
+
+}
@@ -0,0 +1,113 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Compares the closed form fast paths of the [FabrikSolver3f] with the iterative solve.
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 20, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoClosedFormBenchmarks {
+
+	@Param({"10", "100"})
+	public int numberOfBones = 10;
+
+	Random random;
+	FabrikSolver3f closedFormSolver;
+	FabrikSolver3f iterativeSolver;
+
+	FabrikChain3f unconstrainedChain;
+	FabrikChain3f twoBoneRotorChain;
+	FabrikChain3f twoBoneHingeChain;
+
+	@Setup
+	public void setup() {
+		random = new Random(123);
+
+		closedFormSolver = new FabrikSolver3f();
+		closedFormSolver.setClosedFormSolving(true);
+		iterativeSolver = new FabrikSolver3f();
+
+		Vector3fc RIGHT = new Vector3f(1f, 0f, 0f);
+		Vector3fc UP = new Vector3f(0f, 1f, 0f);
+
+		FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder().addFreelyRotatingRotorBaseBone(new Vector3f(), RIGHT, 10f, true);
+		for (int i = 1; i < numberOfBones; i++) {
+			builder.addFreelyRotatingRotorBone(RIGHT, 10f, true);
+		}
+		unconstrainedChain = builder.build();
+
+		twoBoneRotorChain = FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), RIGHT, 10f, Math.toRadians(90f), true)
+				.addRotorConstrainedBone(RIGHT, 8f, Math.toRadians(150f), true)
+				.build();
+
+		// a global hinge at the joint only accepts targets in the hinge plane, so this mostly measures the fallback
+		twoBoneHingeChain = FabrikChain3f.builder()
+				.addFreelyRotatingRotorBaseBone(new Vector3f(), RIGHT, 10f, true)
+				.addFreelyRotatingHingeBone(RIGHT, 8f, UP, false)
+				.build();
+	}
+
+	@Benchmark
+	public float solveUnreachableTargetIterative() {
+		return solveUnreachable(iterativeSolver, unconstrainedChain);
+	}
+
+	@Benchmark
+	public float solveUnreachableTargetClosedForm() {
+		return solveUnreachable(closedFormSolver, unconstrainedChain);
+	}
+
+	@Benchmark
+	public float solveTwoBoneRotorChainIterative() {
+		return solveReachable(iterativeSolver, twoBoneRotorChain);
+	}
+
+	@Benchmark
+	public float solveTwoBoneRotorChainClosedForm() {
+		return solveReachable(closedFormSolver, twoBoneRotorChain);
+	}
+
+	@Benchmark
+	public float solveTwoBoneHingeChainIterative() {
+		return solveReachable(iterativeSolver, twoBoneHingeChain);
+	}
+
+	@Benchmark
+	public float solveTwoBoneHingeChainClosedForm() {
+		return solveReachable(closedFormSolver, twoBoneHingeChain);
+	}
+
+	private float solveUnreachable(FabrikSolver3f solver, FabrikChain3f chain) {
+		float length = chain.getLength();
+		float x = random.nextFloat(-1f, 1f);
+		float y = random.nextFloat(-1f, 1f);
+		float z = random.nextFloat(-1f, 1f);
+		float scale = 2f * length / Math.sqrt(x * x + y * y + z * z + 1e-6f);
+
+		return solver.solveForTarget(chain, x * scale, y * scale, z * scale);
+	}
+
+	private float solveReachable(FabrikSolver3f solver, FabrikChain3f chain) {
+		// Get half the length of the chain (to ensure target can be reached)
+		float halfLength = chain.getLength() / 2f;
+
+		float x = random.nextFloat(-halfLength, halfLength);
+		float y = random.nextFloat(-halfLength, halfLength);
+		float z = random.nextFloat(-halfLength, halfLength);
+
+		return solver.solveForTarget(chain, x, y, z);
+	}
+
+}
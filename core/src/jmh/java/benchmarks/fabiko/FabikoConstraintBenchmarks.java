@@ -0,0 +1,176 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.math.JomlMath;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.fabiko.BenchmarkChains.createHingeChain;
+import static benchmarks.fabiko.BenchmarkChains.createRotorChain;
+
+/// Measures the constraint clamping of rotors and hinges.
+///
+/// The `clamp*` benchmarks compare the trig-free clamping of [JomlMath] with clamping based on `acos`/`atan2` and
+/// `rotateAxis`, the `solve*` benchmarks solve chains whose joints are all constrained.
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 20, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoConstraintBenchmarks {
+
+	private static final int SAMPLE_COUNT = 1024;
+
+	@Param({"10", "100"})
+	public int numberOfBones = 10;
+
+	Random random;
+	FabrikSolver3f solver;
+
+	FabrikChain3f localRotorChain;
+	FabrikChain3f globalRotorChain;
+	FabrikChain3f localHingeChain;
+	FabrikChain3f globalHingeChain;
+
+	Vector3f[] axes;
+	Vector3f[] referenceAxes;
+	Vector3f[] directions;
+	Vector3f[] hingeDirections;
+	float constraintAngle;
+	final Vector3f direction = new Vector3f();
+	final Vector3f correctionAxis = new Vector3f();
+
+	@Setup
+	public void setup() {
+		random = new Random(123);
+		solver = new FabrikSolver3f();
+
+		float boneLength = 10f;
+		localRotorChain = createRotorChain(numberOfBones, boneLength, Math.toRadians(45f), true);
+		globalRotorChain = createRotorChain(numberOfBones, boneLength, Math.toRadians(45f), false);
+		localHingeChain = createHingeChain(numberOfBones, boneLength, true);
+		globalHingeChain = createHingeChain(numberOfBones, boneLength, false);
+
+		axes = new Vector3f[SAMPLE_COUNT];
+		referenceAxes = new Vector3f[SAMPLE_COUNT];
+		directions = new Vector3f[SAMPLE_COUNT];
+		hingeDirections = new Vector3f[SAMPLE_COUNT];
+		for (int i = 0; i < SAMPLE_COUNT; i++) {
+			axes[i] = randomUnitVector(random);
+			referenceAxes[i] = JomlMath.perpendicular(axes[i], new Vector3f());
+			directions[i] = randomUnitVector(random);
+			hingeDirections[i] = JomlMath.projectOntoPlane(directions[i], axes[i], new Vector3f()).normalize();
+		}
+		constraintAngle = Math.toRadians(45f);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SAMPLE_COUNT)
+	public float clampConeWithAngle() {
+		float sum = 0;
+		for (int i = 0; i < SAMPLE_COUNT; i++) {
+			Vector3f axis = axes[i];
+			Vector3f direction = this.direction.set(directions[i]);
+			if (axis.angle(direction) > constraintAngle) {
+				Vector3f correctionAxis = axis.cross(direction, this.correctionAxis).normalize();
+				axis.rotateAxis(constraintAngle, correctionAxis.x, correctionAxis.y, correctionAxis.z, direction);
+			}
+			sum += direction.x;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SAMPLE_COUNT)
+	public float clampConeTrigFree() {
+		float cos = Math.cos(constraintAngle);
+		float sin = Math.sin(constraintAngle);
+		float sum = 0;
+		for (int i = 0; i < SAMPLE_COUNT; i++) {
+			Vector3f direction = this.direction.set(directions[i]);
+			JomlMath.constrainToCone(axes[i], cos, sin, direction);
+			sum += direction.x;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SAMPLE_COUNT)
+	public float clampHingeWithSignedAngle() {
+		float sum = 0;
+		for (int i = 0; i < SAMPLE_COUNT; i++) {
+			Vector3f rotationAxis = axes[i];
+			Vector3f referenceAxis = referenceAxes[i];
+			Vector3f direction = this.direction.set(hingeDirections[i]);
+			float signedAngle = referenceAxis.angleSigned(direction, rotationAxis);
+			if (signedAngle > constraintAngle) {
+				referenceAxis.rotateAxis(constraintAngle, rotationAxis.x, rotationAxis.y, rotationAxis.z, direction);
+			}
+			else if (signedAngle < -constraintAngle) {
+				referenceAxis.rotateAxis(-constraintAngle, rotationAxis.x, rotationAxis.y, rotationAxis.z, direction);
+			}
+			sum += direction.x;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SAMPLE_COUNT)
+	public float clampHingeTrigFree() {
+		float cos = Math.cos(constraintAngle);
+		float sin = Math.sin(constraintAngle);
+		float sum = 0;
+		for (int i = 0; i < SAMPLE_COUNT; i++) {
+			Vector3f direction = this.direction.set(hingeDirections[i]);
+			JomlMath.constrainToHinge(axes[i], referenceAxes[i], cos, sin, cos, sin, direction);
+			sum += direction.x;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public float solveLocalRotorChain() {
+		return solveChain(localRotorChain);
+	}
+
+	@Benchmark
+	public float solveGlobalRotorChain() {
+		return solveChain(globalRotorChain);
+	}
+
+	@Benchmark
+	public float solveLocalHingeChain() {
+		return solveChain(localHingeChain);
+	}
+
+	@Benchmark
+	public float solveGlobalHingeChain() {
+		return solveChain(globalHingeChain);
+	}
+
+	private float solveChain(FabrikChain3f chain) {
+		// Get half the length of the chain (to ensure target can be reached)
+		float halfLength = chain.getLength() / 2f;
+
+		float x = random.nextFloat(-halfLength, halfLength);
+		float y = random.nextFloat(-halfLength, halfLength);
+		float z = random.nextFloat(-halfLength, halfLength);
+
+		return solver.solveForTarget(chain, x, y, z);
+	}
+
+	private static Vector3f randomUnitVector(Random random) {
+		Vector3f v = new Vector3f();
+		do {
+			v.set(random.nextFloat(-1f, 1f), random.nextFloat(-1f, 1f), random.nextFloat(-1f, 1f));
+		} while (v.lengthSquared() < 0.01f || v.lengthSquared() > 1f);
+		return v.normalize();
+	}
+
+}
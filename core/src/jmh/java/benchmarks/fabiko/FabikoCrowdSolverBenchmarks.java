@@ -0,0 +1,109 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.BoneConnectionPoint;
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikCrowdSolver3f;
+import com.github.elenterius.fabiko.core.FabrikStructure3f;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/// Measures how solving a crowd of structures per frame scales with the number of threads.
+///
+/// Each benchmark invocation is one frame, the score divided by the number of structures is the time per structure.
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+public class FabikoCrowdSolverBenchmarks {
+
+	@Param({"1", "2", "4", "8"})
+	public int threads = 1;
+
+	@Param({"5000"})
+	public int numberOfStructures = 5000;
+
+	ForkJoinPool pool;
+	FabrikCrowdSolver3f solver;
+
+	List<FabrikStructure3f> structures;
+	List<Vector3f> targets;
+	Random random;
+
+	@Setup
+	public void setup() {
+		pool = new ForkJoinPool(threads);
+		solver = new FabrikCrowdSolver3f(pool);
+		random = new Random(123);
+
+		structures = new ArrayList<>(numberOfStructures);
+		targets = new ArrayList<>(numberOfStructures);
+		for (int i = 0; i < numberOfStructures; i++) {
+			structures.add(createRig());
+			targets.add(new Vector3f());
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public FabrikCrowdSolver3f.Report solveCrowd() {
+		for (Vector3f target : targets) {
+			target.set(random.nextFloat(-30f, 30f), random.nextFloat(0f, 50f), random.nextFloat(-30f, 30f));
+		}
+		return solver.solveForTargets(structures, targets);
+	}
+
+	/// A spine with two legs and two arms
+	private static FabrikStructure3f createRig() {
+		Vector3fc RIGHT = new Vector3f(1f, 0f, 0f);
+		Vector3fc LEFT = new Vector3f(-1f, 0f, 0f);
+		Vector3fc UP = new Vector3f(0f, 1f, 0f);
+		Vector3fc DOWN = new Vector3f(0f, -1f, 0f);
+		Vector3fc FORWARDS = new Vector3f(0f, 0f, -1f);
+
+		FabrikStructure3f structure = new FabrikStructure3f();
+
+		FabrikChain3f.ConsecutiveBoneBuilder spine = FabrikChain3f.builder().addRotorConstrainedBaseBone(new Vector3f(), UP, 10f, Math.toRadians(30f), false);
+		for (int i = 1; i < 4; i++) {
+			spine.addRotorConstrainedBone(UP, 10f, Math.toRadians(20f), true);
+		}
+		structure.addChain(spine.build());
+
+		for (int i = 0; i < 2; i++) {
+			FabrikChain3f leg = FabrikChain3f.builder()
+					.addRotorConstrainedBaseBone(new Vector3f(), DOWN, 8f, Math.toRadians(45f), true)
+					.addHingeConstrainedBone(DOWN, 8f, RIGHT, Math.toRadians(90f), 0f, FORWARDS, true)
+					.addRotorConstrainedBone(FORWARDS, 3f, Math.toRadians(30f), true)
+					.build();
+			leg.setUseEmbeddedTarget(true);
+			leg.setEmbeddedTargetFrom(new Vector3f(i == 0 ? -5f : 5f, -16f, 0f));
+			structure.connectChain(leg, 0, 0, BoneConnectionPoint.START);
+		}
+
+		for (int i = 0; i < 2; i++) {
+			Vector3fc side = i == 0 ? LEFT : RIGHT;
+			FabrikChain3f arm = FabrikChain3f.builder()
+					.addRotorConstrainedBaseBone(new Vector3f(), side, 7f, Math.toRadians(60f), true)
+					.addHingeConstrainedBone(side, 7f, UP, Math.toRadians(120f), 0f, FORWARDS, true)
+					.addRotorConstrainedBone(side, 2f, Math.toRadians(60f), true)
+					.build();
+			structure.connectChain(arm, 0, 3);
+		}
+
+		return structure;
+	}
+
+}
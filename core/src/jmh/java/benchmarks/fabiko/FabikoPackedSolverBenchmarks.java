@@ -0,0 +1,110 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikPackedChain3f;
+import com.github.elenterius.fabiko.core.FabrikPackedSolver3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.fabiko.BenchmarkChains.RIGHT;
+import static benchmarks.fabiko.BenchmarkChains.createFreelyRotatingHingeChain;
+import static benchmarks.fabiko.BenchmarkChains.createRotorChain;
+
+/// Compares the object based [FabrikSolver3f] with the structure-of-arrays based [FabrikPackedSolver3f].
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 50, time = 5, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoPackedSolverBenchmarks {
+
+	@Param({"10", "100", "200", "300", "400", "500", "600", "700", "800", "900", "1000"})
+	public int numberOfBones = 100;
+
+	Random random;
+
+	FabrikSolver3f solver;
+	FabrikPackedSolver3f packedSolver;
+
+	FabrikChain3f unconstrainedChain;
+	FabrikChain3f rotorConstrainedChain;
+	FabrikChain3f localHingeConstrainedChain;
+
+	FabrikPackedChain3f packedUnconstrainedChain;
+	FabrikPackedChain3f packedRotorConstrainedChain;
+	FabrikPackedChain3f packedLocalHingeConstrainedChain;
+
+	@Setup
+	public void setup() {
+		random = new Random(123);
+
+		solver = new FabrikSolver3f();
+		packedSolver = new FabrikPackedSolver3f();
+
+		float boneLength = 10f;
+		unconstrainedChain = createRotorChain(numberOfBones, boneLength, (float) Math.PI);
+		rotorConstrainedChain = createRotorChain(numberOfBones, boneLength, (float) Math.toRadians(45));
+		localHingeConstrainedChain = createFreelyRotatingHingeChain(numberOfBones, boneLength, RIGHT, true);
+
+		packedUnconstrainedChain = FabrikPackedChain3f.from(createRotorChain(numberOfBones, boneLength, (float) Math.PI));
+		packedRotorConstrainedChain = FabrikPackedChain3f.from(createRotorChain(numberOfBones, boneLength, (float) Math.toRadians(45)));
+		packedLocalHingeConstrainedChain = FabrikPackedChain3f.from(createFreelyRotatingHingeChain(numberOfBones, boneLength, RIGHT, true));
+	}
+
+	@Benchmark
+	public float solveUnconstrainedChain() {
+		return solveChain(unconstrainedChain);
+	}
+
+	@Benchmark
+	public float solvePackedUnconstrainedChain() {
+		return solveChain(packedUnconstrainedChain);
+	}
+
+	@Benchmark
+	public float solveRotorConstrainedChain() {
+		return solveChain(rotorConstrainedChain);
+	}
+
+	@Benchmark
+	public float solvePackedRotorConstrainedChain() {
+		return solveChain(packedRotorConstrainedChain);
+	}
+
+	@Benchmark
+	public float solveLocalHingeConstrainedChain() {
+		return solveChain(localHingeConstrainedChain);
+	}
+
+	@Benchmark
+	public float solvePackedLocalHingeConstrainedChain() {
+		return solveChain(packedLocalHingeConstrainedChain);
+	}
+
+	private float solveChain(FabrikChain3f chain) {
+		// Get half the length of the chain (to ensure target can be reached)
+		float halfLength = chain.getLength() / 2f;
+
+		float x = random.nextFloat(-halfLength, halfLength);
+		float y = random.nextFloat(-halfLength, halfLength);
+		float z = random.nextFloat(-halfLength, halfLength);
+
+		return solver.solveForTarget(chain, x, y, z);
+	}
+
+	private float solveChain(FabrikPackedChain3f chain) {
+		// Get half the length of the chain (to ensure target can be reached)
+		float halfLength = chain.getLength() / 2f;
+
+		float x = random.nextFloat(-halfLength, halfLength);
+		float y = random.nextFloat(-halfLength, halfLength);
+		float z = random.nextFloat(-halfLength, halfLength);
+
+		return packedSolver.solveForTarget(chain, x, y, z);
+	}
+
+}
@@ -0,0 +1,78 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Measures how many frames per second a [FabrikPoseRecorder] records and a [FabrikPoseRecording] reads back in random
+/// order. The rig has 16 chains with 4 bones each.
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoPoseRecorderBenchmarks {
+
+	private static final Vector3fc UP = new Vector3f(0, 1, 0);
+	private static final int CHAIN_COUNT = 16;
+	private static final int BONES_PER_CHAIN = 4;
+
+	/// one hour at 60 Hz
+	private static final int FRAME_CAPACITY = 60 * 60 * 60;
+
+	Random random;
+	FabrikStructure3f structure;
+	Path file;
+	FabrikPoseRecorder recorder;
+	FabrikPoseRecording recording;
+
+	@Setup
+	public void setup() throws IOException {
+		random = new Random(123);
+
+		structure = new FabrikStructure3f();
+		for (int i = 0; i < CHAIN_COUNT; i++) {
+			FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder()
+					.addRotorConstrainedBaseBone(new Vector3f(i, 0, 0), UP, 10f, Math.toRadians(45f), true);
+			for (int j = 1; j < BONES_PER_CHAIN; j++) {
+				builder.addRotorConstrainedBone(UP, 10f, Math.toRadians(45f), true);
+			}
+			structure.addChain(builder.build());
+		}
+
+		file = Files.createTempFile("fabiko-poses", ".rec");
+		recorder = FabrikPoseRecorder.create(file, structure, FRAME_CAPACITY);
+		for (int i = 0; i < FRAME_CAPACITY; i++) {
+			recorder.record(structure);
+		}
+		recording = FabrikPoseRecording.open(file);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		recorder.close();
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public long recordFrame() {
+		return recorder.record(structure);
+	}
+
+	@Benchmark
+	public FabrikStructure3f readRandomFrame() {
+		long frameCount = recording.getFrameCount();
+		recording.readFrame(frameCount - 1 - random.nextInt(FRAME_CAPACITY), structure);
+		return structure;
+	}
+
+}
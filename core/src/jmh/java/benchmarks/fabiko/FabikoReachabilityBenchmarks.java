@@ -0,0 +1,70 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikReachabilityVolume;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.fabiko.BenchmarkChains.createRotorChain;
+
+/// Compares checking whether a target can be reached by solving the chain with querying a precomputed
+/// [FabrikReachabilityVolume].
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 50, time = 5, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoReachabilityBenchmarks {
+
+	@Param({"10", "30"})
+	public int numberOfBones = 10;
+
+	Random random;
+	FabrikSolver3f solver;
+
+	FabrikChain3f chain;
+	FabrikReachabilityVolume volume;
+
+	Vector3f target;
+	Vector3f nearest;
+
+	@Setup
+	public void setup() {
+		random = new Random(123);
+		solver = new FabrikSolver3f();
+
+		chain = createRotorChain(numberOfBones, 10f, (float) Math.toRadians(45));
+		// 64 voxels per axis
+		volume = FabrikReachabilityVolume.compute(chain, chain.getLength() / 32f);
+
+		target = new Vector3f();
+		nearest = new Vector3f();
+	}
+
+	@Benchmark
+	public boolean solveChain() {
+		return solver.solveForTarget(chain, nextTarget()) <= volume.getTolerance();
+	}
+
+	@Benchmark
+	public boolean queryReachable() {
+		return volume.isReachable(chain.getBaseLocation(), nextTarget());
+	}
+
+	@Benchmark
+	public Vector3f queryNearestReachable() {
+		return volume.getNearestReachable(chain.getBaseLocation(), nextTarget(), nearest);
+	}
+
+	private Vector3fc nextTarget() {
+		float length = chain.getLength();
+		return target.set(random.nextFloat(-length, length), random.nextFloat(-length, length), random.nextFloat(-length, length));
+	}
+
+}
@@ -0,0 +1,110 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/// Compares building 10k rigs with the [FabrikChain3f#builder()] against loading them from a memory-mapped
+/// [rig file][FabrikRigFormat].
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoRigLoadingBenchmarks {
+
+	private static final int RIG_COUNT = 10_000;
+
+	private static final Vector3fc RIGHT = new Vector3f(1, 0, 0);
+	private static final Vector3fc LEFT = new Vector3f(-1, 0, 0);
+	private static final Vector3fc UP = new Vector3f(0, 1, 0);
+	private static final Vector3fc DOWN = new Vector3f(0, -1, 0);
+	private static final Vector3fc FORWARDS = new Vector3f(0, 0, -1);
+
+	Path file;
+	MappedByteBuffer rigs;
+
+	@Setup
+	public void setup() throws IOException {
+		FabrikStructure3f rig = createRig();
+		ByteBuffer buffer = ByteBuffer.allocate(FabrikRigFormat.getRigSize(rig) * RIG_COUNT);
+		for (int i = 0; i < RIG_COUNT; i++) {
+			FabrikRigFormat.writeRig(rig, buffer);
+		}
+
+		file = Files.createTempFile("fabiko-rigs", ".rig");
+		Files.write(file, buffer.array());
+		rigs = FabrikRigFormat.map(file);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public void buildRigs(Blackhole blackhole) {
+		for (int i = 0; i < RIG_COUNT; i++) {
+			blackhole.consume(createRig());
+		}
+	}
+
+	@Benchmark
+	public void loadRigs(Blackhole blackhole) {
+		rigs.rewind();
+		for (int i = 0; i < RIG_COUNT; i++) {
+			blackhole.consume(FabrikRigFormat.readRig(rigs));
+		}
+	}
+
+	@Benchmark
+	public void loadPackedRigs(Blackhole blackhole) {
+		rigs.rewind();
+		for (int i = 0; i < RIG_COUNT; i++) {
+			blackhole.consume(FabrikRigFormat.readPackedRig(rigs));
+		}
+	}
+
+	/// A spine with four legs and two arms
+	static FabrikStructure3f createRig() {
+		FabrikStructure3f structure = new FabrikStructure3f();
+
+		FabrikChain3f.ConsecutiveBoneBuilder spine = FabrikChain3f.builder().addRotorConstrainedBaseBone(new Vector3f(), UP, 10f, Math.toRadians(30f), false);
+		for (int i = 1; i < 4; i++) {
+			spine.addRotorConstrainedBone(UP, 10f, Math.toRadians(20f), true);
+		}
+		structure.addChain(spine.build());
+
+		for (int i = 0; i < 4; i++) {
+			FabrikChain3f leg = FabrikChain3f.builder()
+					.addRotorConstrainedBaseBone(new Vector3f(), DOWN, 8f, Math.toRadians(45f), true)
+					.addHingeConstrainedBone(DOWN, 8f, RIGHT, Math.toRadians(90f), 0f, FORWARDS, true)
+					.addRotorConstrainedBone(FORWARDS, 3f, Math.toRadians(30f), true)
+					.build();
+			structure.connectChain(leg, 0, i < 2 ? 0 : 1, BoneConnectionPoint.START);
+		}
+
+		for (int i = 0; i < 2; i++) {
+			FabrikChain3f arm = FabrikChain3f.builder()
+					.addHingeConstrainedBaseBone(new Vector3f(), i == 0 ? LEFT : RIGHT, 7f, FORWARDS, 1f, 1f, UP, true)
+					.addHingeConstrainedBone(i == 0 ? LEFT : RIGHT, 7f, UP, Math.toRadians(120f), 0f, FORWARDS, true)
+					.addRotorConstrainedBone(i == 0 ? LEFT : RIGHT, 2f, Math.toRadians(60f), true)
+					.build();
+			structure.connectChain(arm, 0, 3);
+		}
+
+		return structure;
+	}
+
+}
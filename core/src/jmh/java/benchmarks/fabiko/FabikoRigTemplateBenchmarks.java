@@ -0,0 +1,101 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Compares spawning 100k instances of a [FabrikRigTemplate] against building a [FabrikStructure3f] per instance, and
+/// solving instances against solving structures.
+///
+/// Run with the gc profiler (`-prof gc` or `profilers.add("gc")` in the jmh block of `core/build.gradle.kts`) to compare
+/// the memory footprint, the spawned instances and built structures are all reachable at the end of an operation, so
+/// `gc.alloc.rate.norm` divided by 100k is the footprint of a single instance or structure.
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoRigTemplateBenchmarks {
+
+	private static final int SPAWN_COUNT = 100_000;
+	private static final int SOLVE_COUNT = 1_000;
+
+	FabrikRigTemplate template;
+	FabrikRigSolver3f rigSolver;
+	FabrikSolver3f solver;
+
+	FabrikRigInstance[] instances;
+	FabrikStructure3f[] structures;
+	float[] solveDistances;
+	Vector3f[] targets;
+	int frame;
+
+	@Setup
+	public void setup() {
+		template = FabrikRigTemplate.of(FabikoRigLoadingBenchmarks.createRig());
+		rigSolver = new FabrikRigSolver3f(template);
+		solver = new FabrikSolver3f();
+
+		instances = template.spawn(SOLVE_COUNT);
+		structures = new FabrikStructure3f[SOLVE_COUNT];
+		for (int i = 0; i < SOLVE_COUNT; i++) {
+			structures[i] = FabikoRigLoadingBenchmarks.createRig();
+		}
+		solveDistances = new float[template.getChainCount()];
+
+		Random random = new Random(123);
+		targets = new Vector3f[SOLVE_COUNT];
+		for (int i = 0; i < SOLVE_COUNT; i++) {
+			targets[i] = new Vector3f(random.nextFloat(-20f, 20f), random.nextFloat(0f, 40f), random.nextFloat(-20f, 20f));
+		}
+	}
+
+	@Benchmark
+	public FabrikStructure3f[] buildStructures() {
+		FabrikStructure3f[] structures = new FabrikStructure3f[SPAWN_COUNT];
+		for (int i = 0; i < SPAWN_COUNT; i++) {
+			structures[i] = FabikoRigLoadingBenchmarks.createRig();
+		}
+		return structures;
+	}
+
+	@Benchmark
+	public FabrikRigInstance[] spawnInstances() {
+		return template.spawn(SPAWN_COUNT);
+	}
+
+	@Benchmark
+	public FabrikRigInstance[] spawnInstancesOneByOne() {
+		FabrikRigInstance[] instances = new FabrikRigInstance[SPAWN_COUNT];
+		for (int i = 0; i < SPAWN_COUNT; i++) {
+			instances[i] = template.spawn();
+		}
+		return instances;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public float[] solveStructures() {
+		// alternate between two targets per structure, so that no structure is already solved
+		int offset = frame++ & 1;
+		for (int i = 0; i < SOLVE_COUNT; i++) {
+			solver.solveForTarget(structures[i], targets[(i + offset) % SOLVE_COUNT], solveDistances);
+		}
+		return solveDistances;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public float[] solveInstances() {
+		int offset = frame++ & 1;
+		for (int i = 0; i < SOLVE_COUNT; i++) {
+			rigSolver.solveForTarget(instances[i], targets[(i + offset) % SOLVE_COUNT], solveDistances);
+		}
+		return solveDistances;
+	}
+
+}
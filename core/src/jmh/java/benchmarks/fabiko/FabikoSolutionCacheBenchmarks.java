@@ -0,0 +1,75 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolutionCache;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.fabiko.BenchmarkChains.createRotorChain;
+
+/// Compares solving a chain for targets near a few recurring points (e.g. doors, levers and ledges an agent reaches
+/// for) with and without a [FabrikSolutionCache].
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 50, time = 5, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoSolutionCacheBenchmarks {
+
+	@Param({"10", "30"})
+	public int numberOfBones = 10;
+
+	/// the number of recurring points, the cache holds 64 poses
+	@Param({"16", "256"})
+	public int numberOfPoints = 16;
+
+	Random random;
+	FabrikSolver3f solver;
+
+	FabrikChain3f chain;
+	FabrikChain3f cachedChain;
+
+	Vector3f[] points;
+	Vector3f target;
+
+	@Setup
+	public void setup() {
+		random = new Random(123);
+		solver = new FabrikSolver3f();
+
+		chain = createRotorChain(numberOfBones, 10f, (float) Math.toRadians(45));
+		cachedChain = createRotorChain(numberOfBones, 10f, (float) Math.toRadians(45));
+		cachedChain.setSolutionCache(new FabrikSolutionCache(64, 0.25f));
+
+		// half the length of the chain ensures the points can be reached
+		float halfLength = chain.getLength() / 2f;
+		points = new Vector3f[numberOfPoints];
+		for (int i = 0; i < numberOfPoints; i++) {
+			points[i] = new Vector3f(random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength));
+		}
+		target = new Vector3f();
+	}
+
+	@Benchmark
+	public float solveChain() {
+		return solver.solveForTarget(chain, nextTarget());
+	}
+
+	@Benchmark
+	public float solveCachedChain() {
+		return solver.solveForTarget(cachedChain, nextTarget());
+	}
+
+	/// @return a target within a few millimeters of a random point
+	private Vector3fc nextTarget() {
+		Vector3f point = points[random.nextInt(points.length)];
+		return target.set(point).add(random.nextFloat(-0.01f, 0.01f), random.nextFloat(-0.01f, 0.01f), random.nextFloat(-0.01f, 0.01f));
+	}
+
+}
@@ -0,0 +1,108 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.FabrikStructure3f;
+import org.joml.Math;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.fabiko.BenchmarkChains.RIGHT;
+import static benchmarks.fabiko.BenchmarkChains.UP;
+import static benchmarks.fabiko.BenchmarkChains.createFreelyRotatingHingeChain;
+import static benchmarks.fabiko.BenchmarkChains.createRotorChain;
+import static benchmarks.fabiko.BenchmarkChains.createUnconstrainedChain;
+
+/// Fabiko counterpart of [benchmarks.caliko.CalikoSolverBenchmarks], both use the same chains, params and targets.
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 50, time = 5, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoSolverBenchmarks {
+
+	@Param({"2", "3", "4", "10", "100", "200", "300", "400", "500", "600", "700", "800", "900", "1000"})
+	public int numberOfBones = 100;
+
+	Random random;
+	FabrikSolver3f solver;
+
+	FabrikChain3f unconstrained3dChain;
+	FabrikChain3f rotor45degConstrained3dChain;
+	FabrikChain3f rotor90degConstrained3dChain;
+	FabrikChain3f localHingeConstrainedChain;
+	FabrikChain3f globalHingeConstrainedChain;
+
+	FabrikStructure3f structure;
+	float[] structureSolveDistances;
+
+	@Setup
+	public void setup() {
+		random = new Random(123);
+		solver = new FabrikSolver3f();
+
+		float boneLength = 10f;
+		unconstrained3dChain = createUnconstrainedChain(numberOfBones, boneLength);
+		rotor45degConstrained3dChain = createRotorChain(numberOfBones, boneLength, Math.PI_f, Math.toRadians(45f), true);
+		rotor90degConstrained3dChain = createRotorChain(numberOfBones, boneLength, Math.PI_f, Math.toRadians(90f), true);
+		localHingeConstrainedChain = createFreelyRotatingHingeChain(numberOfBones, boneLength, RIGHT, true);
+		globalHingeConstrainedChain = createFreelyRotatingHingeChain(numberOfBones, boneLength, UP, false);
+
+		structure = new FabrikStructure3f();
+		structure.addChain(createRotorChain(numberOfBones, boneLength, Math.PI_f, Math.toRadians(45f), true));
+		structure.connectChain(createRotorChain(numberOfBones, boneLength, Math.PI_f, Math.toRadians(45f), true), 0, numberOfBones / 2);
+		structure.connectChain(createFreelyRotatingHingeChain(numberOfBones, boneLength, RIGHT, true), 0, numberOfBones - 1);
+		structureSolveDistances = new float[structure.getChainCount()];
+	}
+
+	@Benchmark
+	public float solveUnconstrainedChain() {
+		return solveChain(unconstrained3dChain);
+	}
+
+	@Benchmark
+	public float solveRotor45degConstrainedChain() {
+		return solveChain(rotor45degConstrained3dChain);
+	}
+
+	@Benchmark
+	public float solveRotor90degConstrainedChain() {
+		return solveChain(rotor90degConstrained3dChain);
+	}
+
+	@Benchmark
+	public float solveLocalHingeConstrainedChain() {
+		return solveChain(localHingeConstrainedChain);
+	}
+
+	@Benchmark
+	public float solveGlobalHingeConstrainedChain() {
+		return solveChain(globalHingeConstrainedChain);
+	}
+
+	@Benchmark
+	public float[] solveStructure() {
+		float halfLength = structure.getChain(0).getLength() / 2f;
+
+		float x = random.nextFloat(-halfLength, halfLength);
+		float y = random.nextFloat(-halfLength, halfLength);
+		float z = random.nextFloat(-halfLength, halfLength);
+
+		return solver.solveForTarget(structure, x, y, z, structureSolveDistances);
+	}
+
+	private float solveChain(FabrikChain3f chain) {
+		// Get half the length of the chain (to ensure target can be reached)
+		float halfLength = chain.getLength() / 2f;
+
+		float x = random.nextFloat(-halfLength, halfLength);
+		float y = random.nextFloat(-halfLength, halfLength);
+		float z = random.nextFloat(-halfLength, halfLength);
+
+		return solver.solveForTarget(chain, x, y, z);
+	}
+
+}
@@ -0,0 +1,101 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.FabrikStructure3f;
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.fabiko.BenchmarkChains.createRotorChain;
+
+/// Measures the overhead of the JFR events emitted by the [FabrikSolver3f].
+///
+/// - `none`: no flight recording is running, the solver doesn't create any events
+/// - `disabled`: a flight recording is running, but the solver events are disabled, the solver doesn't create any events
+/// - `enabled`: a flight recording is running and records the solver events
+///
+/// `none` should be within noise of the same benchmarks in [FabikoAllocationBenchmarks].
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 20, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoSolverEventBenchmarks {
+
+	@Param({"none", "disabled", "enabled"})
+	public String recording = "none";
+
+	@Param({"10"})
+	public int numberOfBones = 10;
+
+	Random random;
+	FabrikSolver3f solver;
+	Recording flightRecording;
+
+	FabrikChain3f chain;
+	FabrikStructure3f structure;
+	float[] structureSolveDistances;
+
+	@Setup
+	public void setup() {
+		random = new Random(123);
+		solver = new FabrikSolver3f();
+
+		chain = createRotorChain(numberOfBones, 10f, (float) Math.toRadians(45));
+
+		structure = new FabrikStructure3f();
+		structure.addChain(createRotorChain(numberOfBones, 10f, (float) Math.toRadians(45)));
+		structure.connectChain(createRotorChain(numberOfBones, 10f, (float) Math.toRadians(45)), 0, numberOfBones / 2);
+		structure.connectChain(createRotorChain(numberOfBones, 10f, (float) Math.toRadians(45)), 0, numberOfBones - 1);
+		structureSolveDistances = new float[structure.getChainCount()];
+
+		if (!recording.equals("none")) {
+			flightRecording = new Recording();
+			if (recording.equals("enabled")) {
+				flightRecording.enable("fabiko.ChainSolve");
+				flightRecording.enable("fabiko.StructureSolve");
+			}
+			else {
+				flightRecording.disable("fabiko.ChainSolve");
+				flightRecording.disable("fabiko.StructureSolve");
+			}
+			flightRecording.setToDisk(false);
+			flightRecording.start();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (flightRecording != null) {
+			flightRecording.close();
+		}
+	}
+
+	@Benchmark
+	public float solveChain() {
+		// Get half the length of the chain (to ensure target can be reached)
+		float halfLength = chain.getLength() / 2f;
+
+		float x = random.nextFloat(-halfLength, halfLength);
+		float y = random.nextFloat(-halfLength, halfLength);
+		float z = random.nextFloat(-halfLength, halfLength);
+
+		return solver.solveForTarget(chain, x, y, z);
+	}
+
+	@Benchmark
+	public float[] solveStructure() {
+		float halfLength = structure.getChain(0).getLength() / 2f;
+
+		float x = random.nextFloat(-halfLength, halfLength);
+		float y = random.nextFloat(-halfLength, halfLength);
+		float z = random.nextFloat(-halfLength, halfLength);
+
+		return solver.solveForTarget(structure, x, y, z, structureSolveDistances);
+	}
+
+}
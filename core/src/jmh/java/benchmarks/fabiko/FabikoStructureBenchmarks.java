@@ -0,0 +1,84 @@
+package benchmarks.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.FabrikStructure3f;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Measures solving rigs with many short chains, with and without [freezing][FabrikStructure3f#freeze()] the structure.
+///
+/// [#solveIdleStructure()] solves the structure for the same target every time, which only checks that no chain moved.
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 20, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(2)
+public class FabikoStructureBenchmarks {
+
+	private static final Vector3fc UP = new Vector3f(0, 1, 0);
+	private static final Vector3fc RIGHT = new Vector3f(1, 0, 0);
+	private static final int BONES_PER_CHAIN = 3;
+	private static final Vector3fc IDLE_TARGET = new Vector3f(10f, 20f, 5f);
+
+	@Param({"4", "16", "64"})
+	public int numberOfChains = 16;
+
+	@Param({"false", "true"})
+	public boolean frozen;
+
+	Random random;
+	FabrikSolver3f solver;
+	FabrikStructure3f structure;
+	float[] solveDistances;
+	final Vector3f target = new Vector3f();
+
+	@Setup
+	public void setup() {
+		random = new Random(123);
+		solver = new FabrikSolver3f();
+
+		// every chain is connected to a random bone of a random chain added before it
+		structure = new FabrikStructure3f();
+		structure.addChain(createChain(UP));
+		for (int i = 1; i < numberOfChains; i++) {
+			structure.connectChain(createChain(i % 2 == 0 ? UP : RIGHT), random.nextInt(i), random.nextInt(BONES_PER_CHAIN));
+		}
+
+		if (frozen) {
+			structure.freeze();
+		}
+
+		solveDistances = new float[numberOfChains];
+	}
+
+	@Benchmark
+	public float[] solveStructure() {
+		float halfLength = BONES_PER_CHAIN * 10f;
+		target.set(random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength));
+		return solver.solveForTarget(structure, target, solveDistances);
+	}
+
+	@Benchmark
+	public float[] solveIdleStructure() {
+		return solver.solveForTarget(structure, IDLE_TARGET, solveDistances);
+	}
+
+	private static FabrikChain3f createChain(Vector3fc direction) {
+		FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), direction, 10f, Math.toRadians(45f), true);
+
+		for (int i = 1; i < BONES_PER_CHAIN; i++) {
+			builder.addHingeConstrainedBone(direction, 10f, direction == UP ? RIGHT : UP, Math.toRadians(90f), Math.toRadians(45f), direction, true);
+		}
+
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,19 @@
+package com.github.elenterius.fabiko.core;
+
+/// Runs the FABRIK passes over the lanes of a [FabrikChainBatch3f], used by the [FabrikBatchSolver3f].
+///
+/// Only the bone locations are stored, the bone directions are derived from the locations whenever they are needed,
+/// which yields the same directions as the [FabrikPackedSolver3f] stores after every change of a location.
+interface BatchKernel {
+
+	/// Run one forward and one backward pass for at least every [active][FabrikChainBatch3f#active] lane and store the
+	/// distance of each end effector to its target in [FabrikChainBatch3f#iterationDistances].
+	///
+	/// Inactive lanes may be solved as well, their results are discarded.
+	void solveIteration(FabrikChainBatch3f batch);
+
+	/// Snapshot the locations of every [improved][FabrikChainBatch3f#improved] lane into
+	/// [FabrikChainBatch3f#bestSolution].
+	void storeBestSolution(FabrikChainBatch3f batch);
+
+}
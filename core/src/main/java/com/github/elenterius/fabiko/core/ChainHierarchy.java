@@ -0,0 +1,112 @@
+package com.github.elenterius.fabiko.core;
+
+import java.util.Arrays;
+
+/// The host → child dependency graph of the chains in a [FabrikStructure3f].
+///
+/// A chain connected to a host chain can only be solved after its host chain was solved,
+/// chains in different branches of the graph don't depend on each other.
+///
+/// The hierarchy is a snapshot of the structure at the time it was built, use [#isValidFor(FabrikStructure3f)] to
+/// check whether the structure was modified since then.
+final class ChainHierarchy {
+
+	private static final int[] NO_CHILDREN = new int[0];
+
+	private final FabrikChain3f[] chains;
+	private final int[] hostIndices;
+	private final int[] rootIndices;
+	private final int[][] childIndices;
+
+	private ChainHierarchy(FabrikChain3f[] chains, int[] hostIndices, int[] rootIndices, int[][] childIndices) {
+		this.chains = chains;
+		this.hostIndices = hostIndices;
+		this.rootIndices = rootIndices;
+		this.childIndices = childIndices;
+	}
+
+	/// @throws IllegalStateException if the structure isn't [frozen][FabrikStructure3f#freeze()] and a chain is connected to
+	///                               a chain which doesn't precede it in the structure
+	static ChainHierarchy of(FabrikStructure3f structure) {
+		int chainCount = structure.getChainCount();
+		// frozen structures are solved in the topological order of their solve plan, which rejects connection cycles
+		boolean hostsPrecedeChains = !structure.isFrozen();
+
+		FabrikChain3f[] chains = new FabrikChain3f[chainCount];
+		int[] hostIndices = new int[chainCount];
+		int[] childCounts = new int[chainCount];
+		int rootCount = 0;
+
+		for (int i = 0; i < chainCount; i++) {
+			FabrikChain3f chain = structure.getChain(i);
+			int hostIndex = chain.getConnectedToChainId();
+
+			// the sequential solve order requires host chains to be solved before the chains connected to them
+			if (hostsPrecedeChains && (hostIndex >= i || hostIndex < -1)) {
+				throw new IllegalStateException("Chain " + i + " is connected to chain " + hostIndex + " which doesn't precede it in the structure.");
+			}
+
+			chains[i] = chain;
+			hostIndices[i] = hostIndex;
+			if (hostIndex == -1) {
+				rootCount++;
+			}
+			else {
+				childCounts[hostIndex]++;
+			}
+		}
+
+		int[] rootIndices = new int[rootCount];
+		int[][] childIndices = new int[chainCount][];
+		for (int i = 0; i < chainCount; i++) {
+			childIndices[i] = childCounts[i] == 0 ? NO_CHILDREN : new int[childCounts[i]];
+		}
+
+		Arrays.fill(childCounts, 0);
+		rootCount = 0;
+		for (int i = 0; i < chainCount; i++) {
+			int hostIndex = hostIndices[i];
+			if (hostIndex == -1) {
+				rootIndices[rootCount++] = i;
+			}
+			else {
+				childIndices[hostIndex][childCounts[hostIndex]++] = i;
+			}
+		}
+
+		return new ChainHierarchy(chains, hostIndices, rootIndices, childIndices);
+	}
+
+	boolean isValidFor(FabrikStructure3f structure) {
+		if (structure.getChainCount() != chains.length) return false;
+
+		for (int i = 0; i < chains.length; i++) {
+			FabrikChain3f chain = structure.getChain(i);
+			if (chain != chains[i] || chain.getConnectedToChainId() != hostIndices[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	int getChainCount() {
+		return chains.length;
+	}
+
+	/// @return the index of the host chain or `-1` if the chain isn't connected to another chain
+	int getHostIndex(int chainIndex) {
+		return hostIndices[chainIndex];
+	}
+
+	/// @return the indices of all chains which aren't connected to another chain, in ascending order
+	int[] getRootIndices() {
+		return rootIndices;
+	}
+
+	/// @return the indices of all chains directly connected to the given chain, in ascending order
+	int[] getChildIndices(int chainIndex) {
+		return childIndices[chainIndex];
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.Arrays;
+
+/// A [FabrikChain3f] compiled for the [FabrikSolver3f].
+///
+/// Consecutive bones with the same kind of joint are grouped into runs and the constraint parameters of their joints are
+/// copied into primitive arrays. The solver handles each run with a loop specialized for its joint type instead of
+/// dispatching on the joint of every bone.
+///
+/// A plan is a snapshot of the bones and joints of a chain, [#isUpToDate(FabrikChain3f)] detects when a bone or joint
+/// was replaced or a joint parameter changed since the plan was compiled, see [FabrikChain3f#getSolvePlan()].
+final class ChainSolvePlan {
+
+	/// local or global rotor, both are constrained about the direction of the previous bone
+	static final byte ROTOR = 0;
+	static final byte LOCAL_HINGE = 1;
+	static final byte GLOBAL_HINGE = 2;
+	/// joint the solver doesn't know, only allowed for the base bone which isn't constrained by it
+	static final byte UNCONSTRAINED = 3;
+
+	private final FabrikBone3f[] bones;
+	private final FabrikJoint3f[] joints;
+	private final int[] modificationCounts;
+
+	/// Run `r` covers the bones from `runStarts[r]` (inclusive) to `runStarts[r + 1]` (exclusive).
+	final int[] runStarts;
+	final byte[] runTypes;
+
+	/// Layout: `[clockwise, anticlockwise]` per bone for hinges, `[rotor, rotor]` per bone for rotors.
+	final float[] cosines;
+	/// Layout: `[clockwise, anticlockwise]` per bone for hinges, `[rotor, rotor]` per bone for rotors.
+	final float[] sines;
+	/// Hinge axes, layout: `[rotationX, rotationY, rotationZ, referenceX, referenceY, referenceZ]` per bone.
+	final float[] axes;
+	final boolean[] constrained;
+
+	private ChainSolvePlan(FabrikBone3f[] bones) {
+		int boneCount = bones.length;
+		this.bones = bones.clone();
+		joints = new FabrikJoint3f[boneCount];
+		modificationCounts = new int[boneCount];
+		cosines = new float[boneCount * 2];
+		sines = new float[boneCount * 2];
+		axes = new float[boneCount * 6];
+		constrained = new boolean[boneCount];
+
+		int[] starts = new int[boneCount + 1];
+		byte[] types = new byte[boneCount];
+		int runCount = 0;
+
+		for (int i = 0; i < boneCount; i++) {
+			FabrikJoint3f joint = bones[i].getJoint();
+			joints[i] = joint;
+			modificationCounts[i] = modificationCount(joint);
+
+			byte type = compileJoint(joint, i);
+			if (type == UNCONSTRAINED && i > 0) {
+				throw new IllegalStateException("Unexpected value: " + joint);
+			}
+
+			if (runCount == 0 || types[runCount - 1] != type) {
+				starts[runCount] = i;
+				types[runCount] = type;
+				runCount++;
+			}
+		}
+
+		starts[runCount] = boneCount;
+		runStarts = Arrays.copyOf(starts, runCount + 1);
+		runTypes = Arrays.copyOf(types, runCount);
+	}
+
+	/// @throws IllegalStateException if a bone other than the base bone has a joint unknown to the solver
+	static ChainSolvePlan compile(FabrikChain3f chain) {
+		return new ChainSolvePlan(chain.bones);
+	}
+
+	/// @return `false` if a bone or joint of the chain was replaced or a joint was modified since this plan was compiled
+	boolean isUpToDate(FabrikChain3f chain) {
+		FabrikBone3f[] chainBones = chain.bones;
+		if (chainBones.length != bones.length) return false;
+
+		for (int i = 0; i < bones.length; i++) {
+			if (chainBones[i] != bones[i]) return false;
+
+			FabrikJoint3f joint = bones[i].getJoint();
+			if (joint != joints[i] || modificationCount(joint) != modificationCounts[i]) return false;
+		}
+
+		return true;
+	}
+
+	int getRunCount() {
+		return runTypes.length;
+	}
+
+	Vector3f getRotationAxis(int boneIndex, Vector3f dest) {
+		int offset = boneIndex * 6;
+		return dest.set(axes[offset], axes[offset + 1], axes[offset + 2]);
+	}
+
+	Vector3f getReferenceAxis(int boneIndex, Vector3f dest) {
+		int offset = boneIndex * 6 + 3;
+		return dest.set(axes[offset], axes[offset + 1], axes[offset + 2]);
+	}
+
+	private byte compileJoint(FabrikJoint3f joint, int boneIndex) {
+		return switch (joint) {
+			case FabrikJoint3f.Rotor rotor -> {
+				cosines[boneIndex * 2] = rotor.getConstraintCos();
+				cosines[boneIndex * 2 + 1] = rotor.getConstraintCos();
+				sines[boneIndex * 2] = rotor.getConstraintSin();
+				sines[boneIndex * 2 + 1] = rotor.getConstraintSin();
+				constrained[boneIndex] = rotor.isConstrained();
+				yield ROTOR;
+			}
+			case FabrikJoint3f.LocalHinge hinge -> {
+				compileHinge(hinge, boneIndex);
+				yield LOCAL_HINGE;
+			}
+			case FabrikJoint3f.GlobalHinge hinge -> {
+				compileHinge(hinge, boneIndex);
+				yield GLOBAL_HINGE;
+			}
+			default -> UNCONSTRAINED;
+		};
+	}
+
+	private void compileHinge(FabrikJoint3f.Hinge hinge, int boneIndex) {
+		cosines[boneIndex * 2] = hinge.getClockwiseConstraintCos();
+		cosines[boneIndex * 2 + 1] = hinge.getAntiClockwiseConstraintCos();
+		sines[boneIndex * 2] = hinge.getClockwiseConstraintSin();
+		sines[boneIndex * 2 + 1] = hinge.getAntiClockwiseConstraintSin();
+		setAxis(boneIndex * 6, hinge.getRotationAxis());
+		setAxis(boneIndex * 6 + 3, hinge.getReferenceAxis());
+		constrained[boneIndex] = hinge.isConstrained();
+	}
+
+	private void setAxis(int offset, Vector3fc axis) {
+		axes[offset] = axis.x();
+		axes[offset + 1] = axis.y();
+		axes[offset + 2] = axis.z();
+	}
+
+	private static int modificationCount(FabrikJoint3f joint) {
+		return switch (joint) {
+			case FabrikJoint3f.Rotor rotor -> rotor.modificationCount;
+			case FabrikJoint3f.Hinge hinge -> hinge.modificationCount;
+			default -> 0;
+		};
+	}
+
+}
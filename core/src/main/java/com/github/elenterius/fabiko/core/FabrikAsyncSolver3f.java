@@ -0,0 +1,146 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/// Solves [chains][FabrikChain3f] and [structures][FabrikStructure3f] asynchronously on an [Executor].
+///
+/// Solves of the same chain or structure are executed one after another in submission order, solves of different
+/// chains or structures run in parallel. Callers therefore don't need any locking as long as they don't modify a chain
+/// or structure while a solve of it is pending.
+///
+/// A chain which is part of a structure must be solved through its structure, submitting the chain on its own doesn't
+/// serialize it with solves of the structure.
+///
+/// The executor can be a virtual thread executor ([#ofVirtualThreads()]) or a bounded pool of platform threads
+/// ([#ofPlatformThreads(int)]), solver instances are pooled and reused across tasks either way.
+/// Executors created by these factory methods are owned by the async solver and shut down by [#close()].
+public class FabrikAsyncSolver3f implements AutoCloseable {
+
+	private static final CompletableFuture<?> IDLE = CompletableFuture.completedFuture(null);
+
+	private final Executor executor;
+	private final boolean ownsExecutor;
+
+	/// The last pending solve of each chain or structure, keyed by identity.
+	private final Map<Object, CompletableFuture<?>> pendingSolves = new ConcurrentHashMap<>();
+
+	private final ConcurrentLinkedQueue<FabrikSolver3f> idleSolvers = new ConcurrentLinkedQueue<>();
+
+	/// @param executor executes the solves, e.g. [Executors#newVirtualThreadPerTaskExecutor()] or a fixed thread pool
+	public FabrikAsyncSolver3f(Executor executor) {
+		this(executor, false);
+	}
+
+	private FabrikAsyncSolver3f(Executor executor, boolean ownsExecutor) {
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+	}
+
+	/// Create an async solver which runs every solve on a new virtual thread.
+	public static FabrikAsyncSolver3f ofVirtualThreads() {
+		return new FabrikAsyncSolver3f(Executors.newVirtualThreadPerTaskExecutor(), true);
+	}
+
+	/// Create an async solver which runs the solves on a fixed number of daemon platform threads.
+	///
+	/// @param threads the number of threads, must be positive
+	public static FabrikAsyncSolver3f ofPlatformThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Thread count must be positive but was " + threads + ".");
+		}
+		return new FabrikAsyncSolver3f(Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("fabiko-solver-", 0).daemon().factory()), true);
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/// Solve the chain for the target location once all previously submitted solves of the chain are done.
+	///
+	/// @param target is copied, so it may be modified after this method returns
+	/// @return a future completed with the result of the solve
+	public CompletableFuture<SolveResult> solveForTarget(FabrikChain3f chain, Vector3fc target) {
+		Vector3f targetCopy = new Vector3f(target);
+		return submit(chain, solver -> solver.solveForTarget(chain, targetCopy, new SolveResult()));
+	}
+
+	/// Solve the structure for the target location once all previously submitted solves of the structure are done.
+	///
+	/// @param target is copied, so it may be modified after this method returns
+	/// @return a future completed with the result of the solve
+	public CompletableFuture<SolveResult> solveForTarget(FabrikStructure3f structure, Vector3fc target) {
+		Vector3f targetCopy = new Vector3f(target);
+		return submit(structure, solver -> solver.solveForTarget(structure, targetCopy, new SolveResult(structure.getChainCount())));
+	}
+
+	/// @return the number of chains and structures with pending solves
+	public int getPendingCount() {
+		return pendingSolves.size();
+	}
+
+	private CompletableFuture<SolveResult> submit(Object key, Function<FabrikSolver3f, SolveResult> solve) {
+		CompletableFuture<SolveResult> future = new CompletableFuture<>();
+
+		pendingSolves.compute(new IdentityKey(key), (k, previous) -> {
+			CompletableFuture<?> predecessor = previous != null ? previous : IDLE;
+
+			// run after the predecessor regardless of its outcome, a failed solve must not block the following ones
+			predecessor.whenCompleteAsync((ignored, throwable) -> {
+				FabrikSolver3f solver = acquireSolver();
+				try {
+					future.complete(solve.apply(solver));
+				}
+				catch (Throwable t) {
+					future.completeExceptionally(t);
+				}
+				finally {
+					idleSolvers.offer(solver);
+				}
+			}, executor).exceptionally(throwable -> {
+				// the executor rejected the task
+				future.completeExceptionally(throwable);
+				return null;
+			});
+
+			return future;
+		});
+
+		// forget the key once its last pending solve is done
+		future.whenComplete((result, throwable) -> pendingSolves.remove(new IdentityKey(key), future));
+
+		return future.copy();
+	}
+
+	/// Shut down the executor if it was created by this async solver, already submitted solves are still completed.
+	@Override
+	public void close() {
+		if (ownsExecutor && executor instanceof ExecutorService executorService) {
+			executorService.shutdown();
+		}
+	}
+
+	private FabrikSolver3f acquireSolver() {
+		FabrikSolver3f solver = idleSolvers.poll();
+		return solver != null ? solver : new FabrikSolver3f();
+	}
+
+	private record IdentityKey(Object value) {
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof IdentityKey other && other.value == value;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(value);
+		}
+
+	}
+
+}
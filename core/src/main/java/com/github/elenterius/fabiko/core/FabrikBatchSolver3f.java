@@ -0,0 +1,248 @@
+package com.github.elenterius.fabiko.core;
+
+import com.github.elenterius.fabiko.math.JomlMath;
+import org.joml.Vector3fc;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/// Solves all chains of a [FabrikChainBatch3f] at once with the FABRIK algorithm.
+///
+/// The forward and backward passes of several chains run in the lanes of a single vector instruction using the
+/// incubating Vector API (`jdk.incubator.vector`), which has to be enabled with `--add-modules jdk.incubator.vector`.
+/// When the module isn't available the solver falls back to solving the chains one after another, both produce the same
+/// results.
+///
+/// Every chain of the batch iterates until it is solved on its own terms (solve distance threshold, minimum iteration
+/// change and maximum iteration attempts), so the result of each chain is the same as the [FabrikPackedSolver3f]
+/// produces for the chain on its own. Chains which are done keep iterating alongside the others while any chain of the
+/// same vector still iterates, their extra iterations are discarded.
+///
+/// A solver instance owns the scratch state used during solving and is therefore **not** thread-safe, use one solver
+/// per thread instead.
+public class FabrikBatchSolver3f {
+
+	/// The vector kernel is compiled separately with the incubator module and looked up reflectively, so the rest of the
+	/// library neither needs the module to compile nor links against it at runtime.
+	private static final String VECTOR_KERNEL_CLASS_NAME = "com.github.elenterius.fabiko.core.VectorBatchKernel";
+
+	/// `VectorBatchKernel.create(int)`, `null` if the Vector API isn't available
+	private static final @Nullable MethodHandle CREATE_VECTOR_KERNEL = findVectorKernelMethod("create", MethodType.methodType(BatchKernel.class, int.class));
+	/// `VectorBatchKernel.getPreferredLaneWidth()`, `null` if the Vector API isn't available
+	private static final @Nullable MethodHandle GET_PREFERRED_LANE_WIDTH = findVectorKernelMethod("getPreferredLaneWidth", MethodType.methodType(int.class));
+	private static final boolean VECTOR_API_AVAILABLE = CREATE_VECTOR_KERNEL != null && GET_PREFERRED_LANE_WIDTH != null;
+
+	private final BatchKernel kernel;
+	private final int laneWidth;
+
+	/// Create a solver which uses the widest vectors supported by the platform, or solves the chains one after another
+	/// if the Vector API isn't available.
+	public FabrikBatchSolver3f() {
+		this(getPreferredLaneWidth());
+	}
+
+	/// Create a solver which uses vectors of the given width.
+	///
+	/// Widths which are wider than the vectors supported by the platform work but are slow, since the vector instructions
+	/// are emulated.
+	///
+	/// @param laneWidth the width of the vectors in bits (64, 128, 256 or 512), or `0` to solve the chains one after
+	///                  another, falls back to `0` if the Vector API isn't available
+	public FabrikBatchSolver3f(int laneWidth) {
+		if (laneWidth != 0 && laneWidth != 64 && laneWidth != 128 && laneWidth != 256 && laneWidth != 512) {
+			throw new IllegalArgumentException("Lane width must be 0, 64, 128, 256 or 512 bits but was " + laneWidth + ".");
+		}
+
+		@Nullable MethodHandle createVectorKernel = CREATE_VECTOR_KERNEL;
+		if (laneWidth == 0 || createVectorKernel == null) {
+			kernel = new ScalarBatchKernel();
+			this.laneWidth = 0;
+		}
+		else {
+			kernel = createVectorKernel(createVectorKernel, laneWidth);
+			this.laneWidth = laneWidth;
+		}
+	}
+
+	/// @return true if the `jdk.incubator.vector` module and the vector kernel compiled against it are available
+	public static boolean isVectorApiAvailable() {
+		return VECTOR_API_AVAILABLE;
+	}
+
+	/// @return the width of the vectors in bits, `0` if the chains are solved one after another
+	public int getLaneWidth() {
+		return laneWidth;
+	}
+
+	/// Solve every chain of the batch for the same target location.
+	///
+	/// @return a new array holding the solve distance of each chain
+	public float[] solveForTarget(FabrikChainBatch3f batch, Vector3fc target) {
+		for (int lane = 0; lane < batch.stride; lane++) {
+			setTarget(batch, lane, target);
+		}
+		return solve(batch, new float[batch.laneCount]);
+	}
+
+	/// Solve every chain of the batch for the target at the same index.
+	///
+	/// @param targets the target of each chain, must have the same size as the batch has chains
+	/// @return a new array holding the solve distance of each chain
+	public float[] solveForTargets(FabrikChainBatch3f batch, List<? extends Vector3fc> targets) {
+		return solveForTargets(batch, targets, new float[batch.laneCount]);
+	}
+
+	/// Solve every chain of the batch for the target at the same index and store the solve distance of each chain in
+	/// `solveDistances`.
+	///
+	/// @param targets        the target of each chain, must have the same size as the batch has chains
+	/// @param solveDistances will hold the solve distance of each chain, must be at least as long as the chain count
+	/// @return `solveDistances`
+	public float[] solveForTargets(FabrikChainBatch3f batch, List<? extends Vector3fc> targets, float[] solveDistances) {
+		if (targets.size() != batch.laneCount) {
+			throw new IllegalArgumentException("Got " + batch.laneCount + " chains but " + targets.size() + " targets.");
+		}
+		if (solveDistances.length < batch.laneCount) {
+			throw new IllegalArgumentException("Solve distances array has length " + solveDistances.length + " but the batch has " + batch.laneCount + " chains.");
+		}
+
+		for (int lane = 0; lane < batch.stride; lane++) {
+			// the padding lanes repeat the last chain
+			setTarget(batch, lane, targets.get(Math.min(lane, batch.laneCount - 1)));
+		}
+		return solve(batch, solveDistances);
+	}
+
+	private static void setTarget(FabrikChainBatch3f batch, int lane, Vector3fc target) {
+		batch.targets[lane] = target.x();
+		batch.targets[batch.stride + lane] = target.y();
+		batch.targets[2 * batch.stride + lane] = target.z();
+	}
+
+	private float[] solve(FabrikChainBatch3f batch, float[] solveDistances) {
+		int laneCount = batch.laneCount;
+		float[] locations = batch.locations;
+
+		// every chain ends up with its best solution, or keeps its pose if it is already solved or doesn't iterate
+		System.arraycopy(locations, 0, batch.bestSolution, 0, locations.length);
+
+		int activeCount = 0;
+		for (int lane = 0; lane < batch.stride; lane++) {
+			boolean solving = lane < laneCount && !isSolved(batch, lane);
+			batch.solving[lane] = solving;
+			batch.active[lane] = solving && batch.maxIterationAttempts[lane] > 0;
+			batch.bestSolveDistances[lane] = Float.MAX_VALUE;
+			batch.prevSolveDistances[lane] = Float.MAX_VALUE;
+
+			if (solving) {
+				batch.currentSolveDistances[lane] = Float.MAX_VALUE;
+			}
+			if (batch.active[lane]) {
+				activeCount++;
+			}
+		}
+
+		for (int iteration = 0; activeCount > 0; iteration++) {
+			kernel.solveIteration(batch);
+
+			boolean anyImproved = false;
+			for (int lane = 0; lane < laneCount; lane++) {
+				batch.improved[lane] = false;
+				if (!batch.active[lane]) continue;
+
+				float solveDistance = batch.iterationDistances[lane];
+				boolean done;
+
+				if (solveDistance < batch.bestSolveDistances[lane]) {
+					batch.bestSolveDistances[lane] = solveDistance;
+					batch.currentSolveDistances[lane] = solveDistance;
+					batch.improved[lane] = true;
+					anyImproved = true;
+					done = solveDistance <= batch.solveDistanceThresholds[lane];
+				}
+				else {
+					// Did we grind to a halt? If so stop iterating this chain with the best distance and solution that we have
+					done = Math.abs(solveDistance - batch.prevSolveDistances[lane]) < batch.minIterationChanges[lane];
+				}
+
+				batch.prevSolveDistances[lane] = solveDistance;
+				if (done || iteration + 1 >= batch.maxIterationAttempts[lane]) {
+					batch.active[lane] = false;
+					activeCount--;
+				}
+			}
+
+			if (anyImproved) {
+				kernel.storeBestSolution(batch);
+			}
+		}
+
+		System.arraycopy(batch.bestSolution, 0, locations, 0, locations.length);
+
+		for (int lane = 0; lane < laneCount; lane++) {
+			if (batch.solving[lane]) {
+				copyVector(locations, batch.lastBaseLocations, lane, batch.stride);
+				copyVector(batch.targets, batch.lastTargetLocations, lane, batch.stride);
+			}
+			solveDistances[lane] = batch.currentSolveDistances[lane];
+		}
+
+		return solveDistances;
+	}
+
+	private static boolean isSolved(FabrikChainBatch3f batch, int lane) {
+		int stride = batch.stride;
+		for (int i = lane; i < 3 * stride; i += stride) {
+			if (!JomlMath.floatsAreEqual(batch.lastTargetLocations[i], batch.targets[i], 0.001f)
+					|| !JomlMath.floatsAreEqual(batch.lastBaseLocations[i], batch.locations[i], 0.001f)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/// Copy the first vector of a `[x of each lane, y of each lane, z of each lane]` array.
+	private static void copyVector(float[] src, float[] dest, int lane, int stride) {
+		dest[lane] = src[lane];
+		dest[stride + lane] = src[stride + lane];
+		dest[2 * stride + lane] = src[2 * stride + lane];
+	}
+
+	private static @Nullable MethodHandle findVectorKernelMethod(String name, MethodType type) {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+
+		try {
+			Class<?> kernelClass = Class.forName(VECTOR_KERNEL_CLASS_NAME, true, FabrikBatchSolver3f.class.getClassLoader());
+			return MethodHandles.lookup().findStatic(kernelClass, name, type);
+		}
+		catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/// @return the width in bits of the widest vectors supported by the platform, `0` if the Vector API isn't available
+	private static int getPreferredLaneWidth() {
+		@Nullable MethodHandle getPreferredLaneWidth = GET_PREFERRED_LANE_WIDTH;
+		if (getPreferredLaneWidth == null) return 0;
+
+		try {
+			return (int) getPreferredLaneWidth.invokeExact();
+		}
+		catch (Throwable e) {
+			throw new IllegalStateException("Failed to query the preferred lane width of the Vector API.", e);
+		}
+	}
+
+	private static BatchKernel createVectorKernel(MethodHandle createVectorKernel, int laneWidth) {
+		try {
+			return (BatchKernel) createVectorKernel.invokeExact(laneWidth);
+		}
+		catch (Throwable e) {
+			throw new IllegalStateException("Failed to create the vector kernel for a lane width of " + laneWidth + " bits.", e);
+		}
+	}
+
+}
@@ -13,6 +13,11 @@ public class FabrikBone3f {
 	private final Vector3f direction;
 	private final Quaternionf orientation;
 
+	/// The direction and orientation are derived from the start and end location on demand,
+	/// this allows the solver to move bones without paying for the normalization and quaternion construction each time.
+	private boolean isDirectionDirty;
+	private boolean isOrientationDirty;
+
 	private float length;
 	private FabrikJoint3f joint;
 	private BoneConnectionPoint boneConnectionPoint = BoneConnectionPoint.END;
@@ -32,7 +37,8 @@ public class FabrikBone3f {
 		this.length = length;
 
 		this.direction = new Vector3f(direction);
-		orientation = new Quaternionf().rotationTo(FabrikWorld.FORWARDS, direction);
+		orientation = new Quaternionf();
+		isOrientationDirty = true;
 
 		this.joint = joint;
 	}
@@ -48,7 +54,8 @@ public class FabrikBone3f {
 		length = startLocation.distance(endLocation);
 
 		direction = endLocation.sub(startLocation, new Vector3f()).normalize();
-		orientation = new Quaternionf().rotationTo(FabrikWorld.FORWARDS, direction);
+		orientation = new Quaternionf();
+		isOrientationDirty = true;
 
 		this.joint = joint;
 	}
@@ -58,6 +65,8 @@ public class FabrikBone3f {
 		endLocation = new Vector3f(bone.endLocation);
 		direction = new Vector3f(bone.direction);
 		orientation = new Quaternionf(bone.orientation);
+		isDirectionDirty = bone.isDirectionDirty;
+		isOrientationDirty = bone.isOrientationDirty;
 		boneConnectionPoint = bone.boneConnectionPoint;
 		length = bone.length;
 		joint = bone.joint.copy();
@@ -68,6 +77,8 @@ public class FabrikBone3f {
 		endLocation.set(bone.endLocation);
 		direction.set(bone.direction);
 		orientation.set(bone.orientation);
+		isDirectionDirty = bone.isDirectionDirty;
+		isOrientationDirty = bone.isOrientationDirty;
 		length = bone.length;
 		joint = bone.joint.copy();
 	}
@@ -82,8 +93,7 @@ public class FabrikBone3f {
 
 	void setStartLocation(Vector3fc location) {
 		startLocation.set(location);
-		direction.set(endLocation).sub(startLocation).normalize();
-		orientation.rotationTo(FabrikWorld.FORWARDS, direction);
+		markDirty();
 	}
 
 	public Vector3fc getEndLocation() {
@@ -96,21 +106,45 @@ public class FabrikBone3f {
 
 	void setEndLocation(Vector3fc location) {
 		endLocation.set(location);
-		direction.set(endLocation).sub(startLocation).normalize();
-		orientation.rotationTo(FabrikWorld.FORWARDS, direction);
+		markDirty();
+	}
+
+	void setLocations(float startX, float startY, float startZ, float endX, float endY, float endZ) {
+		startLocation.set(startX, startY, startZ);
+		endLocation.set(endX, endY, endZ);
+		markDirty();
+	}
+
+	private void markDirty() {
+		isDirectionDirty = true;
+		isOrientationDirty = true;
 	}
 
 	public float length() {
 		return length;
 	}
 
+	/// The orientation is recomputed lazily from the [direction][#getDirection()] after the bone was moved,
+	/// the returned quaternion is therefore only guaranteed to be up-to-date right after calling this method.
+	///
 	/// @return `unit` quaternion
 	public Quaternionfc getOrientation() {
+		if (isOrientationDirty) {
+			orientation.rotationTo(FabrikWorld.FORWARDS, getDirection());
+			isOrientationDirty = false;
+		}
 		return orientation;
 	}
 
+	/// The direction is recomputed lazily from the start and end location after the bone was moved,
+	/// the returned vector is therefore only guaranteed to be up-to-date right after calling this method.
+	///
 	/// @return `unit` vector
 	public Vector3fc getDirection() {
+		if (isDirectionDirty) {
+			direction.set(endLocation).sub(startLocation).normalize();
+			isDirectionDirty = false;
+		}
 		return direction;
 		//return endLocation.sub(startLocation, new Vector3f()).normalize();
 		//return orientation.transform(FabrikWorld.AWAY_FROM_SCREEN, new Vector3f());
@@ -4,6 +4,7 @@ import com.github.elenterius.fabiko.math.JomlMath;
 import org.joml.Math;
 import org.joml.Vector3f;
 import org.joml.Vector3fc;
+import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -15,6 +16,11 @@ public class FabrikChain3f {
 	protected FabrikBone3f[] bones;
 	protected float length;
 
+	/// Snapshot of the best solution found during solving, stores the start and end location of each bone.
+	///
+	/// Layout: `[startX, startY, startZ, endX, endY, endZ]` per bone.
+	protected float[] bestSolution;
+
 	/// Is a [unit][Vector3f#normalize()] vector.
 	protected Vector3f baseboneConstraint = new Vector3f();
 
@@ -32,17 +38,44 @@ public class FabrikChain3f {
 	protected int maxIterationAttempts = 20;
 	protected float minIterationChange = 0.01f;
 
+	/// The next iteration of a solve which ran out of its time or iteration budget, `-1` if no solve is pending.
+	///
+	/// A pending solve is resumed by the next budgeted solve for the same target and base location.
+	int pendingIteration = -1;
+	int pendingBestIteration = -1;
+	float pendingPrevSolveDistance = Float.MAX_VALUE;
+	/// Snapshot of the pose of the last iteration of a pending solve whose bones were moved back to the best solution,
+	/// the resumed solve continues from it. Has the same layout as [#bestSolution], allocated by the first such solve.
+	float @Nullable [] pendingSolution;
+
+	/// Compiled bones and joints of this chain, see [#getSolvePlan()].
+	private @Nullable ChainSolvePlan solvePlan;
+
+	/// Incremented whenever the bones of this chain are moved by a solve or [#markDirty()], which is called by the pose
+	/// readers.
+	///
+	/// Chains connected to this chain remember the epoch they were last solved at and are only solved again by a
+	/// structure solve when it changed, see [#isSolvedFor(FabrikChain3f, Vector3fc, Vector3fc)].
+	int poseEpoch;
+	/// The host chain and its [pose epoch][#poseEpoch] when this chain was last solved as part of a structure.
+	private @Nullable FabrikChain3f solvedHostChain;
+	private int solvedHostPoseEpoch;
+
 	protected boolean fixedBaseMode = true;
 	protected Vector3fc fixedBaseLocation = new Vector3f();
 
 	private final Vector3f embeddedTarget = new Vector3f();
 	private boolean useEmbeddedTarget = false;
 
+	/// Opt-in cache of solved poses, see [#setSolutionCache(FabrikSolutionCache)].
+	@Nullable FabrikSolutionCache solutionCache;
+
 	private int connectedToChainId = -1;
 	private int connectedToBoneIndex = -1;
 
 	public FabrikChain3f(Collection<FabrikBone3f> bones) {
 		this.bones = bones.toArray(FabrikBone3f[]::new);
+		bestSolution = new float[this.bones.length * 6];
 
 		float length = 0;
 		for (FabrikBone3f bone : bones) {
@@ -53,6 +86,7 @@ public class FabrikChain3f {
 
 	public FabrikChain3f(FabrikBone3f... bones) {
 		this.bones = Arrays.copyOf(bones, bones.length);
+		bestSolution = new float[bones.length * 6];
 
 		float length = 0;
 		for (FabrikBone3f bone : bones) {
@@ -63,6 +97,7 @@ public class FabrikChain3f {
 
 	public FabrikChain3f(FabrikChain3f chain) {
 		bones = Arrays.copyOf(chain.bones, chain.bones.length);
+		bestSolution = new float[chain.bestSolution.length];
 		length = chain.length;
 		baseboneConstraint.set(chain.baseboneConstraint);
 		baseboneRelativeConstraint.set(chain.baseboneRelativeConstraint);
@@ -73,6 +108,10 @@ public class FabrikChain3f {
 		solveDistanceThreshold = chain.solveDistanceThreshold;
 		maxIterationAttempts = chain.maxIterationAttempts;
 		minIterationChange = chain.minIterationChange;
+		pendingIteration = chain.pendingIteration;
+		pendingBestIteration = chain.pendingBestIteration;
+		pendingPrevSolveDistance = chain.pendingPrevSolveDistance;
+		pendingSolution = chain.pendingSolution != null ? chain.pendingSolution.clone() : null;
 		fixedBaseMode = chain.fixedBaseMode;
 		fixedBaseLocation = chain.fixedBaseLocation;
 		embeddedTarget.set(chain.embeddedTarget);
@@ -94,8 +133,54 @@ public class FabrikChain3f {
 		return bones[0].getStartLocation();
 	}
 
+	/// @return `true` if the chain was solved for the target location and its base location didn't move since then
 	public boolean isSolved(Vector3fc target) {
-		return lastTargetLocation.equals(target, 0.001f) && lastBaseLocation.equals(getBaseLocation(), 0.001f);
+		return pendingIteration == -1 && lastTargetLocation.equals(target, 0.001f) && lastBaseLocation.equals(getBaseLocation(), 0.001f);
+	}
+
+	/// @return `true` if the last solve, which may still be pending, was for the target location and the base location it
+	///         starts from didn't move since then
+	boolean isLastSolveFor(Vector3fc target) {
+		// in fixed base mode the base bone is only moved to the fixed base location by the next solve
+		Vector3fc baseLocation = fixedBaseMode ? fixedBaseLocation : getBaseLocation();
+		return lastTargetLocation.equals(target, 0.001f) && lastBaseLocation.equals(baseLocation, 0.001f);
+	}
+
+	/// @return `true` if this connected chain was solved for the target at the given connection point of the host chain
+	///         and the host chain didn't move since then
+	boolean isSolvedFor(FabrikChain3f hostChain, Vector3fc hostConnectionLocation, Vector3fc target) {
+		return pendingIteration == -1
+				&& solvedHostChain == hostChain
+				&& solvedHostPoseEpoch == hostChain.poseEpoch
+				&& fixedBaseLocation == hostConnectionLocation
+				&& lastTargetLocation.equals(target, 0.001f);
+	}
+
+	/// Remember the [pose epoch][#poseEpoch] of the host chain this chain was just solved for.
+	void markSolvedFor(FabrikChain3f hostChain) {
+		solvedHostChain = hostChain;
+		solvedHostPoseEpoch = hostChain.poseEpoch;
+	}
+
+	/// Mark the pose of this chain as changed, so the next solve solves this chain and every chain connected to it again.
+	///
+	/// Structure solves skip connected chains whose target didn't change and whose host chain didn't move. Solves and
+	/// the pose readers of this library track the bones they move, call this after moving bones of the chain in any
+	/// other way, e.g. through [FabrikBone3f#getStartLocationRaw()] or [FabrikBone3f#setFrom(FabrikBone3f)].
+	public void markDirty() {
+		poseEpoch++;
+		lastTargetLocation.set(Float.MAX_VALUE);
+	}
+
+	/// @return `true` if the last budgeted solve ran out of budget before the chain was solved
+	/// @see FabrikSolver3f#solveForTargetWithin(FabrikChain3f, Vector3fc, int)
+	/// @see FabrikSolver3f#solveForTargetUntil(FabrikChain3f, Vector3fc, long)
+	public boolean isSolvePending() {
+		return pendingIteration != -1;
+	}
+
+	public float getCurrentSolveDistance() {
+		return currentSolveDistance;
 	}
 
 	public FabrikBone3f getBone(int index) {
@@ -180,6 +265,18 @@ public class FabrikChain3f {
 		return embeddedTarget;
 	}
 
+	public @Nullable FabrikSolutionCache getSolutionCache() {
+		return solutionCache;
+	}
+
+	/// Cache the solved poses of this chain, so that solves for targets near a recently solved one are served from the
+	/// cache or start from the nearest cached pose, `null` disables caching (default).
+	///
+	/// A cache must only be used by a single chain, copies of this chain don't share its cache.
+	public void setSolutionCache(@Nullable FabrikSolutionCache cache) {
+		solutionCache = cache;
+	}
+
 	public Vector3fc getBaseboneConstraint() {
 		return baseboneConstraint;
 	}
@@ -197,6 +294,61 @@ public class FabrikChain3f {
 		baseboneRelativeReferenceConstraint.set(relativeReferenceConstraint);
 	}
 
+	/// @return the solve plan of this chain, compiled again if a bone or joint changed since it was last compiled
+	ChainSolvePlan getSolvePlan() {
+		ChainSolvePlan plan = solvePlan;
+		if (plan == null || !plan.isUpToDate(this)) {
+			plan = ChainSolvePlan.compile(this);
+			solvePlan = plan;
+		}
+		return plan;
+	}
+
+	/// Store the current start and end location of all bones as the best solution.
+	void storeBestSolution() {
+		storeSolution(bestSolution);
+	}
+
+	/// Move all bones back to the start and end locations of the stored best solution.
+	void restoreBestSolution() {
+		restoreSolution(bestSolution);
+	}
+
+	/// Store the current start and end location of all bones as the pose the pending solve continues from.
+	void storePendingSolution() {
+		if (pendingSolution == null) {
+			pendingSolution = new float[bestSolution.length];
+		}
+		storeSolution(pendingSolution);
+	}
+
+	/// Move all bones to the start and end locations of the stored pending solve pose.
+	void restorePendingSolution() {
+		if (pendingSolution == null) {
+			throw new IllegalStateException("Chain has no stored pending solution.");
+		}
+		restoreSolution(pendingSolution);
+	}
+
+	private void storeSolution(float[] solution) {
+		for (int i = 0, j = 0; i < bones.length; i++, j += 6) {
+			Vector3fc start = bones[i].getStartLocation();
+			Vector3fc end = bones[i].getEndLocation();
+			solution[j] = start.x();
+			solution[j + 1] = start.y();
+			solution[j + 2] = start.z();
+			solution[j + 3] = end.x();
+			solution[j + 4] = end.y();
+			solution[j + 5] = end.z();
+		}
+	}
+
+	private void restoreSolution(float[] solution) {
+		for (int i = 0, j = 0; i < bones.length; i++, j += 6) {
+			bones[i].setLocations(solution[j], solution[j + 1], solution[j + 2], solution[j + 3], solution[j + 4], solution[j + 5]);
+		}
+	}
+
 	public void connectToStructure(FabrikStructure3f structure, int existingChainNumber, int existingBoneNumber) {
 		int numChains = structure.getChainCount();
 
@@ -0,0 +1,221 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.Objects;
+
+/// A batch of [packed chains][FabrikPackedChain3f] with the same shape which are solved together by the
+/// [FabrikBatchSolver3f], e.g. identical tentacles or the limbs of a crowd.
+///
+/// Each chain of the batch occupies one lane. All per lane data is stored lane by lane in primitive arrays, i.e. the x
+/// coordinates of a joint of all chains follow each other, so that the solver can process several chains with a single
+/// vector instruction.
+///
+/// All chains must have the same number of bones and only [rotor][FabrikJoint3f.Rotor] joints, their bone lengths,
+/// constraint angles and solver settings may differ. The batch holds copies of the chains, it is solved independently
+/// of them.
+public final class FabrikChainBatch3f {
+
+	/// The lanes are padded to a multiple of the number of floats in the widest vectors (512 bits).
+	static final int LANE_ALIGNMENT = 16;
+
+	final int laneCount;
+	/// number of lanes including the padding lanes, which repeat the last chain and are never solved
+	final int stride;
+	final int boneCount;
+
+	/// Joint locations of the chains, bone `i` starts at joint `i` and ends at joint `i + 1`.
+	///
+	/// Layout: `[x of each lane, y of each lane, z of each lane]` per joint, `boneCount + 1` joints.
+	final float[] locations;
+
+	/// Snapshot of the best solution found during solving, has the same layout as [#locations].
+	final float[] bestSolution;
+
+	/// Layout: `[length of each lane]` per bone.
+	final float[] lengths;
+
+	/// Cached cosine of the rotor constraint angle, has the same layout as [#lengths].
+	final float[] jointCosines;
+
+	/// Cached sine of the rotor constraint angle, has the same layout as [#lengths].
+	final float[] jointSines;
+
+	/// [Unit][Vector3f#normalize()] constraint axis of the base bone, the absolute constraint of global rotors and the
+	/// relative constraint of local rotors.
+	///
+	/// Layout: `[x of each lane, y of each lane, z of each lane]`.
+	final float[] baseboneConstraints;
+
+	/// Has the same layout as [#baseboneConstraints].
+	final float[] fixedBaseLocations;
+	final boolean[] fixedBaseMode;
+
+	/// The target of each lane during a solve, has the same layout as [#baseboneConstraints].
+	final float[] targets;
+
+	/// Have the same layout as [#baseboneConstraints].
+	final float[] lastBaseLocations;
+	final float[] lastTargetLocations;
+
+	/// Layout: `[value of each lane]`.
+	final float[] currentSolveDistances;
+	final float[] solveDistanceThresholds;
+	final float[] minIterationChanges;
+	final int[] maxIterationAttempts;
+
+	/// Lanes which aren't already solved for their target at the start of a solve.
+	final boolean[] solving;
+	/// Lanes which still iterate during a solve.
+	final boolean[] active;
+	/// Lanes whose last iteration improved their best solution.
+	final boolean[] improved;
+	/// Distance of each end effector to its target after the last iteration.
+	final float[] iterationDistances;
+	final float[] bestSolveDistances;
+	final float[] prevSolveDistances;
+
+	private FabrikChainBatch3f(FabrikPackedChain3f[] chains) {
+		laneCount = chains.length;
+		stride = (laneCount + LANE_ALIGNMENT - 1) / LANE_ALIGNMENT * LANE_ALIGNMENT;
+		boneCount = chains[0].boneCount;
+
+		locations = new float[(boneCount + 1) * 3 * stride];
+		bestSolution = new float[locations.length];
+		lengths = new float[boneCount * stride];
+		jointCosines = new float[lengths.length];
+		jointSines = new float[lengths.length];
+		baseboneConstraints = new float[3 * stride];
+		fixedBaseLocations = new float[3 * stride];
+		fixedBaseMode = new boolean[stride];
+		targets = new float[3 * stride];
+		lastBaseLocations = new float[3 * stride];
+		lastTargetLocations = new float[3 * stride];
+		currentSolveDistances = new float[stride];
+		solveDistanceThresholds = new float[stride];
+		minIterationChanges = new float[stride];
+		maxIterationAttempts = new int[stride];
+		solving = new boolean[stride];
+		active = new boolean[stride];
+		improved = new boolean[stride];
+		iterationDistances = new float[stride];
+		bestSolveDistances = new float[stride];
+		prevSolveDistances = new float[stride];
+
+		for (int lane = 0; lane < stride; lane++) {
+			FabrikPackedChain3f chain = chains[Math.min(lane, laneCount - 1)];
+
+			for (int i = 0; i < boneCount; i++) {
+				lengths[i * stride + lane] = chain.lengths[i];
+				jointCosines[i * stride + lane] = chain.jointCosines[i * 2];
+				jointSines[i * stride + lane] = chain.jointSines[i * 2];
+			}
+			for (int i = 0; i < locations.length / stride; i++) {
+				locations[i * stride + lane] = chain.locations[i];
+			}
+
+			store(chain.jointTypes[0] == FabrikPackedChain3f.LOCAL_ROTOR ? chain.baseboneRelativeConstraint : chain.baseboneConstraint, baseboneConstraints, lane);
+			store(chain.fixedBaseLocation, fixedBaseLocations, lane);
+			fixedBaseMode[lane] = chain.fixedBaseMode;
+			store(chain.lastBaseLocation, lastBaseLocations, lane);
+			store(chain.lastTargetLocation, lastTargetLocations, lane);
+			currentSolveDistances[lane] = chain.currentSolveDistance;
+			solveDistanceThresholds[lane] = chain.solveDistanceThreshold;
+			minIterationChanges[lane] = chain.minIterationChange;
+			// the padding lanes are never solved
+			maxIterationAttempts[lane] = lane < laneCount ? chain.maxIterationAttempts : 0;
+		}
+	}
+
+	/// Create a batch with a copy of each chain, chain `i` occupies lane `i`.
+	///
+	/// @param chains at least one chain, all with the same number of bones and only rotor joints
+	/// @throws IllegalArgumentException if no chains are given, the bone counts of the chains differ or a chain has a
+	///                                  hinge joint
+	public static FabrikChainBatch3f of(FabrikPackedChain3f... chains) {
+		if (chains.length == 0) {
+			throw new IllegalArgumentException("Can't create a chain batch without any chains.");
+		}
+
+		int boneCount = chains[0].boneCount;
+		for (int i = 0; i < chains.length; i++) {
+			FabrikPackedChain3f chain = chains[i];
+			if (chain.boneCount != boneCount) {
+				throw new IllegalArgumentException("Chain " + i + " has " + chain.boneCount + " bones but " + boneCount + " bones are required.");
+			}
+			for (int j = 0; j < boneCount; j++) {
+				byte jointType = chain.jointTypes[j];
+				if (jointType != FabrikPackedChain3f.LOCAL_ROTOR && jointType != FabrikPackedChain3f.GLOBAL_ROTOR) {
+					throw new IllegalArgumentException("Bone " + j + " of chain " + i + " has a hinge joint, only chains with rotor joints can be batched.");
+				}
+			}
+		}
+
+		return new FabrikChainBatch3f(chains);
+	}
+
+	public int getLaneCount() {
+		return laneCount;
+	}
+
+	public int getBoneCount() {
+		return boneCount;
+	}
+
+	/// Joint `i` is the start of bone `i` and joint `boneCount` is the end of the end effector.
+	public Vector3f getJointLocation(int lane, int jointIndex, Vector3f dest) {
+		Objects.checkIndex(lane, laneCount);
+		Objects.checkIndex(jointIndex, boneCount + 1);
+		return load(locations, jointIndex * 3 * stride + lane, stride, dest);
+	}
+
+	public Vector3f getBaseLocation(int lane, Vector3f dest) {
+		Objects.checkIndex(lane, laneCount);
+		return load(fixedBaseLocations, lane, stride, dest);
+	}
+
+	public void setBaseLocation(int lane, Vector3fc baseLocation) {
+		Objects.checkIndex(lane, laneCount);
+		store(baseLocation, fixedBaseLocations, lane);
+	}
+
+	/// @return the solve distance of the last solve of the chain in the lane
+	public float getSolveDistance(int lane) {
+		Objects.checkIndex(lane, laneCount);
+		return currentSolveDistances[lane];
+	}
+
+	/// Copy the bone locations of the chain in the lane into the given packed chain.
+	///
+	/// @param chain a packed chain with the same number of bones
+	public void copyLocationsTo(int lane, FabrikPackedChain3f chain) {
+		Objects.checkIndex(lane, laneCount);
+		if (chain.boneCount != boneCount) {
+			throw new IllegalArgumentException("Chain has " + chain.boneCount + " bones but " + boneCount + " bones are required.");
+		}
+
+		for (int i = 0; i < chain.locations.length; i++) {
+			chain.locations[i] = locations[i * stride + lane];
+		}
+
+		Vector3f direction = new Vector3f();
+		for (int i = 0; i < boneCount; i++) {
+			int j = i * 3;
+			direction.set(chain.locations[j + 3], chain.locations[j + 4], chain.locations[j + 5]).sub(chain.locations[j], chain.locations[j + 1], chain.locations[j + 2]).normalize();
+			FabrikPackedChain3f.store(direction, chain.directions, j);
+		}
+	}
+
+	/// Store the vector in a `[x of each lane, y of each lane, z of each lane]` array.
+	private void store(Vector3fc v, float[] dest, int lane) {
+		dest[lane] = v.x();
+		dest[stride + lane] = v.y();
+		dest[2 * stride + lane] = v.z();
+	}
+
+	static Vector3f load(float[] src, int offset, int stride, Vector3f dest) {
+		return dest.set(src[offset], src[offset + stride], src[offset + 2 * stride]);
+	}
+
+}
@@ -0,0 +1,183 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3fc;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/// Solves many independent [structures][FabrikStructure3f] (e.g. all rigs of a crowd) per frame across the threads of
+/// a [ForkJoinPool].
+///
+/// The structures are split into batches which are solved on the work-stealing pool, each worker thread uses its own
+/// [FabrikSolver3f] instance. Every structure is solved sequentially by a single thread, so the result of each
+/// structure is identical to [FabrikSolver3f#solveForTarget(FabrikStructure3f, Vector3fc, float[])].
+///
+/// The crowd solver itself is stateless and may be shared between threads, but a structure must not be part of two
+/// concurrent solves.
+public class FabrikCrowdSolver3f {
+
+	public static final int DEFAULT_BATCH_SIZE = 16;
+
+	private final ForkJoinPool pool;
+	private final int batchSize;
+
+	/// Holds the settings applied to the solvers of the worker threads, never used for solving.
+	private final FabrikSolver3f settings = new FabrikSolver3f();
+
+	public FabrikCrowdSolver3f() {
+		this(ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+	}
+
+	public FabrikCrowdSolver3f(ForkJoinPool pool) {
+		this(pool, DEFAULT_BATCH_SIZE);
+	}
+
+	/// @param pool      the pool to solve the structures on
+	/// @param batchSize the maximum number of structures solved by a single task, must be positive
+	public FabrikCrowdSolver3f(ForkJoinPool pool, int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive but was " + batchSize + ".");
+		}
+		this.pool = pool;
+		this.batchSize = batchSize;
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public @Nullable SolverMetrics getMetrics() {
+		return settings.getMetrics();
+	}
+
+	/// @see FabrikSolver3f#setMetrics(SolverMetrics)
+	public void setMetrics(@Nullable SolverMetrics metrics) {
+		settings.setMetrics(metrics);
+	}
+
+	public boolean isClosedFormSolving() {
+		return settings.isClosedFormSolving();
+	}
+
+	/// @see FabrikSolver3f#setClosedFormSolving(boolean)
+	public void setClosedFormSolving(boolean enable) {
+		settings.setClosedFormSolving(enable);
+	}
+
+	/// Solve every structure for the target at the same index.
+	///
+	/// All chains of a structure are solved for its target EXCEPT those which have embedded targets enabled, which are
+	/// solved for the target location embedded in the chain.
+	///
+	/// @param structures the structures to solve, should support fast random access
+	/// @param targets    the target of each structure, must have the same size as `structures`
+	/// @return the throughput report of this batch
+	public Report solveForTargets(List<FabrikStructure3f> structures, List<? extends Vector3fc> targets) {
+		if (structures.size() != targets.size()) {
+			throw new IllegalArgumentException("Got " + structures.size() + " structures but " + targets.size() + " targets.");
+		}
+
+		long startTime = System.nanoTime();
+		pool.invoke(new BatchTask(settings, structures, targets, null, 0, structures.size(), batchSize));
+		long elapsedNanos = System.nanoTime() - startTime;
+
+		return new Report(structures.size(), countChains(structures), elapsedNanos, pool.getParallelism());
+	}
+
+	/// Solve every structure for the same target.
+	///
+	/// @param structures the structures to solve, should support fast random access
+	/// @return the throughput report of this batch
+	/// @see #solveForTargets(List, List)
+	public Report solveForTarget(List<FabrikStructure3f> structures, Vector3fc target) {
+		long startTime = System.nanoTime();
+		pool.invoke(new BatchTask(settings, structures, null, target, 0, structures.size(), batchSize));
+		long elapsedNanos = System.nanoTime() - startTime;
+
+		return new Report(structures.size(), countChains(structures), elapsedNanos, pool.getParallelism());
+	}
+
+	private static int countChains(List<FabrikStructure3f> structures) {
+		int chainCount = 0;
+		for (int i = 0; i < structures.size(); i++) {
+			chainCount += structures.get(i).getChainCount();
+		}
+		return chainCount;
+	}
+
+	/// Throughput of a single crowd solve.
+	///
+	/// @param structureCount number of solved structures
+	/// @param chainCount     number of solved chains
+	/// @param elapsedNanos   wall-clock time of the solve in nanoseconds
+	/// @param parallelism    the target parallelism of the pool the structures were solved on
+	public record Report(int structureCount, int chainCount, long elapsedNanos, int parallelism) {
+
+		public double structuresPerSecond() {
+			return elapsedNanos == 0 ? 0 : structureCount * 1e9 / elapsedNanos;
+		}
+
+		public double chainsPerSecond() {
+			return elapsedNanos == 0 ? 0 : chainCount * 1e9 / elapsedNanos;
+		}
+
+		public double nanosPerStructure() {
+			return structureCount == 0 ? 0 : (double) elapsedNanos / structureCount;
+		}
+
+	}
+
+	/// Splits the range of structures in halves until it fits into a single batch.
+	private static final class BatchTask extends RecursiveAction {
+
+		private final FabrikSolver3f settings;
+		private final List<FabrikStructure3f> structures;
+		private final @Nullable List<? extends Vector3fc> targets;
+		private final @Nullable Vector3fc target;
+		private final int from;
+		private final int to;
+		private final int batchSize;
+
+		BatchTask(FabrikSolver3f settings, List<FabrikStructure3f> structures, @Nullable List<? extends Vector3fc> targets, @Nullable Vector3fc target, int from, int to, int batchSize) {
+			this.settings = settings;
+			this.structures = structures;
+			this.targets = targets;
+			this.target = target;
+			this.from = from;
+			this.to = to;
+			this.batchSize = batchSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= batchSize) {
+				solveBatch();
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(
+					new BatchTask(settings, structures, targets, target, from, middle, batchSize),
+					new BatchTask(settings, structures, targets, target, middle, to, batchSize)
+			);
+		}
+
+		private void solveBatch() {
+			FabrikSolver3f solver = FabrikSolver3f.THREAD_LOCAL.get();
+			solver.copySettingsFrom(settings);
+
+			for (int i = from; i < to; i++) {
+				FabrikStructure3f structure = structures.get(i);
+				solver.solveChains(structure, targets != null ? targets.get(i) : target);
+			}
+		}
+
+	}
+
+}
@@ -49,12 +49,21 @@ public interface FabrikJoint3f {
 		/// The default is [pi][#MAX_CONSTRAINT_ANGLE] (no constraint).
 		private float antiClockwiseConstraintAngle;
 
+		// cached cosine and sine of the constraint angles, so the solver doesn't have to evaluate them every iteration
+		private float clockwiseConstraintCos;
+		private float clockwiseConstraintSin;
+		private float antiClockwiseConstraintCos;
+		private float antiClockwiseConstraintSin;
+
 		private boolean isConstrained;
 
+		/// incremented whenever a constraint parameter changes, lets a [ChainSolvePlan] detect that it is out of date
+		int modificationCount;
+
 		protected Hinge() {
 			clockwiseConstraintAngle = MAX_CONSTRAINT_ANGLE;
 			antiClockwiseConstraintAngle = MAX_CONSTRAINT_ANGLE;
-			isConstrained = false;
+			updateConstraintAngles();
 		}
 
 		protected Hinge(float clockwiseConstraintAngle, float antiClockwiseConstraintAngle) {
@@ -66,6 +75,10 @@ public interface FabrikJoint3f {
 			referenceAxis.set(hinge.referenceAxis);
 			clockwiseConstraintAngle = hinge.clockwiseConstraintAngle;
 			antiClockwiseConstraintAngle = hinge.antiClockwiseConstraintAngle;
+			clockwiseConstraintCos = hinge.clockwiseConstraintCos;
+			clockwiseConstraintSin = hinge.clockwiseConstraintSin;
+			antiClockwiseConstraintCos = hinge.antiClockwiseConstraintCos;
+			antiClockwiseConstraintSin = hinge.antiClockwiseConstraintSin;
 			isConstrained = hinge.isConstrained;
 		}
 
@@ -90,6 +103,15 @@ public interface FabrikJoint3f {
 			return !JomlMath.floatsAreEqual(clockwiseConstraintAngle, MAX_CONSTRAINT_ANGLE, 0.001f) || !JomlMath.floatsAreEqual(antiClockwiseConstraintAngle, MAX_CONSTRAINT_ANGLE, 0.001f);
 		}
 
+		private void updateConstraintAngles() {
+			clockwiseConstraintCos = Math.cos(clockwiseConstraintAngle);
+			clockwiseConstraintSin = Math.sin(clockwiseConstraintAngle);
+			antiClockwiseConstraintCos = Math.cos(antiClockwiseConstraintAngle);
+			antiClockwiseConstraintSin = Math.sin(antiClockwiseConstraintAngle);
+			isConstrained = isConstrained(clockwiseConstraintAngle, antiClockwiseConstraintAngle);
+			modificationCount++;
+		}
+
 		public boolean isConstrained() {
 			return isConstrained;
 		}
@@ -110,31 +132,53 @@ public interface FabrikJoint3f {
 			return antiClockwiseConstraintAngle;
 		}
 
+		/// @return the cached cosine of the [clockwise constraint angle][#getClockwiseConstraintAngle()]
+		public float getClockwiseConstraintCos() {
+			return clockwiseConstraintCos;
+		}
+
+		/// @return the cached sine of the [clockwise constraint angle][#getClockwiseConstraintAngle()]
+		public float getClockwiseConstraintSin() {
+			return clockwiseConstraintSin;
+		}
+
+		/// @return the cached cosine of the [anticlockwise constraint angle][#getAntiClockwiseConstraintAngle()]
+		public float getAntiClockwiseConstraintCos() {
+			return antiClockwiseConstraintCos;
+		}
+
+		/// @return the cached sine of the [anticlockwise constraint angle][#getAntiClockwiseConstraintAngle()]
+		public float getAntiClockwiseConstraintSin() {
+			return antiClockwiseConstraintSin;
+		}
+
 		public void setClockwiseConstraintAngle(float clockwiseConstraintAngle) {
 			validateClockwiseConstraintAngle(clockwiseConstraintAngle);
 			this.clockwiseConstraintAngle = clockwiseConstraintAngle;
-			isConstrained = isConstrained(clockwiseConstraintAngle, antiClockwiseConstraintAngle);
+			updateConstraintAngles();
 		}
 
 		public void setAntiClockwiseConstraintAngle(float antiClockwiseConstraintAngle) {
 			validateAntiClockwiseConstraintAngle(antiClockwiseConstraintAngle);
 			this.antiClockwiseConstraintAngle = antiClockwiseConstraintAngle;
-			isConstrained = isConstrained(clockwiseConstraintAngle, antiClockwiseConstraintAngle);
+			updateConstraintAngles();
 		}
 
 		public void setConstraintAngles(float clockwiseConstraintAngle, float antiClockwiseConstraintAngle) {
 			validateConstraintAngles(clockwiseConstraintAngle, antiClockwiseConstraintAngle);
 			this.clockwiseConstraintAngle = clockwiseConstraintAngle;
 			this.antiClockwiseConstraintAngle = antiClockwiseConstraintAngle;
-			isConstrained = isConstrained(clockwiseConstraintAngle, antiClockwiseConstraintAngle);
+			updateConstraintAngles();
 		}
 
 		public void setRotationAxis(Vector3fc rotationAxis) {
 			this.rotationAxis.set(rotationAxis);
+			modificationCount++;
 		}
 
 		public void setReferenceAxis(Vector3fc referenceAxis) {
 			this.referenceAxis.set(referenceAxis);
+			modificationCount++;
 		}
 
 	}
@@ -186,17 +230,22 @@ public interface FabrikJoint3f {
 
 		/// rotor constraint angle in radians
 		private float constraintAngle;
+
+		// cached cosine and sine of the constraint angle, so the solver doesn't have to evaluate them every iteration
+		private float constraintCos;
+		private float constraintSin;
+
 		private boolean isConstrained;
 
+		/// incremented whenever the constraint angle changes, lets a [ChainSolvePlan] detect that it is out of date
+		int modificationCount;
+
 		protected Rotor() {
-			constraintAngle = MAX_CONSTRAINT_ANGLE;
-			isConstrained = false;
+			this(MAX_CONSTRAINT_ANGLE);
 		}
 
 		protected Rotor(float constraintAngle) {
-			validateConstraintAngle(constraintAngle);
-			this.constraintAngle = constraintAngle;
-			isConstrained = isConstrained(constraintAngle);
+			setConstraintAngle(constraintAngle);
 		}
 
 		public static void validateConstraintAngle(float constraintAngle) {
@@ -213,10 +262,23 @@ public interface FabrikJoint3f {
 			return constraintAngle;
 		}
 
+		/// @return the cached cosine of the [constraint angle][#getConstraintAngle()]
+		public float getConstraintCos() {
+			return constraintCos;
+		}
+
+		/// @return the cached sine of the [constraint angle][#getConstraintAngle()]
+		public float getConstraintSin() {
+			return constraintSin;
+		}
+
 		public void setConstraintAngle(float constraintAngle) {
 			validateConstraintAngle(constraintAngle);
 			this.constraintAngle = constraintAngle;
+			constraintCos = Math.cos(constraintAngle);
+			constraintSin = Math.sin(constraintAngle);
 			isConstrained = isConstrained(constraintAngle);
+			modificationCount++;
 		}
 
 		public boolean isConstrained() {
@@ -0,0 +1,344 @@
+package com.github.elenterius.fabiko.core;
+
+import com.github.elenterius.fabiko.math.JomlMath;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+/// A structure-of-arrays representation of a [FabrikChain3f] which is solved by the [FabrikPackedSolver3f].
+///
+/// All per bone data (locations, directions, lengths and joint constraint parameters) is stored in contiguous primitive
+/// arrays instead of separate [FabrikBone3f] and [FabrikJoint3f] objects.
+///
+/// Consecutive bones share their connecting location, i.e. the end location of bone `i` is the start location of bone
+/// `i + 1`, which is always the case for chains created with the [FabrikChain3f#builder()].
+///
+/// A packed chain is a standalone chain and can't be connected to other chains in a [FabrikStructure3f].
+public class FabrikPackedChain3f {
+
+	static final byte LOCAL_ROTOR = 0;
+	static final byte GLOBAL_ROTOR = 1;
+	static final byte LOCAL_HINGE = 2;
+	static final byte GLOBAL_HINGE = 3;
+
+	protected final int boneCount;
+	protected final float length;
+
+	/// Joint locations of the chain, bone `i` starts at location `i` and ends at location `i + 1`.
+	///
+	/// Layout: `[x, y, z]` per location, `boneCount + 1` locations.
+	protected final float[] locations;
+
+	/// [unit][Vector3f#normalize()] direction of each bone.
+	///
+	/// Layout: `[x, y, z]` per bone.
+	protected final float[] directions;
+
+	protected final float[] lengths;
+
+	protected final byte[] jointTypes;
+
+	/// Rotors store their constraint angle in both slots, hinges store `[clockwise, anticlockwise]` constraint angles.
+	///
+	/// Layout: `[angle1, angle2]` per bone.
+	protected final float[] jointAngles;
+
+	/// Cached cosine of each [joint angle][#jointAngles], has the same layout.
+	protected final float[] jointCosines;
+
+	/// Cached sine of each [joint angle][#jointAngles], has the same layout.
+	protected final float[] jointSines;
+
+	/// Hinge rotation axis and reference axis, unused by rotors.
+	///
+	/// Layout: `[rotationX, rotationY, rotationZ, referenceX, referenceY, referenceZ]` per bone.
+	protected final float[] jointAxes;
+
+	protected final boolean[] jointConstrained;
+
+	/// Snapshot of the best solution found during solving, has the same layout as [#locations].
+	protected final float[] bestSolution;
+
+	/// Is a [unit][Vector3f#normalize()] vector.
+	protected final Vector3f baseboneConstraint = new Vector3f();
+
+	/// Is a [unit][Vector3f#normalize()] vector.
+	protected final Vector3f baseboneRelativeConstraint = new Vector3f();
+
+	/// Is a [unit][Vector3f#normalize()] vector.
+	protected final Vector3f baseboneRelativeReferenceConstraint = new Vector3f();
+
+	protected final Vector3f lastBaseLocation = new Vector3f(Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE);
+	protected final Vector3f lastTargetLocation = new Vector3f(Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE);
+
+	protected float currentSolveDistance = Float.MAX_VALUE;
+	protected float solveDistanceThreshold;
+	protected int maxIterationAttempts;
+	protected float minIterationChange;
+
+	protected boolean fixedBaseMode;
+	protected final Vector3f fixedBaseLocation = new Vector3f();
+
+	/// Create a packed chain whose bones and joints still have to be filled in, used by [FabrikRigFormat].
+	FabrikPackedChain3f(int boneCount, float length) {
+		this.boneCount = boneCount;
+		this.length = length;
+		locations = new float[(boneCount + 1) * 3];
+		directions = new float[boneCount * 3];
+		lengths = new float[boneCount];
+		jointTypes = new byte[boneCount];
+		jointAngles = new float[boneCount * 2];
+		jointCosines = new float[boneCount * 2];
+		jointSines = new float[boneCount * 2];
+		jointAxes = new float[boneCount * 6];
+		jointConstrained = new boolean[boneCount];
+		bestSolution = new float[locations.length];
+	}
+
+	/// Create a copy of the given packed chain, used by [FabrikReachabilityVolume] to give every worker its own chain.
+	FabrikPackedChain3f(FabrikPackedChain3f chain) {
+		this(chain.boneCount, chain.length);
+
+		System.arraycopy(chain.locations, 0, locations, 0, locations.length);
+		System.arraycopy(chain.directions, 0, directions, 0, directions.length);
+		System.arraycopy(chain.lengths, 0, lengths, 0, lengths.length);
+		System.arraycopy(chain.jointTypes, 0, jointTypes, 0, jointTypes.length);
+		System.arraycopy(chain.jointAngles, 0, jointAngles, 0, jointAngles.length);
+		System.arraycopy(chain.jointCosines, 0, jointCosines, 0, jointCosines.length);
+		System.arraycopy(chain.jointSines, 0, jointSines, 0, jointSines.length);
+		System.arraycopy(chain.jointAxes, 0, jointAxes, 0, jointAxes.length);
+		System.arraycopy(chain.jointConstrained, 0, jointConstrained, 0, jointConstrained.length);
+
+		baseboneConstraint.set(chain.baseboneConstraint);
+		baseboneRelativeConstraint.set(chain.baseboneRelativeConstraint);
+		baseboneRelativeReferenceConstraint.set(chain.baseboneRelativeReferenceConstraint);
+		lastBaseLocation.set(chain.lastBaseLocation);
+		lastTargetLocation.set(chain.lastTargetLocation);
+		currentSolveDistance = chain.currentSolveDistance;
+		solveDistanceThreshold = chain.solveDistanceThreshold;
+		maxIterationAttempts = chain.maxIterationAttempts;
+		minIterationChange = chain.minIterationChange;
+		fixedBaseMode = chain.fixedBaseMode;
+		fixedBaseLocation.set(chain.fixedBaseLocation);
+	}
+
+	private FabrikPackedChain3f(FabrikChain3f chain) {
+		this(chain.getBoneCount(), chain.getLength());
+
+		for (int i = 0; i < boneCount; i++) {
+			FabrikBone3f bone = chain.getBone(i);
+			lengths[i] = bone.length();
+
+			switch (bone.getJoint()) {
+				case FabrikJoint3f.Rotor rotor -> {
+					jointTypes[i] = rotor instanceof FabrikJoint3f.LocalRotor ? LOCAL_ROTOR : GLOBAL_ROTOR;
+					jointAngles[i * 2] = rotor.getConstraintAngle();
+					jointAngles[i * 2 + 1] = rotor.getConstraintAngle();
+					jointCosines[i * 2] = rotor.getConstraintCos();
+					jointCosines[i * 2 + 1] = rotor.getConstraintCos();
+					jointSines[i * 2] = rotor.getConstraintSin();
+					jointSines[i * 2 + 1] = rotor.getConstraintSin();
+					jointConstrained[i] = rotor.isConstrained();
+				}
+				case FabrikJoint3f.Hinge hinge -> {
+					jointTypes[i] = hinge instanceof FabrikJoint3f.LocalHinge ? LOCAL_HINGE : GLOBAL_HINGE;
+					jointAngles[i * 2] = hinge.getClockwiseConstraintAngle();
+					jointAngles[i * 2 + 1] = hinge.getAntiClockwiseConstraintAngle();
+					jointCosines[i * 2] = hinge.getClockwiseConstraintCos();
+					jointCosines[i * 2 + 1] = hinge.getAntiClockwiseConstraintCos();
+					jointSines[i * 2] = hinge.getClockwiseConstraintSin();
+					jointSines[i * 2 + 1] = hinge.getAntiClockwiseConstraintSin();
+					store(hinge.getRotationAxis(), jointAxes, i * 6);
+					store(hinge.getReferenceAxis(), jointAxes, i * 6 + 3);
+					jointConstrained[i] = hinge.isConstrained();
+				}
+				default -> throw new IllegalStateException("Unexpected value: " + bone.getJoint());
+			}
+		}
+
+		copyLocationsFrom(chain);
+
+		baseboneConstraint.set(chain.baseboneConstraint);
+		baseboneRelativeConstraint.set(chain.baseboneRelativeConstraint);
+		baseboneRelativeReferenceConstraint.set(chain.baseboneRelativeReferenceConstraint);
+		lastBaseLocation.set(chain.lastBaseLocation);
+		lastTargetLocation.set(chain.lastTargetLocation);
+		currentSolveDistance = chain.currentSolveDistance;
+		solveDistanceThreshold = chain.solveDistanceThreshold;
+		maxIterationAttempts = chain.maxIterationAttempts;
+		minIterationChange = chain.minIterationChange;
+		fixedBaseMode = chain.fixedBaseMode;
+		fixedBaseLocation.set(chain.fixedBaseLocation);
+	}
+
+	/// Create a packed copy of the given chain.
+	///
+	/// @param chain a non-empty chain
+	/// @return a new packed chain
+	public static FabrikPackedChain3f from(FabrikChain3f chain) {
+		if (chain.isEmpty()) {
+			throw new IllegalArgumentException("Can't pack FABRIK chain without any bones.");
+		}
+		return new FabrikPackedChain3f(chain);
+	}
+
+	/// Create a new [FabrikChain3f] with the bones, joints and solver settings of this packed chain.
+	public FabrikChain3f toChain() {
+		FabrikBone3f[] bones = new FabrikBone3f[boneCount];
+		Vector3f start = new Vector3f();
+		Vector3f direction = new Vector3f();
+
+		for (int i = 0; i < boneCount; i++) {
+			load(locations, i * 3, start);
+			load(directions, i * 3, direction);
+			bones[i] = new FabrikBone3f(start, direction, lengths[i], createJoint(i));
+		}
+
+		FabrikChain3f chain = new FabrikChain3f(bones);
+		copyLocationsTo(chain);
+		chain.baseboneConstraint.set(baseboneConstraint);
+		chain.baseboneRelativeConstraint.set(baseboneRelativeConstraint);
+		chain.baseboneRelativeReferenceConstraint.set(baseboneRelativeReferenceConstraint);
+		chain.lastBaseLocation.set(lastBaseLocation);
+		chain.lastTargetLocation.set(lastTargetLocation);
+		chain.currentSolveDistance = currentSolveDistance;
+		chain.solveDistanceThreshold = solveDistanceThreshold;
+		chain.maxIterationAttempts = maxIterationAttempts;
+		chain.minIterationChange = minIterationChange;
+		chain.fixedBaseMode = fixedBaseMode;
+		chain.fixedBaseLocation = new Vector3f(fixedBaseLocation);
+		return chain;
+	}
+
+	private FabrikJoint3f createJoint(int boneIndex) {
+		switch (jointTypes[boneIndex]) {
+			case LOCAL_ROTOR, GLOBAL_ROTOR -> {
+				FabrikJoint3f.Rotor rotor = jointTypes[boneIndex] == LOCAL_ROTOR ? new FabrikJoint3f.LocalRotor() : new FabrikJoint3f.GlobalRotor();
+				rotor.setConstraintAngle(jointAngles[boneIndex * 2]);
+				return rotor;
+			}
+			case LOCAL_HINGE, GLOBAL_HINGE -> {
+				FabrikJoint3f.Hinge hinge = jointTypes[boneIndex] == LOCAL_HINGE ? new FabrikJoint3f.LocalHinge() : new FabrikJoint3f.GlobalHinge();
+				hinge.setConstraintAngles(jointAngles[boneIndex * 2], jointAngles[boneIndex * 2 + 1]);
+				hinge.setRotationAxis(load(jointAxes, boneIndex * 6, new Vector3f()));
+				hinge.setReferenceAxis(load(jointAxes, boneIndex * 6 + 3, new Vector3f()));
+				return hinge;
+			}
+			default -> throw new IllegalStateException("Unexpected value: " + jointTypes[boneIndex]);
+		}
+	}
+
+	/// Copy the bone locations of the given chain into this packed chain.
+	///
+	/// @param chain a chain with the same number of bones
+	public void copyLocationsFrom(FabrikChain3f chain) {
+		if (chain.getBoneCount() != boneCount) {
+			throw new IllegalArgumentException("Chain has " + chain.getBoneCount() + " bones but " + boneCount + " bones are required.");
+		}
+
+		for (int i = 0; i < boneCount; i++) {
+			FabrikBone3f bone = chain.getBone(i);
+			store(bone.getStartLocation(), locations, i * 3);
+			store(bone.getDirection(), directions, i * 3);
+		}
+		store(chain.getEndEffectorBone().getEndLocation(), locations, boneCount * 3);
+	}
+
+	/// Copy the bone locations of this packed chain into the given chain.
+	///
+	/// @param chain a chain with the same number of bones
+	public void copyLocationsTo(FabrikChain3f chain) {
+		if (chain.getBoneCount() != boneCount) {
+			throw new IllegalArgumentException("Chain has " + chain.getBoneCount() + " bones but " + boneCount + " bones are required.");
+		}
+
+		float[] locations = this.locations;
+		for (int i = 0, j = 0; i < boneCount; i++, j += 3) {
+			chain.getBone(i).setLocations(locations[j], locations[j + 1], locations[j + 2], locations[j + 3], locations[j + 4], locations[j + 5]);
+		}
+		chain.markDirty();
+	}
+
+	public int getBoneCount() {
+		return boneCount;
+	}
+
+	public float getLength() {
+		return length;
+	}
+
+	public float getBoneLength(int boneIndex) {
+		return lengths[boneIndex];
+	}
+
+	public Vector3f getBoneStartLocation(int boneIndex, Vector3f dest) {
+		return load(locations, boneIndex * 3, dest);
+	}
+
+	public Vector3f getBoneEndLocation(int boneIndex, Vector3f dest) {
+		return load(locations, (boneIndex + 1) * 3, dest);
+	}
+
+	/// @return `unit` vector
+	public Vector3f getBoneDirection(int boneIndex, Vector3f dest) {
+		return load(directions, boneIndex * 3, dest);
+	}
+
+	public Vector3fc getBaseLocation() {
+		return fixedBaseLocation;
+	}
+
+	public void setBaseLocation(Vector3fc baseLocation) {
+		fixedBaseLocation.set(baseLocation);
+	}
+
+	public boolean isFixedBaseMode() {
+		return fixedBaseMode;
+	}
+
+	public void setFixedBaseMode(boolean flag) {
+		// We cannot have a freely moving base location AND constrain the basebone to an absolute direction
+		if (!flag && jointTypes[0] == GLOBAL_ROTOR) {
+			throw new RuntimeException("Cannot set a non-fixed base mode when the chain's constraint type is a Global Rotor.");
+		}
+
+		fixedBaseMode = flag;
+	}
+
+	public Vector3fc getLastTargetLocation() {
+		return lastTargetLocation;
+	}
+
+	public float getCurrentSolveDistance() {
+		return currentSolveDistance;
+	}
+
+	public int getMaxIterationAttempts() {
+		return maxIterationAttempts;
+	}
+
+	public float getMinIterationChange() {
+		return minIterationChange;
+	}
+
+	public float getSolveDistanceThreshold() {
+		return solveDistanceThreshold;
+	}
+
+	public boolean isSolved(Vector3fc target) {
+		return lastTargetLocation.equals(target, 0.001f)
+				&& JomlMath.floatsAreEqual(lastBaseLocation.x, locations[0], 0.001f)
+				&& JomlMath.floatsAreEqual(lastBaseLocation.y, locations[1], 0.001f)
+				&& JomlMath.floatsAreEqual(lastBaseLocation.z, locations[2], 0.001f);
+	}
+
+	static Vector3f load(float[] src, int offset, Vector3f dest) {
+		return dest.set(src[offset], src[offset + 1], src[offset + 2]);
+	}
+
+	static void store(Vector3fc v, float[] dest, int offset) {
+		dest[offset] = v.x();
+		dest[offset + 1] = v.y();
+		dest[offset + 2] = v.z();
+	}
+
+}
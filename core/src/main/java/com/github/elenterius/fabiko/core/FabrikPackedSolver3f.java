@@ -0,0 +1,251 @@
+package com.github.elenterius.fabiko.core;
+
+import com.github.elenterius.fabiko.math.JomlMath;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import static com.github.elenterius.fabiko.core.FabrikPackedChain3f.*;
+
+/// Solves [packed chains][FabrikPackedChain3f] with the FABRIK algorithm.
+///
+/// The solver works directly on the primitive arrays of the packed chain and produces the same results as the
+/// [FabrikSolver3f] does for the equivalent [FabrikChain3f] with [closed form solving][FabrikSolver3f#setClosedFormSolving(boolean)]
+/// disabled. The packed solver has no closed form fast paths, two bone chains and targets beyond the reach of a chain
+/// are always solved iteratively.
+///
+/// A solver instance owns the scratch vectors used during solving and is therefore **not** thread-safe,
+/// use one solver per thread instead.
+public class FabrikPackedSolver3f {
+
+	private final Vector3f chainTarget = new Vector3f();
+
+	private final Vector3f boneLocation = new Vector3f();
+	private final Vector3f updatedDirection = new Vector3f();
+	private final Vector3f boneDirection = new Vector3f();
+	private final Vector3f prevBoneDirection = new Vector3f();
+	private final Vector3f rotationAxis = new Vector3f();
+	private final Vector3f referenceAxis = new Vector3f();
+	private final Quaternionf orientation = new Quaternionf();
+
+	public float solveForTarget(FabrikPackedChain3f chain, float targetX, float targetY, float targetZ) {
+		return solveForTarget(chain, chainTarget.set(targetX, targetY, targetZ));
+	}
+
+	public float solveForTarget(FabrikPackedChain3f chain, Vector3fc target) {
+		if (chain.isSolved(target)) {
+			return chain.currentSolveDistance;
+		}
+
+		float solveDistance;
+		float bestSolveDistance = Float.MAX_VALUE;
+		float prevSolveDistance = Float.MAX_VALUE;
+		int bestIteration = -1;
+		int lastIteration = -1;
+
+		for (int iteration = 0; iteration < chain.maxIterationAttempts; iteration++) {
+			lastIteration = iteration;
+
+			solveDistance = solveIteration(chain, target);
+
+			if (solveDistance < bestSolveDistance) {
+				bestSolveDistance = solveDistance;
+				bestIteration = iteration;
+
+				System.arraycopy(chain.locations, 0, chain.bestSolution, 0, chain.locations.length);
+
+				if (solveDistance <= chain.solveDistanceThreshold) {
+					break;
+				}
+			}
+			else {
+				// Did we grind to a halt? If so break out of loop to set the best distance and solution that we have
+				if (Math.abs(solveDistance - prevSolveDistance) < chain.minIterationChange) {
+					break;
+				}
+			}
+
+			prevSolveDistance = solveDistance;
+		}
+
+		chain.currentSolveDistance = bestSolveDistance;
+
+		// the locations already hold the best solution when the loop ended on the best iteration
+		if (bestIteration != -1 && bestIteration != lastIteration) {
+			System.arraycopy(chain.bestSolution, 0, chain.locations, 0, chain.locations.length);
+			for (int i = 0; i < chain.boneCount; i++) {
+				updateDirection(chain, i);
+			}
+		}
+
+		float[] locations = chain.locations;
+		chain.lastBaseLocation.set(locations[0], locations[1], locations[2]);
+		chain.lastTargetLocation.set(target);
+
+		return bestSolveDistance;
+	}
+
+	private float solveIteration(FabrikPackedChain3f chain, Vector3fc target) {
+		int boneCount = chain.boneCount;
+
+		// forward pass from end effector to base bone
+		int endEffectorIndex = boneCount - 1;
+		forwardPassEndEffector(chain, endEffectorIndex, target);
+		for (int i = endEffectorIndex - 1; i >= 0; i--) {
+			forwardPassBone(chain, i);
+		}
+
+		// backward pass from base bone to end effector
+		backwardPassBaseBone(chain);
+		for (int i = 1; i < boneCount; i++) {
+			backwardPassBone(chain, i);
+		}
+
+		chain.lastTargetLocation.set(target);
+
+		return load(chain.locations, boneCount * 3, boneLocation).distance(target);
+	}
+
+	/// Set the joint location at the given index and update the direction of the adjacent bones.
+	private void setLocation(FabrikPackedChain3f chain, int locationIndex, Vector3fc location) {
+		store(location, chain.locations, locationIndex * 3);
+
+		if (locationIndex > 0) {
+			updateDirection(chain, locationIndex - 1);
+		}
+		if (locationIndex < chain.boneCount) {
+			updateDirection(chain, locationIndex);
+		}
+	}
+
+	private void updateDirection(FabrikPackedChain3f chain, int boneIndex) {
+		float[] locations = chain.locations;
+		int i = boneIndex * 3;
+		Vector3f direction = updatedDirection.set(locations[i + 3], locations[i + 4], locations[i + 5]).sub(locations[i], locations[i + 1], locations[i + 2]).normalize();
+		store(direction, chain.directions, i);
+	}
+
+	/// @return the orientation of the bone, derived from its direction the same way [FabrikBone3f#getOrientation()] is
+	private Quaternionf loadOrientation(FabrikPackedChain3f chain, int boneIndex) {
+		return orientation.rotationTo(FabrikWorld.FORWARDS, load(chain.directions, boneIndex * 3, updatedDirection));
+	}
+
+	private void backwardPassBaseBone(FabrikPackedChain3f chain) {
+		if (chain.fixedBaseMode) {
+			// snap the start location of the base bone back to the fixed base
+			setLocation(chain, 0, chain.fixedBaseLocation);
+		}
+		else {
+			// project it backwards from the end to the start by its length
+			Vector3f scaledDirection = load(chain.directions, 0, boneDirection).mul(chain.lengths[0]);
+			setLocation(chain, 0, load(chain.locations, 3, boneLocation).sub(scaledDirection));
+		}
+
+		Vector3f boneDirection = load(chain.directions, 0, this.boneDirection);
+
+		switch (chain.jointTypes[0]) {
+			case LOCAL_ROTOR -> constrainToRotor(chain, 0, chain.baseboneRelativeConstraint, boneDirection);
+			case GLOBAL_ROTOR -> constrainToRotor(chain, 0, chain.baseboneConstraint, boneDirection);
+			case LOCAL_HINGE -> constrainToHinge(chain, 0, chain.baseboneRelativeConstraint, chain.baseboneRelativeReferenceConstraint, boneDirection);
+			case GLOBAL_HINGE -> constrainToHinge(chain, 0, load(chain.jointAxes, 0, rotationAxis), load(chain.jointAxes, 3, referenceAxis), boneDirection);
+			default -> {
+				//base bone has no constraint
+			}
+		}
+
+		Vector3f newEndLocation = boneDirection.mul(chain.lengths[0]).add(load(chain.locations, 0, boneLocation));
+		setLocation(chain, 1, newEndLocation);
+	}
+
+	private void backwardPassBone(FabrikPackedChain3f chain, int boneIndex) {
+		Vector3f boneDirection = load(chain.directions, boneIndex * 3, this.boneDirection);
+
+		switch (chain.jointTypes[boneIndex]) {
+			case LOCAL_ROTOR, GLOBAL_ROTOR -> {
+				Vector3f prevBoneDirection = load(chain.directions, (boneIndex - 1) * 3, this.prevBoneDirection);
+				constrainToRotor(chain, boneIndex, prevBoneDirection, boneDirection);
+			}
+			case LOCAL_HINGE -> {
+				// transform the hinge axes to be relative to the previous bone in the chain (i.e. previous bone's frame of reference)
+				Quaternionf prevBoneOrientation = loadOrientation(chain, boneIndex - 1);
+				Vector3f relativeRotationAxis = prevBoneOrientation.transform(load(chain.jointAxes, boneIndex * 6, rotationAxis));
+				Vector3f relativeReferenceAxis = prevBoneOrientation.transform(load(chain.jointAxes, boneIndex * 6 + 3, referenceAxis));
+				constrainToHinge(chain, boneIndex, relativeRotationAxis, relativeReferenceAxis, boneDirection);
+			}
+			case GLOBAL_HINGE -> constrainToHinge(chain, boneIndex, load(chain.jointAxes, boneIndex * 6, rotationAxis), load(chain.jointAxes, boneIndex * 6 + 3, referenceAxis), boneDirection);
+			default -> throw new IllegalStateException("Unexpected value: " + chain.jointTypes[boneIndex]);
+		}
+
+		Vector3f newEndLocation = boneDirection.mul(chain.lengths[boneIndex]).add(load(chain.locations, boneIndex * 3, boneLocation));
+		setLocation(chain, boneIndex + 1, newEndLocation);
+	}
+
+	/// keep the bone direction constrained within the rotor about the constraint axis
+	private static void constrainToRotor(FabrikPackedChain3f chain, int boneIndex, Vector3fc constraintAxis, Vector3f boneDirection) {
+		JomlMath.constrainToCone(constraintAxis, chain.jointCosines[boneIndex * 2], chain.jointSines[boneIndex * 2], boneDirection);
+	}
+
+	private static void constrainToHinge(FabrikPackedChain3f chain, int boneIndex, Vector3fc rotationAxis, Vector3fc referenceAxis, Vector3f boneDirection) {
+		// project this bone direction onto the plane described by the hinge rotation axis
+		JomlMath.projectOntoPlane(boneDirection, rotationAxis).normalize();
+
+		if (chain.jointConstrained[boneIndex]) {
+			// keep the hinge-rotation aligned bone direction between the clockwise and anticlockwise rotation limits about the reference axis
+			int i = boneIndex * 2;
+			JomlMath.constrainToHinge(rotationAxis, referenceAxis, chain.jointCosines[i], chain.jointSines[i], chain.jointCosines[i + 1], chain.jointSines[i + 1], boneDirection);
+		}
+	}
+
+	private void forwardPassBone(FabrikPackedChain3f chain, int boneIndex) {
+		Vector3f boneDirectionNegated = load(chain.directions, boneIndex * 3, boneDirection).negate();
+
+		switch (chain.jointTypes[boneIndex]) {
+			case LOCAL_ROTOR, GLOBAL_ROTOR -> {
+				Vector3f prevBoneDirectionNegated = load(chain.directions, (boneIndex + 1) * 3, prevBoneDirection).negate();
+
+				// the axis which we need to rotate around is the one perpendicular to the two vectors (cross-product of our two vectors)
+				constrainToRotor(chain, boneIndex, prevBoneDirectionNegated, boneDirectionNegated);
+			}
+			case LOCAL_HINGE -> {
+				Vector3fc relativeRotationAxis = boneIndex == 0 ? chain.baseboneRelativeConstraint : loadOrientation(chain, boneIndex - 1).transform(load(chain.jointAxes, boneIndex * 6, rotationAxis));
+				JomlMath.projectOntoPlane(boneDirectionNegated, relativeRotationAxis).normalize();
+				//NOTE: Constraining about the hinge reference axis on this forward pass leads to poor solutions... so we won't.
+			}
+			case GLOBAL_HINGE -> {
+				JomlMath.projectOntoPlane(boneDirectionNegated, load(chain.jointAxes, boneIndex * 6, rotationAxis)).normalize();
+				//NOTE: Constraining about the hinge reference axis on this forward pass leads to poor solutions... so we won't.
+			}
+			default -> throw new IllegalStateException("Unexpected value: " + chain.jointTypes[boneIndex]);
+		}
+
+		Vector3f newStartLocation = boneDirectionNegated.mul(chain.lengths[boneIndex]).add(load(chain.locations, (boneIndex + 1) * 3, boneLocation));
+		setLocation(chain, boneIndex, newStartLocation);
+	}
+
+	private void forwardPassEndEffector(FabrikPackedChain3f chain, int boneIndex, Vector3fc target) {
+		// snap the end effector's end location to the target
+		setLocation(chain, boneIndex + 1, target);
+
+		// Get the UV between the target / end-location (which are now the same) and the start location of this bone
+		Vector3f boneDirectionNegated = load(chain.directions, boneIndex * 3, boneDirection).negate();
+
+		switch (chain.jointTypes[boneIndex]) {
+			case LOCAL_ROTOR, GLOBAL_ROTOR -> {
+				// Ball joints do not get constrained on this forward pass
+			}
+			case LOCAL_HINGE -> {
+				Vector3fc relativeRotationAxis = boneIndex == 0 ? chain.baseboneRelativeConstraint : loadOrientation(chain, boneIndex - 1).transform(load(chain.jointAxes, boneIndex * 6, rotationAxis));
+				JomlMath.projectOntoPlane(boneDirectionNegated, relativeRotationAxis).normalize();
+			}
+			case GLOBAL_HINGE -> {
+				// Global hinges get constrained to the hinge rotation axis, but not the reference axis within the hinge plane
+				JomlMath.projectOntoPlane(boneDirectionNegated, load(chain.jointAxes, boneIndex * 6, rotationAxis)).normalize();
+			}
+			default -> throw new IllegalStateException("Unexpected value: " + chain.jointTypes[boneIndex]);
+		}
+
+		Vector3f newStartLocation = boneDirectionNegated.mul(chain.lengths[boneIndex]).add(target, boneLocation);
+		setLocation(chain, boneIndex, newStartLocation);
+	}
+
+}
@@ -0,0 +1,231 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3fc;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/// Records the solved bone locations of a [FabrikStructure3f] or [FabrikChain3f] into a memory-mapped ring file.
+///
+/// The file holds a fixed number of frames of a fixed size, once it is full the oldest frame is overwritten. Recording
+/// a frame only writes floats into the mapped file and doesn't allocate, so a structure can be recorded every solve for
+/// hours. Use [FabrikPoseRecording] to read the frames, also while they are being recorded.
+///
+/// ```
+/// header: int magic "FREC", int version, int chainCount, int frameCapacity, int frameSize, int padding,
+///         long frameCount, int[chainCount] boneCounts, padding to 8 bytes
+/// frame:  long frameNumber, float[(boneCount + 1) * 3] jointLocations of every chain
+/// ```
+///
+/// The joint locations of a chain are the start locations of its bones followed by the end location of its end
+/// effector. All values are little-endian.
+///
+/// A recorder isn't thread-safe, record from the thread which solves the structure.
+public final class FabrikPoseRecorder implements AutoCloseable {
+
+	/// `FREC` in ASCII
+	public static final int MAGIC = 'F' | 'R' << 8 | 'E' << 16 | 'C' << 24;
+
+	/// The version written by this class.
+	public static final int VERSION = 1;
+
+	static final int CHAIN_COUNT_OFFSET = 8;
+	static final int FRAME_CAPACITY_OFFSET = 12;
+	static final int FRAME_SIZE_OFFSET = 16;
+	static final int FRAME_COUNT_OFFSET = 24;
+	static final int BONE_COUNTS_OFFSET = 32;
+
+	private final int[] boneCounts;
+	private final int frameCapacity;
+	private final int frameSize;
+	private final int framesOffset;
+
+	private final MappedByteBuffer buffer;
+	private long frameCount;
+	private boolean isClosed;
+
+	private FabrikPoseRecorder(Path path, int[] boneCounts, int frameCapacity) throws IOException {
+		if (frameCapacity < 1) {
+			throw new IllegalArgumentException("Frame capacity must be at least 1, but was " + frameCapacity + ".");
+		}
+
+		long frameSize = Long.BYTES;
+		for (int boneCount : boneCounts) {
+			frameSize += (boneCount + 1) * 3L * Float.BYTES;
+		}
+		int framesOffset = getFramesOffset(boneCounts.length);
+		long fileSize = framesOffset + frameSize * frameCapacity;
+		if (fileSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Recording of " + frameCapacity + " frames with " + frameSize + " bytes each exceeds the maximum file size of 2 GiB.");
+		}
+
+		this.boneCounts = boneCounts;
+		this.frameCapacity = frameCapacity;
+		this.frameSize = (int) frameSize;
+		this.framesOffset = framesOffset;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		buffer.putInt(0, MAGIC);
+		buffer.putInt(4, VERSION);
+		buffer.putInt(CHAIN_COUNT_OFFSET, boneCounts.length);
+		buffer.putInt(FRAME_CAPACITY_OFFSET, frameCapacity);
+		buffer.putInt(FRAME_SIZE_OFFSET, this.frameSize);
+		buffer.putLong(FRAME_COUNT_OFFSET, 0);
+		for (int i = 0; i < boneCounts.length; i++) {
+			buffer.putInt(BONE_COUNTS_OFFSET + i * Integer.BYTES, boneCounts[i]);
+		}
+	}
+
+	/// Create a recording file for the chains of the structure, replacing the content of an existing file.
+	///
+	/// The chain and bone counts of the structure are fixed for the whole recording.
+	///
+	/// @param frameCapacity the number of frames kept in the file, e.g. `60 * 60 * 60` for the last hour at 60 Hz
+	/// @throws IllegalArgumentException if the capacity is less than 1 or the file would exceed 2 GiB
+	public static FabrikPoseRecorder create(Path path, FabrikStructure3f structure, int frameCapacity) throws IOException {
+		int[] boneCounts = new int[structure.getChainCount()];
+		for (int i = 0; i < boneCounts.length; i++) {
+			boneCounts[i] = structure.getChain(i).getBoneCount();
+		}
+		return new FabrikPoseRecorder(path, boneCounts, frameCapacity);
+	}
+
+	/// Create a recording file for a single chain, replacing the content of an existing file.
+	///
+	/// @param frameCapacity the number of frames kept in the file
+	/// @throws IllegalArgumentException if the capacity is less than 1 or the file would exceed 2 GiB
+	public static FabrikPoseRecorder create(Path path, FabrikChain3f chain, int frameCapacity) throws IOException {
+		return new FabrikPoseRecorder(path, new int[]{chain.getBoneCount()}, frameCapacity);
+	}
+
+	static int getFramesOffset(int chainCount) {
+		return (BONE_COUNTS_OFFSET + chainCount * Integer.BYTES + 7) & ~7;
+	}
+
+	/// Append the current bone locations of the structure as the next frame.
+	///
+	/// @return the number of the recorded frame
+	/// @throws IllegalArgumentException if the chain or bone counts of the structure differ from the recording
+	public long record(FabrikStructure3f structure) {
+		checkNotClosed();
+		if (structure.getChainCount() != boneCounts.length) {
+			throw new IllegalArgumentException("Structure has " + structure.getChainCount() + " chains but the recording has " + boneCounts.length + " chains.");
+		}
+
+		int offset = beginFrame();
+		for (int i = 0; i < boneCounts.length; i++) {
+			offset = putChain(structure.getChain(i), i, offset);
+		}
+		return commitFrame();
+	}
+
+	/// Append the current bone locations of the chain as the next frame.
+	///
+	/// @return the number of the recorded frame
+	/// @throws IllegalArgumentException if the recording isn't of a single chain or the bone count of the chain differs
+	public long record(FabrikChain3f chain) {
+		checkNotClosed();
+		if (boneCounts.length != 1) {
+			throw new IllegalArgumentException("Recording has " + boneCounts.length + " chains, a single chain can't be recorded.");
+		}
+
+		putChain(chain, 0, beginFrame());
+		return commitFrame();
+	}
+
+	/// Invalidate the frame number of the slot before overwriting it, so a reader never mistakes a partially written
+	/// frame for the frame which was previously stored in the slot.
+	///
+	/// The frame number works like the sequence of a seqlock, the fence keeps the joint locations from being stored
+	/// before the invalidated frame number, which [FabrikPoseRecording] checks again after reading a frame.
+	///
+	/// @return the offset of the joint locations of the frame
+	private int beginFrame() {
+		int offset = getFrameOffset();
+		buffer.putLong(offset, -1);
+		VarHandle.storeStoreFence();
+		return offset + Long.BYTES;
+	}
+
+	private int getFrameOffset() {
+		return framesOffset + (int) (frameCount % frameCapacity) * frameSize;
+	}
+
+	private int putChain(FabrikChain3f chain, int chainIndex, int offset) {
+		int boneCount = boneCounts[chainIndex];
+		if (chain.getBoneCount() != boneCount) {
+			throw new IllegalArgumentException("Chain " + chainIndex + " has " + chain.getBoneCount() + " bones but the recording has " + boneCount + " bones.");
+		}
+
+		MappedByteBuffer buffer = this.buffer;
+		for (int i = 0; i < boneCount; i++, offset += 3 * Float.BYTES) {
+			Vector3fc start = chain.getBone(i).getStartLocation();
+			buffer.putFloat(offset, start.x());
+			buffer.putFloat(offset + 4, start.y());
+			buffer.putFloat(offset + 8, start.z());
+		}
+		Vector3fc end = chain.getBone(boneCount - 1).getEndLocation();
+		buffer.putFloat(offset, end.x());
+		buffer.putFloat(offset + 4, end.y());
+		buffer.putFloat(offset + 8, end.z());
+		return offset + 3 * Float.BYTES;
+	}
+
+	/// The frame number and frame count are written last, the fences keep them from being stored before the joint
+	/// locations of the frame.
+	private long commitFrame() {
+		long frameNumber = frameCount;
+		VarHandle.releaseFence();
+		buffer.putLong(getFrameOffset(), frameNumber);
+		frameCount++;
+		VarHandle.releaseFence();
+		buffer.putLong(FRAME_COUNT_OFFSET, frameCount);
+		return frameNumber;
+	}
+
+	/// @return the number of frames recorded so far, including frames which have been overwritten
+	public long getFrameCount() {
+		return frameCount;
+	}
+
+	public int getFrameCapacity() {
+		return frameCapacity;
+	}
+
+	/// @return the size of a frame in bytes
+	public int getFrameSize() {
+		return frameSize;
+	}
+
+	/// Write the recorded frames to the storage device.
+	public void flush() {
+		checkNotClosed();
+		buffer.force();
+	}
+
+	private void checkNotClosed() {
+		if (isClosed) {
+			throw new IllegalStateException("Recorder is closed.");
+		}
+	}
+
+	/// Flush the recording, no more frames can be recorded afterwards.
+	///
+	/// The file stays mapped until the buffer is garbage collected.
+	@Override
+	public void close() {
+		if (isClosed) return;
+		buffer.force();
+		isClosed = true;
+	}
+
+}
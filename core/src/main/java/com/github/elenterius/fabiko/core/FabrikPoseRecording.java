@@ -0,0 +1,186 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.github.elenterius.fabiko.core.FabrikPoseRecorder.*;
+
+/// Random access to the frames of a ring file written by a [FabrikPoseRecorder].
+///
+/// The file is memory-mapped, reading a frame only reads the floats of that frame. The recording can be read while it
+/// is still being recorded, [#getFrameCount()] always returns the latest count. Only the last [#getFrameCapacity()]
+/// frames are kept, reading an older frame or a frame which gets overwritten while it is read fails.
+public final class FabrikPoseRecording {
+
+	private final MappedByteBuffer buffer;
+	private final int[] boneCounts;
+	/// offset of the joint locations of each chain relative to the start of a frame
+	private final int[] chainOffsets;
+	private final int frameCapacity;
+	private final int frameSize;
+	private final int framesOffset;
+
+	private FabrikPoseRecording(MappedByteBuffer buffer) {
+		this.buffer = buffer;
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		if (buffer.capacity() < BONE_COUNTS_OFFSET || buffer.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("File doesn't contain a FABRIK pose recording.");
+		}
+		int version = buffer.getInt(4);
+		if (version < 1 || version > VERSION) {
+			throw new IllegalArgumentException("Unsupported pose recording format version " + version + ", expected version 1 to " + VERSION + ".");
+		}
+
+		int chainCount = buffer.getInt(CHAIN_COUNT_OFFSET);
+		frameCapacity = buffer.getInt(FRAME_CAPACITY_OFFSET);
+		frameSize = buffer.getInt(FRAME_SIZE_OFFSET);
+		if (chainCount < 0 || frameCapacity < 1 || frameSize < Long.BYTES || (long) BONE_COUNTS_OFFSET + chainCount * 4L > buffer.capacity()) {
+			throw new IllegalArgumentException("Pose recording has an invalid header.");
+		}
+
+		boneCounts = new int[chainCount];
+		chainOffsets = new int[chainCount];
+		long offset = Long.BYTES;
+		for (int i = 0; i < chainCount; i++) {
+			int boneCount = buffer.getInt(BONE_COUNTS_OFFSET + i * Integer.BYTES);
+			if (boneCount < 1) {
+				throw new IllegalArgumentException("Chain " + i + " of pose recording has an invalid bone count of " + boneCount + ".");
+			}
+			boneCounts[i] = boneCount;
+			chainOffsets[i] = (int) offset;
+			offset += (boneCount + 1) * 3L * Float.BYTES;
+		}
+
+		framesOffset = getFramesOffset(chainCount);
+		if (offset != frameSize || framesOffset + (long) frameSize * frameCapacity > buffer.capacity()) {
+			throw new IllegalArgumentException("Pose recording is truncated.");
+		}
+	}
+
+	/// Memory-map a recording for reading.
+	///
+	/// @throws IllegalArgumentException if the file doesn't contain a valid recording of a supported version
+	public static FabrikPoseRecording open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new FabrikPoseRecording(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	public int getChainCount() {
+		return boneCounts.length;
+	}
+
+	public int getBoneCount(int chainIndex) {
+		return boneCounts[chainIndex];
+	}
+
+	public int getFrameCapacity() {
+		return frameCapacity;
+	}
+
+	/// @return the number of frames recorded so far, including frames which have been overwritten
+	public long getFrameCount() {
+		return buffer.getLong(FRAME_COUNT_OFFSET);
+	}
+
+	/// @return the number of the oldest frame which is still kept in the recording
+	public long getOldestFrame() {
+		return Math.max(0, getFrameCount() - frameCapacity);
+	}
+
+	/// @return true if the frame is kept in the recording and completely written
+	public boolean hasFrame(long frame) {
+		return frame >= 0 && buffer.getLong(getFrameOffset(frame)) == frame;
+	}
+
+	private int getFrameOffset(long frame) {
+		return framesOffset + (int) (frame % frameCapacity) * frameSize;
+	}
+
+	/// The frame number is read before the joint locations, the fence keeps them from being read before it.
+	private int checkFrame(long frame) {
+		if (!hasFrame(frame)) {
+			throw new IllegalArgumentException("Frame " + frame + " isn't in the recording, it contains frames " + getOldestFrame() + " to " + (getFrameCount() - 1) + ".");
+		}
+		VarHandle.acquireFence();
+		return getFrameOffset(frame);
+	}
+
+	/// Move the bones of the structure to the locations of the frame.
+	///
+	/// @throws IllegalArgumentException if the frame isn't in the recording, was overwritten while it was read or the
+	///                                  chain or bone counts of the structure differ from the recording
+	public void readFrame(long frame, FabrikStructure3f structure) {
+		if (structure.getChainCount() != boneCounts.length) {
+			throw new IllegalArgumentException("Structure has " + structure.getChainCount() + " chains but the recording has " + boneCounts.length + " chains.");
+		}
+
+		int frameOffset = checkFrame(frame);
+		for (int i = 0; i < boneCounts.length; i++) {
+			readChain(structure.getChain(i), i, frameOffset);
+		}
+		checkNotOverwritten(frame, frameOffset);
+	}
+
+	/// Move the bones of the chain to the locations of the chain in the frame.
+	///
+	/// @throws IllegalArgumentException if the frame isn't in the recording, was overwritten while it was read or the
+	///                                  bone count of the chain differs from the recorded chain
+	public void readFrame(long frame, int chainIndex, FabrikChain3f chain) {
+		int frameOffset = checkFrame(frame);
+		readChain(chain, chainIndex, frameOffset);
+		checkNotOverwritten(frame, frameOffset);
+	}
+
+	private void readChain(FabrikChain3f chain, int chainIndex, int frameOffset) {
+		int boneCount = boneCounts[chainIndex];
+		if (chain.getBoneCount() != boneCount) {
+			throw new IllegalArgumentException("Chain " + chainIndex + " has " + chain.getBoneCount() + " bones but the recording has " + boneCount + " bones.");
+		}
+
+		MappedByteBuffer buffer = this.buffer;
+		int offset = frameOffset + chainOffsets[chainIndex];
+		for (int i = 0; i < boneCount; i++, offset += 3 * Float.BYTES) {
+			chain.getBone(i).setLocations(
+					buffer.getFloat(offset), buffer.getFloat(offset + 4), buffer.getFloat(offset + 8),
+					buffer.getFloat(offset + 12), buffer.getFloat(offset + 16), buffer.getFloat(offset + 20)
+			);
+		}
+		chain.markDirty();
+	}
+
+	/// Read a single joint location of the frame, joint `i` is the start of bone `i` and joint `boneCount` is the end of
+	/// the end effector.
+	///
+	/// @throws IllegalArgumentException if the frame isn't in the recording or was overwritten while it was read
+	public Vector3f getJointLocation(long frame, int chainIndex, int jointIndex, Vector3f dest) {
+		if (jointIndex < 0 || jointIndex > boneCounts[chainIndex]) {
+			throw new IndexOutOfBoundsException("Joint index " + jointIndex + " out of bounds for chain with " + boneCounts[chainIndex] + " bones");
+		}
+
+		int frameOffset = checkFrame(frame);
+		int offset = frameOffset + chainOffsets[chainIndex] + jointIndex * 3 * Float.BYTES;
+		dest.set(buffer.getFloat(offset), buffer.getFloat(offset + 4), buffer.getFloat(offset + 8));
+		checkNotOverwritten(frame, frameOffset);
+		return dest;
+	}
+
+	/// The frame number is read again after the joint locations, the fence keeps them from being read after it. The
+	/// recorder invalidates the frame number before it overwrites the joint locations, so an unchanged frame number
+	/// means that none of the read joint locations belong to a newer frame.
+	private void checkNotOverwritten(long frame, int frameOffset) {
+		VarHandle.loadLoadFence();
+		if (buffer.getLong(frameOffset) != frame) {
+			throw new IllegalArgumentException("Frame " + frame + " was overwritten while it was read.");
+		}
+	}
+
+}
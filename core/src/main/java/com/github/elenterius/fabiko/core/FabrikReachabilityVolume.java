@@ -0,0 +1,491 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/// Precomputed workspace of a chain which answers if a target can be reached and which location nearest to a target can
+/// be reached in constant time, without solving the chain.
+///
+/// The workspace is sampled into a cubic voxel grid relative to the base location of the chain, which covers every
+/// location within the length of the chain. A voxel is reachable if solving a copy of the chain for the center of the
+/// voxel moves the end effector within the tolerance of the center. The grid is sampled in parallel on a
+/// [ForkJoinPool], each row of voxels is solved in order, starting from the pose the chain had when the volume was
+/// computed, so the result doesn't depend on the number of threads.
+///
+/// The base of the chain is fixed while sampling and the constraints are applied as they are. A volume is only valid as
+/// long as the bones and joints of the chain don't change and the chain isn't rotated, i.e. for global constraints and
+/// base bone constraints the voxel grid is aligned with the world axes. Connections to other chains are ignored, the
+/// chain is sampled like a standalone [FabrikPackedChain3f].
+///
+/// Besides the occupancy of every voxel, the volume keeps the index of the nearest reachable voxel of every voxel, which
+/// is derived from the occupancy with an exact euclidean distance transform. Only the occupancy is
+/// [written][#write(ByteBuffer)], the nearest voxels are derived again when the volume is read.
+///
+/// ```
+/// volume: int magic "FRCH", int version, int resolution, int boneCount, float cellSize, float tolerance, float length,
+///         padding to 8 bytes, long[ceil(resolution^3 / 64)] occupancy
+/// ```
+///
+/// The occupancy holds one bit per voxel in `x`, `y`, `z` order, i.e. the index of a voxel is
+/// `(z * resolution + y) * resolution + x`. All values are little-endian.
+public final class FabrikReachabilityVolume {
+
+	/// `FRCH` in ASCII
+	public static final int MAGIC = 'F' | 'R' << 8 | 'C' << 16 | 'H' << 24;
+
+	/// The version written by this class, files of older versions can be read as well.
+	public static final int VERSION = 1;
+
+	/// The maximum number of voxels along each axis, keeps the nearest voxel table below 64 MiB.
+	public static final int MAX_RESOLUTION = 256;
+
+	/// The number of voxel rows sampled by a single task.
+	private static final int ROWS_PER_TASK = 8;
+
+	/// The number of voxel lines transformed by a single task.
+	private static final int LINES_PER_TASK = 64;
+
+	private static final int HEADER_SIZE = 8 * Integer.BYTES;
+
+	private final int resolution;
+	private final int boneCount;
+	private final float cellSize;
+	private final float tolerance;
+	private final float length;
+	/// the coordinate of the lower corner of the grid along each axis relative to the base location
+	private final float origin;
+
+	private final long[] occupancy;
+	/// index of the nearest reachable voxel of every voxel, `-1` if no voxel is reachable
+	private final int[] nearest;
+	private int reachableCount;
+
+	private FabrikReachabilityVolume(int resolution, int boneCount, float cellSize, float tolerance, float length) {
+		this.resolution = resolution;
+		this.boneCount = boneCount;
+		this.cellSize = cellSize;
+		this.tolerance = tolerance;
+		this.length = length;
+		origin = -resolution * cellSize / 2f;
+
+		int voxelCount = resolution * resolution * resolution;
+		occupancy = new long[(voxelCount + 63) >>> 6];
+		nearest = new int[voxelCount];
+	}
+
+	/// Sample the workspace of the chain on the common pool, a voxel is reachable if the end effector gets within half the
+	/// diagonal of a voxel of its center.
+	///
+	/// @see #compute(FabrikChain3f, float, float, ForkJoinPool)
+	public static FabrikReachabilityVolume compute(FabrikChain3f chain, float cellSize) {
+		return compute(chain, cellSize, cellSize * (float) Math.sqrt(3) / 2f, ForkJoinPool.commonPool());
+	}
+
+	/// Sample the workspace of the chain.
+	///
+	/// The chain itself isn't modified, every worker solves its own packed copy of it. The solve distance threshold of the
+	/// copies is the tolerance, their other solver settings are those of the chain.
+	///
+	/// @param chain     a non-empty chain, its current pose is the start pose of every row of voxels
+	/// @param cellSize  the edge length of a voxel, must be positive
+	/// @param tolerance the maximum distance between the end effector and the center of a reachable voxel, must not be
+	///                  negative
+	/// @param pool      the pool to sample the voxels on
+	/// @throws IllegalArgumentException if the cell size is too small for the length of the chain, i.e. the grid would
+	///                                  have more than [#MAX_RESOLUTION] voxels along an axis
+	public static FabrikReachabilityVolume compute(FabrikChain3f chain, float cellSize, float tolerance, ForkJoinPool pool) {
+		if (!(cellSize > 0f) || !Float.isFinite(cellSize)) {
+			throw new IllegalArgumentException("Cell size must be positive but was " + cellSize + ".");
+		}
+		if (!(tolerance >= 0f) || !Float.isFinite(tolerance)) {
+			throw new IllegalArgumentException("Tolerance must not be negative but was " + tolerance + ".");
+		}
+
+		FabrikPackedChain3f template = FabrikPackedChain3f.from(chain);
+
+		// voxels whose center is further away from the base than this can't be reached
+		float extent = template.length + tolerance;
+		double cellsPerAxis = Math.ceil(2.0 * extent / cellSize);
+		if (cellsPerAxis > MAX_RESOLUTION) {
+			throw new IllegalArgumentException("Cell size " + cellSize + " requires " + (long) cellsPerAxis + " voxels per axis for a chain of length " + template.length + " but at most " + MAX_RESOLUTION + " are supported.");
+		}
+
+		FabrikReachabilityVolume volume = new FabrikReachabilityVolume(Math.max(1, (int) cellsPerAxis), template.boneCount, cellSize, tolerance, template.length);
+
+		// sample relative to the base location with the base held in place
+		Vector3fc baseLocation = chain.fixedBaseMode ? chain.fixedBaseLocation : chain.getBaseLocation();
+		float[] locations = template.locations;
+		for (int i = 0; i < locations.length; i += 3) {
+			locations[i] -= baseLocation.x();
+			locations[i + 1] -= baseLocation.y();
+			locations[i + 2] -= baseLocation.z();
+		}
+		template.fixedBaseMode = true;
+		template.fixedBaseLocation.zero();
+		template.solveDistanceThreshold = tolerance;
+
+		int rowCount = volume.resolution * volume.resolution;
+		pool.invoke(new LineTask((from, to) -> volume.sampleRows(template, from, to), 0, rowCount, ROWS_PER_TASK));
+
+		int[] nearest = volume.nearest;
+		for (int i = 0; i < nearest.length; i++) {
+			if (nearest[i] == i) {
+				volume.occupancy[i >>> 6] |= 1L << i;
+			}
+		}
+		volume.computeNearest(pool);
+
+		return volume;
+	}
+
+	/// Solve every voxel of the rows and mark the reachable voxels as their own nearest voxel.
+	private void sampleRows(FabrikPackedChain3f template, int fromRow, int toRow) {
+		FabrikPackedChain3f chain = new FabrikPackedChain3f(template);
+		FabrikPackedSolver3f solver = new FabrikPackedSolver3f();
+		Vector3f target = new Vector3f();
+		float maxDistanceSquared = (length + tolerance) * (length + tolerance);
+
+		for (int row = fromRow; row < toRow; row++) {
+			float y = getCenter(row % resolution);
+			float z = getCenter(row / resolution);
+			resetPose(chain, template);
+			boolean atStartPose = true;
+
+			for (int x = 0, index = row * resolution; x < resolution; x++, index++) {
+				target.set(getCenter(x), y, z);
+				nearest[index] = -1;
+				if (target.lengthSquared() > maxDistanceSquared) continue;
+
+				float solveDistance = solver.solveForTarget(chain, target);
+				if (solveDistance > tolerance && !atStartPose) {
+					// the pose of the previous voxel can get stuck on a constraint, try again from the start pose
+					resetPose(chain, template);
+					solveDistance = solver.solveForTarget(chain, target);
+				}
+				atStartPose = false;
+
+				if (solveDistance <= tolerance) {
+					nearest[index] = index;
+				}
+			}
+		}
+	}
+
+	private static void resetPose(FabrikPackedChain3f chain, FabrikPackedChain3f template) {
+		System.arraycopy(template.locations, 0, chain.locations, 0, chain.locations.length);
+		System.arraycopy(template.directions, 0, chain.directions, 0, chain.directions.length);
+		chain.lastTargetLocation.set(Float.MAX_VALUE);
+	}
+
+	/// Derive the nearest reachable voxel of every voxel from the occupancy, one axis after another.
+	///
+	/// The squared distance to the nearest reachable voxel is separable into the distances along each axis, which are
+	/// solved per line of voxels with the lower envelope of parabolas of Felzenszwalb and Huttenlocher.
+	private void computeNearest(ForkJoinPool pool) {
+		int n = resolution;
+		int[] distances = new int[nearest.length];
+		reachableCount = 0;
+		for (int i = 0; i < nearest.length; i++) {
+			if (isOccupied(i)) {
+				distances[i] = 0;
+				nearest[i] = i;
+				reachableCount++;
+			}
+			else {
+				distances[i] = Integer.MAX_VALUE;
+				nearest[i] = -1;
+			}
+		}
+		if (reachableCount == 0) return;
+
+		int lineCount = n * n;
+		// the stride along the line followed by the strides of the other two axes
+		pool.invoke(new LineTask((from, to) -> transformLines(distances, from, to, 1, n, n * n), 0, lineCount, LINES_PER_TASK));
+		pool.invoke(new LineTask((from, to) -> transformLines(distances, from, to, n, 1, n * n), 0, lineCount, LINES_PER_TASK));
+		pool.invoke(new LineTask((from, to) -> transformLines(distances, from, to, n * n, 1, n), 0, lineCount, LINES_PER_TASK));
+	}
+
+	private void transformLines(int[] distances, int fromLine, int toLine, int stride, int innerStride, int outerStride) {
+		int n = resolution;
+		int[] values = new int[n];
+		int[] sources = new int[n];
+		int[] vertices = new int[n];
+		double[] bounds = new double[n + 1];
+
+		for (int line = fromLine; line < toLine; line++) {
+			int start = (line % n) * innerStride + (line / n) * outerStride;
+			for (int i = 0, index = start; i < n; i++, index += stride) {
+				values[i] = distances[index];
+				sources[i] = nearest[index];
+			}
+
+			// lower envelope of the parabolas rooted at the voxels with a nearest voxel
+			int k = -1;
+			for (int q = 0; q < n; q++) {
+				if (values[q] == Integer.MAX_VALUE) continue;
+
+				double s = Double.NEGATIVE_INFINITY;
+				while (k >= 0) {
+					int p = vertices[k];
+					s = ((values[q] + (double) q * q) - (values[p] + (double) p * p)) / (2.0 * (q - p));
+					if (s > bounds[k]) break;
+					k--;
+				}
+				k++;
+				vertices[k] = q;
+				bounds[k] = k == 0 ? Double.NEGATIVE_INFINITY : s;
+				bounds[k + 1] = Double.POSITIVE_INFINITY;
+			}
+			if (k < 0) continue;
+
+			k = 0;
+			for (int q = 0, index = start; q < n; q++, index += stride) {
+				while (bounds[k + 1] < q) k++;
+				int p = vertices[k];
+				distances[index] = (q - p) * (q - p) + values[p];
+				nearest[index] = sources[p];
+			}
+		}
+	}
+
+	private boolean isOccupied(int index) {
+		return (occupancy[index >>> 6] & 1L << index) != 0;
+	}
+
+	private float getCenter(int cell) {
+		return origin + (cell + 0.5f) * cellSize;
+	}
+
+	/// @return the index of the voxel along an axis containing the coordinate relative to the base, `-1` if it's outside
+	private int getCell(float coordinate) {
+		float cell = (coordinate - origin) / cellSize;
+		return cell >= 0f && cell < resolution ? Math.min((int) cell, resolution - 1) : -1;
+	}
+
+	/// @return the index of the voxel along an axis nearest to the coordinate relative to the base
+	private int getClampedCell(float coordinate) {
+		float cell = (coordinate - origin) / cellSize;
+		return cell > 0f ? Math.min((int) cell, resolution - 1) : 0;
+	}
+
+	/// @return the number of voxels along each axis
+	public int getResolution() {
+		return resolution;
+	}
+
+	public int getVoxelCount() {
+		return nearest.length;
+	}
+
+	public int getReachableCount() {
+		return reachableCount;
+	}
+
+	/// @return the number of bones of the sampled chain
+	public int getBoneCount() {
+		return boneCount;
+	}
+
+	/// @return the length of the sampled chain
+	public float getLength() {
+		return length;
+	}
+
+	public float getCellSize() {
+		return cellSize;
+	}
+
+	public float getTolerance() {
+		return tolerance;
+	}
+
+	/// @return the distance from the base location to each side of the grid
+	public float getExtent() {
+		return -origin;
+	}
+
+	/// @param x the coordinate relative to the base location
+	/// @param y the coordinate relative to the base location
+	/// @param z the coordinate relative to the base location
+	/// @return `true` if the voxel containing the location is reachable
+	public boolean isReachable(float x, float y, float z) {
+		int cellX = getCell(x);
+		int cellY = getCell(y);
+		int cellZ = getCell(z);
+		if (cellX < 0 || cellY < 0 || cellZ < 0) return false;
+
+		return isOccupied((cellZ * resolution + cellY) * resolution + cellX);
+	}
+
+	/// @param baseLocation the current base location of the chain
+	/// @return `true` if the voxel containing the target is reachable
+	public boolean isReachable(Vector3fc baseLocation, Vector3fc target) {
+		return isReachable(target.x() - baseLocation.x(), target.y() - baseLocation.y(), target.z() - baseLocation.z());
+	}
+
+	/// Get the location nearest to the given location which can be reached.
+	///
+	/// That is the location itself if it's reachable, otherwise the center of the nearest reachable voxel. Locations
+	/// outside the grid are clamped to the nearest voxel of the grid first.
+	///
+	/// @param x    the coordinate relative to the base location
+	/// @param y    the coordinate relative to the base location
+	/// @param z    the coordinate relative to the base location
+	/// @param dest will hold the reachable location relative to the base location
+	/// @return `dest`, or `null` if no voxel is reachable
+	public @Nullable Vector3f getNearestReachable(float x, float y, float z, Vector3f dest) {
+		int index = (getClampedCell(z) * resolution + getClampedCell(y)) * resolution + getClampedCell(x);
+		int nearestIndex = nearest[index];
+		if (nearestIndex < 0) return null;
+
+		if (nearestIndex == index && isReachable(x, y, z)) {
+			return dest.set(x, y, z);
+		}
+		return dest.set(getCenter(nearestIndex % resolution), getCenter(nearestIndex / resolution % resolution), getCenter(nearestIndex / (resolution * resolution)));
+	}
+
+	/// @param baseLocation the current base location of the chain
+	/// @param dest         will hold the reachable location
+	/// @return `dest`, or `null` if no voxel is reachable
+	/// @see #getNearestReachable(float, float, float, Vector3f)
+	public @Nullable Vector3f getNearestReachable(Vector3fc baseLocation, Vector3fc target, Vector3f dest) {
+		Vector3f location = getNearestReachable(target.x() - baseLocation.x(), target.y() - baseLocation.y(), target.z() - baseLocation.z(), dest);
+		return location != null ? location.add(baseLocation) : null;
+	}
+
+	/// @return the number of bytes [#write(ByteBuffer)] writes
+	public int getSerializedSize() {
+		return HEADER_SIZE + occupancy.length * Long.BYTES;
+	}
+
+	/// Write the volume to the file, replacing its content.
+	public void write(Path path) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(getSerializedSize());
+		write(buffer);
+		buffer.flip();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/// Write the settings and the occupancy of the volume.
+	///
+	/// @param dest must have at least [#getSerializedSize()] bytes remaining
+	public void write(ByteBuffer dest) {
+		ByteBuffer out = dest.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+		out.putInt(MAGIC).putInt(VERSION).putInt(resolution).putInt(boneCount);
+		out.putFloat(cellSize).putFloat(tolerance).putFloat(length).putInt(0);
+		out.asLongBuffer().put(occupancy);
+
+		dest.position(dest.position() + getSerializedSize());
+	}
+
+	/// Read a volume from the file and derive its nearest voxels on the common pool.
+	///
+	/// @throws IllegalArgumentException if the file doesn't contain a valid volume of a supported version
+	public static FabrikReachabilityVolume read(Path path) throws IOException {
+		return read(FabrikRigFormat.map(path), ForkJoinPool.commonPool());
+	}
+
+	/// Read a volume written by [#write(ByteBuffer)] and derive its nearest voxels on the common pool.
+	///
+	/// @throws IllegalArgumentException if the buffer doesn't contain a valid volume of a supported version
+	public static FabrikReachabilityVolume read(ByteBuffer src) {
+		return read(src, ForkJoinPool.commonPool());
+	}
+
+	/// Read a volume written by [#write(ByteBuffer)].
+	///
+	/// @param pool the pool to derive the nearest voxels on
+	/// @throws IllegalArgumentException if the buffer doesn't contain a valid volume of a supported version
+	public static FabrikReachabilityVolume read(ByteBuffer src, ForkJoinPool pool) {
+		ByteBuffer in = src.slice().order(ByteOrder.LITTLE_ENDIAN);
+		if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+			throw new IllegalArgumentException("Buffer doesn't contain a FABRIK reachability volume.");
+		}
+		int version = in.getInt();
+		if (version < 1 || version > VERSION) {
+			throw new IllegalArgumentException("Unsupported reachability volume format version " + version + ", expected version 1 to " + VERSION + ".");
+		}
+
+		int resolution = in.getInt();
+		int boneCount = in.getInt();
+		float cellSize = in.getFloat();
+		float tolerance = in.getFloat();
+		float length = in.getFloat();
+		in.getInt(); // padding
+		if (resolution < 1 || resolution > MAX_RESOLUTION || boneCount < 1 || !(cellSize > 0f) || !Float.isFinite(cellSize) || !(tolerance >= 0f) || !Float.isFinite(tolerance) || !(length > 0f)) {
+			throw new IllegalArgumentException("Reachability volume has an invalid header.");
+		}
+
+		FabrikReachabilityVolume volume = new FabrikReachabilityVolume(resolution, boneCount, cellSize, tolerance, length);
+		if (in.remaining() < volume.occupancy.length * Long.BYTES) {
+			throw new IllegalArgumentException("Reachability volume is truncated.");
+		}
+		LongBuffer longs = in.asLongBuffer();
+		longs.get(volume.occupancy);
+
+		// ignore the bits after the last voxel
+		int voxelCount = volume.nearest.length;
+		if ((voxelCount & 63) != 0) {
+			volume.occupancy[volume.occupancy.length - 1] &= (1L << voxelCount) - 1;
+		}
+		volume.computeNearest(pool);
+
+		src.position(src.position() + volume.getSerializedSize());
+		return volume;
+	}
+
+	@FunctionalInterface
+	private interface LineAction {
+
+		void run(int fromLine, int toLine);
+
+	}
+
+	/// Splits the range of voxel lines in halves until it fits into a single task.
+	private static final class LineTask extends RecursiveAction {
+
+		private final LineAction action;
+		private final int from;
+		private final int to;
+		private final int linesPerTask;
+
+		LineTask(LineAction action, int from, int to, int linesPerTask) {
+			this.action = action;
+			this.from = from;
+			this.to = to;
+			this.linesPerTask = linesPerTask;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= linesPerTask) {
+				action.run(from, to);
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(
+					new LineTask(action, from, middle, linesPerTask),
+					new LineTask(action, middle, to, linesPerTask)
+			);
+		}
+
+	}
+
+}
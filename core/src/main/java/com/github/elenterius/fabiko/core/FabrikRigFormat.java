@@ -0,0 +1,519 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/// Versioned binary format for rigs ([structures][FabrikStructure3f]) and their poses.
+///
+/// A rig file stores the bones, joints, connections and solver settings of every chain of a structure. The per bone
+/// data is stored in the layout of [FabrikPackedChain3f], so loading a rig is a handful of bulk copies per chain instead
+/// of building and validating every bone and joint through the [FabrikChain3f#builder()]. A pose file only stores the
+/// bone locations and directions of every chain.
+///
+/// All values are little-endian. Rigs and poses are read from and written to the position of the given buffer, which is
+/// advanced past them, so a single file may contain many rigs or poses. Use [#map(Path)] to read them from a memory-mapped
+/// file.
+///
+/// ```
+/// rig:   int magic "FRIG", int version, int chainCount, int flags, chain...
+/// chain: int boneCount, int hostChainIndex, int hostBoneIndex, int maxIterationAttempts, int flags,
+///        float length, float solveDistanceThreshold, float minIterationChange,
+///        float[3] baseboneConstraint, float[3] baseboneRelativeConstraint, float[3] baseboneRelativeReferenceConstraint,
+///        float[3] baseLocation, float[3] embeddedTarget,
+///        float[(boneCount + 1) * 3] locations, float[boneCount * 3] directions, float[boneCount] lengths,
+///        float[boneCount * 2] jointAngles, float[boneCount * 2] jointCosines, float[boneCount * 2] jointSines,
+///        float[boneCount * 6] jointAxes, byte[boneCount] jointTypes, byte[boneCount] boneFlags, padding to 4 bytes
+///
+/// pose:  int magic "FPOS", int version, int chainCount, chain...
+/// chain: int boneCount, float[(boneCount + 1) * 3] locations, float[boneCount * 3] directions
+/// ```
+public final class FabrikRigFormat {
+
+	/// `FRIG` in ASCII
+	public static final int RIG_MAGIC = 'F' | 'R' << 8 | 'I' << 16 | 'G' << 24;
+
+	/// `FPOS` in ASCII
+	public static final int POSE_MAGIC = 'F' | 'P' << 8 | 'O' << 16 | 'S' << 24;
+
+	/// The version written by this class, files of older versions can be read as well.
+	public static final int VERSION = 1;
+
+	private static final int RIG_FROZEN = 1;
+	private static final int CHAIN_FIXED_BASE_MODE = 1;
+	private static final int CHAIN_EMBEDDED_TARGET = 1 << 1;
+	private static final byte BONE_CONSTRAINED = 1;
+	private static final byte BONE_CONNECTS_AT_START = 1 << 1;
+
+	private static final int RIG_HEADER_SIZE = 4 * Integer.BYTES;
+	private static final int CHAIN_HEADER_SIZE = 5 * Integer.BYTES + 18 * Float.BYTES;
+	private static final int POSE_HEADER_SIZE = 3 * Integer.BYTES;
+	/// the least number of bytes a bone of a rig chain takes
+	private static final int MIN_BONE_SIZE = 78;
+
+	private FabrikRigFormat() {
+	}
+
+	/// @return the number of bytes [#writeRig(FabrikStructure3f, ByteBuffer)] writes for the structure
+	public static int getRigSize(FabrikStructure3f structure) {
+		int size = RIG_HEADER_SIZE;
+		for (int i = 0; i < structure.getChainCount(); i++) {
+			size += getChainSize(structure.getChain(i).getBoneCount());
+		}
+		return size;
+	}
+
+	/// @return the number of bytes [#writePose(FabrikStructure3f, ByteBuffer)] writes for the structure
+	public static int getPoseSize(FabrikStructure3f structure) {
+		int size = POSE_HEADER_SIZE;
+		for (int i = 0; i < structure.getChainCount(); i++) {
+			size += getChainPoseSize(structure.getChain(i).getBoneCount());
+		}
+		return size;
+	}
+
+	/// @return the number of bytes [#writePose(FabrikPackedChain3f[], ByteBuffer)] writes for the chains
+	public static int getPoseSize(FabrikPackedChain3f[] chains) {
+		int size = POSE_HEADER_SIZE;
+		for (FabrikPackedChain3f chain : chains) {
+			size += getChainPoseSize(chain.getBoneCount());
+		}
+		return size;
+	}
+
+	private static int getChainSize(int boneCount) {
+		return CHAIN_HEADER_SIZE + getChainFloatCount(boneCount) * Float.BYTES + align(boneCount * 2);
+	}
+
+	private static int getChainFloatCount(int boneCount) {
+		return (boneCount + 1) * 3 + boneCount * 3 + boneCount + boneCount * 2 * 3 + boneCount * 6;
+	}
+
+	private static int getChainPoseSize(int boneCount) {
+		return Integer.BYTES + getChainPoseFloatCount(boneCount) * Float.BYTES;
+	}
+
+	private static int getChainPoseFloatCount(int boneCount) {
+		return (boneCount + 1) * 3 + boneCount * 3;
+	}
+
+	private static int align(int size) {
+		return (size + 3) & ~3;
+	}
+
+	/// Memory-map the whole file for reading.
+	public static MappedByteBuffer map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/// Write the rig to the file, replacing its content.
+	public static void writeRig(FabrikStructure3f structure, Path path) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(getRigSize(structure));
+		writeRig(structure, buffer);
+		write(buffer.flip(), path);
+	}
+
+	/// Write the pose of the structure to the file, replacing its content.
+	public static void writePose(FabrikStructure3f structure, Path path) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(getPoseSize(structure));
+		writePose(structure, buffer);
+		write(buffer.flip(), path);
+	}
+
+	private static void write(ByteBuffer buffer, Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/// Write the bones, joints, connections and solver settings of all chains of the structure.
+	///
+	/// @param dest must have at least [#getRigSize(FabrikStructure3f)] bytes remaining
+	/// @throws IllegalArgumentException if a chain has no bones
+	public static void writeRig(FabrikStructure3f structure, ByteBuffer dest) {
+		ByteBuffer out = dest.slice().order(ByteOrder.LITTLE_ENDIAN);
+		int chainCount = structure.getChainCount();
+
+		out.putInt(RIG_MAGIC).putInt(VERSION).putInt(chainCount).putInt(structure.isFrozen() ? RIG_FROZEN : 0);
+		for (int i = 0; i < chainCount; i++) {
+			writeChain(structure.getChain(i), out);
+		}
+
+		dest.position(dest.position() + out.position());
+	}
+
+	private static void writeChain(FabrikChain3f chain, ByteBuffer out) {
+		FabrikPackedChain3f packed = FabrikPackedChain3f.from(chain);
+		int boneCount = packed.boneCount;
+
+		int flags = (chain.fixedBaseMode ? CHAIN_FIXED_BASE_MODE : 0) | (chain.isEmbeddedTargetEnabled() ? CHAIN_EMBEDDED_TARGET : 0);
+		out.putInt(boneCount).putInt(chain.getConnectedToChainId()).putInt(chain.getConnectedToBoneIndex()).putInt(chain.maxIterationAttempts).putInt(flags);
+		out.putFloat(packed.length).putFloat(chain.solveDistanceThreshold).putFloat(chain.minIterationChange);
+		putVector(out, chain.baseboneConstraint);
+		putVector(out, chain.baseboneRelativeConstraint);
+		putVector(out, chain.baseboneRelativeReferenceConstraint);
+		putVector(out, chain.getBaseLocation());
+		putVector(out, chain.getEmbeddedTarget());
+
+		FloatBuffer floats = out.asFloatBuffer();
+		floats.put(packed.locations).put(packed.directions).put(packed.lengths);
+		floats.put(packed.jointAngles).put(packed.jointCosines).put(packed.jointSines).put(packed.jointAxes);
+		out.position(out.position() + floats.position() * Float.BYTES);
+
+		out.put(packed.jointTypes);
+		for (int i = 0; i < boneCount; i++) {
+			boolean connectsAtStart = chain.getBone(i).getBoneConnectionPoint() == BoneConnectionPoint.START;
+			out.put((byte) ((packed.jointConstrained[i] ? BONE_CONSTRAINED : 0) | (connectsAtStart ? BONE_CONNECTS_AT_START : 0)));
+		}
+		out.position(out.position() + align(boneCount * 2) - boneCount * 2);
+	}
+
+	/// Read a rig written by [#writeRig(FabrikStructure3f, ByteBuffer)] into a new structure.
+	///
+	/// @throws IllegalArgumentException if the buffer doesn't contain a valid rig of a supported version
+	public static FabrikStructure3f readRig(ByteBuffer src) {
+		ByteBuffer in = src.slice().order(ByteOrder.LITTLE_ENDIAN);
+		int chainCount = readHeader(in, RIG_MAGIC, "rig", RIG_HEADER_SIZE);
+		int rigFlags = in.getInt();
+		checkRigChainCount(in, chainCount);
+
+		FabrikStructure3f structure = new FabrikStructure3f();
+		int[] hostChainIndices = new int[chainCount];
+		int[] hostBoneIndices = new int[chainCount];
+
+		Vector3f start = new Vector3f();
+		Vector3f end = new Vector3f();
+		Vector3f direction = new Vector3f();
+		Vector3f axis = new Vector3f();
+
+		for (int i = 0; i < chainCount; i++) {
+			int chainOffset = in.position();
+			int boneCount = in.getInt();
+			hostChainIndices[i] = in.getInt();
+			hostBoneIndices[i] = in.getInt();
+			int maxIterationAttempts = in.getInt();
+			int flags = in.getInt();
+			checkChainSize(in, i, boneCount);
+
+			FabrikChain3f chain = readChainBones(in, chainOffset, i, boneCount, start, end, direction, axis);
+			chain.maxIterationAttempts = maxIterationAttempts;
+			chain.fixedBaseMode = (flags & CHAIN_FIXED_BASE_MODE) != 0;
+			chain.solveDistanceThreshold = in.getFloat(chainOffset + 24);
+			chain.minIterationChange = in.getFloat(chainOffset + 28);
+			getVector(in, chainOffset + 32, chain.baseboneConstraint);
+			getVector(in, chainOffset + 44, chain.baseboneRelativeConstraint);
+			getVector(in, chainOffset + 56, chain.baseboneRelativeReferenceConstraint);
+			chain.fixedBaseLocation = getVector(in, chainOffset + 68, new Vector3f());
+			chain.setUseEmbeddedTarget((flags & CHAIN_EMBEDDED_TARGET) != 0);
+			chain.setEmbeddedTargetFrom(getVector(in, chainOffset + 80, start));
+
+			structure.addChain(chain);
+			in.position(chainOffset + getChainSize(boneCount));
+		}
+
+		// connect the chains once all chains exist, hosts don't have to precede the chains connected to them
+		for (int i = 0; i < chainCount; i++) {
+			int hostIndex = hostChainIndices[i];
+			if (hostIndex == -1) continue;
+
+			if (hostIndex < 0 || hostIndex >= chainCount) {
+				throw new IllegalArgumentException("Chain " + i + " of rig is connected to chain " + hostIndex + " which doesn't exist.");
+			}
+			FabrikChain3f hostChain = structure.getChain(hostIndex);
+			int hostBoneIndex = hostBoneIndices[i];
+			if (hostBoneIndex < 0 || hostBoneIndex >= hostChain.getBoneCount()) {
+				throw new IllegalArgumentException("Chain " + i + " of rig is connected to bone " + hostBoneIndex + " of chain " + hostIndex + " which doesn't exist.");
+			}
+
+			FabrikChain3f chain = structure.getChain(i);
+			chain.connectToStructure(structure, hostIndex, hostBoneIndex);
+			chain.setBaseLocation(hostChain.getBone(hostBoneIndex).getBoneConnectionPointLocation());
+		}
+
+		if ((rigFlags & RIG_FROZEN) != 0) {
+			structure.freeze();
+		}
+
+		src.position(src.position() + in.position());
+		return structure;
+	}
+
+	/// Read a rig written by [#writeRig(FabrikStructure3f, ByteBuffer)] into packed chains, one per chain of the rig.
+	///
+	/// The per bone data is bulk copied into the packed chains. Packed chains are standalone chains, the connections
+	/// between the chains and their embedded targets are skipped.
+	///
+	/// @throws IllegalArgumentException if the buffer doesn't contain a valid rig of a supported version
+	public static FabrikPackedChain3f[] readPackedRig(ByteBuffer src) {
+		ByteBuffer in = src.slice().order(ByteOrder.LITTLE_ENDIAN);
+		int chainCount = readHeader(in, RIG_MAGIC, "rig", RIG_HEADER_SIZE);
+		in.getInt(); // rig flags
+		checkRigChainCount(in, chainCount);
+
+		FabrikPackedChain3f[] chains = new FabrikPackedChain3f[chainCount];
+		for (int i = 0; i < chainCount; i++) {
+			int boneCount = in.getInt();
+			in.getInt(); // host chain index
+			in.getInt(); // host bone index
+			int maxIterationAttempts = in.getInt();
+			int flags = in.getInt();
+			chains[i] = readChain(in, i, boneCount, maxIterationAttempts, flags);
+		}
+
+		src.position(src.position() + in.position());
+		return chains;
+	}
+
+	/// Build the bones of a chain directly from the buffer, without going through a packed chain.
+	private static FabrikChain3f readChainBones(ByteBuffer in, int chainOffset, int chainIndex, int boneCount, Vector3f start, Vector3f end, Vector3f direction, Vector3f axis) {
+		int locationsOffset = chainOffset + CHAIN_HEADER_SIZE;
+		int directionsOffset = locationsOffset + (boneCount + 1) * 3 * Float.BYTES;
+		int lengthsOffset = directionsOffset + boneCount * 3 * Float.BYTES;
+		int anglesOffset = lengthsOffset + boneCount * Float.BYTES;
+		int axesOffset = anglesOffset + boneCount * 2 * 3 * Float.BYTES;
+		int jointTypesOffset = axesOffset + boneCount * 6 * Float.BYTES;
+		int boneFlagsOffset = jointTypesOffset + boneCount;
+
+		FabrikBone3f[] bones = new FabrikBone3f[boneCount];
+		getVector(in, locationsOffset, start);
+		for (int i = 0; i < boneCount; i++) {
+			getVector(in, locationsOffset + (i + 1) * 3 * Float.BYTES, end);
+			getVector(in, directionsOffset + i * 3 * Float.BYTES, direction);
+			float angle = in.getFloat(anglesOffset + i * 2 * Float.BYTES);
+			float otherAngle = in.getFloat(anglesOffset + (i * 2 + 1) * Float.BYTES);
+			int axisOffset = axesOffset + i * 6 * Float.BYTES;
+
+			FabrikJoint3f joint = switch (in.get(jointTypesOffset + i)) {
+				case FabrikPackedChain3f.LOCAL_ROTOR -> createRotor(new FabrikJoint3f.LocalRotor(), angle);
+				case FabrikPackedChain3f.GLOBAL_ROTOR -> createRotor(new FabrikJoint3f.GlobalRotor(), angle);
+				case FabrikPackedChain3f.LOCAL_HINGE -> createHinge(new FabrikJoint3f.LocalHinge(), angle, otherAngle, in, axisOffset, axis);
+				case FabrikPackedChain3f.GLOBAL_HINGE -> createHinge(new FabrikJoint3f.GlobalHinge(), angle, otherAngle, in, axisOffset, axis);
+				default -> throw new IllegalArgumentException("Bone " + i + " of chain " + chainIndex + " of rig has an unknown joint type " + in.get(jointTypesOffset + i) + ".");
+			};
+
+			FabrikBone3f bone = new FabrikBone3f(start, direction, in.getFloat(lengthsOffset + i * Float.BYTES), joint);
+			bone.setLocations(start.x, start.y, start.z, end.x, end.y, end.z);
+			if ((in.get(boneFlagsOffset + i) & BONE_CONNECTS_AT_START) != 0) {
+				bone.setBoneConnectionPoint(BoneConnectionPoint.START);
+			}
+			bones[i] = bone;
+			start.set(end);
+		}
+
+		return new FabrikChain3f(bones);
+	}
+
+	private static FabrikJoint3f createRotor(FabrikJoint3f.Rotor rotor, float angle) {
+		rotor.setConstraintAngle(angle);
+		return rotor;
+	}
+
+	private static FabrikJoint3f createHinge(FabrikJoint3f.Hinge hinge, float clockwiseAngle, float antiClockwiseAngle, ByteBuffer in, int axisOffset, Vector3f axis) {
+		hinge.setConstraintAngles(clockwiseAngle, antiClockwiseAngle);
+		hinge.setRotationAxis(getVector(in, axisOffset, axis));
+		hinge.setReferenceAxis(getVector(in, axisOffset + 3 * Float.BYTES, axis));
+		return hinge;
+	}
+
+	private static void checkRigChainCount(ByteBuffer in, int chainCount) {
+		// every chain takes at least one bone, checking that first avoids allocating arrays for chains which don't exist
+		if (chainCount > in.remaining() / (CHAIN_HEADER_SIZE + MIN_BONE_SIZE)) {
+			throw new IllegalArgumentException("Rig has " + chainCount + " chains but is truncated.");
+		}
+	}
+
+	private static void checkChainSize(ByteBuffer in, int chainIndex, int boneCount) {
+		if (boneCount < 1) {
+			throw new IllegalArgumentException("Chain " + chainIndex + " of rig has an invalid bone count of " + boneCount + ".");
+		}
+		// every bone takes at least MIN_BONE_SIZE bytes, checking that first avoids an overflow of the chain size
+		if ((long) boneCount * MIN_BONE_SIZE > in.remaining() || getChainSize(boneCount) - 5 * Integer.BYTES > in.remaining()) {
+			throw new IllegalArgumentException("Chain " + chainIndex + " of rig is truncated.");
+		}
+	}
+
+	/// Read the rest of a chain after the integers of its header.
+	private static FabrikPackedChain3f readChain(ByteBuffer in, int chainIndex, int boneCount, int maxIterationAttempts, int flags) {
+		checkChainSize(in, chainIndex, boneCount);
+
+		FabrikPackedChain3f chain = new FabrikPackedChain3f(boneCount, in.getFloat());
+		chain.maxIterationAttempts = maxIterationAttempts;
+		chain.fixedBaseMode = (flags & CHAIN_FIXED_BASE_MODE) != 0;
+		chain.solveDistanceThreshold = in.getFloat();
+		chain.minIterationChange = in.getFloat();
+		getVector(in, chain.baseboneConstraint);
+		getVector(in, chain.baseboneRelativeConstraint);
+		getVector(in, chain.baseboneRelativeReferenceConstraint);
+		getVector(in, chain.fixedBaseLocation);
+		in.position(in.position() + 3 * Float.BYTES); // embedded target
+
+		FloatBuffer floats = in.asFloatBuffer();
+		floats.get(chain.locations).get(chain.directions).get(chain.lengths);
+		floats.get(chain.jointAngles).get(chain.jointCosines).get(chain.jointSines).get(chain.jointAxes);
+		in.position(in.position() + floats.position() * Float.BYTES);
+
+		in.get(chain.jointTypes);
+		for (int i = 0; i < boneCount; i++) {
+			if (chain.jointTypes[i] < FabrikPackedChain3f.LOCAL_ROTOR || chain.jointTypes[i] > FabrikPackedChain3f.GLOBAL_HINGE) {
+				throw new IllegalArgumentException("Bone " + i + " of chain " + chainIndex + " of rig has an unknown joint type " + chain.jointTypes[i] + ".");
+			}
+		}
+		for (int i = 0; i < boneCount; i++) {
+			chain.jointConstrained[i] = (in.get() & BONE_CONSTRAINED) != 0;
+		}
+		in.position(in.position() + align(boneCount * 2) - boneCount * 2);
+
+		return chain;
+	}
+
+	/// Write the bone locations and directions of all chains of the structure.
+	///
+	/// @param dest must have at least [#getPoseSize(FabrikStructure3f)] bytes remaining
+	public static void writePose(FabrikStructure3f structure, ByteBuffer dest) {
+		ByteBuffer out = dest.slice().order(ByteOrder.LITTLE_ENDIAN);
+		int chainCount = structure.getChainCount();
+
+		out.putInt(POSE_MAGIC).putInt(VERSION).putInt(chainCount);
+		for (int i = 0; i < chainCount; i++) {
+			FabrikChain3f chain = structure.getChain(i);
+			int boneCount = chain.getBoneCount();
+			out.putInt(boneCount);
+			for (int j = 0; j < boneCount; j++) {
+				putVector(out, chain.getBone(j).getStartLocation());
+			}
+			putVector(out, chain.getEndEffectorBone().getEndLocation());
+			for (int j = 0; j < boneCount; j++) {
+				putVector(out, chain.getBone(j).getDirection());
+			}
+		}
+
+		dest.position(dest.position() + out.position());
+	}
+
+	/// Write the bone locations and directions of the packed chains.
+	///
+	/// @param dest must have at least [#getPoseSize(FabrikPackedChain3f[])] bytes remaining
+	public static void writePose(FabrikPackedChain3f[] chains, ByteBuffer dest) {
+		ByteBuffer out = dest.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+		out.putInt(POSE_MAGIC).putInt(VERSION).putInt(chains.length);
+		for (FabrikPackedChain3f chain : chains) {
+			out.putInt(chain.boneCount);
+			FloatBuffer floats = out.asFloatBuffer();
+			floats.put(chain.locations).put(chain.directions);
+			out.position(out.position() + floats.position() * Float.BYTES);
+		}
+
+		dest.position(dest.position() + out.position());
+	}
+
+	/// Move the bones of the structure to the locations of a pose written by [#writePose(FabrikStructure3f, ByteBuffer)]
+	/// or [#writePose(FabrikPackedChain3f[], ByteBuffer)].
+	///
+	/// @throws IllegalArgumentException if the buffer doesn't contain a valid pose of a supported version or the chain or
+	///                                  bone counts of the pose don't match the structure
+	public static void readPose(ByteBuffer src, FabrikStructure3f structure) {
+		ByteBuffer in = src.slice().order(ByteOrder.LITTLE_ENDIAN);
+		int chainCount = readHeader(in, POSE_MAGIC, "pose", POSE_HEADER_SIZE);
+		checkChainCount(chainCount, structure.getChainCount());
+
+		for (int i = 0; i < chainCount; i++) {
+			FabrikChain3f chain = structure.getChain(i);
+			int boneCount = readChainPoseHeader(in, i, chain.getBoneCount());
+
+			int offset = in.position();
+			for (int j = 0; j < boneCount; j++, offset += 3 * Float.BYTES) {
+				chain.getBone(j).setLocations(
+						in.getFloat(offset), in.getFloat(offset + 4), in.getFloat(offset + 8),
+						in.getFloat(offset + 12), in.getFloat(offset + 16), in.getFloat(offset + 20)
+				);
+			}
+			in.position(in.position() + getChainPoseFloatCount(boneCount) * Float.BYTES);
+			chain.markDirty();
+		}
+
+		src.position(src.position() + in.position());
+	}
+
+	/// Bulk copy the bone locations and directions of a pose written by [#writePose(FabrikStructure3f, ByteBuffer)] or
+	/// [#writePose(FabrikPackedChain3f[], ByteBuffer)] into the packed chains.
+	///
+	/// @throws IllegalArgumentException if the buffer doesn't contain a valid pose of a supported version or the chain or
+	///                                  bone counts of the pose don't match the chains
+	public static void readPose(ByteBuffer src, FabrikPackedChain3f[] chains) {
+		ByteBuffer in = src.slice().order(ByteOrder.LITTLE_ENDIAN);
+		int chainCount = readHeader(in, POSE_MAGIC, "pose", POSE_HEADER_SIZE);
+		checkChainCount(chainCount, chains.length);
+
+		for (int i = 0; i < chainCount; i++) {
+			FabrikPackedChain3f chain = chains[i];
+			readChainPoseHeader(in, i, chain.boneCount);
+
+			FloatBuffer floats = in.asFloatBuffer();
+			floats.get(chain.locations).get(chain.directions);
+			in.position(in.position() + floats.position() * Float.BYTES);
+		}
+
+		src.position(src.position() + in.position());
+	}
+
+	private static void checkChainCount(int chainCount, int expectedChainCount) {
+		if (chainCount != expectedChainCount) {
+			throw new IllegalArgumentException("Pose has " + chainCount + " chains but " + expectedChainCount + " chains are required.");
+		}
+	}
+
+	private static int readChainPoseHeader(ByteBuffer in, int chainIndex, int expectedBoneCount) {
+		int boneCount = in.getInt();
+		if (boneCount != expectedBoneCount) {
+			throw new IllegalArgumentException("Chain " + chainIndex + " of pose has " + boneCount + " bones but " + expectedBoneCount + " bones are required.");
+		}
+		if (in.remaining() < getChainPoseFloatCount(boneCount) * Float.BYTES) {
+			throw new IllegalArgumentException("Chain " + chainIndex + " of pose is truncated.");
+		}
+		return boneCount;
+	}
+
+	/// @return the chain count
+	private static int readHeader(ByteBuffer in, int expectedMagic, String kind, int headerSize) {
+		if (in.remaining() < headerSize || in.getInt() != expectedMagic) {
+			throw new IllegalArgumentException("Buffer doesn't contain a FABRIK " + kind + ".");
+		}
+
+		int version = in.getInt();
+		if (version < 1 || version > VERSION) {
+			throw new IllegalArgumentException("Unsupported " + kind + " format version " + version + ", expected version 1 to " + VERSION + ".");
+		}
+
+		int chainCount = in.getInt();
+		if (chainCount < 0) {
+			throw new IllegalArgumentException("Invalid chain count " + chainCount + ".");
+		}
+		return chainCount;
+	}
+
+	private static void putVector(ByteBuffer out, Vector3fc v) {
+		out.putFloat(v.x()).putFloat(v.y()).putFloat(v.z());
+	}
+
+	private static Vector3f getVector(ByteBuffer in, Vector3f dest) {
+		return dest.set(in.getFloat(), in.getFloat(), in.getFloat());
+	}
+
+	private static Vector3f getVector(ByteBuffer in, int offset, Vector3f dest) {
+		return dest.set(in.getFloat(offset), in.getFloat(offset + 4), in.getFloat(offset + 8));
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3f;
+
+/// A single instance of a [FabrikRigTemplate], which only holds the joint locations of its pose.
+///
+/// Instances are spawned by their template and solved by a [FabrikRigSolver3f] of the same template. Root chains in
+/// fixed base mode are anchored at the base joint of the instance pose, use [#translate(float, float, float)] to move an
+/// instance.
+public final class FabrikRigInstance {
+
+	private final FabrikRigTemplate template;
+	/// the pose of this instance starts at [#offset], the array may hold the poses of other instances as well
+	private final float[] pose;
+	private final int offset;
+
+	FabrikRigInstance(FabrikRigTemplate template, float[] pose, int offset) {
+		this.template = template;
+		this.pose = pose;
+		this.offset = offset;
+	}
+
+	public FabrikRigTemplate getTemplate() {
+		return template;
+	}
+
+	/// Joint `i` is the start of bone `i` and joint `boneCount` is the end of the end effector.
+	public Vector3f getJointLocation(int chainIndex, int jointIndex, Vector3f dest) {
+		return FabrikPackedChain3f.load(pose, offset + template.getJointOffset(chainIndex, jointIndex), dest);
+	}
+
+	/// Move all joints of the pose.
+	public void translate(float x, float y, float z) {
+		for (int i = offset, end = offset + template.getPoseSize(); i < end; i += 3) {
+			pose[i] += x;
+			pose[i + 1] += y;
+			pose[i + 2] += z;
+		}
+	}
+
+	/// Move the bones of the structure to the pose of this instance.
+	///
+	/// The chains of the structure are marked [dirty][FabrikChain3f#markDirty()], so the next solve solves all of them.
+	///
+	/// @param structure a structure [created][FabrikRigTemplate#createStructure()] by the template of this instance
+	/// @throws IllegalArgumentException if the chain or bone counts of the structure differ from the template
+	public void copyPoseTo(FabrikStructure3f structure) {
+		template.loadPose(pose, offset, structure);
+	}
+
+	/// Copy the bone locations of the structure into the pose of this instance.
+	///
+	/// @param structure a structure [created][FabrikRigTemplate#createStructure()] by the template of this instance
+	/// @throws IllegalArgumentException if the chain or bone counts of the structure differ from the template
+	public void copyPoseFrom(FabrikStructure3f structure) {
+		template.storePose(structure, pose, offset);
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.jspecify.annotations.Nullable;
+
+/// Solves [instances][FabrikRigInstance] of a [FabrikRigTemplate].
+///
+/// The solver owns a single structure created from the template. Solving an instance loads its pose into that
+/// structure, solves the structure like [FabrikSolver3f#solveForTarget(FabrikStructure3f, Vector3fc, float[])] does and
+/// stores the solved pose back into the instance. The chains keep no state of previous solves of an instance, every
+/// solve solves all chains.
+///
+/// A solver instance owns the structure and scratch vectors used during solving and is therefore **not** thread-safe,
+/// use one solver per thread instead.
+public class FabrikRigSolver3f {
+
+	private final FabrikRigTemplate template;
+	private final FabrikStructure3f structure;
+	private final FabrikSolver3f solver = new FabrikSolver3f();
+
+	/// The base location of each root chain in fixed base mode, `null` for all other chains.
+	private final @Nullable Vector3f[] rootBaseLocations;
+
+	public FabrikRigSolver3f(FabrikRigTemplate template) {
+		this.template = template;
+		structure = template.createStructure();
+
+		rootBaseLocations = new Vector3f[structure.getChainCount()];
+		for (int i = 0; i < rootBaseLocations.length; i++) {
+			FabrikChain3f chain = structure.getChain(i);
+			if (chain.getConnectedToChainId() == -1 && chain.fixedBaseMode) {
+				Vector3f baseLocation = new Vector3f(chain.getBaseLocation());
+				rootBaseLocations[i] = baseLocation;
+				chain.setBaseLocation(baseLocation);
+			}
+		}
+	}
+
+	public FabrikRigTemplate getTemplate() {
+		return template;
+	}
+
+	public @Nullable SolverMetrics getMetrics() {
+		return solver.getMetrics();
+	}
+
+	/// @see FabrikSolver3f#setMetrics(SolverMetrics)
+	public void setMetrics(@Nullable SolverMetrics metrics) {
+		solver.setMetrics(metrics);
+	}
+
+	public boolean isClosedFormSolving() {
+		return solver.isClosedFormSolving();
+	}
+
+	/// @see FabrikSolver3f#setClosedFormSolving(boolean)
+	public void setClosedFormSolving(boolean enable) {
+		solver.setClosedFormSolving(enable);
+	}
+
+	/// Solve the instance for the given target location.
+	///
+	/// All chains are solved for the given target location EXCEPT those which have embedded targets enabled in the
+	/// template, which are solved for the target location embedded in the chain.
+	///
+	/// @return a new array holding the solve distance of each chain
+	public float[] solveForTarget(FabrikRigInstance instance, Vector3fc target) {
+		return solveForTarget(instance, target, new float[structure.getChainCount()]);
+	}
+
+	/// Solve the instance for the given target location and store the solve distance of each chain in
+	/// `solveDistances`.
+	///
+	/// @param instance       an instance spawned by the template of this solver
+	/// @param solveDistances will hold the solve distance of each chain, must be at least as long as the chain count
+	/// @return `solveDistances`
+	/// @throws IllegalArgumentException if the instance was spawned by another template
+	public float[] solveForTarget(FabrikRigInstance instance, Vector3fc target, float[] solveDistances) {
+		if (instance.getTemplate() != template) {
+			throw new IllegalArgumentException("Instance was spawned by another template.");
+		}
+
+		instance.copyPoseTo(structure);
+		for (int i = 0; i < rootBaseLocations.length; i++) {
+			Vector3f baseLocation = rootBaseLocations[i];
+			if (baseLocation != null) {
+				baseLocation.set(structure.getChain(i).getBone(0).getStartLocation());
+			}
+		}
+
+		solver.solveForTarget(structure, target, solveDistances);
+		instance.copyPoseFrom(structure);
+		return solveDistances;
+	}
+
+}
@@ -0,0 +1,173 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3fc;
+
+import java.nio.ByteBuffer;
+
+/// An immutable rig shared by many [instances][FabrikRigInstance] of the same creature.
+///
+/// The template holds everything which is the same for all instances: the chains and their connections, the bone
+/// lengths, the joint constraints and the solver settings of each chain, stored as a [FabrikRigFormat] rig. An instance
+/// only holds the joint locations of its pose in a `float` array, so spawning an instance neither builds nor validates
+/// any bones or joints.
+///
+/// Instances are solved by a [FabrikRigSolver3f], which loads the pose of an instance into its own structure created
+/// from the template, solves it and stores the pose back into the instance.
+///
+/// The layout of a pose is `[x, y, z]` per joint for all `boneCount + 1` joints of each chain, in chain order. Joint
+/// `i` of a chain is the start of bone `i` and joint `boneCount` is the end of its end effector.
+public final class FabrikRigTemplate {
+
+	private final ByteBuffer rig;
+	private final int[] boneCounts;
+	/// offset of the first joint of each chain within a pose
+	private final int[] chainOffsets;
+	private final float[] restPose;
+
+	private FabrikRigTemplate(ByteBuffer rig, FabrikStructure3f structure) {
+		this.rig = rig;
+
+		int chainCount = structure.getChainCount();
+		boneCounts = new int[chainCount];
+		chainOffsets = new int[chainCount];
+		int poseSize = 0;
+		for (int i = 0; i < chainCount; i++) {
+			boneCounts[i] = structure.getChain(i).getBoneCount();
+			chainOffsets[i] = poseSize;
+			poseSize += (boneCounts[i] + 1) * 3;
+		}
+
+		restPose = new float[poseSize];
+		storePose(structure, restPose, 0);
+	}
+
+	/// Create a template with the chains, connections and current pose of the structure as rest pose.
+	///
+	/// Later changes to the structure don't affect the template.
+	///
+	/// @throws IllegalArgumentException if the structure has a chain without bones
+	public static FabrikRigTemplate of(FabrikStructure3f structure) {
+		ByteBuffer rig = ByteBuffer.allocate(FabrikRigFormat.getRigSize(structure));
+		FabrikRigFormat.writeRig(structure, rig);
+		rig.flip();
+
+		return new FabrikRigTemplate(rig.asReadOnlyBuffer(), FabrikRigFormat.readRig(rig.duplicate()));
+	}
+
+	/// Create a template from a rig written by [FabrikRigFormat#writeRig(FabrikStructure3f, ByteBuffer)], e.g. a
+	/// memory-mapped rig file, with the pose stored in the rig as rest pose.
+	///
+	/// The remaining bytes of the buffer are copied, the buffer can be reused afterward.
+	///
+	/// @throws IllegalArgumentException if the buffer doesn't contain a valid rig of a supported version
+	public static FabrikRigTemplate of(ByteBuffer rig) {
+		ByteBuffer copy = ByteBuffer.allocate(rig.remaining()).put(rig.duplicate()).flip();
+		return new FabrikRigTemplate(copy.asReadOnlyBuffer(), FabrikRigFormat.readRig(copy.duplicate()));
+	}
+
+	public int getChainCount() {
+		return boneCounts.length;
+	}
+
+	public int getBoneCount(int chainIndex) {
+		return boneCounts[chainIndex];
+	}
+
+	/// @return the number of floats in the pose of an instance
+	public int getPoseSize() {
+		return restPose.length;
+	}
+
+	/// @return the offset of joint `jointIndex` of the chain within a pose
+	int getJointOffset(int chainIndex, int jointIndex) {
+		if (jointIndex < 0 || jointIndex > boneCounts[chainIndex]) {
+			throw new IndexOutOfBoundsException("Joint index " + jointIndex + " out of bounds for chain with " + boneCounts[chainIndex] + " bones");
+		}
+		return chainOffsets[chainIndex] + jointIndex * 3;
+	}
+
+	/// Create a new structure with the chains, connections and rest pose of this template.
+	public FabrikStructure3f createStructure() {
+		return FabrikRigFormat.readRig(rig.duplicate());
+	}
+
+	/// Spawn an instance in the rest pose.
+	public FabrikRigInstance spawn() {
+		return new FabrikRigInstance(this, restPose.clone(), 0);
+	}
+
+	/// Spawn an instance in the rest pose moved by the offset.
+	public FabrikRigInstance spawn(Vector3fc offset) {
+		FabrikRigInstance instance = spawn();
+		instance.translate(offset.x(), offset.y(), offset.z());
+		return instance;
+	}
+
+	/// Spawn many instances in the rest pose at once.
+	///
+	/// The poses of all instances are slices of a single array, which avoids an array header and allocation per
+	/// instance.
+	///
+	/// @param count the number of instances, must not be negative
+	/// @throws IllegalArgumentException if the poses of all instances don't fit into a single array
+	public FabrikRigInstance[] spawn(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Instance count must not be negative but was " + count + ".");
+		}
+		long length = (long) count * restPose.length;
+		if (length > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Poses of " + count + " instances don't fit into a single array, spawn them in smaller batches.");
+		}
+
+		float[] poses = new float[(int) length];
+		FabrikRigInstance[] instances = new FabrikRigInstance[count];
+		int poseSize = restPose.length;
+		for (int i = 0; i < count; i++) {
+			System.arraycopy(restPose, 0, poses, i * poseSize, poseSize);
+			instances[i] = new FabrikRigInstance(this, poses, i * poseSize);
+		}
+		return instances;
+	}
+
+	/// Move the bones of the structure to the locations of the pose.
+	void loadPose(float[] pose, int offset, FabrikStructure3f structure) {
+		checkStructure(structure);
+
+		for (int i = 0; i < boneCounts.length; i++) {
+			FabrikChain3f chain = structure.getChain(i);
+			int j = offset + chainOffsets[i];
+			for (int k = 0; k < boneCounts[i]; k++, j += 3) {
+				chain.getBone(k).setLocations(pose[j], pose[j + 1], pose[j + 2], pose[j + 3], pose[j + 4], pose[j + 5]);
+			}
+			// the last solve of the chain belongs to another pose
+			chain.markDirty();
+		}
+	}
+
+	/// Copy the bone locations of the structure into the pose.
+	void storePose(FabrikStructure3f structure, float[] pose, int offset) {
+		checkStructure(structure);
+
+		for (int i = 0; i < boneCounts.length; i++) {
+			FabrikChain3f chain = structure.getChain(i);
+			int j = offset + chainOffsets[i];
+			for (int k = 0; k < boneCounts[i]; k++, j += 3) {
+				FabrikPackedChain3f.store(chain.getBone(k).getStartLocation(), pose, j);
+			}
+			FabrikPackedChain3f.store(chain.getEndEffectorBone().getEndLocation(), pose, j);
+		}
+	}
+
+	private void checkStructure(FabrikStructure3f structure) {
+		if (structure.getChainCount() != boneCounts.length) {
+			throw new IllegalArgumentException("Structure has " + structure.getChainCount() + " chains but the template has " + boneCounts.length + " chains.");
+		}
+		for (int i = 0; i < boneCounts.length; i++) {
+			int boneCount = structure.getChain(i).getBoneCount();
+			if (boneCount != boneCounts[i]) {
+				throw new IllegalArgumentException("Chain " + i + " has " + boneCount + " bones but the template has " + boneCounts[i] + " bones.");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,369 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3fc;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+
+/// Remembers the solved poses of a [chain][FabrikChain3f] for recently requested targets, so that repeated solves for
+/// (nearly) the same target don't run the iterative solve again.
+///
+/// The cache is opt-in, attach it to a chain with [FabrikChain3f#setSolutionCache(FabrikSolutionCache)]. The
+/// [FabrikSolver3f] then looks up every solve of the chain:
+///
+/// - **Hit**: a pose was cached for a target and base location in the same cells of the quantization grid. The cached
+///   pose is moved to the current base location and used as the solution without iterating, the solve ends with
+///   [SolveResult.Termination#CACHE_HIT].
+/// - **Miss**: the cached pose whose target relative to its base location is nearest to the requested one is used as
+///   starting pose of the iterative solve, if it is nearer than the current pose of the chain. The solved pose is
+///   cached afterward if it reached the [solve distance threshold][FabrikChain3f#getSolveDistanceThreshold()],
+///   evicting the least recently used pose when the cache is full. Poses of solves which stalled, used all iterations
+///   or only stretched the chain towards a target out of reach are never cached, so every hit serves a solution.
+///
+/// The [cell size][#getCellSize()] bounds how far a served pose can be off: its end effector is at most two cell
+/// diagonals (`2 * sqrt(3) * cellSize`) farther from the target than the cached pose was from its own target. Choose it
+/// well below the [solve distance threshold][FabrikChain3f#getSolveDistanceThreshold()] of the chain.
+///
+/// Cached poses only depend on the target and base location. Poses cached for a chain connected to a host chain with a
+/// local base bone constraint are served regardless of the orientation of the host bone, don't cache such chains if the
+/// host bone rotates. The cache is cleared when a bone or joint of the chain is replaced or modified.
+///
+/// The cache stores its entries in primitive arrays which are allocated up front, so lookups and insertions don't
+/// allocate. Like the chain it belongs to, a cache is **not** thread-safe.
+public final class FabrikSolutionCache {
+
+	private static final int NONE = -1;
+
+	private final int capacity;
+	private final float cellSize;
+
+	/// Quantized target and base location of each entry.
+	///
+	/// Layout: `[targetX, targetY, targetZ, baseX, baseY, baseZ]` per entry.
+	private final int[] keys;
+
+	/// Exact target and base location of each entry, has the same layout as [#keys].
+	private final float[] locations;
+
+	/// Cached poses, has the same layout as [FabrikChain3f#bestSolution] per entry.
+	private float[] poses = new float[0];
+	private int poseSize;
+
+	/// Open addressing hash table with linear probing, holds the entry index of each occupied slot or [#NONE].
+	private final int[] table;
+
+	/// Doubly linked list of the entries from most to least recently used.
+	private final int[] previous;
+	private final int[] next;
+	private int head = NONE;
+	private int tail = NONE;
+	private int size;
+
+	/// The solve plan of the chain the entries were cached for, see [FabrikChain3f#getSolvePlan()].
+	private @Nullable ChainSolvePlan plan;
+
+	private final int[] probeKey = new int[6];
+
+	private long hitCount;
+	private long missCount;
+	private long warmStartCount;
+	private long evictionCount;
+
+	/// @param capacity the maximum number of cached poses, must be positive
+	/// @param cellSize the edge length of the cells of the grid the target and base location are quantized to, must be
+	///                 positive
+	public FabrikSolutionCache(int capacity, float cellSize) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive but was " + capacity + ".");
+		}
+		if (!(cellSize > 0f) || !Float.isFinite(cellSize)) {
+			throw new IllegalArgumentException("Cell size must be positive but was " + cellSize + ".");
+		}
+
+		this.capacity = capacity;
+		this.cellSize = cellSize;
+		keys = new int[capacity * 6];
+		locations = new float[capacity * 6];
+		// keep the load factor at or below 0.5
+		table = new int[Integer.highestOneBit(capacity) << 2];
+		Arrays.fill(table, NONE);
+		previous = new int[capacity];
+		next = new int[capacity];
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public float getCellSize() {
+		return cellSize;
+	}
+
+	/// @return the number of cached poses
+	public int size() {
+		return size;
+	}
+
+	/// Remove all cached poses, the statistics are kept.
+	public void clear() {
+		Arrays.fill(table, NONE);
+		head = NONE;
+		tail = NONE;
+		size = 0;
+	}
+
+	/// @return the number of solves which were served from the cache
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/// @return the number of solves which weren't served from the cache
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/// @return the number of missed solves which started from a cached pose
+	public long getWarmStartCount() {
+		return warmStartCount;
+	}
+
+	/// @return the number of cached poses which were evicted to make room for a new one
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/// @return the fraction of solves which were served from the cache, `0` if no solve looked up the cache yet
+	public double getHitRate() {
+		long lookups = hitCount + missCount;
+		return lookups == 0 ? 0 : (double) hitCount / lookups;
+	}
+
+	public void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+		warmStartCount = 0;
+		evictionCount = 0;
+	}
+
+	/// Move the bones of the chain to the pose cached for the target and base location.
+	///
+	/// On a miss the bones are moved to the nearest cached pose instead, if it is nearer than the pose of the last
+	/// solve of the chain.
+	///
+	/// @return `true` on a hit
+	boolean restore(FabrikChain3f chain, Vector3fc baseLocation, Vector3fc target) {
+		checkPlan(chain);
+		quantize(target, baseLocation, probeKey);
+
+		int entry = find(probeKey);
+		if (entry != NONE) {
+			hitCount++;
+			moveToFront(entry);
+			restorePose(chain, entry, baseLocation);
+			return true;
+		}
+
+		missCount++;
+		int nearest = findNearest(baseLocation, target, chain.lastBaseLocation, chain.lastTargetLocation);
+		if (nearest != NONE) {
+			warmStartCount++;
+			restorePose(chain, nearest, baseLocation);
+		}
+		return false;
+	}
+
+	/// Cache the current pose of the chain as the solution for the target and base location.
+	///
+	/// @param baseLocation the base location the chain was solved for, before the solve moved it
+	void store(FabrikChain3f chain, Vector3fc baseLocation, Vector3fc target) {
+		checkPlan(chain);
+		quantize(target, baseLocation, probeKey);
+
+		int entry = find(probeKey);
+		if (entry != NONE) {
+			moveToFront(entry);
+		}
+		else {
+			if (size < capacity) {
+				entry = size++;
+			}
+			else {
+				entry = tail;
+				unlink(entry);
+				remove(entry);
+				evictionCount++;
+			}
+			System.arraycopy(probeKey, 0, keys, entry * 6, 6);
+			insert(entry);
+			linkFirst(entry);
+		}
+
+		int i = entry * 6;
+		locations[i] = target.x();
+		locations[i + 1] = target.y();
+		locations[i + 2] = target.z();
+		locations[i + 3] = baseLocation.x();
+		locations[i + 4] = baseLocation.y();
+		locations[i + 5] = baseLocation.z();
+
+		FabrikBone3f[] bones = chain.bones;
+		for (int j = 0, k = entry * poseSize; j < bones.length; j++, k += 6) {
+			Vector3fc start = bones[j].getStartLocation();
+			Vector3fc end = bones[j].getEndLocation();
+			poses[k] = start.x();
+			poses[k + 1] = start.y();
+			poses[k + 2] = start.z();
+			poses[k + 3] = end.x();
+			poses[k + 4] = end.y();
+			poses[k + 5] = end.z();
+		}
+	}
+
+	/// Clear the cache if the bones or joints of the chain changed since the cached poses were solved.
+	private void checkPlan(FabrikChain3f chain) {
+		ChainSolvePlan chainPlan = chain.getSolvePlan();
+		if (plan == chainPlan) return;
+
+		plan = chainPlan;
+		clear();
+		poseSize = chain.bones.length * 6;
+		if (poses.length != capacity * poseSize) {
+			poses = new float[capacity * poseSize];
+		}
+	}
+
+	/// Move the bones to the cached pose, translated by the offset between the current and cached base location.
+	private void restorePose(FabrikChain3f chain, int entry, Vector3fc baseLocation) {
+		int i = entry * 6;
+		float offsetX = baseLocation.x() - locations[i + 3];
+		float offsetY = baseLocation.y() - locations[i + 4];
+		float offsetZ = baseLocation.z() - locations[i + 5];
+
+		FabrikBone3f[] bones = chain.bones;
+		float[] poses = this.poses;
+		for (int j = 0, k = entry * poseSize; j < bones.length; j++, k += 6) {
+			bones[j].setLocations(
+					poses[k] + offsetX, poses[k + 1] + offsetY, poses[k + 2] + offsetZ,
+					poses[k + 3] + offsetX, poses[k + 4] + offsetY, poses[k + 5] + offsetZ);
+		}
+	}
+
+	/// @return the entry whose target relative to its base location is nearest to the given one and nearer than the
+	///         target of the last solve, or [#NONE]
+	private int findNearest(Vector3fc baseLocation, Vector3fc target, Vector3fc lastBaseLocation, Vector3fc lastTarget) {
+		float relativeX = target.x() - baseLocation.x();
+		float relativeY = target.y() - baseLocation.y();
+		float relativeZ = target.z() - baseLocation.z();
+
+		// the current pose is the starting pose if no cached pose is nearer, unless the chain wasn't solved since it was created or marked dirty
+		float nearestDistanceSquared = lastTarget.x() == Float.MAX_VALUE ? Float.POSITIVE_INFINITY
+				: distanceSquared(relativeX, relativeY, relativeZ, lastTarget.x() - lastBaseLocation.x(), lastTarget.y() - lastBaseLocation.y(), lastTarget.z() - lastBaseLocation.z());
+
+		int nearest = NONE;
+		for (int entry = head; entry != NONE; entry = next[entry]) {
+			int i = entry * 6;
+			float distanceSquared = distanceSquared(relativeX, relativeY, relativeZ, locations[i] - locations[i + 3], locations[i + 1] - locations[i + 4], locations[i + 2] - locations[i + 5]);
+			if (distanceSquared < nearestDistanceSquared) {
+				nearestDistanceSquared = distanceSquared;
+				nearest = entry;
+			}
+		}
+		return nearest;
+	}
+
+	private static float distanceSquared(float x1, float y1, float z1, float x2, float y2, float z2) {
+		float dx = x1 - x2;
+		float dy = y1 - y2;
+		float dz = z1 - z2;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	private void quantize(Vector3fc target, Vector3fc baseLocation, int[] dest) {
+		dest[0] = quantize(target.x());
+		dest[1] = quantize(target.y());
+		dest[2] = quantize(target.z());
+		dest[3] = quantize(baseLocation.x());
+		dest[4] = quantize(baseLocation.y());
+		dest[5] = quantize(baseLocation.z());
+	}
+
+	private int quantize(float value) {
+		return (int) Math.floor(value / cellSize);
+	}
+
+	private int slotOf(int[] key, int offset) {
+		int hash = 1;
+		for (int i = offset; i < offset + 6; i++) {
+			hash = 31 * hash + key[i];
+		}
+		hash *= 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & (table.length - 1);
+	}
+
+	private int find(int[] key) {
+		int mask = table.length - 1;
+		for (int slot = slotOf(key, 0); table[slot] != NONE; slot = (slot + 1) & mask) {
+			if (Arrays.equals(keys, table[slot] * 6, table[slot] * 6 + 6, key, 0, 6)) {
+				return table[slot];
+			}
+		}
+		return NONE;
+	}
+
+	private void insert(int entry) {
+		int mask = table.length - 1;
+		int slot = slotOf(keys, entry * 6);
+		while (table[slot] != NONE) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = entry;
+	}
+
+	/// Remove the entry from the hash table, shifting back the entries of the same probe sequence.
+	private void remove(int entry) {
+		int mask = table.length - 1;
+		int slot = slotOf(keys, entry * 6);
+		while (table[slot] != entry) {
+			slot = (slot + 1) & mask;
+		}
+
+		int hole = slot;
+		for (slot = (slot + 1) & mask; table[slot] != NONE; slot = (slot + 1) & mask) {
+			int home = slotOf(keys, table[slot] * 6);
+			// move the entry into the hole unless its home slot lies cyclically within (hole, slot]
+			if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+				table[hole] = table[slot];
+				hole = slot;
+			}
+		}
+		table[hole] = NONE;
+	}
+
+	private void moveToFront(int entry) {
+		if (entry == head) return;
+		unlink(entry);
+		linkFirst(entry);
+	}
+
+	private void linkFirst(int entry) {
+		previous[entry] = NONE;
+		next[entry] = head;
+		if (head != NONE) {
+			previous[head] = entry;
+		}
+		head = entry;
+		if (tail == NONE) {
+			tail = entry;
+		}
+	}
+
+	private void unlink(int entry) {
+		int previousEntry = previous[entry];
+		int nextEntry = next[entry];
+		if (previousEntry != NONE) next[previousEntry] = nextEntry;
+		else head = nextEntry;
+		if (nextEntry != NONE) previous[nextEntry] = previousEntry;
+		else tail = previousEntry;
+	}
+
+}
@@ -1,16 +1,104 @@
 package com.github.elenterius.fabiko.core;
 
+import com.github.elenterius.fabiko.core.SolverEvents.ChainSolveEvent;
+import com.github.elenterius.fabiko.core.SolverEvents.StructureSolveEvent;
 import com.github.elenterius.fabiko.math.JomlMath;
+import org.joml.Math;
+import org.joml.Quaternionf;
 import org.joml.Quaternionfc;
 import org.joml.Vector3f;
 import org.joml.Vector3fc;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.ForkJoinPool;
+
+/// Solves [chains][FabrikChain3f] and [structures][FabrikStructure3f] with the FABRIK algorithm.
+///
+/// A solver instance owns the scratch vectors used during solving, so that once it is warmed up solving a chain or a
+/// structure (with a caller-supplied distance array) does not allocate.
+/// For the same reason a solver instance is **not** thread-safe, use one solver per thread instead.
+///
+/// Chains with a fixed base can be solved in closed form instead of iteratively when possible, see
+/// [#setClosedFormSolving(boolean)].
+public class FabrikSolver3f {
 
-import java.util.List;
+	/// solver instances aren't thread-safe, so every worker thread of the parallel solve paths gets its own
+	static final ThreadLocal<FabrikSolver3f> THREAD_LOCAL = ThreadLocal.withInitial(FabrikSolver3f::new);
 
-public class FabrikSolver3f {
+	/// marks a solve without deadline
+	private static final long NO_DEADLINE = Long.MIN_VALUE;
+
+	/// angle (in radians) and dot product tolerance used to validate closed form solutions against joint constraints
+	private static final float CONSTRAINT_TOLERANCE = 0.001f;
+
+	private final Vector3f structureTarget = new Vector3f();
+	private final Vector3f chainTarget = new Vector3f();
+
+	private final Vector3f boneDirection = new Vector3f();
+	private final Vector3f prevBoneDirection = new Vector3f();
+	private final Vector3f rotationAxis = new Vector3f();
+	private final Vector3f referenceAxis = new Vector3f();
+
+	private final Vector3f bendDirection = new Vector3f();
+	private final Vector3f jointLocation = new Vector3f();
+	private final Quaternionf jointOrientation = new Quaternionf();
+
+	/// base location a chain with a solution cache is solved for
+	private final Vector3f cacheBaseLocation = new Vector3f();
+
+	private boolean closedFormSolving;
+	private @Nullable SolverMetrics metrics;
+
+	// statistics of the last chain solve, copied into the result by the overloads which take a SolveResult
+	private int lastIterations;
+	private int lastBestIteration = -1;
+	private SolveResult.Termination lastTermination = SolveResult.Termination.ALREADY_SOLVED;
+
+	public boolean isClosedFormSolving() {
+		return closedFormSolving;
+	}
+
+	/// Enable or disable the closed form fast paths for chains with a fixed base, disabled by default.
+	///
+	/// The closed form skips the iterative solve, so its results differ from the iterative solve, e.g. a two bone chain
+	/// may bend in another direction.
+	///
+	/// - A target beyond the reach of a chain whose joints are all unconstrained rotors is solved by stretching the
+	///   chain towards the target in a single pass.
+	/// - A chain with two bones is solved with the law of cosines, keeping the current bend direction of the chain.
+	///   The solution is only used when it satisfies the joint constraints, otherwise the chain is solved iteratively.
+	public void setClosedFormSolving(boolean enable) {
+		closedFormSolving = enable;
+	}
+
+	public @Nullable SolverMetrics getMetrics() {
+		return metrics;
+	}
+
+	/// Record the statistics and latency of every chain solve in the given metrics, `null` disables recording (default).
+	///
+	/// The parallel structure solve records into the metrics of the solver it was started from.
+	public void setMetrics(@Nullable SolverMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/// Apply the settings of the given solver to this solver, used by the worker solvers of parallel solves.
+	void copySettingsFrom(FabrikSolver3f solver) {
+		closedFormSolving = solver.closedFormSolving;
+		metrics = solver.metrics;
+	}
 
 	public float[] solveForTarget(FabrikStructure3f structure, float targetX, float targetY, float targetZ) {
-		return solveForTarget(structure, new Vector3f(targetX, targetY, targetZ));
+		return solveForTarget(structure, structureTarget.set(targetX, targetY, targetZ));
+	}
+
+	/// Solve the [structure][FabrikStructure3f] for the given target location and store the solve distance of each
+	/// chain in `solveDistances`.
+	///
+	/// @param solveDistances will hold the solve distance of each chain, must be at least as long as the chain count
+	/// @return `solveDistances`
+	public float[] solveForTarget(FabrikStructure3f structure, float targetX, float targetY, float targetZ, float[] solveDistances) {
+		return solveForTarget(structure, structureTarget.set(targetX, targetY, targetZ), solveDistances);
 	}
 
 	/// Solve the [structure][FabrikStructure3f] for the given target location.
@@ -19,100 +107,513 @@ public class FabrikSolver3f {
 	/// enabled, which are solved for the target location embedded in the chain.
 	///
 	/// After this method has been executed, all chains attached to this structure will have been updated.
+	///
+	/// Chains of a [frozen][FabrikStructure3f#freeze()] structure are solved in its precomputed order, chains of other
+	/// structures in index order.
+	///
+	/// @return a new array holding the solve distance of each chain
 	public float[] solveForTarget(FabrikStructure3f structure, Vector3fc target) {
-		List<FabrikChain3f> chains = structure.getChains();
-		float[] solveDistances = new float[chains.size()];
+		return solveForTarget(structure, target, new float[structure.getChainCount()]);
+	}
 
-		for (int i = 0; i < chains.size(); i++) {
-			FabrikChain3f chain = chains.get(i);
-			int connectedToChainId = chain.getConnectedToChainId();
+	/// Solve the [structure][FabrikStructure3f] for the given target location and store the solve distance of each
+	/// chain in `solveDistances`.
+	///
+	/// @param solveDistances will hold the solve distance of each chain, must be at least as long as the chain count
+	/// @return `solveDistances`
+	/// @see #solveForTarget(FabrikStructure3f, Vector3fc)
+	public float[] solveForTarget(FabrikStructure3f structure, Vector3fc target, float[] solveDistances) {
+		checkSolveDistances(structure, solveDistances);
+		return solveStructure(structure, target, Integer.MAX_VALUE, NO_DEADLINE, solveDistances);
+	}
 
-			// If this chain isn't connected to another chain then update as normal...
-			if (connectedToChainId == -1) {
-				if (chain.isEmbeddedTargetEnabled()) {
-					solveDistances[i] = solveForTarget(chain, chain.getEmbeddedTarget());
-				}
-				else {
-					solveDistances[i] = solveForTarget(chain, target);
-				}
-				continue;
+	/// Solve the [structure][FabrikStructure3f] like [#solveForTarget(FabrikStructure3f, Vector3fc, float[])] does, but
+	/// run at most `iterationBudget` iterations per chain.
+	///
+	/// @param iterationBudget the maximum number of iterations per chain, must be positive
+	/// @param solveDistances  will hold the best solve distance found so far of each chain
+	/// @return `solveDistances`
+	/// @see #solveForTargetWithin(FabrikChain3f, Vector3fc, int)
+	public float[] solveForTargetWithin(FabrikStructure3f structure, Vector3fc target, int iterationBudget, float[] solveDistances) {
+		checkIterationBudget(iterationBudget);
+		checkSolveDistances(structure, solveDistances);
+		return solveStructure(structure, target, iterationBudget, NO_DEADLINE, solveDistances);
+	}
+
+	/// Solve the [structure][FabrikStructure3f] like [#solveForTarget(FabrikStructure3f, Vector3fc, float[])] does, but
+	/// stop iterating once the deadline has passed.
+	///
+	/// Every chain runs at least one iteration, even when the deadline already passed.
+	///
+	/// @param deadlineNanos  the deadline in [System#nanoTime()] time
+	/// @param solveDistances will hold the best solve distance found so far of each chain
+	/// @return `solveDistances`
+	/// @see #solveForTargetUntil(FabrikChain3f, Vector3fc, long)
+	public float[] solveForTargetUntil(FabrikStructure3f structure, Vector3fc target, long deadlineNanos, float[] solveDistances) {
+		checkSolveDistances(structure, solveDistances);
+		return solveStructure(structure, target, Integer.MAX_VALUE, deadlineNanos, solveDistances);
+	}
+
+	private float[] solveStructure(FabrikStructure3f structure, Vector3fc target, int iterationBudget, long deadlineNanos, float[] solveDistances) {
+		int chainCount = structure.getChainCount();
+		@Nullable StructureSolvePlan plan = structure.getSolvePlan();
+
+		if (!SolverEvents.isStructureSolveEnabled()) {
+			for (int position = 0; position < chainCount; position++) {
+				solveDistances[chainIndexAt(plan, position)] = solveChainAt(structure, plan, position, target, iterationBudget, deadlineNanos);
 			}
+			return solveDistances;
+		}
 
-			FabrikChain3f hostChain = structure.getChain(connectedToChainId);
-			FabrikBone3f hostBone = hostChain.getBone(chain.getConnectedToBoneIndex());
-			chain.setBaseLocation(hostBone.getBoneConnectionPointLocation());
+		StructureSolveEvent event = new StructureSolveEvent();
+		event.begin();
 
-			// Now that we've clamped the base location of this chain to the start or end point of the bone in the chain we are connected to, it's
-			// time to deal with any base bone constraints...
+		int iterations = 0;
+		float maxSolveDistance = 0f;
+		for (int position = 0; position < chainCount; position++) {
+			float solveDistance = solveChainAt(structure, plan, position, target, iterationBudget, deadlineNanos);
+			solveDistances[chainIndexAt(plan, position)] = solveDistance;
+			iterations += lastIterations;
+			maxSolveDistance = Math.max(maxSolveDistance, solveDistance);
+		}
 
-			FabrikJoint3f baseBoneJoint = chain.getBaseBone().getJoint();
-			switch (baseBoneJoint) {
-				case FabrikJoint3f.GlobalHinge ignored -> {
-					// Nothing to do, because these will be handled in FabrikChain3D.solveIK() as we do not need information from another chain to handle them.
-				}
-				case FabrikJoint3f.GlobalRotor ignored -> {
-					// Nothing to do because the basebone constraint is not relative to bones in other chains in this structure
-				}
-				case FabrikJoint3f.LocalRotor localRotor -> {
-					Vector3fc relativeBaseboneConstraint = hostBone.getOrientation().transform(chain.getBaseboneConstraint(), new Vector3f());
-					chain.setBaseboneRelativeConstraintFrom(relativeBaseboneConstraint); //TODO: quaternions
+		if (event.shouldCommit()) {
+			event.set(structure, iterations, false, maxSolveDistance);
+			event.commit();
+		}
+
+		return solveDistances;
+	}
+
+	/// Solve the [structure][FabrikStructure3f] for the given target location and store the outcome in `result`.
+	///
+	/// @param result will hold the solve distance of each chain
+	/// @return `result`
+	/// @see #solveForTarget(FabrikStructure3f, Vector3fc)
+	public SolveResult solveForTarget(FabrikStructure3f structure, Vector3fc target, SolveResult result) {
+		return solveStructure(structure, target, Integer.MAX_VALUE, NO_DEADLINE, result);
+	}
+
+	/// Solve the [structure][FabrikStructure3f] with at most `iterationBudget` iterations per chain and store the
+	/// outcome in `result`.
+	///
+	/// @param iterationBudget the maximum number of iterations per chain, must be positive
+	/// @return `result`
+	/// @see #solveForTargetWithin(FabrikStructure3f, Vector3fc, int, float[])
+	public SolveResult solveForTargetWithin(FabrikStructure3f structure, Vector3fc target, int iterationBudget, SolveResult result) {
+		checkIterationBudget(iterationBudget);
+		return solveStructure(structure, target, iterationBudget, NO_DEADLINE, result);
+	}
+
+	/// Solve the [structure][FabrikStructure3f] until the deadline has passed and store the outcome in `result`.
+	///
+	/// @param deadlineNanos the deadline in [System#nanoTime()] time
+	/// @return `result`
+	/// @see #solveForTargetUntil(FabrikStructure3f, Vector3fc, long, float[])
+	public SolveResult solveForTargetUntil(FabrikStructure3f structure, Vector3fc target, long deadlineNanos, SolveResult result) {
+		return solveStructure(structure, target, Integer.MAX_VALUE, deadlineNanos, result);
+	}
+
+	private SolveResult solveStructure(FabrikStructure3f structure, Vector3fc target, int iterationBudget, long deadlineNanos, SolveResult result) {
+		int chainCount = structure.getChainCount();
+		@Nullable StructureSolvePlan plan = structure.getSolvePlan();
+		result.reset(chainCount);
+
+		@Nullable StructureSolveEvent event = null;
+		if (SolverEvents.isStructureSolveEnabled()) {
+			event = new StructureSolveEvent();
+			event.begin();
+		}
+
+		long startTime = System.nanoTime();
+		long chainStartTime = startTime;
+		for (int position = 0; position < chainCount; position++) {
+			float solveDistance = solveChainAt(structure, plan, position, target, iterationBudget, deadlineNanos);
+			long chainEndTime = System.nanoTime();
+			result.set(chainIndexAt(plan, position), solveDistance, lastIterations, lastBestIteration, lastTermination, chainEndTime - chainStartTime);
+			chainStartTime = chainEndTime;
+		}
+		result.setElapsedNanos(chainStartTime - startTime);
+
+		if (event != null && event.shouldCommit()) {
+			event.set(structure, result.getIterations(), false, result.getSolveDistance());
+			event.commit();
+		}
+
+		return result;
+	}
+
+	/// Solve the [structure][FabrikStructure3f] for the given target location like
+	/// [#solveForTarget(FabrikStructure3f, Vector3fc, float[])] does, but solve independent branches of the structure
+	/// concurrently on the given pool.
+	///
+	/// A chain only depends on the host chain it is connected to, so once a chain is solved all chains connected to it
+	/// are solved in parallel. Each worker thread uses its own solver instance and the result is identical to the
+	/// sequential solve.
+	///
+	/// @param solveDistances will hold the solve distance of each chain, must be at least as long as the chain count
+	/// @param pool           the pool to solve the chains on
+	/// @return `solveDistances`
+	/// @throws IllegalStateException if the structure isn't [frozen][FabrikStructure3f#freeze()] and a chain is connected to
+	///                               a chain which doesn't precede it in the structure
+	public float[] solveForTarget(FabrikStructure3f structure, Vector3fc target, float[] solveDistances, ForkJoinPool pool) {
+		int chainCount = checkSolveDistances(structure, solveDistances);
+
+		@Nullable StructureSolveEvent event = null;
+		if (SolverEvents.isStructureSolveEnabled()) {
+			event = new StructureSolveEvent();
+			event.begin();
+		}
+
+		ChainHierarchy hierarchy = structure.getHierarchy();
+		pool.invoke(new StructureSolveTask(this, structure, hierarchy, hierarchy.getRootIndices(), target, solveDistances));
+
+		if (event != null && event.shouldCommit()) {
+			float maxSolveDistance = 0f;
+			for (int i = 0; i < chainCount; i++) {
+				maxSolveDistance = Math.max(maxSolveDistance, solveDistances[i]);
+			}
+			event.set(structure, -1, true, maxSolveDistance);
+			event.commit();
+		}
+
+		return solveDistances;
+	}
+
+	private static int checkSolveDistances(FabrikStructure3f structure, float[] solveDistances) {
+		int chainCount = structure.getChainCount();
+		if (solveDistances.length < chainCount) {
+			throw new IllegalArgumentException("Solve distances array is too small, expected at least " + chainCount + " but got " + solveDistances.length + ".");
+		}
+		return chainCount;
+	}
+
+	private static void checkIterationBudget(int iterationBudget) {
+		if (iterationBudget < 1) {
+			throw new IllegalArgumentException("Iteration budget must be positive but was " + iterationBudget + ".");
+		}
+	}
+
+	/// @return the index of the chain solved at the given position, chains of structures which aren't frozen are solved in index order
+	private static int chainIndexAt(@Nullable StructureSolvePlan plan, int position) {
+		return plan != null ? plan.chainIndices[position] : position;
+	}
+
+	private float solveChainAt(FabrikStructure3f structure, @Nullable StructureSolvePlan plan, int position, Vector3fc target, int iterationBudget, long deadlineNanos) {
+		if (plan != null) {
+			return solveChain(plan, position, target, iterationBudget, deadlineNanos);
+		}
+		return solveChain(structure, structure.getChain(position), target, iterationBudget, deadlineNanos);
+	}
+
+	/// Solve the chain at the given position of the solve order of a [frozen][FabrikStructure3f#freeze()] structure.
+	private float solveChain(StructureSolvePlan plan, int position, Vector3fc target, int iterationBudget, long deadlineNanos) {
+		FabrikChain3f chain = plan.chains[position];
+		@Nullable FabrikBone3f hostBone = plan.hostBones[position];
+		Vector3fc chainTarget = chain.isEmbeddedTargetEnabled() ? chain.getEmbeddedTarget() : target;
+
+		if (hostBone != null) {
+			FabrikJoint3f baseBoneJoint = plan.baseJoints[position];
+			if (chain.getBaseBone().getJoint() != baseBoneJoint) {
+				throw new IllegalStateException("The base bone joint of chain " + plan.chainIndices[position] + " was replaced after the structure was frozen.");
+			}
+
+			FabrikChain3f hostChain = plan.chains[plan.hostPositions[position]];
+			Vector3fc connectionLocation = plan.connectsToStart[position] ? hostBone.getStartLocation() : hostBone.getEndLocation();
+			if (chain.isSolvedFor(hostChain, connectionLocation, chainTarget)) {
+				return solveUnchangedChain(chain, chainTarget, iterationBudget, deadlineNanos);
+			}
+
+			chain.setBaseLocation(connectionLocation);
+
+			switch (plan.baseJointTypes[position]) {
+				case StructureSolvePlan.LOCAL_ROTOR -> {
+					Vector3fc relativeBaseboneConstraint = hostBone.getOrientation().transform(chain.getBaseboneConstraint(), rotationAxis);
+					chain.setBaseboneRelativeConstraintFrom(relativeBaseboneConstraint);
 				}
-				case FabrikJoint3f.LocalHinge localHinge -> {
+				case StructureSolvePlan.LOCAL_HINGE -> {
 					Quaternionfc hostOrientation = hostBone.getOrientation();
-					Vector3fc relativeBaseboneConstraint = hostOrientation.transform(chain.getBaseboneConstraint(), new Vector3f());
-					chain.setBaseboneRelativeConstraintFrom(relativeBaseboneConstraint);  //TODO: quaternions
-					chain.setBaseboneRelativeReferenceConstraintFrom(hostOrientation.transform(localHinge.getReferenceAxis(), new Vector3f()));
+					Vector3fc relativeBaseboneConstraint = hostOrientation.transform(chain.getBaseboneConstraint(), rotationAxis);
+					chain.setBaseboneRelativeConstraintFrom(relativeBaseboneConstraint);
+					chain.setBaseboneRelativeReferenceConstraintFrom(hostOrientation.transform(((FabrikJoint3f.Hinge) baseBoneJoint).getReferenceAxis(), referenceAxis));
+				}
+				default -> {
+					// world space base bone constraints don't depend on the host bone
 				}
-				default -> throw new IllegalStateException("Unexpected value: " + baseBoneJoint);
 			}
 
+			float solveDistance = solveChain(chain, chainTarget, iterationBudget, deadlineNanos);
+			chain.markSolvedFor(hostChain);
+			return solveDistance;
+		}
+
+		return solveChain(chain, chainTarget, iterationBudget, deadlineNanos);
+	}
+
+	/// Solve a connected chain whose target didn't change and whose host chain didn't move since it was last solved.
+	///
+	/// Such a chain is already solved, so it is skipped without moving it to its connection point and transforming its
+	/// base bone constraint, unless metrics or chain solve events are recorded, which report it like any other already
+	/// solved chain.
+	private float solveUnchangedChain(FabrikChain3f chain, Vector3fc target, int iterationBudget, long deadlineNanos) {
+		if (metrics != null || SolverEvents.isChainSolveEnabled()) {
+			return solveChain(chain, target, iterationBudget, deadlineNanos);
+		}
+		setLastStatistics(0, -1, SolveResult.Termination.ALREADY_SOLVED);
+		return chain.currentSolveDistance;
+	}
+
+	/// Solve all chains of the structure in the same order as [#solveForTarget(FabrikStructure3f, Vector3fc, float[])]
+	/// without recording a structure event.
+	void solveChains(FabrikStructure3f structure, Vector3fc target) {
+		@Nullable StructureSolvePlan plan = structure.getSolvePlan();
+		for (int position = 0; position < structure.getChainCount(); position++) {
+			solveChainAt(structure, plan, position, target, Integer.MAX_VALUE, NO_DEADLINE);
+		}
+	}
+
+	/// Solve the chain with the given index, chains connected to another chain are moved to their connection point
+	/// first. Chains of [frozen][FabrikStructure3f#freeze()] structures are solved with the compiled solve plan.
+	float solveChain(FabrikStructure3f structure, int chainIndex, Vector3fc target) {
+		@Nullable StructureSolvePlan plan = structure.getSolvePlan();
+		if (plan != null) {
+			return solveChain(plan, plan.positions[chainIndex], target, Integer.MAX_VALUE, NO_DEADLINE);
+		}
+		return solveChain(structure, structure.getChain(chainIndex), target, Integer.MAX_VALUE, NO_DEADLINE);
+	}
+
+	private float solveChain(FabrikStructure3f structure, FabrikChain3f chain, Vector3fc target, int iterationBudget, long deadlineNanos) {
+		int connectedToChainId = chain.getConnectedToChainId();
+
+		// If this chain isn't connected to another chain then update as normal...
+		if (connectedToChainId == -1) {
 			if (chain.isEmbeddedTargetEnabled()) {
-				solveDistances[i] = solveForTarget(chain, chain.getEmbeddedTarget());
+				return solveChain(chain, chain.getEmbeddedTarget(), iterationBudget, deadlineNanos);
 			}
 			else {
-				solveDistances[i] = solveForTarget(chain, target);
+				return solveChain(chain, target, iterationBudget, deadlineNanos);
 			}
 		}
 
-		return solveDistances;
+		FabrikChain3f hostChain = structure.getChain(connectedToChainId);
+		FabrikBone3f hostBone = hostChain.getBone(chain.getConnectedToBoneIndex());
+		Vector3fc chainTarget = chain.isEmbeddedTargetEnabled() ? chain.getEmbeddedTarget() : target;
+
+		Vector3fc connectionLocation = hostBone.getBoneConnectionPointLocation();
+		if (chain.isSolvedFor(hostChain, connectionLocation, chainTarget)) {
+			return solveUnchangedChain(chain, chainTarget, iterationBudget, deadlineNanos);
+		}
+		chain.setBaseLocation(connectionLocation);
+
+		// Now that we've clamped the base location of this chain to the start or end point of the bone in the chain we are connected to, it's
+		// time to deal with any base bone constraints...
+
+		FabrikJoint3f baseBoneJoint = chain.getBaseBone().getJoint();
+		switch (baseBoneJoint) {
+			case FabrikJoint3f.GlobalHinge ignored -> {
+				// Nothing to do, because these will be handled in FabrikChain3D.solveIK() as we do not need information from another chain to handle them.
+			}
+			case FabrikJoint3f.GlobalRotor ignored -> {
+				// Nothing to do because the basebone constraint is not relative to bones in other chains in this structure
+			}
+			case FabrikJoint3f.LocalRotor localRotor -> {
+				Vector3fc relativeBaseboneConstraint = hostBone.getOrientation().transform(chain.getBaseboneConstraint(), rotationAxis);
+				chain.setBaseboneRelativeConstraintFrom(relativeBaseboneConstraint); //TODO: quaternions
+			}
+			case FabrikJoint3f.LocalHinge localHinge -> {
+				Quaternionfc hostOrientation = hostBone.getOrientation();
+				Vector3fc relativeBaseboneConstraint = hostOrientation.transform(chain.getBaseboneConstraint(), rotationAxis);
+				chain.setBaseboneRelativeConstraintFrom(relativeBaseboneConstraint);  //TODO: quaternions
+				chain.setBaseboneRelativeReferenceConstraintFrom(hostOrientation.transform(localHinge.getReferenceAxis(), referenceAxis));
+			}
+			default -> throw new IllegalStateException("Unexpected value: " + baseBoneJoint);
+		}
+
+		float solveDistance = solveChain(chain, chainTarget, iterationBudget, deadlineNanos);
+		chain.markSolvedFor(hostChain);
+		return solveDistance;
 	}
 
 	public float solveForTarget(FabrikChain3f chain, float targetX, float targetY, float targetZ) {
-		return solveForTarget(chain, new Vector3f(targetX, targetY, targetZ));
+		return solveForTarget(chain, chainTarget.set(targetX, targetY, targetZ));
+	}
+
+	/// Solve the [chain][FabrikChain3f] for the given target location and store the outcome in `result`.
+	///
+	/// @param result will hold the solve distance of the chain
+	/// @return `result`
+	public SolveResult solveForTarget(FabrikChain3f chain, Vector3fc target, SolveResult result) {
+		return solveChain(chain, target, Integer.MAX_VALUE, NO_DEADLINE, result);
+	}
+
+	/// Solve the [chain][FabrikChain3f] with at most `iterationBudget` iterations and store the outcome in `result`.
+	///
+	/// @param iterationBudget the maximum number of iterations to run, must be positive
+	/// @return `result`
+	/// @see #solveForTargetWithin(FabrikChain3f, Vector3fc, int)
+	public SolveResult solveForTargetWithin(FabrikChain3f chain, Vector3fc target, int iterationBudget, SolveResult result) {
+		checkIterationBudget(iterationBudget);
+		return solveChain(chain, target, iterationBudget, NO_DEADLINE, result);
+	}
+
+	/// Solve the [chain][FabrikChain3f] until the deadline has passed and store the outcome in `result`.
+	///
+	/// @param deadlineNanos the deadline in [System#nanoTime()] time
+	/// @return `result`
+	/// @see #solveForTargetUntil(FabrikChain3f, Vector3fc, long)
+	public SolveResult solveForTargetUntil(FabrikChain3f chain, Vector3fc target, long deadlineNanos, SolveResult result) {
+		return solveChain(chain, target, Integer.MAX_VALUE, deadlineNanos, result);
+	}
+
+	private SolveResult solveChain(FabrikChain3f chain, Vector3fc target, int iterationBudget, long deadlineNanos, SolveResult result) {
+		result.reset(1);
+
+		long startTime = System.nanoTime();
+		float solveDistance = solveChain(chain, target, iterationBudget, deadlineNanos);
+		long elapsedNanos = System.nanoTime() - startTime;
+
+		result.set(0, solveDistance, lastIterations, lastBestIteration, lastTermination, elapsedNanos);
+		result.setElapsedNanos(elapsedNanos);
+
+		return result;
 	}
 
 	public float solveForTarget(FabrikChain3f chain, Vector3fc target) {
+		return solveChain(chain, target, Integer.MAX_VALUE, NO_DEADLINE);
+	}
+
+	/// Solve the [chain][FabrikChain3f] for the given target location, but run at most `iterationBudget` iterations.
+	///
+	/// If the budget runs out before the chain is solved the chain holds the best solution found so far and the solve
+	/// is [pending][FabrikChain3f#isSolvePending()]. The next budgeted solve for the same target and base location
+	/// resumes the remaining iterations instead of starting over, a solve for another target discards it.
+	///
+	/// @param iterationBudget the maximum number of iterations to run, must be positive
+	/// @return the best solve distance found so far
+	public float solveForTargetWithin(FabrikChain3f chain, Vector3fc target, int iterationBudget) {
+		checkIterationBudget(iterationBudget);
+		return solveChain(chain, target, iterationBudget, NO_DEADLINE);
+	}
+
+	/// Solve the [chain][FabrikChain3f] for the given target location, but stop iterating once the deadline has passed.
+	///
+	/// At least one iteration is run, even when the deadline already passed. A solve which is stopped by the deadline
+	/// is resumed like one which ran out of its iteration budget, see
+	/// [#solveForTargetWithin(FabrikChain3f, Vector3fc, int)].
+	///
+	/// @param deadlineNanos the deadline in [System#nanoTime()] time
+	/// @return the best solve distance found so far
+	public float solveForTargetUntil(FabrikChain3f chain, Vector3fc target, long deadlineNanos) {
+		return solveChain(chain, target, Integer.MAX_VALUE, deadlineNanos);
+	}
+
+	private float solveChain(FabrikChain3f chain, Vector3fc target, int iterationBudget, long deadlineNanos) {
+		SolverMetrics metrics = this.metrics;
+		boolean recording = SolverEvents.isChainSolveEnabled();
+		if (!recording && metrics == null) {
+			return runChainSolve(chain, target, iterationBudget, deadlineNanos);
+		}
+
+		ChainSolveEvent event = null;
+		if (recording) {
+			event = new ChainSolveEvent();
+			event.begin();
+		}
+		long startTime = System.nanoTime();
+
+		float solveDistance = runChainSolve(chain, target, iterationBudget, deadlineNanos);
+
+		if (metrics != null) {
+			metrics.recordSolve(lastIterations, lastTermination, solveDistance <= chain.solveDistanceThreshold, System.nanoTime() - startTime);
+		}
+
+		if (event != null && event.shouldCommit()) {
+			event.boneCount = chain.getBoneCount();
+			event.iterations = lastIterations;
+			event.bestIteration = lastBestIteration;
+			event.termination = lastTermination.name();
+			event.solveDistance = solveDistance;
+			event.commit();
+		}
+
+		return solveDistance;
+	}
+
+	private float runChainSolve(FabrikChain3f chain, Vector3fc target, int iterationBudget, long deadlineNanos) {
 		if (chain.isEmpty()) {
 			throw new IllegalStateException("Can't solve FABRIK chain without any bones.");
 		}
 
-		if (chain.isSolved(target)) {
+		// unlike FabrikChain3f#isSolved a moved fixed base location requires a new solve
+		if (!chain.isSolvePending() && chain.isLastSolveFor(target)) {
+			setLastStatistics(0, -1, SolveResult.Termination.ALREADY_SOLVED);
 			return chain.currentSolveDistance;
 		}
 
-		FabrikBone3f[] bestSolution = new FabrikBone3f[chain.bones.length];
-		//clone bones
-		for (int i = 0; i < chain.bones.length; i++) {
-			bestSolution[i] = new FabrikBone3f(chain.bones[i]);
-		}
-
-		float solveDistance;
 		float bestSolveDistance = Float.MAX_VALUE;
 		float prevSolveDistance = Float.MAX_VALUE;
+		int bestIteration = -1;
+		int lastIteration = -1;
+		int firstIteration = 0;
+
+		if (chain.isSolvePending() && chain.isLastSolveFor(target)) {
+			// resume the pending solve, the bones hold the best solution found so far
+			firstIteration = chain.pendingIteration;
+			bestIteration = chain.pendingBestIteration;
+			bestSolveDistance = chain.currentSolveDistance;
+			prevSolveDistance = chain.pendingPrevSolveDistance;
+
+			// continue from the pose of the last iteration like an unbudgeted solve would, not from the best solution
+			if (bestIteration != firstIteration - 1) {
+				chain.restorePendingSolution();
+			}
+		}
+		chain.pendingIteration = -1;
 
-		for (int iteration = 0; iteration < chain.maxIterationAttempts; iteration++) {
+		FabrikSolutionCache cache = chain.solutionCache;
+		if (cache != null) {
+			// the solve moves the base location of chains without fixed base, so remember where it started
+			cacheBaseLocation.set(chain.fixedBaseMode ? chain.fixedBaseLocation : chain.getBaseLocation());
 
-			solveDistance = solveIteration(chain, target);
+			// a hit is served as is, a miss starts from the nearest cached pose
+			if (firstIteration == 0 && cache.restore(chain, cacheBaseLocation, target)) {
+				return finishWithoutIterating(chain, target, SolveResult.Termination.CACHE_HIT);
+			}
+		}
+
+		if (closedFormSolving && firstIteration == 0 && chain.fixedBaseMode && trySolveClosedForm(chain, target)) {
+			float solveDistance = finishWithoutIterating(chain, target, SolveResult.Termination.CLOSED_FORM);
+			// a chain stretched towards a target out of reach isn't a solution which may be served as is
+			if (cache != null && solveDistance <= chain.solveDistanceThreshold) {
+				cache.store(chain, cacheBaseLocation, target);
+			}
+			return solveDistance;
+		}
+
+		ChainSolvePlan plan = chain.getSolvePlan();
+		SolveResult.Termination termination = SolveResult.Termination.MAX_ITERATIONS;
+
+		for (int iteration = firstIteration; iteration < chain.maxIterationAttempts; iteration++) {
+			if (iteration != firstIteration && isOverBudget(iteration - firstIteration, iterationBudget, deadlineNanos)) {
+				chain.pendingIteration = iteration;
+				chain.pendingBestIteration = bestIteration;
+				chain.pendingPrevSolveDistance = prevSolveDistance;
+				termination = SolveResult.Termination.BUDGET_EXHAUSTED;
+				break;
+			}
+
+			lastIteration = iteration;
+
+			float solveDistance = solveIteration(chain, plan, target);
 
 			if (solveDistance < bestSolveDistance) {
 				bestSolveDistance = solveDistance;
+				bestIteration = iteration;
 
-				//update bones
-				for (int i = 0; i < chain.bones.length; i++) {
-					bestSolution[i].setFrom(chain.bones[i]);
-				}
+				chain.storeBestSolution();
 
 				if (solveDistance <= chain.solveDistanceThreshold) {
+					termination = SolveResult.Termination.SOLVED;
 					break;
 				}
 			}
@@ -120,6 +621,7 @@ public class FabrikSolver3f {
 				// Did we grind to a halt? If so break out of loop to set the best distance and solution that we have
 				if (Math.abs(solveDistance - prevSolveDistance) < chain.minIterationChange) {
 					//System.out.println("Ground to halt on iteration: " + i);
+					termination = SolveResult.Termination.STALLED;
 					break;
 				}
 			}
@@ -129,36 +631,195 @@ public class FabrikSolver3f {
 
 		chain.currentSolveDistance = bestSolveDistance;
 
-		//update bones
-		for (int i = 0; i < chain.bones.length; i++) {
-			chain.bones[i].setFrom(bestSolution[i]);
+		// the bones already hold the best solution when the loop ended on the best iteration
+		if (bestIteration != -1 && bestIteration != lastIteration) {
+			if (termination == SolveResult.Termination.BUDGET_EXHAUSTED) {
+				chain.storePendingSolution();
+			}
+			chain.restoreBestSolution();
 		}
-		//		chain.bones = bestSolution;
 
 		chain.lastBaseLocation.set(chain.getBaseLocation());
 		chain.lastTargetLocation.set(target);
+		chain.poseEpoch++;
+
+		// only solutions are cached, a pending solve is cached once it reached the target
+		if (cache != null && bestSolveDistance <= chain.solveDistanceThreshold) {
+			cache.store(chain, cacheBaseLocation, target);
+		}
+
+		setLastStatistics(lastIteration == -1 ? 0 : lastIteration - firstIteration + 1, bestIteration, termination);
 
 		return bestSolveDistance;
 	}
 
-	private float solveIteration(FabrikChain3f chain, Vector3fc target) {
+	/// Finish a solve which moved the bones to their solution without iterating.
+	private float finishWithoutIterating(FabrikChain3f chain, Vector3fc target, SolveResult.Termination termination) {
+		float solveDistance = chain.getEndEffectorBone().getEndLocation().distance(target);
+		chain.currentSolveDistance = solveDistance;
+		chain.lastBaseLocation.set(chain.getBaseLocation());
+		chain.lastTargetLocation.set(target);
+		chain.poseEpoch++;
+		setLastStatistics(0, -1, termination);
+		return solveDistance;
+	}
+
+	private void setLastStatistics(int iterations, int bestIteration, SolveResult.Termination termination) {
+		lastIterations = iterations;
+		lastBestIteration = bestIteration;
+		lastTermination = termination;
+	}
+
+	private boolean trySolveClosedForm(FabrikChain3f chain, Vector3fc target) {
+		if (chain.bones.length == 2) {
+			return trySolveTwoBones(chain, target);
+		}
+
+		Vector3fc baseLocation = chain.fixedBaseLocation;
+		float distance = baseLocation.distance(target);
+		if (distance < chain.length || distance == 0f) return false;
+
+		for (FabrikBone3f bone : chain.bones) {
+			if (!(bone.getJoint() instanceof FabrikJoint3f.Rotor rotor) || rotor.isConstrained()) return false;
+		}
+
+		// the target is out of reach, so the best solution is the chain stretched out towards the target
+		Vector3f direction = target.sub(baseLocation, boneDirection).normalize();
+		Vector3f location = jointLocation.set(baseLocation);
+		for (FabrikBone3f bone : chain.bones) {
+			float startX = location.x;
+			float startY = location.y;
+			float startZ = location.z;
+			location.fma(bone.length(), direction);
+			bone.setLocations(startX, startY, startZ, location.x, location.y, location.z);
+		}
+
+		return true;
+	}
+
+	/// Solve a two bone chain with the law of cosines and keep the solution if it satisfies the joint constraints.
+	private boolean trySolveTwoBones(FabrikChain3f chain, Vector3fc target) {
+		FabrikBone3f baseBone = chain.bones[0];
+		FabrikBone3f endBone = chain.bones[1];
+		float baseLength = baseBone.length();
+		float endLength = endBone.length();
+
+		Vector3fc baseLocation = chain.fixedBaseLocation;
+		float distance = baseLocation.distance(target);
+		if (distance < 1e-6f || baseLength == 0f || endLength == 0f) return false;
+
+		Vector3f targetDirection = target.sub(baseLocation, prevBoneDirection).normalize();
+
+		// bend the chain in the plane of the target and the current joint location
+		Vector3f bendDirection = baseBone.getEndLocation().sub(baseLocation, this.bendDirection);
+		bendDirection.fma(-bendDirection.dot(targetDirection), targetDirection);
+		if (bendDirection.lengthSquared() < 1e-8f) {
+			JomlMath.perpendicular(targetDirection, bendDirection);
+		}
+		else {
+			bendDirection.normalize();
+		}
+
+		// unreachable targets are solved by the closest reachable location on the line towards the target
+		float reach = Math.clamp(Math.abs(baseLength - endLength), baseLength + endLength, distance);
+		float cosBaseAngle = Math.clamp(-1f, 1f, (baseLength * baseLength + reach * reach - endLength * endLength) / (2f * baseLength * reach));
+		float sinBaseAngle = Math.sqrt(Math.max(0f, 1f - cosBaseAngle * cosBaseAngle));
+
+		Vector3f baseBoneDirection = boneDirection.set(targetDirection).mul(cosBaseAngle).fma(sinBaseAngle, bendDirection).normalize();
+		Vector3f joint = baseBoneDirection.mul(baseLength, jointLocation).add(baseLocation);
+		Vector3f endBoneDirection = targetDirection.mul(reach).add(baseLocation).sub(joint).normalize();
+
+		if (!satisfiesBaseBoneConstraint(chain, baseBone.getJoint(), baseBoneDirection)) return false;
+		if (!satisfiesConstraint(endBone.getJoint(), baseBoneDirection, endBoneDirection)) return false;
+
+		float endX = joint.x + endBoneDirection.x * endLength;
+		float endY = joint.y + endBoneDirection.y * endLength;
+		float endZ = joint.z + endBoneDirection.z * endLength;
+		baseBone.setLocations(baseLocation.x(), baseLocation.y(), baseLocation.z(), joint.x, joint.y, joint.z);
+		endBone.setLocations(joint.x, joint.y, joint.z, endX, endY, endZ);
+
+		return true;
+	}
+
+	private boolean satisfiesBaseBoneConstraint(FabrikChain3f chain, FabrikJoint3f joint, Vector3fc direction) {
+		return switch (joint) {
+			case FabrikJoint3f.GlobalRotor rotor -> isWithinRotor(rotor, chain.baseboneConstraint, direction);
+			case FabrikJoint3f.LocalRotor rotor -> isWithinRotor(rotor, chain.baseboneRelativeConstraint, direction);
+			case FabrikJoint3f.GlobalHinge hinge -> isWithinHinge(hinge, hinge.getRotationAxis(), hinge.getReferenceAxis(), direction);
+			case FabrikJoint3f.LocalHinge hinge -> isWithinHinge(hinge, chain.baseboneRelativeConstraint, chain.baseboneRelativeReferenceConstraint, direction);
+			default -> false;
+		};
+	}
+
+	private boolean satisfiesConstraint(FabrikJoint3f joint, Vector3fc prevBoneDirection, Vector3fc direction) {
+		return switch (joint) {
+			case FabrikJoint3f.Rotor rotor -> isWithinRotor(rotor, prevBoneDirection, direction);
+			case FabrikJoint3f.GlobalHinge hinge -> isWithinHinge(hinge, hinge.getRotationAxis(), hinge.getReferenceAxis(), direction);
+			case FabrikJoint3f.LocalHinge hinge -> {
+				// same frame of reference as the bone orientation of the previous bone
+				Quaternionfc orientation = jointOrientation.rotationTo(FabrikWorld.FORWARDS, prevBoneDirection);
+				Vector3fc relativeRotationAxis = orientation.transform(hinge.getRotationAxis(), rotationAxis);
+				Vector3fc relativeReferenceAxis = orientation.transform(hinge.getReferenceAxis(), referenceAxis);
+				yield isWithinHinge(hinge, relativeRotationAxis, relativeReferenceAxis, direction);
+			}
+			default -> false;
+		};
+	}
+
+	private static boolean isWithinRotor(FabrikJoint3f.Rotor rotor, Vector3fc axis, Vector3fc direction) {
+		return !rotor.isConstrained() || axis.angle(direction) <= rotor.getConstraintAngle() + CONSTRAINT_TOLERANCE;
+	}
+
+	private static boolean isWithinHinge(FabrikJoint3f.Hinge hinge, Vector3fc rotationAxis, Vector3fc referenceAxis, Vector3fc direction) {
+		if (Math.abs(rotationAxis.dot(direction)) > CONSTRAINT_TOLERANCE) return false;
+		if (!hinge.isConstrained()) return true;
+
+		float signedAngle = referenceAxis.angleSigned(direction, rotationAxis);
+		return signedAngle <= hinge.getAntiClockwiseConstraintAngle() + CONSTRAINT_TOLERANCE
+				&& signedAngle >= -hinge.getClockwiseConstraintAngle() - CONSTRAINT_TOLERANCE;
+	}
+
+	private static boolean isOverBudget(int iterations, int iterationBudget, long deadlineNanos) {
+		return iterations >= iterationBudget || (deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0);
+	}
+
+	private float solveIteration(FabrikChain3f chain, ChainSolvePlan plan, Vector3fc target) {
+		FabrikBone3f[] bones = chain.bones;
+		int endEffectorIndex = bones.length - 1;
 
 		// forward pass from end effector to base bone
-		int endEffectorIndex = chain.bones.length - 1;
-		forwardPassEndEffector(chain, chain.bones[endEffectorIndex], endEffectorIndex, target);
-		for (int i = endEffectorIndex - 1; i >= 0; i--) {
-			forwardPassBone(chain, chain.bones[i], i);
+		forwardPassEndEffector(chain, bones[endEffectorIndex], endEffectorIndex, target);
+		for (int run = plan.getRunCount() - 1; run >= 0; run--) {
+			int from = plan.runStarts[run];
+			int to = Math.min(plan.runStarts[run + 1], endEffectorIndex) - 1;
+			if (from > to) continue;
+
+			switch (plan.runTypes[run]) {
+				case ChainSolvePlan.ROTOR -> forwardPassRotors(chain, plan, from, to);
+				case ChainSolvePlan.LOCAL_HINGE -> forwardPassLocalHinges(chain, plan, from, to);
+				case ChainSolvePlan.GLOBAL_HINGE -> forwardPassGlobalHinges(chain, plan, from, to);
+				default -> throw new IllegalStateException("Unexpected value: " + bones[from].getJoint());
+			}
 		}
 
 		// backward pass from base bone to end effector
-		backwardPassBaseBone(chain, chain.bones[0], 0);
-		for (int i = 1; i < chain.bones.length; i++) {
-			backwardPassBone(chain, chain.bones[i], i);
+		backwardPassBaseBone(chain, bones[0], 0);
+		for (int run = 0; run < plan.getRunCount(); run++) {
+			int from = Math.max(plan.runStarts[run], 1);
+			int to = plan.runStarts[run + 1] - 1;
+			if (from > to) continue;
+
+			switch (plan.runTypes[run]) {
+				case ChainSolvePlan.ROTOR -> backwardPassRotors(chain, plan, from, to);
+				case ChainSolvePlan.LOCAL_HINGE -> backwardPassLocalHinges(chain, plan, from, to);
+				case ChainSolvePlan.GLOBAL_HINGE -> backwardPassGlobalHinges(chain, plan, from, to);
+				default -> throw new IllegalStateException("Unexpected value: " + bones[from].getJoint());
+			}
 		}
 
 		chain.lastTargetLocation.set(target);
 
-		return chain.bones[endEffectorIndex].getEndLocation().distance(target);
+		return bones[endEffectorIndex].getEndLocation().distance(target);
 	}
 
 	private void backwardPassBaseBone(FabrikChain3f chain, FabrikBone3f bone, int boneIndex) {
@@ -168,11 +829,11 @@ public class FabrikSolver3f {
 		}
 		else {
 			// project it backwards from the end to the start by its length
-			Vector3f scaledDirection = bone.getDirection().mul(bone.length(), new Vector3f());
+			Vector3f scaledDirection = bone.getDirection().mul(bone.length(), boneDirection);
 			bone.setStartLocation(bone.getEndLocation().sub(scaledDirection, scaledDirection));
 		}
 
-		Vector3f boneDirection = new Vector3f(bone.getDirection());
+		Vector3f boneDirection = this.boneDirection.set(bone.getDirection());
 
 		switch (bone.getJoint()) {
 			case FabrikJoint3f.LocalRotor localRotor -> handleBackwardPassBaseBone(chain, localRotor, bone, boneIndex, boneDirection);
@@ -195,107 +856,93 @@ public class FabrikSolver3f {
 	}
 
 	private void handleBackwardPassBaseBone(FabrikChain3f chain, FabrikJoint3f.GlobalRotor rotor, FabrikBone3f bone, int boneIndex, Vector3f boneDirection) {
-		float angleBetween = chain.baseboneConstraint.angle(boneDirection);
-		float constraintAngle = rotor.getConstraintAngle();
-		if (angleBetween > constraintAngle) {
-			// keep this bone direction constrained within the rotor about the previous bone direction
-			Vector3f correctionAxis = chain.baseboneConstraint.cross(boneDirection, new Vector3f()).normalize();
-			chain.baseboneConstraint.rotateAxis(constraintAngle, correctionAxis.x, correctionAxis.y, correctionAxis.z, boneDirection);
-		}
+		// keep this bone direction constrained within the rotor about the base bone constraint
+		JomlMath.constrainToCone(chain.baseboneConstraint, rotor.getConstraintCos(), rotor.getConstraintSin(), boneDirection);
 	}
 
 	private void handleBackwardPassBaseBone(FabrikChain3f chain, FabrikJoint3f.LocalRotor rotor, FabrikBone3f bone, int boneIndex, Vector3f boneDirection) {
-		float angleBetween = chain.baseboneRelativeConstraint.angle(boneDirection);
-		float constraintAngle = rotor.getConstraintAngle();
-		if (angleBetween > constraintAngle) {
-			// keep this bone direction constrained within the rotor about the previous bone direction
-			Vector3f correctionAxis = chain.baseboneRelativeConstraint.cross(boneDirection, new Vector3f()).normalize();
-			chain.baseboneRelativeConstraint.rotateAxis(constraintAngle, correctionAxis.x, correctionAxis.y, correctionAxis.z, boneDirection);
-		}
+		// keep this bone direction constrained within the rotor about the base bone constraint
+		JomlMath.constrainToCone(chain.baseboneRelativeConstraint, rotor.getConstraintCos(), rotor.getConstraintSin(), boneDirection);
 	}
 
-	private void backwardPassBone(FabrikChain3f chain, FabrikBone3f bone, int boneIndex) {
-		Vector3f boneDirection = new Vector3f(bone.getDirection());
-
-		switch (bone.getJoint()) {
-			case FabrikJoint3f.Rotor rotor -> handleBackwardPass(chain, rotor, bone, boneIndex, boneDirection);
-			case FabrikJoint3f.LocalHinge localHinge -> handleBackwardPass(chain, localHinge, bone, boneIndex, boneDirection);
-			case FabrikJoint3f.GlobalHinge globalHinge -> handleBackwardPass(chain, globalHinge, bone, boneIndex, boneDirection);
-			default -> throw new IllegalStateException("Unexpected value: " + bone.getJoint());
-		}
-
-		//		boneDirection.normalize();
+	/// Backward pass over the rotor constrained bones `from..to` (inclusive), which aren't the base bone.
+	private void backwardPassRotors(FabrikChain3f chain, ChainSolvePlan plan, int from, int to) {
+		FabrikBone3f[] bones = chain.bones;
+		float[] cosines = plan.cosines;
+		float[] sines = plan.sines;
 
-		Vector3f newEndLocation = boneDirection.mul(bone.length()).add(bone.getStartLocation());
-		bone.setEndLocation(newEndLocation);
-
-		if (boneIndex < chain.bones.length - 1) {
-			chain.bones[boneIndex + 1].setStartLocation(newEndLocation);
-		}
-	}
+		for (int i = from; i <= to; i++) {
+			FabrikBone3f bone = bones[i];
+			Vector3f boneDirection = this.boneDirection.set(bone.getDirection());
 
-	private void handleBackwardPass(FabrikChain3f chain, FabrikJoint3f.Rotor rotor, FabrikBone3f bone, int boneIndex, Vector3f boneDirection) {
-		Vector3fc prevBoneDirection = chain.bones[boneIndex - 1].getDirection();
-
-		float angleBetween = prevBoneDirection.angle(boneDirection);
-		float constraintAngle = rotor.getConstraintAngle();
-		if (angleBetween > constraintAngle) {
 			// keep this bone direction constrained within the rotor about the previous bone direction
-			Vector3f correctionAxis = prevBoneDirection.cross(boneDirection, new Vector3f()).normalize();
-			prevBoneDirection.rotateAxis(constraintAngle, correctionAxis.x, correctionAxis.y, correctionAxis.z, boneDirection);
+			JomlMath.constrainToCone(bones[i - 1].getDirection(), cosines[i * 2], sines[i * 2], boneDirection);
+
+			moveEndLocation(bones, bone, i, boneDirection);
 		}
 	}
 
-	private void handleBackwardPass(FabrikChain3f chain, FabrikJoint3f.LocalHinge localHinge, FabrikBone3f bone, int boneIndex, Vector3f boneDirection) {
-		Quaternionfc prevBoneOrientation = chain.bones[boneIndex - 1].getOrientation();
+	/// Backward pass over the local hinge constrained bones `from..to` (inclusive), which aren't the base bone.
+	private void backwardPassLocalHinges(FabrikChain3f chain, ChainSolvePlan plan, int from, int to) {
+		FabrikBone3f[] bones = chain.bones;
+		float[] cosines = plan.cosines;
+		float[] sines = plan.sines;
 
-		// transform the hinge rotation axis to be relative to the previous bone in the chain (i.e. previous bone's frame of reference)
-		Vector3fc relativeRotationAxis = prevBoneOrientation.transform(localHinge.getRotationAxis(), new Vector3f());
+		for (int i = from; i <= to; i++) {
+			FabrikBone3f bone = bones[i];
+			Vector3f boneDirection = this.boneDirection.set(bone.getDirection());
+			Quaternionfc prevBoneOrientation = bones[i - 1].getOrientation();
 
-		// project this bone direction onto the plane described by the hinge rotation axis
-		JomlMath.projectOntoPlane(boneDirection, relativeRotationAxis).normalize();
+			// transform the hinge rotation axis to be relative to the previous bone in the chain (i.e. previous bone's frame of reference)
+			Vector3f relativeRotationAxis = prevBoneOrientation.transform(plan.getRotationAxis(i, rotationAxis));
 
-		if (localHinge.isConstrained()) {
-			// reference axis in local space
-			Vector3fc relativeReferenceAxis = prevBoneOrientation.transform(localHinge.getReferenceAxis(), new Vector3f());
-
-			// signed angle (about the hinge rotation axis) between the hinge reference axis and the hinge-rotation aligned bone direction
-			float signedAngleBetween = relativeReferenceAxis.angleSigned(boneDirection, relativeRotationAxis); // in the range of -pi to pi
+			// project this bone direction onto the plane described by the hinge rotation axis
+			JomlMath.projectOntoPlane(boneDirection, relativeRotationAxis).normalize();
 
-			float cwConstraintAngle = -localHinge.getClockwiseConstraintAngle();
-			float acwConstraintAngle = localHinge.getAntiClockwiseConstraintAngle();
+			if (plan.constrained[i]) {
+				// reference axis in local space
+				Vector3f relativeReferenceAxis = prevBoneOrientation.transform(plan.getReferenceAxis(i, referenceAxis));
 
-			if (signedAngleBetween > acwConstraintAngle) {
-				relativeReferenceAxis.rotateAxis(acwConstraintAngle, relativeRotationAxis.x(), relativeRotationAxis.y(), relativeRotationAxis.z(), boneDirection);
-			}
-			else if (signedAngleBetween < cwConstraintAngle) {
-				relativeReferenceAxis.rotateAxis(cwConstraintAngle, relativeRotationAxis.x(), relativeRotationAxis.y(), relativeRotationAxis.z(), boneDirection);
+				// keep the hinge-rotation aligned bone direction between the clockwise and anticlockwise rotation limits about the reference axis
+				JomlMath.constrainToHinge(relativeRotationAxis, relativeReferenceAxis, cosines[i * 2], sines[i * 2], cosines[i * 2 + 1], sines[i * 2 + 1], boneDirection);
 			}
+
+			moveEndLocation(bones, bone, i, boneDirection);
 		}
 	}
 
-	private void handleBackwardPass(FabrikChain3f chain, FabrikJoint3f.GlobalHinge globalHinge, FabrikBone3f bone, int boneIndex, Vector3f boneDirection) {
-		Vector3fc rotationAxis = globalHinge.getRotationAxis();
+	/// Backward pass over the global hinge constrained bones `from..to` (inclusive), which aren't the base bone.
+	private void backwardPassGlobalHinges(FabrikChain3f chain, ChainSolvePlan plan, int from, int to) {
+		FabrikBone3f[] bones = chain.bones;
+		float[] cosines = plan.cosines;
+		float[] sines = plan.sines;
 
-		// project this bone direction onto the plane described by the hinge rotation axis
-		JomlMath.projectOntoPlane(boneDirection, rotationAxis).normalize();
+		for (int i = from; i <= to; i++) {
+			FabrikBone3f bone = bones[i];
+			Vector3f boneDirection = this.boneDirection.set(bone.getDirection());
+			Vector3f rotationAxis = plan.getRotationAxis(i, this.rotationAxis);
 
-		if (globalHinge.isConstrained()) {
-			Vector3fc referenceAxis = globalHinge.getReferenceAxis();
+			// project this bone direction onto the plane described by the hinge rotation axis
+			JomlMath.projectOntoPlane(boneDirection, rotationAxis).normalize();
 
-			// signed angle (about the hinge rotation axis) between the hinge reference axis and the hinge-rotation aligned bone direction
-			float signedAngleBetween = referenceAxis.angleSigned(boneDirection, rotationAxis); // in the range of -pi to pi
+			if (plan.constrained[i]) {
+				Vector3f referenceAxis = plan.getReferenceAxis(i, this.referenceAxis);
 
-			float cwConstraintAngle = -globalHinge.getClockwiseConstraintAngle();
-			float acwConstraintAngle = globalHinge.getAntiClockwiseConstraintAngle();
-
-			// Make our bone inner-to-outer UV the hinge reference axis rotated by its maximum clockwise or anticlockwise rotation as required
-			if (signedAngleBetween > acwConstraintAngle) {
-				referenceAxis.rotateAxis(acwConstraintAngle, rotationAxis.x(), rotationAxis.y(), rotationAxis.z(), boneDirection);
-			}
-			else if (signedAngleBetween < cwConstraintAngle) {
-				referenceAxis.rotateAxis(cwConstraintAngle, rotationAxis.x(), rotationAxis.y(), rotationAxis.z(), boneDirection);
+				// keep the hinge-rotation aligned bone direction between the clockwise and anticlockwise rotation limits about the reference axis
+				JomlMath.constrainToHinge(rotationAxis, referenceAxis, cosines[i * 2], sines[i * 2], cosines[i * 2 + 1], sines[i * 2 + 1], boneDirection);
 			}
+
+			moveEndLocation(bones, bone, i, boneDirection);
+		}
+	}
+
+	/// Move the end location of the bone along its (constrained) direction and the start location of the next bone with it.
+	private static void moveEndLocation(FabrikBone3f[] bones, FabrikBone3f bone, int boneIndex, Vector3f boneDirection) {
+		Vector3f newEndLocation = boneDirection.mul(bone.length()).add(bone.getStartLocation());
+		bone.setEndLocation(newEndLocation);
+
+		if (boneIndex < bones.length - 1) {
+			bones[boneIndex + 1].setStartLocation(newEndLocation);
 		}
 	}
 
@@ -309,18 +956,8 @@ public class FabrikSolver3f {
 			// reference axis in local space
 			Vector3fc relativeReferenceAxis = chain.baseboneRelativeReferenceConstraint;
 
-			// signed angle (about the hinge rotation axis) between the hinge reference axis and the hinge-rotation aligned bone direction
-			float signedAngleBetween = relativeReferenceAxis.angleSigned(boneDirection, relativeRotationAxis); // in the range of -pi to pi
-
-			float cwConstraintAngle = -localHinge.getClockwiseConstraintAngle();
-			float acwConstraintAngle = localHinge.getAntiClockwiseConstraintAngle();
-
-			if (signedAngleBetween > acwConstraintAngle) {
-				relativeReferenceAxis.rotateAxis(acwConstraintAngle, relativeRotationAxis.x(), relativeRotationAxis.y(), relativeRotationAxis.z(), boneDirection);
-			}
-			else if (signedAngleBetween < cwConstraintAngle) {
-				relativeReferenceAxis.rotateAxis(cwConstraintAngle, relativeRotationAxis.x(), relativeRotationAxis.y(), relativeRotationAxis.z(), boneDirection);
-			}
+			// keep the hinge-rotation aligned bone direction between the clockwise and anticlockwise rotation limits about the reference axis
+			JomlMath.constrainToHinge(relativeRotationAxis, relativeReferenceAxis, localHinge.getClockwiseConstraintCos(), localHinge.getClockwiseConstraintSin(), localHinge.getAntiClockwiseConstraintCos(), localHinge.getAntiClockwiseConstraintSin(), boneDirection);
 		}
 	}
 
@@ -333,78 +970,77 @@ public class FabrikSolver3f {
 		if (globalHinge.isConstrained()) {
 			Vector3fc referenceAxis = globalHinge.getReferenceAxis();
 
-			// signed angle (about the hinge rotation axis) between the hinge reference axis and the hinge-rotation aligned bone direction
-			float signedAngleBetween = referenceAxis.angleSigned(boneDirection, rotationAxis); // in the range of -pi to pi
-
-			float cwConstraintAngle = -globalHinge.getClockwiseConstraintAngle();
-			float acwConstraintAngle = globalHinge.getAntiClockwiseConstraintAngle();
-
-			if (signedAngleBetween > acwConstraintAngle) {
-				referenceAxis.rotateAxis(acwConstraintAngle, rotationAxis.x(), rotationAxis.y(), rotationAxis.z(), boneDirection);
-			}
-			else if (signedAngleBetween < cwConstraintAngle) {
-				referenceAxis.rotateAxis(cwConstraintAngle, rotationAxis.x(), rotationAxis.y(), rotationAxis.z(), boneDirection);
-			}
+			// keep the hinge-rotation aligned bone direction between the clockwise and anticlockwise rotation limits about the reference axis
+			JomlMath.constrainToHinge(rotationAxis, referenceAxis, globalHinge.getClockwiseConstraintCos(), globalHinge.getClockwiseConstraintSin(), globalHinge.getAntiClockwiseConstraintCos(), globalHinge.getAntiClockwiseConstraintSin(), boneDirection);
 		}
 	}
 
-	private void forwardPassBone(FabrikChain3f chain, FabrikBone3f bone, int boneIndex) {
-		Vector3f boneDirectionNegated = bone.getDirection().negate(new Vector3f());
-
-		switch (bone.getJoint()) {
-			case FabrikJoint3f.Rotor rotor -> handleForwardPass(chain, rotor, bone, boneIndex, boneDirectionNegated, boneIndex == 0);
-			case FabrikJoint3f.LocalHinge localHinge -> handleForwardPass(chain, localHinge, bone, boneIndex, boneDirectionNegated, boneIndex == 0);
-			case FabrikJoint3f.GlobalHinge globalHinge -> handleForwardPass(chain, globalHinge, bone, boneIndex, boneDirectionNegated, boneIndex == 0);
-			default -> throw new IllegalStateException("Unexpected value: " + bone.getJoint());
-		}
+	/// Forward pass over the rotor constrained bones `to..from` (inclusive, in reverse), which aren't the end effector.
+	private void forwardPassRotors(FabrikChain3f chain, ChainSolvePlan plan, int from, int to) {
+		FabrikBone3f[] bones = chain.bones;
+		float[] cosines = plan.cosines;
+		float[] sines = plan.sines;
 
-		//		boneDirectionNegated.normalize();
+		for (int i = to; i >= from; i--) {
+			FabrikBone3f bone = bones[i];
+			Vector3f boneDirectionNegated = bone.getDirection().negate(boneDirection);
+			Vector3f prevBoneDirectionNegated = bones[i + 1].getDirection().negate(prevBoneDirection);
 
-		Vector3f newStartLocation = boneDirectionNegated.mul(bone.length()).add(bone.getEndLocation());
-		bone.setStartLocation(newStartLocation);
+			// keep this bone direction constrained within the rotor about the previous bone direction
+			JomlMath.constrainToCone(prevBoneDirectionNegated, cosines[i * 2], sines[i * 2], boneDirectionNegated);
 
-		if (boneIndex > 0) {
-			chain.bones[boneIndex - 1].setEndLocation(newStartLocation);
+			moveStartLocation(bones, bone, i, boneDirectionNegated);
 		}
 	}
 
-	private void handleForwardPass(FabrikChain3f chain, FabrikJoint3f.Rotor rotor, FabrikBone3f bone, int boneIndex, Vector3f boneDirectionNegated, boolean isBasebone) {
-		FabrikBone3f prevBone = chain.bones[boneIndex + 1];
-		Vector3f prevBoneDirectionNegated = prevBone.getDirection().negate(new Vector3f());
+	/// Forward pass over the local hinge constrained bones `to..from` (inclusive, in reverse), which aren't the end effector.
+	private void forwardPassLocalHinges(FabrikChain3f chain, ChainSolvePlan plan, int from, int to) {
+		FabrikBone3f[] bones = chain.bones;
+
+		for (int i = to; i >= from; i--) {
+			FabrikBone3f bone = bones[i];
+			Vector3f boneDirectionNegated = bone.getDirection().negate(boneDirection);
+
+			Vector3f relativeRotationAxis;
+			if (i == 0) {
+				relativeRotationAxis = chain.baseboneRelativeConstraint;
+			}
+			else {
+				relativeRotationAxis = bones[i - 1].getOrientation().transform(plan.getRotationAxis(i, rotationAxis));
+			}
 
-		float angleBetween = prevBoneDirectionNegated.angle(boneDirectionNegated);
-		float constraintAngle = rotor.getConstraintAngle();
-		if (angleBetween > constraintAngle) {
-			// the axis which we need to rotate around is the one perpendicular to the two vectors (cross-product of our two vectors)
-			// Note: We do not have to worry about both vectors being the same or pointing in opposite directions
-			// because if their bones are the same direction they will not have an angle greater than the angle limit,
-			// and if they point opposite directions we shouldn't reach the precise max angle limit (PI)
-			Vector3f correctionAxis = prevBoneDirectionNegated.cross(boneDirectionNegated, new Vector3f()).normalize();
-			prevBoneDirectionNegated.rotateAxis(constraintAngle, correctionAxis.x, correctionAxis.y, correctionAxis.z, boneDirectionNegated);
+			JomlMath.projectOntoPlane(boneDirectionNegated, relativeRotationAxis).normalize();
+
+			//NOTE: Constraining about the hinge reference axis on this forward pass leads to poor solutions... so we won't.
+
+			moveStartLocation(bones, bone, i, boneDirectionNegated);
 		}
 	}
 
-	private void handleForwardPass(FabrikChain3f chain, FabrikJoint3f.LocalHinge localHinge, FabrikBone3f bone, int boneIndex, Vector3f boneDirectionNegated, boolean isBasebone) {
-		Vector3f relativeRotationAxis;
+	/// Forward pass over the global hinge constrained bones `to..from` (inclusive, in reverse), which aren't the end effector.
+	private void forwardPassGlobalHinges(FabrikChain3f chain, ChainSolvePlan plan, int from, int to) {
+		FabrikBone3f[] bones = chain.bones;
 
-		if (isBasebone) {
-			relativeRotationAxis = chain.baseboneRelativeConstraint;
-		}
-		else {
-			FabrikBone3f nextBone = chain.bones[boneIndex - 1];
-			Quaternionfc orientation = nextBone.getOrientation();
-			relativeRotationAxis = orientation.transform(localHinge.getRotationAxis(), new Vector3f());
-		}
+		for (int i = to; i >= from; i--) {
+			FabrikBone3f bone = bones[i];
+			Vector3f boneDirectionNegated = bone.getDirection().negate(boneDirection);
 
-		JomlMath.projectOntoPlane(boneDirectionNegated, relativeRotationAxis).normalize();
+			JomlMath.projectOntoPlane(boneDirectionNegated, plan.getRotationAxis(i, rotationAxis)).normalize();
+
+			//NOTE: Constraining about the hinge reference axis on this forward pass leads to poor solutions... so we won't.
 
-		//NOTE: Constraining about the hinge reference axis on this forward pass leads to poor solutions... so we won't.
+			moveStartLocation(bones, bone, i, boneDirectionNegated);
+		}
 	}
 
-	private void handleForwardPass(FabrikChain3f chain, FabrikJoint3f.GlobalHinge globalHinge, FabrikBone3f bone, int boneIndex, Vector3f boneDirectionNegated, boolean isBasebone) {
-		JomlMath.projectOntoPlane(boneDirectionNegated, globalHinge.getRotationAxis()).normalize();
+	/// Move the start location of the bone against its (constrained) direction and the end location of the previous bone with it.
+	private static void moveStartLocation(FabrikBone3f[] bones, FabrikBone3f bone, int boneIndex, Vector3f boneDirectionNegated) {
+		Vector3f newStartLocation = boneDirectionNegated.mul(bone.length()).add(bone.getEndLocation());
+		bone.setStartLocation(newStartLocation);
 
-		//NOTE: Constraining about the hinge reference axis on this forward pass leads to poor solutions... so we won't.
+		if (boneIndex > 0) {
+			bones[boneIndex - 1].setEndLocation(newStartLocation);
+		}
 	}
 
 	private void forwardPassEndEffector(FabrikChain3f chain, FabrikBone3f bone, int boneIndex, Vector3fc target) {
@@ -412,7 +1048,7 @@ public class FabrikSolver3f {
 		bone.setEndLocation(target);
 
 		// Get the UV between the target / end-location (which are now the same) and the start location of this bone
-		Vector3f boneDirectionNegated = bone.getDirection().negate(new Vector3f());
+		Vector3f boneDirectionNegated = bone.getDirection().negate(boneDirection);
 
 		switch (bone.getJoint()) {
 			case FabrikJoint3f.Rotor ignored -> {
@@ -442,7 +1078,7 @@ public class FabrikSolver3f {
 		else {
 			FabrikBone3f nextBone = chain.bones[boneIndex - 1];
 			Quaternionfc orientation = nextBone.getOrientation();
-			relativeRotationAxis = orientation.transform(localHinge.getRotationAxis(), new Vector3f());
+			relativeRotationAxis = orientation.transform(localHinge.getRotationAxis(), rotationAxis);
 		}
 
 		JomlMath.projectOntoPlane(boneDirectionNegated, relativeRotationAxis).normalize();
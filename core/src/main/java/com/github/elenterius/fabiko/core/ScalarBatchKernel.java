@@ -0,0 +1,179 @@
+package com.github.elenterius.fabiko.core;
+
+/// Solves the lanes of a [FabrikChainBatch3f] one after another, used when the Vector API isn't available.
+///
+/// The arithmetic mirrors the `VectorBatchKernel` operation by operation, so both kernels produce identical results.
+final class ScalarBatchKernel implements BatchKernel {
+
+	/// scratch direction of the bone being solved
+	private float dx, dy, dz;
+	/// scratch constraint axis
+	private float ax, ay, az;
+
+	@Override
+	public void solveIteration(FabrikChainBatch3f batch) {
+		for (int lane = 0; lane < batch.laneCount; lane++) {
+			if (batch.active[lane]) {
+				solveIteration(batch, lane);
+			}
+		}
+	}
+
+	@Override
+	public void storeBestSolution(FabrikChainBatch3f batch) {
+		int stride = batch.stride;
+		for (int lane = 0; lane < batch.laneCount; lane++) {
+			if (!batch.improved[lane]) continue;
+
+			for (int i = lane; i < batch.locations.length; i += stride) {
+				batch.bestSolution[i] = batch.locations[i];
+			}
+		}
+	}
+
+	private void solveIteration(FabrikChainBatch3f batch, int lane) {
+		int stride = batch.stride;
+		int boneCount = batch.boneCount;
+		float[] locations = batch.locations;
+
+		// forward pass from end effector to base bone, snap the end effector's end location to the target
+		int endEffector = boneCount - 1;
+		float targetX = batch.targets[lane];
+		float targetY = batch.targets[stride + lane];
+		float targetZ = batch.targets[2 * stride + lane];
+		storeJoint(locations, boneCount, stride, lane, targetX, targetY, targetZ);
+
+		// rotors don't get constrained on this forward pass
+		loadDirection(locations, endEffector, stride, lane);
+		float length = batch.lengths[endEffector * stride + lane];
+		storeJoint(locations, endEffector, stride, lane, -dx * length + targetX, -dy * length + targetY, -dz * length + targetZ);
+
+		for (int i = endEffector - 1; i >= 0; i--) {
+			loadDirection(locations, i + 1, stride, lane);
+			ax = -dx;
+			ay = -dy;
+			az = -dz;
+			loadDirection(locations, i, stride, lane);
+			dx = -dx;
+			dy = -dy;
+			dz = -dz;
+			constrainToCone(batch.jointCosines[i * stride + lane], batch.jointSines[i * stride + lane]);
+
+			int end = (i + 1) * 3 * stride + lane;
+			length = batch.lengths[i * stride + lane];
+			storeJoint(locations, i, stride, lane, dx * length + locations[end], dy * length + locations[end + stride], dz * length + locations[end + 2 * stride]);
+		}
+
+		// backward pass from base bone to end effector
+		if (batch.fixedBaseMode[lane]) {
+			// snap the start location of the base bone back to the fixed base
+			float[] base = batch.fixedBaseLocations;
+			storeJoint(locations, 0, stride, lane, base[lane], base[stride + lane], base[2 * stride + lane]);
+		}
+		else {
+			// project it backwards from the end to the start by its length
+			loadDirection(locations, 0, stride, lane);
+			length = batch.lengths[lane];
+			int end = 3 * stride + lane;
+			storeJoint(locations, 0, stride, lane, locations[end] - dx * length, locations[end + stride] - dy * length, locations[end + 2 * stride] - dz * length);
+		}
+
+		float[] constraints = batch.baseboneConstraints;
+		ax = constraints[lane];
+		ay = constraints[stride + lane];
+		az = constraints[2 * stride + lane];
+		loadDirection(locations, 0, stride, lane);
+		constrainToCone(batch.jointCosines[lane], batch.jointSines[lane]);
+		storeBoneEnd(batch, 0, lane);
+
+		for (int i = 1; i < boneCount; i++) {
+			loadDirection(locations, i - 1, stride, lane);
+			ax = dx;
+			ay = dy;
+			az = dz;
+			loadDirection(locations, i, stride, lane);
+			constrainToCone(batch.jointCosines[i * stride + lane], batch.jointSines[i * stride + lane]);
+			storeBoneEnd(batch, i, lane);
+		}
+
+		int end = boneCount * 3 * stride + lane;
+		float distanceX = locations[end] - targetX;
+		float distanceY = locations[end + stride] - targetY;
+		float distanceZ = locations[end + 2 * stride] - targetZ;
+		batch.iterationDistances[lane] = (float) Math.sqrt(distanceX * distanceX + (distanceY * distanceY + distanceZ * distanceZ));
+	}
+
+	/// Load the [unit][org.joml.Vector3f#normalize()] direction of the bone from its start and end location.
+	private void loadDirection(float[] locations, int boneIndex, int stride, int lane) {
+		int start = boneIndex * 3 * stride + lane;
+		int end = start + 3 * stride;
+		float x = locations[end] - locations[start];
+		float y = locations[end + stride] - locations[start + stride];
+		float z = locations[end + 2 * stride] - locations[start + 2 * stride];
+		float invLength = 1f / (float) Math.sqrt(x * x + (y * y + z * z));
+		dx = x * invLength;
+		dy = y * invLength;
+		dz = z * invLength;
+	}
+
+	/// Set the end location of the bone to its start location plus the scratch direction times the bone length.
+	private void storeBoneEnd(FabrikChainBatch3f batch, int boneIndex, int lane) {
+		int stride = batch.stride;
+		float[] locations = batch.locations;
+		int start = boneIndex * 3 * stride + lane;
+		float length = batch.lengths[boneIndex * stride + lane];
+		storeJoint(locations, boneIndex + 1, stride, lane, dx * length + locations[start], dy * length + locations[start + stride], dz * length + locations[start + 2 * stride]);
+	}
+
+	private static void storeJoint(float[] locations, int jointIndex, int stride, int lane, float x, float y, float z) {
+		int i = jointIndex * 3 * stride + lane;
+		locations[i] = x;
+		locations[i + stride] = y;
+		locations[i + 2 * stride] = z;
+	}
+
+	/// Keep the scratch direction within the cone about the scratch axis, see
+	/// [com.github.elenterius.fabiko.math.JomlMath#constrainToCone(org.joml.Vector3fc, float, float, org.joml.Vector3f)].
+	private void constrainToCone(float cosAngle, float sinAngle) {
+		float dot = ax * dx + (ay * dy + az * dz);
+		if (dot >= cosAngle) return;
+
+		// the part of the direction perpendicular to the axis
+		float px = dx - ax * dot;
+		float py = dy - ay * dot;
+		float pz = dz - az * dot;
+		float lengthSquared = px * px + py * py + pz * pz;
+
+		if (lengthSquared < 1e-12f) {
+			// the direction is opposite to the axis, every direction on the cone surface is equally close
+			float magX = az * az + ay * ay;
+			float magY = az * az + ax * ax;
+			float magZ = ay * ay + ax * ax;
+			if (magX > magY && magX > magZ) {
+				float invLength = 1f / (float) Math.sqrt(magX);
+				px = 0f;
+				py = az * invLength;
+				pz = -ay * invLength;
+			}
+			else if (magY > magZ) {
+				float invLength = 1f / (float) Math.sqrt(magY);
+				px = -az * invLength;
+				py = 0f;
+				pz = ax * invLength;
+			}
+			else {
+				float invLength = 1f / (float) Math.sqrt(magZ);
+				px = ay * invLength;
+				py = -ax * invLength;
+				pz = 0f;
+			}
+			lengthSquared = 1f;
+		}
+
+		float scale = sinAngle * (1f / (float) Math.sqrt(lengthSquared));
+		dx = ax * cosAngle + px * scale;
+		dy = ay * cosAngle + py * scale;
+		dz = az * cosAngle + pz * scale;
+	}
+
+}
@@ -0,0 +1,177 @@
+package com.github.elenterius.fabiko.core;
+
+import java.util.Arrays;
+
+/// Holds the outcome of solving a [chain][FabrikChain3f] or a [structure][FabrikStructure3f].
+///
+/// For each solved chain the result holds the solve distance, the number of iterations, the iteration which found the
+/// best solution, why the solve ended and how long it took.
+///
+/// A result is filled by the [FabrikSolver3f] and can be reused for subsequent solves, it only allocates when it has
+/// to hold more chains than before.
+public class SolveResult {
+
+	/// Why the solve of a chain ended.
+	public enum Termination {
+		/// the chain was already solved for the target and wasn't solved again
+		ALREADY_SOLVED,
+		/// the chain was solved in closed form without iterating
+		CLOSED_FORM,
+		/// the chain was moved to a pose from its [solution cache][FabrikSolutionCache] without iterating, only poses
+		/// which reached the solve distance threshold are cached
+		CACHE_HIT,
+		/// the solve distance reached the [solve distance threshold][FabrikChain3f#getSolveDistanceThreshold()]
+		SOLVED,
+		/// the solve distance changed less than the [minimum iteration change][FabrikChain3f#getMinIterationChange()]
+		STALLED,
+		/// all [iteration attempts][FabrikChain3f#getMaxIterationAttempts()] were used
+		MAX_ITERATIONS,
+		/// the time or iteration budget ran out, the solve is [pending][FabrikChain3f#isSolvePending()]
+		BUDGET_EXHAUSTED
+	}
+
+	private float[] solveDistances;
+	private int[] iterations;
+	private int[] bestIterations;
+	private Termination[] terminations;
+	private long[] elapsedNanos;
+	private int chainCount;
+	private long totalElapsedNanos;
+
+	public SolveResult() {
+		this(1);
+	}
+
+	/// @param initialChainCapacity the number of chains the result can hold without growing
+	public SolveResult(int initialChainCapacity) {
+		allocate(Math.max(initialChainCapacity, 1));
+	}
+
+	private void allocate(int capacity) {
+		solveDistances = new float[capacity];
+		iterations = new int[capacity];
+		bestIterations = new int[capacity];
+		terminations = new Termination[capacity];
+		elapsedNanos = new long[capacity];
+	}
+
+	/// Clear the result and prepare it to hold `chainCount` chains.
+	void reset(int chainCount) {
+		if (solveDistances.length < chainCount) {
+			allocate(chainCount);
+		}
+		Arrays.fill(solveDistances, 0, chainCount, Float.MAX_VALUE);
+		Arrays.fill(iterations, 0, chainCount, 0);
+		Arrays.fill(bestIterations, 0, chainCount, -1);
+		Arrays.fill(terminations, 0, chainCount, Termination.ALREADY_SOLVED);
+		Arrays.fill(elapsedNanos, 0, chainCount, 0L);
+		this.chainCount = chainCount;
+		totalElapsedNanos = 0;
+	}
+
+	void set(int chainIndex, float solveDistance, int iterations, int bestIteration, Termination termination, long elapsedNanos) {
+		solveDistances[chainIndex] = solveDistance;
+		this.iterations[chainIndex] = iterations;
+		bestIterations[chainIndex] = bestIteration;
+		terminations[chainIndex] = termination;
+		this.elapsedNanos[chainIndex] = elapsedNanos;
+	}
+
+	void setElapsedNanos(long elapsedNanos) {
+		totalElapsedNanos = elapsedNanos;
+	}
+
+	/// @return the number of solved chains, `1` for the solve of a single chain
+	public int getChainCount() {
+		return chainCount;
+	}
+
+	/// @return the distance between the end effector and the target of the chain
+	public float getSolveDistance(int chainIndex) {
+		return solveDistances[checkIndex(chainIndex)];
+	}
+
+	/// @return the solve distance of a single chain solve or the largest solve distance of all chains of a structure
+	public float getSolveDistance() {
+		float max = 0f;
+		for (int i = 0; i < chainCount; i++) {
+			max = Math.max(max, solveDistances[i]);
+		}
+		return max;
+	}
+
+	/// Copy the solve distance of each chain into `dest`.
+	///
+	/// @param dest must be at least as long as the chain count
+	/// @return `dest`
+	public float[] getSolveDistances(float[] dest) {
+		System.arraycopy(solveDistances, 0, dest, 0, chainCount);
+		return dest;
+	}
+
+	/// @return the number of iterations the chain was solved with, `0` if it wasn't solved iteratively
+	public int getIterations(int chainIndex) {
+		return iterations[checkIndex(chainIndex)];
+	}
+
+	/// @return the number of iterations of all chains
+	public int getIterations() {
+		int sum = 0;
+		for (int i = 0; i < chainCount; i++) {
+			sum += iterations[i];
+		}
+		return sum;
+	}
+
+	/// @return the zero based iteration which found the best solution of the chain, `-1` if the chain wasn't solved
+	/// iteratively
+	public int getBestIteration(int chainIndex) {
+		return bestIterations[checkIndex(chainIndex)];
+	}
+
+	public Termination getTermination(int chainIndex) {
+		return terminations[checkIndex(chainIndex)];
+	}
+
+	/// @return the number of chains whose solve ended for the given reason
+	public int countTerminations(Termination termination) {
+		int count = 0;
+		for (int i = 0; i < chainCount; i++) {
+			if (terminations[i] == termination) count++;
+		}
+		return count;
+	}
+
+	/// @return the time it took to solve the chain in nanoseconds
+	public long getElapsedNanos(int chainIndex) {
+		return elapsedNanos[checkIndex(chainIndex)];
+	}
+
+	/// @return the time it took to solve all chains in nanoseconds
+	public long getElapsedNanos() {
+		return totalElapsedNanos;
+	}
+
+	private int checkIndex(int chainIndex) {
+		if (chainIndex < 0 || chainIndex >= chainCount) {
+			throw new IndexOutOfBoundsException("Chain index " + chainIndex + " is out of bounds for " + chainCount + " chains.");
+		}
+		return chainIndex;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("SolveResult{elapsedNanos=").append(totalElapsedNanos).append(", chains=[");
+		for (int i = 0; i < chainCount; i++) {
+			if (i > 0) builder.append(", ");
+			builder.append("{solveDistance=").append(solveDistances[i])
+					.append(", iterations=").append(iterations[i])
+					.append(", bestIteration=").append(bestIterations[i])
+					.append(", termination=").append(terminations[i])
+					.append(", elapsedNanos=").append(elapsedNanos[i])
+					.append('}');
+		}
+		return builder.append("]}").toString();
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.github.elenterius.fabiko.core;
+
+import jdk.jfr.*;
+import org.jspecify.annotations.Nullable;
+
+/// JDK Flight Recorder events emitted by the [FabrikSolver3f].
+///
+/// The events are disabled by default, the solver only creates an event while its type is enabled in a running flight
+/// recording, e.g. with `jfr configure fabiko.ChainSolve#enabled=true` or `Recording.enable("fabiko.ChainSolve")`.
+/// Solving doesn't pay for the events when JFR isn't used or only records other events, like an always-on profiling
+/// recording does.
+final class SolverEvents {
+
+	static final String CATEGORY = "Fabiko";
+
+	private static final @Nullable EventType CHAIN_SOLVE_TYPE = getEventType(ChainSolveEvent.class);
+	private static final @Nullable EventType STRUCTURE_SOLVE_TYPE = getEventType(StructureSolveEvent.class);
+
+	private SolverEvents() {}
+
+	private static @Nullable EventType getEventType(Class<? extends Event> eventClass) {
+		return FlightRecorder.isAvailable() ? EventType.getEventType(eventClass) : null;
+	}
+
+	/// @return `true` if a running flight recording records [ChainSolveEvent]s
+	static boolean isChainSolveEnabled() {
+		@Nullable EventType type = CHAIN_SOLVE_TYPE;
+		return type != null && type.isEnabled();
+	}
+
+	/// @return `true` if a running flight recording records [StructureSolveEvent]s
+	static boolean isStructureSolveEnabled() {
+		@Nullable EventType type = STRUCTURE_SOLVE_TYPE;
+		return type != null && type.isEnabled();
+	}
+
+	@Name("fabiko.ChainSolve")
+	@Label("Chain Solve")
+	@Description("Solve of a single FABRIK chain")
+	@Category({CATEGORY, "Solver"})
+	@StackTrace(false)
+	@Enabled(false)
+	static final class ChainSolveEvent extends Event {
+
+		@Label("Bone Count")
+		int boneCount;
+
+		@Label("Iterations")
+		@Description("Number of iterations run by this solve")
+		int iterations;
+
+		@Label("Best Iteration")
+		@Description("Iteration which found the best solution, -1 if the chain wasn't solved iteratively")
+		int bestIteration;
+
+		@Label("Termination")
+		@Description("Why the solve ended")
+		String termination;
+
+		@Label("Solve Distance")
+		@Description("Distance between the end effector and the target")
+		float solveDistance;
+
+	}
+
+	@Name("fabiko.StructureSolve")
+	@Label("Structure Solve")
+	@Description("Solve of all chains of a FABRIK structure")
+	@Category({CATEGORY, "Solver"})
+	@StackTrace(false)
+	@Enabled(false)
+	static final class StructureSolveEvent extends Event {
+
+		@Label("Chain Count")
+		int chainCount;
+
+		@Label("Bone Count")
+		int boneCount;
+
+		@Label("Iterations")
+		@Description("Number of iterations of all chains, -1 for parallel solves")
+		int iterations;
+
+		@Label("Parallel")
+		boolean parallel;
+
+		@Label("Max Solve Distance")
+		@Description("Largest distance between the end effector and the target of all chains")
+		float maxSolveDistance;
+
+		void set(FabrikStructure3f structure, int iterations, boolean parallel, float maxSolveDistance) {
+			int chainCount = structure.getChainCount();
+			int boneCount = 0;
+			for (int i = 0; i < chainCount; i++) {
+				boneCount += structure.getChain(i).getBoneCount();
+			}
+
+			this.chainCount = chainCount;
+			this.boneCount = boneCount;
+			this.iterations = iterations;
+			this.parallel = parallel;
+			this.maxSolveDistance = maxSolveDistance;
+		}
+
+	}
+
+}
@@ -0,0 +1,327 @@
+package com.github.elenterius.fabiko.core;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/// Aggregates statistics of the chain solves of one or more [solvers][FabrikSolver3f].
+///
+/// Metrics are opt-in: attach them with [FabrikSolver3f#setMetrics(SolverMetrics)] or
+/// [FabrikCrowdSolver3f#setMetrics(SolverMetrics)]. A single instance can be shared by all
+/// solvers of an application, the counters are striped [LongAdder]s, so recording a solve never blocks.
+///
+/// Use [#register(String)] to export the metrics as platform MBean, which makes them visible to JMX clients like
+/// jconsole and JMX exporters.
+public class SolverMetrics implements SolverMetricsMXBean {
+
+	public static final String DOMAIN = "com.github.elenterius.fabiko";
+
+	/// Iteration counts of at least this value share the last histogram bucket.
+	public static final int MAX_TRACKED_ITERATIONS = 64;
+
+	/// Latencies are counted in buckets of power of two ranges with [#LATENCY_SUB_BUCKETS] linear sub buckets each,
+	/// so a percentile is at most 25% larger than the actual value.
+	private static final int LATENCY_SUB_BUCKET_BITS = 2;
+	private static final int LATENCY_SUB_BUCKETS = 1 << LATENCY_SUB_BUCKET_BITS;
+
+	/// The solve rate is the mean over this many seconds plus the current second.
+	public static final int SOLVE_RATE_WINDOW_SECONDS = 5;
+
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+	private static final long NO_SECOND = Long.MIN_VALUE;
+
+	private static final SolveResult.Termination[] TERMINATIONS = SolveResult.Termination.values();
+
+	private final LongAdder solveCount = new LongAdder();
+	private final LongAdder iterationCount = new LongAdder();
+	private final LongAdder totalLatencyNanos = new LongAdder();
+	private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+	private final LongAdder[] iterationHistogram = createAdders(MAX_TRACKED_ITERATIONS + 1);
+	private final LongAdder[] terminationCounts = createAdders(TERMINATIONS.length);
+	private final LongAdder[] latencyHistogram = createAdders(64 * LATENCY_SUB_BUCKETS);
+	/// closed form solves which only stretched the chain towards a target out of reach
+	private final LongAdder unreachedClosedFormCount = new LongAdder();
+
+	/// Solves per second of the solve rate window, a ring indexed by the [System#nanoTime()] second of the solves.
+	private final LongAdder[] solveRateBuckets = createAdders(SOLVE_RATE_WINDOW_SECONDS + 1);
+	/// The second each bucket of [#solveRateBuckets] counts, [#NO_SECOND] for unused buckets.
+	private final AtomicLongArray solveRateBucketSeconds = createBucketSeconds(SOLVE_RATE_WINDOW_SECONDS + 1);
+
+	/// [System#nanoTime()] when the metrics were created or reset
+	private volatile long startTime = System.nanoTime();
+
+	private volatile ObjectName objectName;
+
+	private static LongAdder[] createAdders(int count) {
+		LongAdder[] adders = new LongAdder[count];
+		for (int i = 0; i < count; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+	private static AtomicLongArray createBucketSeconds(int count) {
+		AtomicLongArray seconds = new AtomicLongArray(count);
+		for (int i = 0; i < count; i++) {
+			seconds.set(i, NO_SECOND);
+		}
+		return seconds;
+	}
+
+	/// Record the solve of a single chain, [closed form][SolveResult.Termination#CLOSED_FORM] solves count as converged.
+	///
+	/// @param iterations   the number of iterations of the solve
+	/// @param termination  why the solve ended
+	/// @param elapsedNanos how long the solve took
+	public void recordSolve(int iterations, SolveResult.Termination termination, long elapsedNanos) {
+		recordSolve(iterations, termination, true, elapsedNanos);
+	}
+
+	/// Record the solve of a single chain.
+	///
+	/// @param reachedTarget whether the solve distance reached the solve distance threshold, closed form solves which
+	///                      only stretched the chain towards a target out of reach count as stalled
+	void recordSolve(int iterations, SolveResult.Termination termination, boolean reachedTarget, long elapsedNanos) {
+		long latency = Math.max(elapsedNanos, 0);
+
+		solveCount.increment();
+		iterationCount.add(iterations);
+		totalLatencyNanos.add(latency);
+		maxLatencyNanos.accumulate(latency);
+		iterationHistogram[Math.min(Math.max(iterations, 0), MAX_TRACKED_ITERATIONS)].increment();
+		terminationCounts[termination.ordinal()].increment();
+		latencyHistogram[latencyBucket(latency)].increment();
+		if (termination == SolveResult.Termination.CLOSED_FORM && !reachedTarget) {
+			unreachedClosedFormCount.increment();
+		}
+		getSolveRateBucket(Math.floorDiv(System.nanoTime(), NANOS_PER_SECOND)).increment();
+	}
+
+	/// @return the bucket counting the solves of the given second, a bucket of an older second is cleared first
+	private LongAdder getSolveRateBucket(long second) {
+		int index = Math.floorMod(second, solveRateBuckets.length);
+		long bucketSecond = solveRateBucketSeconds.get(index);
+		// only one thread moves the bucket to the new second, solves counted concurrently by other threads may be lost
+		if (bucketSecond != second && solveRateBucketSeconds.compareAndSet(index, bucketSecond, second)) {
+			solveRateBuckets[index].reset();
+		}
+		return solveRateBuckets[index];
+	}
+
+	/// Record the solves of all chains in the result.
+	public void recordSolves(SolveResult result) {
+		for (int i = 0; i < result.getChainCount(); i++) {
+			recordSolve(result.getIterations(i), result.getTermination(i), result.getElapsedNanos(i));
+		}
+	}
+
+	static int latencyBucket(long nanos) {
+		if (nanos < LATENCY_SUB_BUCKETS) return (int) nanos;
+
+		// the highest bit selects the power of two range, the following bits select the sub bucket
+		int highestBit = 63 - Long.numberOfLeadingZeros(nanos);
+		int subBucket = (int) (nanos >>> (highestBit - LATENCY_SUB_BUCKET_BITS)) & (LATENCY_SUB_BUCKETS - 1);
+		return (highestBit - LATENCY_SUB_BUCKET_BITS + 1) * LATENCY_SUB_BUCKETS + subBucket;
+	}
+
+	/// @return the largest latency counted in the given bucket
+	static long latencyBucketUpperBound(int bucket) {
+		if (bucket < LATENCY_SUB_BUCKETS) return bucket;
+
+		int highestBit = bucket / LATENCY_SUB_BUCKETS + LATENCY_SUB_BUCKET_BITS - 1;
+		int subBucket = bucket % LATENCY_SUB_BUCKETS;
+		long lowerBound = (1L << highestBit) + ((long) subBucket << (highestBit - LATENCY_SUB_BUCKET_BITS));
+		return lowerBound + (1L << (highestBit - LATENCY_SUB_BUCKET_BITS)) - 1;
+	}
+
+	@Override
+	public long getSolveCount() {
+		return solveCount.sum();
+	}
+
+	@Override
+	public double getSolvesPerSecond() {
+		long now = System.nanoTime();
+		long second = Math.floorDiv(now, NANOS_PER_SECOND);
+		long firstSecond = second - SOLVE_RATE_WINDOW_SECONDS;
+
+		long count = 0;
+		for (int i = 0; i < solveRateBuckets.length; i++) {
+			long bucketSecond = solveRateBucketSeconds.get(i);
+			if (bucketSecond >= firstSecond && bucketSecond <= second) {
+				count += solveRateBuckets[i].sum();
+			}
+		}
+
+		// the window starts at a whole second, unless the metrics were created or reset after it
+		long elapsedNanos = now - Math.max(startTime, firstSecond * NANOS_PER_SECOND);
+		return elapsedNanos > 0 ? count * 1e9 / elapsedNanos : 0;
+	}
+
+	@Override
+	public long getIterationCount() {
+		return iterationCount.sum();
+	}
+
+	@Override
+	public double getMeanIterations() {
+		long count = solveCount.sum();
+		return count == 0 ? 0 : (double) iterationCount.sum() / count;
+	}
+
+	@Override
+	public long[] getIterationHistogram() {
+		long[] histogram = new long[iterationHistogram.length];
+		for (int i = 0; i < histogram.length; i++) {
+			histogram[i] = iterationHistogram[i].sum();
+		}
+		return histogram;
+	}
+
+	public long getTerminationCount(SolveResult.Termination termination) {
+		return terminationCounts[termination.ordinal()].sum();
+	}
+
+	@Override
+	public Map<String, Long> getTerminationCounts() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		for (SolveResult.Termination termination : TERMINATIONS) {
+			counts.put(termination.name(), getTerminationCount(termination));
+		}
+		return counts;
+	}
+
+	@Override
+	public double getConvergedRatio() {
+		return getOutcomeRatio(true);
+	}
+
+	@Override
+	public double getStalledRatio() {
+		return getOutcomeRatio(false);
+	}
+
+	/// @return the fraction of converged or stalled solves among the solves which either converged or stalled, cache hits
+	/// serve a pose which converged before and count as converged, closed form solves which didn't reach the target
+	/// count as stalled
+	private double getOutcomeRatio(boolean converged) {
+		long unreachedClosedFormCount = this.unreachedClosedFormCount.sum();
+		long convergedCount = getTerminationCount(SolveResult.Termination.SOLVED) + getTerminationCount(SolveResult.Termination.CACHE_HIT)
+				+ getTerminationCount(SolveResult.Termination.CLOSED_FORM) - unreachedClosedFormCount;
+		long stalledCount = getTerminationCount(SolveResult.Termination.STALLED) + getTerminationCount(SolveResult.Termination.MAX_ITERATIONS)
+				+ unreachedClosedFormCount;
+		long total = convergedCount + stalledCount;
+		return total == 0 ? 0 : (double) (converged ? convergedCount : stalledCount) / total;
+	}
+
+	@Override
+	public double getMeanLatencyNanos() {
+		long count = solveCount.sum();
+		return count == 0 ? 0 : (double) totalLatencyNanos.sum() / count;
+	}
+
+	@Override
+	public long getLatencyP50Nanos() {
+		return getLatencyPercentileNanos(0.5);
+	}
+
+	@Override
+	public long getLatencyP99Nanos() {
+		return getLatencyPercentileNanos(0.99);
+	}
+
+	/// @param percentile in the range of `0` to `1`
+	/// @return the latency below which the given fraction of solves fall, `0` if no solves were recorded
+	public long getLatencyPercentileNanos(double percentile) {
+		if (percentile < 0 || percentile > 1) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 1 but was " + percentile + ".");
+		}
+
+		long[] counts = new long[latencyHistogram.length];
+		long total = 0;
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = latencyHistogram[i].sum();
+			total += counts[i];
+		}
+		if (total == 0) return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(percentile * total));
+		long cumulative = 0;
+		for (int i = 0; i < counts.length; i++) {
+			cumulative += counts[i];
+			if (cumulative >= rank) {
+				return Math.min(latencyBucketUpperBound(i), maxLatencyNanos.get());
+			}
+		}
+		return maxLatencyNanos.get();
+	}
+
+	@Override
+	public long getMaxLatencyNanos() {
+		return maxLatencyNanos.get();
+	}
+
+	/// Clear all counters, solves recorded concurrently may be lost.
+	@Override
+	public synchronized void reset() {
+		solveCount.reset();
+		iterationCount.reset();
+		totalLatencyNanos.reset();
+		maxLatencyNanos.reset();
+		for (LongAdder adder : iterationHistogram) adder.reset();
+		for (LongAdder adder : terminationCounts) adder.reset();
+		for (LongAdder adder : latencyHistogram) adder.reset();
+		unreachedClosedFormCount.reset();
+		for (LongAdder adder : solveRateBuckets) adder.reset();
+		for (int i = 0; i < solveRateBuckets.length; i++) solveRateBucketSeconds.set(i, NO_SECOND);
+		startTime = System.nanoTime();
+	}
+
+	/// Register the metrics with the platform MBean server as `com.github.elenterius.fabiko:type=SolverMetrics,name=<name>`.
+	///
+	/// @param name unique name of the metrics, e.g. the name of the subsystem solving the chains
+	/// @return the name the metrics are registered under
+	/// @throws IllegalStateException if the metrics are already registered or the name is already in use
+	public synchronized ObjectName register(String name) {
+		if (objectName != null) {
+			throw new IllegalStateException("Metrics are already registered as " + objectName + ".");
+		}
+
+		try {
+			ObjectName objectName = new ObjectName(DOMAIN + ":type=SolverMetrics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			this.objectName = objectName;
+			return objectName;
+		}
+		catch (MalformedObjectNameException e) {
+			throw new IllegalArgumentException("Invalid metrics name: " + name, e);
+		}
+		catch (InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException e) {
+			throw new IllegalStateException("Failed to register metrics " + name + ".", e);
+		}
+	}
+
+	/// Remove the metrics from the platform MBean server, does nothing if they aren't registered.
+	public synchronized void unregister() {
+		ObjectName objectName = this.objectName;
+		if (objectName == null) return;
+
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		}
+		catch (InstanceNotFoundException ignored) {
+			// already unregistered by someone else
+		}
+		catch (MBeanRegistrationException e) {
+			throw new IllegalStateException("Failed to unregister metrics " + objectName + ".", e);
+		}
+		finally {
+			this.objectName = null;
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.github.elenterius.fabiko.core;
+
+import java.util.Map;
+
+/// Management interface of the [SolverMetrics], see [SolverMetrics#register(String)].
+public interface SolverMetricsMXBean {
+
+	/// @return the number of chain solves since the metrics were created or reset
+	long getSolveCount();
+
+	/// @return the mean number of chain solves per second over the last
+	/// [SolverMetrics#SOLVE_RATE_WINDOW_SECONDS] seconds and the current second
+	double getSolvesPerSecond();
+
+	/// @return the number of iterations of all chain solves
+	long getIterationCount();
+
+	/// @return the mean number of iterations per chain solve
+	double getMeanIterations();
+
+	/// @return the number of chain solves by iteration count, the last bucket counts all solves with at least as many
+	/// iterations as its index
+	long[] getIterationHistogram();
+
+	/// @return the number of chain solves by [termination reason][SolveResult.Termination]
+	Map<String, Long> getTerminationCounts();
+
+	/// @return the fraction of iterative, closed form and cached chain solves which reached the solve distance threshold,
+	/// every cache hit counts as converged
+	double getConvergedRatio();
+
+	/// @return the fraction of iterative, closed form and cached chain solves which stalled or used all iterations,
+	/// closed form solves which only stretched the chain towards a target out of reach count as stalled
+	double getStalledRatio();
+
+	double getMeanLatencyNanos();
+
+	long getLatencyP50Nanos();
+
+	long getLatencyP99Nanos();
+
+	long getMaxLatencyNanos();
+
+	void reset();
+
+}
@@ -0,0 +1,154 @@
+package com.github.elenterius.fabiko.core;
+
+import org.jspecify.annotations.Nullable;
+
+/// A frozen [FabrikStructure3f] compiled for the [FabrikSolver3f], see [FabrikStructure3f#freeze()].
+///
+/// The chains are ordered topologically, every chain comes after the host chain it is connected to. The host bone,
+/// connection point and base joint of each chain are resolved and validated once, so the solver runs the whole structure
+/// as a single pass over flat arrays instead of looking up the host of every chain on every solve.
+///
+/// All arrays are indexed by the position of a chain in the solve order, use [#chainIndices] to map a position to the
+/// index of the chain in the structure.
+final class StructureSolvePlan {
+
+	/// the chain isn't connected to another chain
+	static final byte ROOT = 0;
+	/// the base bone constraint is in world space and doesn't depend on the host bone
+	static final byte GLOBAL = 1;
+	static final byte LOCAL_ROTOR = 2;
+	static final byte LOCAL_HINGE = 3;
+
+	final FabrikChain3f[] chains;
+	final int[] chainIndices;
+	/// The position of each chain in the solve order, indexed by the index of the chain in the structure.
+	final int[] positions;
+
+	/// `-1` for chains which aren't connected to another chain.
+	final int[] hostChainIndices;
+	/// `-1` for chains which aren't connected to another chain.
+	final int[] hostBoneIndices;
+	/// The position of the host chain in the solve order, `-1` for chains which aren't connected to another chain.
+	final int[] hostPositions;
+	final @Nullable FabrikBone3f[] hostBones;
+	final boolean[] connectsToStart;
+
+	final byte[] baseJointTypes;
+	final FabrikJoint3f[] baseJoints;
+
+	private StructureSolvePlan(int chainCount) {
+		chains = new FabrikChain3f[chainCount];
+		chainIndices = new int[chainCount];
+		positions = new int[chainCount];
+		hostChainIndices = new int[chainCount];
+		hostBoneIndices = new int[chainCount];
+		hostPositions = new int[chainCount];
+		hostBones = new FabrikBone3f[chainCount];
+		connectsToStart = new boolean[chainCount];
+		baseJointTypes = new byte[chainCount];
+		baseJoints = new FabrikJoint3f[chainCount];
+	}
+
+	/// @throws IllegalStateException if a chain is empty, connected to a missing chain or bone, part of a connection cycle
+	///                               or its base bone has a joint which can't be connected to another chain
+	static StructureSolvePlan compile(FabrikStructure3f structure) {
+		int chainCount = structure.getChainCount();
+		StructureSolvePlan plan = new StructureSolvePlan(chainCount);
+
+		int[] order = topologicalOrder(structure);
+		int[] positions = plan.positions;
+		for (int position = 0; position < chainCount; position++) {
+			positions[order[position]] = position;
+		}
+
+		for (int position = 0; position < chainCount; position++) {
+			int chainIndex = order[position];
+			FabrikChain3f chain = structure.getChain(chainIndex);
+			if (chain.isEmpty()) {
+				throw new IllegalStateException("Chain " + chainIndex + " has no bones.");
+			}
+
+			plan.chains[position] = chain;
+			plan.chainIndices[position] = chainIndex;
+			plan.baseJoints[position] = chain.getBaseBone().getJoint();
+
+			int hostIndex = chain.getConnectedToChainId();
+			if (hostIndex == -1) {
+				plan.hostChainIndices[position] = -1;
+				plan.hostBoneIndices[position] = -1;
+				plan.hostPositions[position] = -1;
+				plan.baseJointTypes[position] = ROOT;
+				continue;
+			}
+
+			int hostPosition = positions[hostIndex];
+			FabrikChain3f hostChain = plan.chains[hostPosition];
+			int boneIndex = chain.getConnectedToBoneIndex();
+			if (boneIndex < 0 || boneIndex >= hostChain.getBoneCount()) {
+				throw new IllegalStateException("Chain " + chainIndex + " is connected to bone " + boneIndex + " of chain " + hostIndex + " which has " + hostChain.getBoneCount() + " bones.");
+			}
+
+			FabrikBone3f hostBone = hostChain.getBone(boneIndex);
+			plan.hostChainIndices[position] = hostIndex;
+			plan.hostBoneIndices[position] = boneIndex;
+			plan.hostPositions[position] = hostPosition;
+			plan.hostBones[position] = hostBone;
+			plan.connectsToStart[position] = hostBone.getBoneConnectionPoint() == BoneConnectionPoint.START;
+			plan.baseJointTypes[position] = switch (plan.baseJoints[position]) {
+				case FabrikJoint3f.GlobalHinge ignored -> GLOBAL;
+				case FabrikJoint3f.GlobalRotor ignored -> GLOBAL;
+				case FabrikJoint3f.LocalRotor ignored -> LOCAL_ROTOR;
+				case FabrikJoint3f.LocalHinge ignored -> LOCAL_HINGE;
+				default -> throw new IllegalStateException("Unexpected value: " + plan.baseJoints[position]);
+			};
+		}
+
+		return plan;
+	}
+
+	/// Order the chains so that each chain comes after its host chain, chains which already come after their host keep
+	/// their relative order.
+	private static int[] topologicalOrder(FabrikStructure3f structure) {
+		int chainCount = structure.getChainCount();
+		int[] order = new int[chainCount];
+		int orderSize = 0;
+
+		// 0 = not visited, 1 = waiting for its host, 2 = ordered
+		byte[] states = new byte[chainCount];
+		int[] pending = new int[chainCount];
+
+		for (int i = 0; i < chainCount; i++) {
+			int pendingSize = 0;
+			int chainIndex = i;
+
+			// walk up the hosts until reaching a chain which is already ordered or isn't connected
+			while (chainIndex != -1 && states[chainIndex] != 2) {
+				if (states[chainIndex] == 1) {
+					throw new IllegalStateException("Chain " + chainIndex + " is part of a connection cycle.");
+				}
+				states[chainIndex] = 1;
+				pending[pendingSize++] = chainIndex;
+
+				int hostIndex = structure.getChain(chainIndex).getConnectedToChainId();
+				if (hostIndex < -1 || hostIndex >= chainCount) {
+					throw new IllegalStateException("Chain " + chainIndex + " is connected to chain " + hostIndex + " which doesn't exist in the structure.");
+				}
+				chainIndex = hostIndex;
+			}
+
+			// hosts first
+			while (pendingSize > 0) {
+				int pendingIndex = pending[--pendingSize];
+				states[pendingIndex] = 2;
+				order[orderSize++] = pendingIndex;
+			}
+		}
+
+		return order;
+	}
+
+	int getChainCount() {
+		return chains.length;
+	}
+
+}
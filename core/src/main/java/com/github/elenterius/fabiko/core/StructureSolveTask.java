@@ -0,0 +1,65 @@
+package com.github.elenterius.fabiko.core;
+
+import org.joml.Vector3fc;
+
+import java.util.concurrent.RecursiveAction;
+
+/// Solves a set of sibling chains of a [FabrikStructure3f] and afterward the chains connected to them.
+///
+/// Siblings don't depend on each other and are solved in parallel, see
+/// [FabrikSolver3f#solveForTarget(FabrikStructure3f, Vector3fc, float[], java.util.concurrent.ForkJoinPool)].
+final class StructureSolveTask extends RecursiveAction {
+
+	private final FabrikSolver3f settings;
+	private final FabrikStructure3f structure;
+	private final ChainHierarchy hierarchy;
+	private final int[] chainIndices;
+	private final Vector3fc target;
+	private final float[] solveDistances;
+
+	/// @param settings the solver which started the solve, its settings are applied to the solvers of the worker threads
+	StructureSolveTask(FabrikSolver3f settings, FabrikStructure3f structure, ChainHierarchy hierarchy, int[] chainIndices, Vector3fc target, float[] solveDistances) {
+		this.settings = settings;
+		this.structure = structure;
+		this.hierarchy = hierarchy;
+		this.chainIndices = chainIndices;
+		this.target = target;
+		this.solveDistances = solveDistances;
+	}
+
+	private StructureSolveTask(StructureSolveTask parent, int[] chainIndices) {
+		this(parent.settings, parent.structure, parent.hierarchy, chainIndices, parent.target, parent.solveDistances);
+	}
+
+	@Override
+	protected void compute() {
+		if (chainIndices.length == 1) {
+			solveBranch(chainIndices[0]);
+			return;
+		}
+
+		StructureSolveTask[] tasks = new StructureSolveTask[chainIndices.length];
+		for (int i = 0; i < chainIndices.length; i++) {
+			tasks[i] = new StructureSolveTask(this, new int[]{chainIndices[i]});
+		}
+		invokeAll(tasks);
+	}
+
+	private void solveBranch(int chainIndex) {
+		FabrikChain3f chain = structure.getChain(chainIndex);
+		FabrikSolver3f solver = FabrikSolver3f.THREAD_LOCAL.get();
+		solver.copySettingsFrom(settings);
+		solveDistances[chainIndex] = solver.solveChain(structure, chainIndex, target);
+
+		int[] childIndices = hierarchy.getChildIndices(chainIndex);
+		if (childIndices.length == 0) return;
+
+		// the bone orientation is derived lazily, compute it before the host bones are shared with other threads
+		for (int childIndex : childIndices) {
+			chain.getBone(structure.getChain(childIndex).getConnectedToBoneIndex()).getOrientation();
+		}
+
+		new StructureSolveTask(this, childIndices).compute();
+	}
+
+}
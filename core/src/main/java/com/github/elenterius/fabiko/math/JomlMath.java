@@ -6,8 +6,6 @@ import org.joml.Vector3fc;
 
 public class JomlMath {
 
-	private static final Vector3f BLACK_HOLE_V3f = new Vector3f();
-
 	/// Projects a vector onto a plane defined by its normal.
 	///
 	/// @param v           the vector to project
@@ -26,9 +24,8 @@ public class JomlMath {
 	/// @return dest
 	/// @see Vector3fc#normalize
 	public static Vector3f projectOntoPlane(Vector3fc v, Vector3fc planeNormal, Vector3f dest) {
-		Vector3f normalProjection = planeNormal.mul(v.dot(planeNormal), new Vector3f());
-		v.sub(normalProjection, dest);
-		return dest;
+		float d = v.dot(planeNormal);
+		return dest.set(v.x() - planeNormal.x() * d, v.y() - planeNormal.y() * d, v.z() - planeNormal.z() * d);
 	}
 
 	public static boolean floatsAreEqual(float v1, float v2, float delta) {
@@ -73,11 +70,31 @@ public class JomlMath {
 	///
 	/// The computed vector will be perpendicular and normalized.
 	///
+	/// Computes the same vector as the first vector of [#perpendicular(Vector3fc, Vector3f, Vector3f)] without
+	/// touching any shared state, so it is safe to call from multiple threads.
+	///
 	/// @param v    the `normalized` input vector
 	/// @param dest will hold the perpendicular vector
 	public static Vector3f perpendicular(Vector3fc v, Vector3f dest) {
-		GeometryUtils.perpendicular(v, dest, BLACK_HOLE_V3f);
-		return dest;
+		float x = v.x();
+		float y = v.y();
+		float z = v.z();
+		float magX = z * z + y * y;
+		float magY = z * z + x * x;
+		float magZ = y * y + x * x;
+
+		if (magX > magY && magX > magZ) {
+			dest.set(0f, z, -y);
+			return dest.mul(org.joml.Math.invsqrt(magX));
+		}
+		else if (magY > magZ) {
+			dest.set(-z, 0f, x);
+			return dest.mul(org.joml.Math.invsqrt(magY));
+		}
+		else {
+			dest.set(y, -x, 0f);
+			return dest.mul(org.joml.Math.invsqrt(magZ));
+		}
 	}
 
 	/// Compute two arbitrary vectors perpendicular to the given [normalized][Vector3f#normalize()] vector `v`, and
@@ -93,4 +110,101 @@ public class JomlMath {
 		GeometryUtils.perpendicular(v, dest1, dest2);
 	}
 
+	/// Rotate the vector `v` about the [unit][Vector3f#normalize()] `axis` by the angle with the given cosine and sine
+	/// (Rodrigues' rotation formula) and store the result in `dest`.
+	///
+	/// Equivalent to [Vector3fc#rotateAxis(float, float, float, float, Vector3f)] without evaluating any trigonometric
+	/// functions.
+	///
+	/// @param v    the vector to rotate
+	/// @param cos  cosine of the rotation angle
+	/// @param sin  sine of the rotation angle
+	/// @param axis the `unit` rotation axis
+	/// @param dest will hold the result, may be `v` or `axis`
+	/// @return dest
+	public static Vector3f rotateAxis(Vector3fc v, float cos, float sin, Vector3fc axis, Vector3f dest) {
+		float x = v.x(), y = v.y(), z = v.z();
+		float ax = axis.x(), ay = axis.y(), az = axis.z();
+		float d = (ax * x + ay * y + az * z) * (1f - cos);
+		return dest.set(
+				x * cos + (ay * z - az * y) * sin + ax * d,
+				y * cos + (az * x - ax * z) * sin + ay * d,
+				z * cos + (ax * y - ay * x) * sin + az * d
+		);
+	}
+
+	/// Constrain the [unit][Vector3f#normalize()] `direction` to the cone around the unit `axis` with the half angle
+	/// of the given cosine and sine.
+	///
+	/// A direction outside the cone is replaced by the direction on the cone surface closest to it, i.e. the `axis`
+	/// rotated towards `direction` by the cone angle.
+	///
+	/// @param axis      the `unit` cone axis
+	/// @param cosAngle  cosine of the cone half angle
+	/// @param sinAngle  sine of the cone half angle
+	/// @param direction the `unit` direction to constrain
+	/// @return `true` if the direction was outside the cone and was changed
+	public static boolean constrainToCone(Vector3fc axis, float cosAngle, float sinAngle, Vector3f direction) {
+		float dot = axis.dot(direction);
+		if (dot >= cosAngle) return false;
+
+		// the part of the direction perpendicular to the axis
+		float px = direction.x - axis.x() * dot;
+		float py = direction.y - axis.y() * dot;
+		float pz = direction.z - axis.z() * dot;
+		float lengthSquared = px * px + py * py + pz * pz;
+
+		if (lengthSquared < 1e-12f) {
+			// the direction is opposite to the axis, every direction on the cone surface is equally close
+			perpendicular(axis, direction);
+			px = direction.x;
+			py = direction.y;
+			pz = direction.z;
+			lengthSquared = 1f;
+		}
+
+		float scale = sinAngle * org.joml.Math.invsqrt(lengthSquared);
+		direction.set(axis.x() * cosAngle + px * scale, axis.y() * cosAngle + py * scale, axis.z() * cosAngle + pz * scale);
+		return true;
+	}
+
+	/// Constrain the [unit][Vector3f#normalize()] `direction`, which lies in the plane of the hinge, to the arc from the
+	/// `referenceAxis` rotated clockwise by the clockwise constraint angle up to the `referenceAxis` rotated
+	/// anticlockwise by the anticlockwise constraint angle about the `rotationAxis`.
+	///
+	/// Equivalent to comparing [Vector3fc#angleSigned(Vector3fc, Vector3fc)] with the constraint angles and rotating
+	/// the reference axis to the exceeded limit, without evaluating any trigonometric functions.
+	///
+	/// @param rotationAxis  the `unit` hinge rotation axis
+	/// @param referenceAxis the `unit` hinge reference axis
+	/// @param cwCos         cosine of the clockwise constraint angle
+	/// @param cwSin         sine of the clockwise constraint angle
+	/// @param acwCos        cosine of the anticlockwise constraint angle
+	/// @param acwSin        sine of the anticlockwise constraint angle
+	/// @param direction     the `unit` direction to constrain
+	/// @return `true` if the direction was outside the arc and was changed
+	public static boolean constrainToHinge(Vector3fc rotationAxis, Vector3fc referenceAxis, float cwCos, float cwSin, float acwCos, float acwSin, Vector3f direction) {
+		float rx = referenceAxis.x(), ry = referenceAxis.y(), rz = referenceAxis.z();
+		float dx = direction.x, dy = direction.y, dz = direction.z;
+
+		// cosine and sine of the signed angle between the reference axis and the direction (scaled by the same factor)
+		float cos = rx * dx + ry * dy + rz * dz;
+		float sin = (ry * dz - rz * dy) * rotationAxis.x() + (rz * dx - rx * dz) * rotationAxis.y() + (rx * dy - ry * dx) * rotationAxis.z();
+
+		if (sin >= 0f) {
+			// the signed angle is in the range of 0 to pi, it exceeds the limit when sin(angle - limit) > 0
+			if (sin * acwCos - cos * acwSin > 0f || (sin == 0f && cos < 0f)) {
+				rotateAxis(referenceAxis, acwCos, acwSin, rotationAxis, direction);
+				return true;
+			}
+		}
+		else if (-sin * cwCos - cos * cwSin > 0f) {
+			// the signed angle is in the range of -pi to 0
+			rotateAxis(referenceAxis, cwCos, -cwSin, rotationAxis, direction);
+			return true;
+		}
+
+		return false;
+	}
+
 }
@@ -0,0 +1,162 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikPoseRecorder;
+import com.github.elenterius.fabiko.core.FabrikSolutionCache;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.FabrikStructure3f;
+import com.github.elenterius.fabiko.core.SolveResult;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static tests.util.TestChains.createHingeChain;
+import static tests.util.TestChains.createRotorChain;
+
+/// Fails when allocations are reintroduced into the solve loop.
+///
+/// Warm solves of every joint type and of connected structures must not allocate, the budget only leaves room for
+/// allocations made by the measurement itself.
+public class AllocationTests {
+
+	private static final int WARMUP_SOLVES = 10_000;
+	private static final int MEASURED_SOLVES = 10_000;
+
+	/// Any allocation per solve (e.g. a single [Vector3f]) exceeds this budget.
+	private static final double BYTES_PER_SOLVE_BUDGET = 1.0;
+
+	@TempDir
+	public File tempDir;
+
+	private com.sun.management.ThreadMXBean threadBean;
+	private Random random;
+	private FabrikSolver3f solver;
+	private final Vector3f target = new Vector3f();
+
+	@BeforeEach
+	public void setup() {
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean, "Thread allocation measurement is not available");
+		threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threadBean.isThreadAllocatedMemorySupported(), "Thread allocation measurement is not supported");
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+
+		random = new Random(123);
+		solver = new FabrikSolver3f();
+	}
+
+	@Test
+	public void testUnconstrainedChain() {
+		FabrikChain3f chain = createRotorChain(10, Math.PI_f, true);
+		assertNoAllocations("unconstrained chain", () -> solver.solveForTarget(chain, randomTarget(chain.getLength())));
+	}
+
+	@Test
+	public void testLocalRotorChain() {
+		FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f), true);
+		assertNoAllocations("local rotor chain", () -> solver.solveForTarget(chain, randomTarget(chain.getLength())));
+	}
+
+	@Test
+	public void testGlobalRotorChain() {
+		FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f), false);
+		assertNoAllocations("global rotor chain", () -> solver.solveForTarget(chain, randomTarget(chain.getLength())));
+	}
+
+	@Test
+	public void testLocalHingeChain() {
+		FabrikChain3f chain = createHingeChain(10, true);
+		assertNoAllocations("local hinge chain", () -> solver.solveForTarget(chain, randomTarget(chain.getLength())));
+	}
+
+	@Test
+	public void testGlobalHingeChain() {
+		FabrikChain3f chain = createHingeChain(10, false);
+		assertNoAllocations("global hinge chain", () -> solver.solveForTarget(chain, randomTarget(chain.getLength())));
+	}
+
+	@Test
+	public void testClosedFormChain() {
+		FabrikChain3f chain = createRotorChain(2, Math.PI_f, true);
+		// targets up to twice the chain length, so both closed form fast paths are taken
+		assertNoAllocations("closed form chain", () -> solver.solveForTarget(chain, randomTarget(chain.getLength() * 4f)));
+	}
+
+	@Test
+	public void testBudgetedChainSolve() {
+		FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f), true);
+		SolveResult result = new SolveResult();
+		assertNoAllocations("budgeted chain solve", () -> {
+			if (!chain.isSolvePending()) {
+				randomTarget(chain.getLength());
+			}
+			solver.solveForTargetWithin(chain, target, 2, result);
+		});
+	}
+
+	@Test
+	public void testCachedChain() {
+		FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f), true);
+		chain.setSolutionCache(new FabrikSolutionCache(16, 1f));
+		// a few more cells than cached poses, so that solves hit, miss, start from cached poses and evict them
+		assertNoAllocations("cached chain", () -> solver.solveForTarget(chain, target.set(random.nextInt(-2, 3), random.nextInt(-2, 3), 10f).mul(5f)));
+	}
+
+	@Test
+	public void testStructure() {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		float[] solveDistances = new float[structure.getChainCount()];
+		assertNoAllocations("structure", () -> solver.solveForTarget(structure, randomTarget(80f), solveDistances));
+	}
+
+	@Test
+	public void testStructureWithSolveResult() {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		SolveResult result = new SolveResult();
+		solver.solveForTarget(structure, randomTarget(80f), result); // size the result arrays
+		assertNoAllocations("structure with solve result", () -> solver.solveForTarget(structure, randomTarget(80f), result));
+	}
+
+	@Test
+	public void testStructureWithPoseRecording() throws IOException {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		float[] solveDistances = new float[structure.getChainCount()];
+		try (FabrikPoseRecorder recorder = FabrikPoseRecorder.create(new File(tempDir, "creature.rec").toPath(), structure, 1000)) {
+			assertNoAllocations("structure with pose recording", () -> {
+				solver.solveForTarget(structure, randomTarget(80f), solveDistances);
+				recorder.record(structure);
+			});
+		}
+	}
+
+	private void assertNoAllocations(String description, Runnable solve) {
+		for (int i = 0; i < WARMUP_SOLVES; i++) {
+			solve.run();
+		}
+
+		long threadId = Thread.currentThread().threadId();
+		long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < MEASURED_SOLVES; i++) {
+			solve.run();
+		}
+		long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+		double bytesPerSolve = (double) allocatedBytes / MEASURED_SOLVES;
+		assertTrue(bytesPerSolve <= BYTES_PER_SOLVE_BUDGET, () -> "Solving the %s allocated %.1f bytes per solve (%d bytes in total)".formatted(description, bytesPerSolve, allocatedBytes));
+	}
+
+	/// @param extent the size of the cube centered at the origin which contains the target
+	private Vector3f randomTarget(float extent) {
+		float halfExtent = extent / 2f;
+		return target.set(random.nextFloat(-halfExtent, halfExtent), random.nextFloat(-halfExtent, halfExtent), random.nextFloat(-halfExtent, halfExtent));
+	}
+
+}
@@ -0,0 +1,85 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikAsyncSolver3f;
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.FabrikStructure3f;
+import com.github.elenterius.fabiko.core.SolveResult;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AsyncSolvingTests {
+
+	@Test
+	public void testSolvesOfSameStructureAreSerialized() {
+		int structureCount = 8;
+		int solvesPerStructure = 50;
+
+		List<FabrikStructure3f> expected = new ArrayList<>();
+		List<FabrikStructure3f> actual = new ArrayList<>();
+		for (int i = 0; i < structureCount; i++) {
+			expected.add(StructureSolvingTests.createCreature());
+			actual.add(StructureSolvingTests.createCreature());
+		}
+
+		Random random = new Random(123);
+		Vector3f[][] targets = new Vector3f[structureCount][solvesPerStructure];
+		for (int j = 0; j < solvesPerStructure; j++) {
+			for (int i = 0; i < structureCount; i++) {
+				targets[i][j] = new Vector3f(random.nextFloat(-40f, 40f), random.nextFloat(-20f, 60f), random.nextFloat(-40f, 40f));
+			}
+		}
+
+		List<List<CompletableFuture<SolveResult>>> futures = new ArrayList<>();
+		try (FabrikAsyncSolver3f asyncSolver = FabrikAsyncSolver3f.ofPlatformThreads(4)) {
+			for (int i = 0; i < structureCount; i++) {
+				futures.add(new ArrayList<>());
+			}
+			// interleave the submissions of different structures
+			for (int j = 0; j < solvesPerStructure; j++) {
+				for (int i = 0; i < structureCount; i++) {
+					futures.get(i).add(asyncSolver.solveForTarget(actual.get(i), targets[i][j]));
+				}
+			}
+			CompletableFuture.allOf(futures.stream().flatMap(List::stream).toArray(CompletableFuture[]::new)).join();
+		}
+
+		FabrikSolver3f solver = new FabrikSolver3f();
+		for (int i = 0; i < structureCount; i++) {
+			for (int j = 0; j < solvesPerStructure; j++) {
+				float[] expectedDistances = solver.solveForTarget(expected.get(i), targets[i][j]);
+				SolveResult result = futures.get(i).get(j).join();
+
+				assertEquals(expectedDistances.length, result.getChainCount());
+				for (int k = 0; k < expectedDistances.length; k++) {
+					assertEquals(expectedDistances[k], result.getSolveDistance(k), "structure " + i + " solve " + j + " chain " + k);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFailedSolveDoesNotBlockFollowingSolves() {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		FabrikStructure3f brokenStructure = new FabrikStructure3f();
+		brokenStructure.addChain(new FabrikChain3f());
+
+		try (FabrikAsyncSolver3f asyncSolver = FabrikAsyncSolver3f.ofVirtualThreads()) {
+			CompletableFuture<SolveResult> failed = asyncSolver.solveForTarget(brokenStructure, new Vector3f(1f, 2f, 3f));
+			CompletableFuture<SolveResult> next = asyncSolver.solveForTarget(brokenStructure, new Vector3f(1f, 2f, 3f));
+			CompletableFuture<SolveResult> other = asyncSolver.solveForTarget(structure, new Vector3f(1f, 2f, 3f));
+
+			assertEquals(IllegalStateException.class, failed.handle((result, throwable) -> throwable.getCause()).join().getClass());
+			assertEquals(IllegalStateException.class, next.handle((result, throwable) -> throwable.getCause()).join().getClass());
+			assertEquals(structure.getChainCount(), other.join().getChainCount());
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchSolvingTests {
+
+	private static final Vector3fc RIGHT = new Vector3f(1, 0, 0);
+	private static final Vector3fc UP = new Vector3f(0, 1, 0);
+
+	/// not a multiple of any vector length, so that the last vector is only partially used
+	private static final int CHAIN_COUNT = 21;
+
+	private static final int[] LANE_WIDTHS = {0, 64, 128, 256, 512};
+
+	@Test
+	public void testBatchSolveMatchesPackedSolve() {
+		for (int laneWidth : LANE_WIDTHS) {
+			FabrikBatchSolver3f batchSolver = new FabrikBatchSolver3f(laneWidth);
+			FabrikPackedSolver3f packedSolver = new FabrikPackedSolver3f();
+
+			FabrikPackedChain3f[] expected = createChains();
+			FabrikChainBatch3f batch = FabrikChainBatch3f.of(createChains());
+
+			Random random = new Random(123);
+			List<Vector3f> targets = new ArrayList<>();
+			for (int i = 0; i < CHAIN_COUNT; i++) {
+				targets.add(new Vector3f());
+			}
+
+			for (int i = 0; i < 20; i++) {
+				for (Vector3f target : targets) {
+					target.set(random.nextFloat(-40f, 40f), random.nextFloat(-40f, 40f), random.nextFloat(-40f, 40f));
+				}
+				// some chains are already solved for their target
+				if (i % 5 == 4) {
+					targets.get(i % CHAIN_COUNT).set(expected[i % CHAIN_COUNT].getLastTargetLocation());
+				}
+
+				float[] solveDistances = batchSolver.solveForTargets(batch, targets);
+				for (int j = 0; j < CHAIN_COUNT; j++) {
+					String message = "chain " + j + ", lane width " + laneWidth;
+					// JOML may round some operations differently than the batch kernels, so the poses are only nearly identical
+					assertEquals(packedSolver.solveForTarget(expected[j], targets.get(j)), solveDistances[j], 1e-2f, message);
+					assertEquals(solveDistances[j], batch.getSolveDistance(j), message);
+					assertEqualLocations(expected[j], batch, j, 1e-2f, message);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testVectorAndScalarSolvesAreIdentical() {
+		FabrikBatchSolver3f scalarSolver = new FabrikBatchSolver3f(0);
+		FabrikChainBatch3f expected = FabrikChainBatch3f.of(createChains());
+
+		for (int laneWidth : LANE_WIDTHS) {
+			FabrikBatchSolver3f solver = new FabrikBatchSolver3f(laneWidth);
+			assertEquals(FabrikBatchSolver3f.isVectorApiAvailable() ? laneWidth : 0, solver.getLaneWidth());
+
+			FabrikChainBatch3f actual = FabrikChainBatch3f.of(createChains());
+			Random random = new Random(42);
+			for (int i = 0; i < 20; i++) {
+				Vector3f target = new Vector3f(random.nextFloat(-40f, 40f), random.nextFloat(-40f, 40f), random.nextFloat(-40f, 40f));
+				float[] expectedDistances = scalarSolver.solveForTarget(expected, target);
+				assertArrayEquals(expectedDistances, solver.solveForTarget(actual, target), "lane width " + laneWidth);
+			}
+
+			Vector3f expectedLocation = new Vector3f();
+			Vector3f actualLocation = new Vector3f();
+			for (int i = 0; i < CHAIN_COUNT; i++) {
+				for (int j = 0; j <= expected.getBoneCount(); j++) {
+					assertEquals(expected.getJointLocation(i, j, expectedLocation), actual.getJointLocation(i, j, actualLocation), "lane width " + laneWidth);
+				}
+			}
+
+			// restart from the same pose for the next lane width
+			expected = FabrikChainBatch3f.of(createChains());
+		}
+	}
+
+	@Test
+	public void testCopyLocationsToPackedChain() {
+		FabrikChainBatch3f batch = FabrikChainBatch3f.of(createChains());
+		new FabrikBatchSolver3f().solveForTarget(batch, new Vector3f(10f, 20f, 5f));
+
+		FabrikPackedChain3f chain = createChains()[3];
+		batch.copyLocationsTo(3, chain);
+
+		assertEqualLocations(chain, batch, 3, 0f, "copied chain");
+		Vector3f direction = new Vector3f();
+		for (int i = 0; i < chain.getBoneCount(); i++) {
+			assertEquals(1f, chain.getBoneDirection(i, direction).length(), 1e-6f);
+		}
+	}
+
+	@Test
+	public void testInvalidBatches() {
+		assertThrows(IllegalArgumentException.class, FabrikChainBatch3f::of);
+
+		FabrikPackedChain3f shortChain = FabrikPackedChain3f.from(FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), RIGHT, 10f, 0.5f, true)
+				.build());
+		assertThrows(IllegalArgumentException.class, () -> FabrikChainBatch3f.of(createChains()[0], shortChain));
+
+		FabrikPackedChain3f hingeChain = FabrikPackedChain3f.from(FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), RIGHT, 10f, 0.5f, true)
+				.addHingeConstrainedBone(RIGHT, 10f, UP, 0.8f, 1.2f, RIGHT, true)
+				.build());
+		assertThrows(IllegalArgumentException.class, () -> FabrikChainBatch3f.of(hingeChain));
+
+		assertThrows(IllegalArgumentException.class, () -> new FabrikBatchSolver3f(96));
+		FabrikChainBatch3f batch = FabrikChainBatch3f.of(createChains());
+		assertThrows(IllegalArgumentException.class, () -> new FabrikBatchSolver3f().solveForTargets(batch, List.of(new Vector3f())));
+	}
+
+	/// Chains with the same shape but different bone lengths, constraint angles, joint types and base modes
+	private static FabrikPackedChain3f[] createChains() {
+		FabrikPackedChain3f[] chains = new FabrikPackedChain3f[CHAIN_COUNT];
+		for (int i = 0; i < CHAIN_COUNT; i++) {
+			float length = 5f + i % 4;
+			float angle = Math.toRadians(20f + i * 3f);
+			FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder().addRotorConstrainedBaseBone(new Vector3f(i, 0f, 0f), RIGHT, length, angle, i % 2 == 0);
+			for (int j = 1; j < 8; j++) {
+				builder.addRotorConstrainedBone(j % 2 == 0 ? RIGHT : UP, length, angle, (i + j) % 3 != 0);
+			}
+
+			FabrikChain3f chain = builder.build();
+			if (i % 3 == 0 && i % 2 == 0) {
+				chain.setFixedBaseMode(false);
+			}
+			chains[i] = FabrikPackedChain3f.from(chain);
+		}
+		return chains;
+	}
+
+	private static void assertEqualLocations(FabrikPackedChain3f expected, FabrikChainBatch3f actual, int lane, float delta, String message) {
+		Vector3f expectedLocation = new Vector3f();
+		Vector3f actualLocation = new Vector3f();
+		for (int i = 0; i < expected.getBoneCount(); i++) {
+			expected.getBoneStartLocation(i, expectedLocation);
+			actual.getJointLocation(lane, i, actualLocation);
+			assertEquals(0f, expectedLocation.distance(actualLocation), delta, message + ", joint " + i);
+		}
+		expected.getBoneEndLocation(expected.getBoneCount() - 1, expectedLocation);
+		actual.getJointLocation(lane, expected.getBoneCount(), actualLocation);
+		assertEquals(0f, expectedLocation.distance(actualLocation), delta, message + ", end effector");
+	}
+
+}
@@ -0,0 +1,153 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.SolveResult;
+import com.github.elenterius.fabiko.core.SolveResult.Termination;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.util.TestChains.createRotorChain;
+
+public class BudgetedSolvingTests {
+
+	@Test
+	public void testIterationBudgetResumesPendingSolve() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		Random random = new Random(123);
+		int pendingSolves = 0;
+
+		for (int i = 0; i < 1000; i++) {
+			FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f));
+			Vector3f target = randomTarget(random, chain.getLength());
+
+			float prevSolveDistance = Float.MAX_VALUE;
+			int calls = 0;
+			do {
+				float solveDistance = solver.solveForTargetWithin(chain, target, 1);
+				assertTrue(solveDistance <= prevSolveDistance, "best solve distance must not increase when resuming");
+				assertEquals(solveDistance, chain.getCurrentSolveDistance());
+				assertEquals(solveDistance, chain.getEndEffectorBone().getEndLocation().distance(target), 0.0001f, "chain must hold the best solution");
+				prevSolveDistance = solveDistance;
+				calls++;
+			}
+			while (chain.isSolvePending());
+
+			if (calls > 1) pendingSolves++;
+			assertTrue(calls <= chain.getMaxIterationAttempts(), "resumed solve must not exceed the max iteration attempts");
+			assertTrue(chain.isSolved(target));
+		}
+
+		assertTrue(pendingSolves > 0);
+	}
+
+	@Test
+	public void testResumedSolveMatchesUnbudgetedSolve() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		Random random = new Random(456);
+		SolveResult result = new SolveResult();
+		int pendingSolves = 0;
+
+		for (int i = 0; i < 1000; i++) {
+			FabrikChain3f expectedChain = createRotorChain(10, Math.toRadians(45f));
+			Vector3f target = randomTarget(random, expectedChain.getLength());
+			solver.solveForTarget(expectedChain, target, result);
+			Termination expectedTermination = result.getTermination(0);
+			int expectedIterations = result.getIterations(0);
+
+			FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f));
+			int iterations = 0;
+			int calls = 0;
+			do {
+				solver.solveForTargetWithin(chain, target, 1, result);
+				iterations += result.getIterations(0);
+				calls++;
+			}
+			while (chain.isSolvePending());
+
+			if (calls > 1) pendingSolves++;
+			assertEquals(expectedTermination, result.getTermination(0), "solve " + i);
+			assertEquals(expectedIterations, iterations, "solve " + i);
+			assertEquals(expectedChain.getCurrentSolveDistance(), chain.getCurrentSolveDistance(), "solve " + i);
+			for (int j = 0; j < chain.getBoneCount(); j++) {
+				assertEquals(expectedChain.getBone(j).getStartLocation(), chain.getBone(j).getStartLocation(), "solve " + i + ", bone " + j);
+				assertEquals(expectedChain.getBone(j).getEndLocation(), chain.getBone(j).getEndLocation(), "solve " + i + ", bone " + j);
+			}
+		}
+
+		assertTrue(pendingSolves > 0);
+	}
+
+	@Test
+	public void testPendingSolveIsNotSolved() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		Random random = new Random(321);
+
+		for (int i = 0; i < 100; i++) {
+			FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f));
+			Vector3f target = randomTarget(random, chain.getLength());
+
+			solver.solveForTargetWithin(chain, target, 1);
+			if (!chain.isSolvePending()) continue;
+
+			assertFalse(chain.isSolved(target));
+
+			// a full solve resumes and finishes the pending solve
+			solver.solveForTarget(chain, target);
+			assertFalse(chain.isSolvePending());
+			assertTrue(chain.isSolved(target));
+		}
+	}
+
+	@Test
+	public void testMovedFixedBaseLocationIsSolvedAgain() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		SolveResult result = new SolveResult();
+		FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f));
+		Vector3f baseLocation = new Vector3f();
+		chain.setBaseLocation(baseLocation);
+		Vector3f target = new Vector3f(20f, 15f, -5f);
+		solver.solveForTarget(chain, target);
+
+		// isSolved compares against the base bone, which only moves to the fixed base location with the next solve
+		baseLocation.set(1f, 2f, 3f);
+		assertTrue(chain.isSolved(target));
+
+		solver.solveForTarget(chain, target, result);
+		assertNotEquals(Termination.ALREADY_SOLVED, result.getTermination(0));
+		assertEquals(0f, chain.getBaseLocation().distance(baseLocation), 1e-6f);
+		assertTrue(chain.isSolved(target));
+	}
+
+	@Test
+	public void testPassedDeadlineRunsOneIteration() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		Random random = new Random(789);
+		int pendingSolves = 0;
+
+		for (int i = 0; i < 100; i++) {
+			FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f));
+			Vector3f target = randomTarget(random, chain.getLength());
+
+			float solveDistance = solver.solveForTargetUntil(chain, target, System.nanoTime() - 1);
+			assertTrue(solveDistance < Float.MAX_VALUE);
+
+			FabrikChain3f expectedChain = createRotorChain(10, Math.toRadians(45f));
+			assertEquals(solver.solveForTargetWithin(expectedChain, target, 1), solveDistance);
+			assertEquals(expectedChain.isSolvePending(), chain.isSolvePending());
+			if (chain.isSolvePending()) pendingSolves++;
+		}
+
+		assertTrue(pendingSolves > 0);
+	}
+
+	private static Vector3f randomTarget(Random random, float chainLength) {
+		float halfLength = chainLength / 2f;
+		return new Vector3f(random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength));
+	}
+
+}
@@ -0,0 +1,133 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikBone3f;
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tests.util.TestChains.RIGHT;
+import static tests.util.TestChains.createUnconstrainedChain;
+
+public class ClosedFormSolvingTests {
+
+	@Test
+	public void testUnreachableTargetStretchesChain() {
+		FabrikSolver3f closedFormSolver = new FabrikSolver3f();
+		closedFormSolver.setClosedFormSolving(true);
+		FabrikSolver3f iterativeSolver = new FabrikSolver3f();
+
+		Random random = new Random(123);
+		for (int i = 0; i < 1000; i++) {
+			FabrikChain3f expected = createUnconstrainedChain(10);
+			FabrikChain3f actual = createUnconstrainedChain(10);
+			Vector3f target = randomDirection(random).mul(random.nextFloat(1.01f, 2f) * expected.getLength());
+
+			float expectedDistance = iterativeSolver.solveForTarget(expected, target);
+			float actualDistance = closedFormSolver.solveForTarget(actual, target);
+
+			assertTrue(actualDistance <= expectedDistance + 0.001f, "closed form solution must not be worse than the iterative solution");
+			assertEquals(target.length() - actual.getLength(), actualDistance, 0.001f);
+			assertBoneLengths(actual);
+
+			Vector3f targetDirection = target.normalize(new Vector3f());
+			for (FabrikBone3f bone : actual.getBones()) {
+				assertTrue(targetDirection.equals(bone.getDirection(), 0.0001f), "bone must point towards the target");
+			}
+		}
+	}
+
+	@Test
+	public void testTwoBoneChainReachesTarget() {
+		FabrikSolver3f closedFormSolver = new FabrikSolver3f();
+		closedFormSolver.setClosedFormSolving(true);
+		FabrikSolver3f iterativeSolver = new FabrikSolver3f();
+
+		float elbowAngle = Math.toRadians(150f);
+		Supplier<FabrikChain3f> chainFactory = () -> FabrikChain3f.builder()
+				.addFreelyRotatingRotorBaseBone(new Vector3f(), RIGHT, 10f, true)
+				.addRotorConstrainedBone(RIGHT, 8f, elbowAngle, true)
+				.build();
+
+		Random random = new Random(321);
+		int solvedTargets = 0;
+		int count = 1000;
+
+		for (int i = 0; i < count; i++) {
+			FabrikChain3f expected = chainFactory.get();
+			FabrikChain3f actual = chainFactory.get();
+			Vector3f target = randomDirection(random).mul(random.nextFloat(4f, 17.5f));
+
+			float expectedDistance = iterativeSolver.solveForTarget(expected, target);
+			float actualDistance = closedFormSolver.solveForTarget(actual, target);
+
+			assertTrue(actualDistance <= expectedDistance + 0.001f, "closed form solution must not be worse than the iterative solution");
+			assertBoneLengths(actual);
+
+			Vector3fc baseBoneDirection = actual.getBone(0).getDirection();
+			Vector3fc endBoneDirection = actual.getBone(1).getDirection();
+			assertTrue(baseBoneDirection.angle(endBoneDirection) <= elbowAngle + 0.001f, "rotor constraint is violated");
+
+			if (actualDistance < 0.001f) solvedTargets++;
+		}
+
+		assertTrue(solvedTargets > count * 0.9f, "only " + solvedTargets + " of " + count + " targets were solved");
+	}
+
+	@Test
+	public void testConstraintViolationFallsBackToIterativeSolve() {
+		FabrikSolver3f closedFormSolver = new FabrikSolver3f();
+		closedFormSolver.setClosedFormSolving(true);
+		FabrikSolver3f iterativeSolver = new FabrikSolver3f();
+
+		Supplier<FabrikChain3f> chainFactory = () -> FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), RIGHT, 10f, Math.toRadians(30f), false)
+				.addRotorConstrainedBone(RIGHT, 8f, Math.toRadians(30f), true)
+				.build();
+
+		Random random = new Random(456);
+		for (int i = 0; i < 1000; i++) {
+			FabrikChain3f expected = chainFactory.get();
+			FabrikChain3f actual = chainFactory.get();
+
+			// targets behind the base can't be reached within the global base bone constraint
+			Vector3f target = randomDirection(random).mul(random.nextFloat(5f, 30f));
+			target.x = -Math.abs(target.x) - 1f;
+
+			assertEquals(iterativeSolver.solveForTarget(expected, target), closedFormSolver.solveForTarget(actual, target));
+			assertBonesEqual(expected, actual, 0f);
+		}
+	}
+
+	private static void assertBonesEqual(FabrikChain3f expected, FabrikChain3f actual, float delta) {
+		for (int i = 0; i < expected.getBoneCount(); i++) {
+			FabrikBone3f expectedBone = expected.getBone(i);
+			FabrikBone3f actualBone = actual.getBone(i);
+			assertTrue(expectedBone.getStartLocation().equals(actualBone.getStartLocation(), delta), "start location of bone " + i);
+			assertTrue(expectedBone.getEndLocation().equals(actualBone.getEndLocation(), delta), "end location of bone " + i);
+		}
+	}
+
+	private static void assertBoneLengths(FabrikChain3f chain) {
+		for (FabrikBone3f bone : chain.getBones()) {
+			assertEquals(bone.length(), bone.getStartLocation().distance(bone.getEndLocation()), 0.001f);
+		}
+	}
+
+	private static Vector3f randomDirection(Random random) {
+		Vector3f direction = new Vector3f();
+		do {
+			direction.set(random.nextFloat(-1f, 1f), random.nextFloat(-1f, 1f), random.nextFloat(-1f, 1f));
+		}
+		while (direction.lengthSquared() < 0.01f || direction.lengthSquared() > 1f);
+		return direction.normalize();
+	}
+
+}
@@ -0,0 +1,145 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.math.JomlMath;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Compares the trig-free constraint clamping of [JomlMath] with clamping based on [Vector3fc#angle(Vector3fc)],
+/// [Vector3fc#angleSigned(Vector3fc, Vector3fc)] and [Vector3fc#rotateAxis(float, float, float, float, Vector3f)].
+public class ConstraintClampingTests {
+
+	private static final float MAX_ERROR = 1e-5f;
+
+	/// directions closer than this to a constraint limit may end up on either side of it due to rounding
+	private static final float LIMIT_TOLERANCE = 1e-5f;
+
+	@Test
+	public void testConeClampingMatchesAngleBasedClamping() {
+		Random random = new Random(123);
+		Vector3f axis = new Vector3f();
+		Vector3f expected = new Vector3f();
+		Vector3f actual = new Vector3f();
+		Vector3f correctionAxis = new Vector3f();
+		int clampCount = 0;
+
+		for (int i = 0; i < 100_000; i++) {
+			randomUnitVector(random, axis);
+			randomUnitVector(random, expected);
+			actual.set(expected);
+			float constraintAngle = random.nextFloat(0f, Math.PI_f);
+
+			float angleBetween = axis.angle(expected);
+			boolean expectedClamp = angleBetween > constraintAngle;
+			if (expectedClamp) {
+				axis.cross(expected, correctionAxis).normalize();
+				axis.rotateAxis(constraintAngle, correctionAxis.x, correctionAxis.y, correctionAxis.z, expected);
+				clampCount++;
+			}
+
+			boolean actualClamp = JomlMath.constrainToCone(axis, Math.cos(constraintAngle), Math.sin(constraintAngle), actual);
+
+			if (Math.abs(angleBetween - constraintAngle) > LIMIT_TOLERANCE) {
+				assertEquals(expectedClamp, actualClamp, "clamping of sample " + i);
+			}
+			assertEquals(0f, expected.distance(actual), MAX_ERROR, "direction of sample " + i);
+			assertEquals(1f, actual.length(), MAX_ERROR, "length of sample " + i);
+		}
+
+		assertTrue(clampCount > 10_000);
+	}
+
+	@Test
+	public void testConeClampingOfOppositeDirection() {
+		Vector3f axis = new Vector3f(0, 1, 0);
+		Vector3f direction = new Vector3f(0, -1, 0);
+		float constraintAngle = Math.toRadians(30f);
+
+		assertTrue(JomlMath.constrainToCone(axis, Math.cos(constraintAngle), Math.sin(constraintAngle), direction));
+		assertEquals(constraintAngle, axis.angle(direction), MAX_ERROR);
+		assertEquals(1f, direction.length(), MAX_ERROR);
+	}
+
+	@Test
+	public void testHingeClampingMatchesAngleBasedClamping() {
+		Random random = new Random(456);
+		Vector3f rotationAxis = new Vector3f();
+		Vector3f referenceAxis = new Vector3f();
+		Vector3f expected = new Vector3f();
+		Vector3f actual = new Vector3f();
+		int clampCount = 0;
+
+		for (int i = 0; i < 100_000; i++) {
+			randomUnitVector(random, rotationAxis);
+			JomlMath.perpendicular(rotationAxis, referenceAxis);
+			referenceAxis.rotateAxis(random.nextFloat(0f, Math.PI_f * 2f), rotationAxis.x, rotationAxis.y, rotationAxis.z);
+
+			// a direction in the plane of the hinge
+			randomUnitVector(random, expected);
+			JomlMath.projectOntoPlane(expected, rotationAxis).normalize();
+			actual.set(expected);
+
+			float cwConstraintAngle = random.nextFloat(0f, Math.PI_f);
+			float acwConstraintAngle = random.nextFloat(0f, Math.PI_f);
+
+			float signedAngleBetween = referenceAxis.angleSigned(expected, rotationAxis);
+			boolean expectedClamp = false;
+			if (signedAngleBetween > acwConstraintAngle) {
+				referenceAxis.rotateAxis(acwConstraintAngle, rotationAxis.x, rotationAxis.y, rotationAxis.z, expected);
+				expectedClamp = true;
+			}
+			else if (signedAngleBetween < -cwConstraintAngle) {
+				referenceAxis.rotateAxis(-cwConstraintAngle, rotationAxis.x, rotationAxis.y, rotationAxis.z, expected);
+				expectedClamp = true;
+			}
+			if (expectedClamp) clampCount++;
+
+			boolean actualClamp = JomlMath.constrainToHinge(rotationAxis, referenceAxis,
+					Math.cos(cwConstraintAngle), Math.sin(cwConstraintAngle),
+					Math.cos(acwConstraintAngle), Math.sin(acwConstraintAngle),
+					actual);
+
+			boolean nearLimit = Math.abs(signedAngleBetween - acwConstraintAngle) <= LIMIT_TOLERANCE
+					|| Math.abs(signedAngleBetween + cwConstraintAngle) <= LIMIT_TOLERANCE
+					|| Math.abs(Math.abs(signedAngleBetween) - Math.PI_f) <= LIMIT_TOLERANCE;
+			if (nearLimit) continue;
+
+			assertEquals(expectedClamp, actualClamp, "clamping of sample " + i);
+			assertEquals(0f, expected.distance(actual), MAX_ERROR, "direction of sample " + i);
+		}
+
+		assertTrue(clampCount > 10_000);
+	}
+
+	@Test
+	public void testRotateAxisMatchesJoml() {
+		Random random = new Random(789);
+		Vector3f axis = new Vector3f();
+		Vector3f expected = new Vector3f();
+		Vector3f actual = new Vector3f();
+
+		for (int i = 0; i < 100_000; i++) {
+			randomUnitVector(random, axis);
+			Vector3fc v = randomUnitVector(random, new Vector3f()).mul(random.nextFloat(0.1f, 10f));
+			float angle = random.nextFloat(-Math.PI_f, Math.PI_f);
+
+			v.rotateAxis(angle, axis.x, axis.y, axis.z, expected);
+			JomlMath.rotateAxis(v, Math.cos(angle), Math.sin(angle), axis, actual);
+
+			assertEquals(0f, expected.distance(actual), MAX_ERROR * v.length(), "sample " + i);
+		}
+	}
+
+	private static Vector3f randomUnitVector(Random random, Vector3f dest) {
+		do {
+			dest.set(random.nextFloat(-1f, 1f), random.nextFloat(-1f, 1f), random.nextFloat(-1f, 1f));
+		} while (dest.lengthSquared() < 0.01f || dest.lengthSquared() > 1f);
+		return dest.normalize();
+	}
+
+}
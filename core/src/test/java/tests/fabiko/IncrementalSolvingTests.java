@@ -0,0 +1,130 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import com.github.elenterius.fabiko.core.SolveResult.Termination;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Structure solves only solve connected chains whose target changed or whose host chain moved since they were last
+/// solved.
+public class IncrementalSolvingTests {
+
+	private static final Vector3fc TARGET = new Vector3f(10f, 25f, -5f);
+
+	/// chain indices of [StructureSolvingTests#createCreature()]
+	private static final int SPINE = 0;
+	private static final int FIRST_ARM = 5;
+	private static final int NECK = 7;
+	private static final int HEAD = 8;
+
+	@Test
+	public void testIdleStructureIsAlreadySolved() {
+		for (boolean frozen : new boolean[]{false, true}) {
+			FabrikStructure3f structure = createSolvedCreature(frozen);
+			float[] pose = getPose(structure);
+
+			SolveResult result = new FabrikSolver3f().solveForTarget(structure, TARGET, new SolveResult());
+			for (int i = 0; i < structure.getChainCount(); i++) {
+				assertEquals(Termination.ALREADY_SOLVED, result.getTermination(i), "chain " + i + ", frozen " + frozen);
+			}
+			assertArrayEquals(pose, getPose(structure));
+		}
+	}
+
+	@Test
+	public void testMovedChainOnlySolvesItsDescendantsAgain() {
+		for (boolean frozen : new boolean[]{false, true}) {
+			FabrikStructure3f structure = createSolvedCreature(frozen);
+
+			FabrikChain3f neck = structure.getChain(NECK);
+			neck.setUseEmbeddedTarget(true);
+			neck.setEmbeddedTargetFrom(new Vector3f(-10f, 40f, 10f));
+
+			SolveResult result = new FabrikSolver3f().solveForTarget(structure, TARGET, new SolveResult());
+			for (int i = 0; i < structure.getChainCount(); i++) {
+				if (i == NECK || i == HEAD) {
+					assertNotEquals(Termination.ALREADY_SOLVED, result.getTermination(i), "chain " + i + ", frozen " + frozen);
+				}
+				else {
+					assertEquals(Termination.ALREADY_SOLVED, result.getTermination(i), "chain " + i + ", frozen " + frozen);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLoadedPoseSolvesDescendantsAgain() {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		ByteBuffer initialPose = ByteBuffer.allocate(FabrikRigFormat.getPoseSize(structure));
+		FabrikRigFormat.writePose(structure, initialPose);
+
+		FabrikSolver3f solver = new FabrikSolver3f();
+		solver.solveForTarget(structure, TARGET);
+
+		// only move the spine back to its initial pose, the chains connected to it are now detached from it
+		FabrikStructure3f initialStructure = StructureSolvingTests.createCreature();
+		FabrikRigFormat.readPose(initialPose.flip(), initialStructure);
+		FabrikPackedChain3f.from(initialStructure.getChain(SPINE)).copyLocationsTo(structure.getChain(SPINE));
+
+		// the spine itself was moved away from its solution for the same target as well
+		SolveResult result = solver.solveForTarget(structure, TARGET, new SolveResult());
+		assertNotEquals(Termination.ALREADY_SOLVED, result.getTermination(SPINE));
+		assertConnectedToHosts(structure);
+
+		FabrikRigFormat.readPose(initialPose.rewind(), structure);
+		solver.solveForTarget(structure, TARGET, result);
+		assertNotEquals(Termination.ALREADY_SOLVED, result.getTermination(SPINE));
+		assertNotEquals(Termination.ALREADY_SOLVED, result.getTermination(FIRST_ARM));
+		assertConnectedToHosts(structure);
+	}
+
+	@Test
+	public void testMarkDirtySolvesChainAndDescendantsAgain() {
+		FabrikStructure3f structure = createSolvedCreature(true);
+
+		// move the end of the spine without going through the library
+		FabrikChain3f spine = structure.getChain(SPINE);
+		spine.getEndEffectorBone().getEndLocationUnsafe().add(3f, -2f, 1f);
+		spine.markDirty();
+
+		SolveResult result = new FabrikSolver3f().solveForTarget(structure, TARGET, new SolveResult());
+		assertNotEquals(Termination.ALREADY_SOLVED, result.getTermination(SPINE));
+		assertNotEquals(Termination.ALREADY_SOLVED, result.getTermination(FIRST_ARM));
+		assertConnectedToHosts(structure);
+	}
+
+	private static FabrikStructure3f createSolvedCreature(boolean frozen) {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		if (frozen) {
+			structure.freeze();
+		}
+		new FabrikSolver3f().solveForTarget(structure, TARGET);
+		return structure;
+	}
+
+	private static void assertConnectedToHosts(FabrikStructure3f structure) {
+		for (int i = 0; i < structure.getChainCount(); i++) {
+			FabrikChain3f chain = structure.getChain(i);
+			if (chain.getConnectedToChainId() == -1) continue;
+
+			// chains whose base moved less than the solve tolerance of 0.001 aren't solved again
+			Vector3fc connectionLocation = structure.getChain(chain.getConnectedToChainId()).getBone(chain.getConnectedToBoneIndex()).getBoneConnectionPointLocation();
+			assertEquals(0f, connectionLocation.distance(chain.getBaseLocation()), 0.002f, "chain " + i);
+		}
+	}
+
+	private static float[] getPose(FabrikStructure3f structure) {
+		ByteBuffer pose = ByteBuffer.allocate(FabrikRigFormat.getPoseSize(structure));
+		FabrikRigFormat.writePose(structure, pose);
+
+		float[] values = new float[pose.position() / Float.BYTES];
+		pose.flip().asFloatBuffer().get(values);
+		return values;
+	}
+
+}
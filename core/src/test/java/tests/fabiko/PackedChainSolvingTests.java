@@ -0,0 +1,124 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PackedChainSolvingTests {
+
+	private static final Vector3fc RIGHT = new Vector3f(1, 0, 0);
+	private static final Vector3fc UP = new Vector3f(0, 1, 0);
+
+	@Test
+	public void testUnconstrainedChain() {
+		compareSolutions(1_000, 5, () -> {
+			FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder().addFreelyRotatingRotorBaseBone(new Vector3f(), RIGHT, 10f, true);
+			for (int i = 1; i < 10; i++) {
+				builder.addFreelyRotatingRotorBone(RIGHT, 10f, true);
+			}
+			return builder.build();
+		});
+	}
+
+	@Test
+	public void testRotorChain() {
+		float angle = Math.toRadians(35f);
+		compareSolutions(1_000, 5, () -> {
+			FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder().addRotorConstrainedBaseBone(new Vector3f(), RIGHT, 10f, angle, false);
+			for (int i = 1; i < 10; i++) {
+				builder.addRotorConstrainedBone(RIGHT, 10f, angle, i % 2 == 0);
+			}
+			return builder.build();
+		});
+	}
+
+	@Test
+	public void testHingeChain() {
+		compareSolutions(1_000, 5, () -> {
+			FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder().addHingeConstrainedBaseBone(new Vector3f(), RIGHT, 10f, UP, 1f, 0.5f, RIGHT, true);
+			for (int i = 1; i < 10; i++) {
+				builder.addHingeConstrainedBone(RIGHT, 10f, UP, 0.8f, 1.2f, RIGHT, i % 2 == 0);
+			}
+			return builder.build();
+		});
+	}
+
+	@Test
+	public void testFreeBaseChain() {
+		float angle = Math.toRadians(45f);
+		compareSolutions(1_000, 5, () -> {
+			FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder().addRotorConstrainedBaseBone(new Vector3f(), RIGHT, 10f, angle, true);
+			for (int i = 1; i < 10; i++) {
+				builder.addRotorConstrainedBone(RIGHT, 10f, angle, true);
+			}
+			FabrikChain3f chain = builder.build();
+			chain.setFixedBaseMode(false);
+			return chain;
+		});
+	}
+
+	@Test
+	public void testConversion() {
+		FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder().addRotorConstrainedBaseBone(new Vector3f(), RIGHT, 10f, 0.5f, true);
+		builder.addHingeConstrainedBone(RIGHT, 5f, UP, 0.8f, 1.2f, RIGHT, false);
+		builder.addRotorConstrainedBone(UP, 7f, 0.3f, false);
+		FabrikChain3f chain = builder.build();
+
+		FabrikChain3f converted = FabrikPackedChain3f.from(chain).toChain();
+
+		assertEquals(chain.getLength(), converted.getLength());
+		assertEqualLocations(chain, converted, "converted chain");
+		for (int i = 0; i < chain.getBoneCount(); i++) {
+			assertEquals(chain.getBone(i).getJoint().getClass(), converted.getBone(i).getJoint().getClass());
+		}
+	}
+
+	private static void compareSolutions(int population, int solveCycles, Supplier<FabrikChain3f> chainFactory) {
+		Random random = new Random(123);
+		FabrikSolver3f solver = new FabrikSolver3f();
+		FabrikPackedSolver3f packedSolver = new FabrikPackedSolver3f();
+
+		for (int i = 0; i < population; i++) {
+			FabrikChain3f expected = chainFactory.get();
+			FabrikPackedChain3f packed = FabrikPackedChain3f.from(chainFactory.get());
+			FabrikChain3f actual = chainFactory.get();
+
+			float halfLength = expected.getLength() / 2f;
+
+			for (int j = 0; j < solveCycles; j++) {
+				float x = random.nextFloat(-halfLength, halfLength);
+				float y = random.nextFloat(-halfLength, halfLength);
+				float z = random.nextFloat(-halfLength, halfLength);
+
+				float expectedDistance = solver.solveForTarget(expected, x, y, z);
+				float actualDistance = packedSolver.solveForTarget(packed, x, y, z);
+				assertEquals(expectedDistance, actualDistance, "solve distance of chain " + i);
+			}
+
+			packed.copyLocationsTo(actual);
+			assertEqualLocations(expected, actual, "chain " + i);
+		}
+	}
+
+	private static void assertEqualLocations(FabrikChain3f expected, FabrikChain3f actual, String message) {
+		assertEquals(expected.getBoneCount(), actual.getBoneCount(), message);
+		for (int i = 0; i < expected.getBoneCount(); i++) {
+			FabrikBone3f expectedBone = expected.getBone(i);
+			FabrikBone3f actualBone = actual.getBone(i);
+			assertEquals(expectedBone.getStartLocation().x(), actualBone.getStartLocation().x(), message);
+			assertEquals(expectedBone.getStartLocation().y(), actualBone.getStartLocation().y(), message);
+			assertEquals(expectedBone.getStartLocation().z(), actualBone.getStartLocation().z(), message);
+			assertEquals(expectedBone.getEndLocation().x(), actualBone.getEndLocation().x(), message);
+			assertEquals(expectedBone.getEndLocation().y(), actualBone.getEndLocation().y(), message);
+			assertEquals(expectedBone.getEndLocation().z(), actualBone.getEndLocation().z(), message);
+		}
+	}
+
+}
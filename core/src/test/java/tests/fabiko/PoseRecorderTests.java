@@ -0,0 +1,131 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.util.TestChains.UP;
+import static tests.util.TestChains.createRotorChain;
+
+public class PoseRecorderTests {
+
+	@TempDir
+	public File tempDir;
+
+	@Test
+	public void testRecordedFramesMatchSolvedPoses() throws Exception {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		FabrikSolver3f solver = new FabrikSolver3f();
+		Path path = new File(tempDir, "creature.rec").toPath();
+
+		// the pose of every frame as the locations of each joint, in chain order
+		List<List<Vector3f>> expectedFrames = new ArrayList<>();
+
+		try (FabrikPoseRecorder recorder = FabrikPoseRecorder.create(path, structure, 100)) {
+			for (int i = 0; i < 10; i++) {
+				solver.solveForTarget(structure, new Vector3f(i * 3f, 20f, -i * 2f));
+				assertEquals(i, recorder.record(structure));
+				expectedFrames.add(getJointLocations(structure));
+			}
+		}
+
+		FabrikPoseRecording recording = FabrikPoseRecording.open(path);
+		assertEquals(structure.getChainCount(), recording.getChainCount());
+		assertEquals(10, recording.getFrameCount());
+		assertEquals(0, recording.getOldestFrame());
+
+		FabrikStructure3f actual = StructureSolvingTests.createCreature();
+		Vector3f location = new Vector3f();
+		for (int frame : new int[]{3, 0, 9, 5}) {
+			recording.readFrame(frame, actual);
+			assertEquals(expectedFrames.get(frame), getJointLocations(actual));
+
+			int jointIndex = 0;
+			for (int i = 0; i < actual.getChainCount(); i++) {
+				for (int j = 0; j <= actual.getChain(i).getBoneCount(); j++) {
+					assertEquals(expectedFrames.get(frame).get(jointIndex++), recording.getJointLocation(frame, i, j, location));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRingOverwritesOldestFrames() throws Exception {
+		FabrikChain3f chain = createRotorChain(4, UP, Math.toRadians(45f), bone -> true);
+		FabrikSolver3f solver = new FabrikSolver3f();
+		Path path = new File(tempDir, "chain.rec").toPath();
+
+		try (FabrikPoseRecorder recorder = FabrikPoseRecorder.create(path, chain, 8)) {
+			FabrikPoseRecording recording = FabrikPoseRecording.open(path);
+			Vector3f location = new Vector3f();
+
+			for (int i = 0; i < 20; i++) {
+				solver.solveForTarget(chain, new Vector3f(i, 10f, 5f));
+				long frame = recorder.record(chain);
+
+				// the recording can be read while it is recorded
+				assertEquals(i + 1, recording.getFrameCount());
+				assertEquals(chain.getEndEffectorBone().getEndLocation(), recording.getJointLocation(frame, 0, chain.getBoneCount(), location));
+			}
+
+			assertEquals(12, recording.getOldestFrame());
+			assertFalse(recording.hasFrame(11));
+			assertTrue(recording.hasFrame(12));
+			assertTrue(recording.hasFrame(19));
+			assertFalse(recording.hasFrame(20));
+			assertThrows(IllegalArgumentException.class, () -> recording.getJointLocation(11, 0, 0, location));
+			assertThrows(IllegalArgumentException.class, () -> recording.readFrame(20, 0, chain));
+		}
+	}
+
+	@Test
+	public void testMismatchingStructuresAreRejected() throws Exception {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		Path path = new File(tempDir, "creature.rec").toPath();
+
+		try (FabrikPoseRecorder recorder = FabrikPoseRecorder.create(path, structure, 4)) {
+			recorder.record(structure);
+
+			FabrikStructure3f other = new FabrikStructure3f();
+			other.addChain(createRotorChain(4, UP, Math.toRadians(45f), bone -> true));
+			assertThrows(IllegalArgumentException.class, () -> recorder.record(other));
+			assertThrows(IllegalArgumentException.class, () -> recorder.record(other.getChain(0)));
+			assertThrows(IllegalArgumentException.class, () -> FabrikPoseRecording.open(path).readFrame(0, other));
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> FabrikPoseRecorder.create(path, structure, 0));
+
+		Path rig = new File(tempDir, "creature.rig").toPath();
+		FabrikRigFormat.writeRig(structure, rig);
+		assertThrows(IllegalArgumentException.class, () -> FabrikPoseRecording.open(rig));
+	}
+
+	@Test
+	public void testClosedRecorderRejectsFrames() throws Exception {
+		FabrikChain3f chain = createRotorChain(2, UP, Math.toRadians(45f), bone -> true);
+		FabrikPoseRecorder recorder = FabrikPoseRecorder.create(new File(tempDir, "chain.rec").toPath(), chain, 4);
+		recorder.close();
+		assertThrows(IllegalStateException.class, () -> recorder.record(chain));
+	}
+
+	private static List<Vector3f> getJointLocations(FabrikStructure3f structure) {
+		List<Vector3f> locations = new ArrayList<>();
+		for (int i = 0; i < structure.getChainCount(); i++) {
+			FabrikChain3f chain = structure.getChain(i);
+			for (int j = 0; j < chain.getBoneCount(); j++) {
+				locations.add(new Vector3f(chain.getBone(j).getStartLocation()));
+			}
+			locations.add(new Vector3f(chain.getEndEffectorBone().getEndLocation()));
+		}
+		return locations;
+	}
+
+}
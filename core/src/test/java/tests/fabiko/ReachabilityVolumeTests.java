@@ -0,0 +1,206 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikReachabilityVolume;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.util.TestChains.createRotorChain;
+
+public class ReachabilityVolumeTests {
+
+	@TempDir
+	public File tempDir;
+
+	@Test
+	public void testUnconstrainedChainReachesSphere() {
+		FabrikChain3f chain = createRotorChain(4, Math.PI_f);
+		FabrikReachabilityVolume volume = FabrikReachabilityVolume.compute(chain, 4f);
+
+		float length = chain.getLength();
+		assertEquals(length, volume.getLength());
+		assertTrue(volume.getExtent() >= length);
+		assertTrue(volume.getReachableCount() > 0);
+
+		Random random = new Random(123);
+		Vector3f location = new Vector3f();
+		for (int i = 0; i < 1000; i++) {
+			location.set(random.nextFloat(-1f, 1f), random.nextFloat(-1f, 1f), random.nextFloat(-1f, 1f)).normalize();
+			assertTrue(volume.isReachable(location.x * length * 0.8f, location.y * length * 0.8f, location.z * length * 0.8f));
+
+			// beyond the circumscribed sphere of every voxel whose center can be reached
+			float unreachable = length + volume.getTolerance() + volume.getCellSize();
+			assertFalse(volume.isReachable(location.x * unreachable, location.y * unreachable, location.z * unreachable));
+		}
+	}
+
+	@Test
+	public void testConstrainedChainMatchesSolver() {
+		FabrikChain3f chain = createRotorChain(5, Math.toRadians(30f));
+		FabrikReachabilityVolume volume = FabrikReachabilityVolume.compute(chain, 5f);
+
+		// the chain points to the right and can't bend backwards
+		float length = chain.getLength();
+		assertTrue(volume.isReachable(length * 0.9f, 0f, 0f));
+		assertFalse(volume.isReachable(-length * 0.5f, 0f, 0f));
+		assertFalse(volume.isReachable(0f, length * 0.9f, 0f));
+
+		// the voxels agree with solving a copy of the chain for their center in most cases, rows start from the same pose
+		FabrikSolver3f solver = new FabrikSolver3f();
+		solver.setClosedFormSolving(false);
+		Random random = new Random(123);
+		Vector3f target = new Vector3f();
+		int agreements = 0;
+		int samples = 500;
+		for (int i = 0; i < samples; i++) {
+			volume.getNearestReachable(random.nextFloat(-length, length), random.nextFloat(-length, length), random.nextFloat(-length, length), target);
+
+			if (solver.solveForTarget(new FabrikChain3f(chain), target) <= volume.getTolerance()) {
+				agreements++;
+			}
+		}
+		assertTrue(agreements > samples * 0.9, agreements + " of " + samples + " nearest reachable locations were reached");
+	}
+
+	@Test
+	public void testNearestReachableIsNearestReachableVoxel() {
+		FabrikChain3f chain = createRotorChain(4, Math.toRadians(45f));
+		FabrikReachabilityVolume volume = FabrikReachabilityVolume.compute(chain, 4f);
+		int resolution = volume.getResolution();
+		float cellSize = volume.getCellSize();
+		float origin = -volume.getExtent();
+
+		Random random = new Random(123);
+		Vector3f location = new Vector3f();
+		Vector3f nearest = new Vector3f();
+		Vector3f center = new Vector3f();
+		for (int i = 0; i < 200; i++) {
+			location.set(random.nextFloat(origin, -origin), random.nextFloat(origin, -origin), random.nextFloat(origin, -origin));
+			assertNotNull(volume.getNearestReachable(location.x, location.y, location.z, nearest));
+
+			if (volume.isReachable(location.x, location.y, location.z)) {
+				assertEquals(location, nearest);
+				continue;
+			}
+			assertTrue(volume.isReachable(nearest.x, nearest.y, nearest.z));
+
+			// compare with the nearest reachable voxel center found by brute force
+			int cellX = (int) ((location.x - origin) / cellSize);
+			int cellY = (int) ((location.y - origin) / cellSize);
+			int cellZ = (int) ((location.z - origin) / cellSize);
+			long minDistance = Long.MAX_VALUE;
+			for (int z = 0; z < resolution; z++) {
+				for (int y = 0; y < resolution; y++) {
+					for (int x = 0; x < resolution; x++) {
+						center.set(origin + (x + 0.5f) * cellSize, origin + (y + 0.5f) * cellSize, origin + (z + 0.5f) * cellSize);
+						if (!volume.isReachable(center.x, center.y, center.z)) continue;
+						long distance = (long) (x - cellX) * (x - cellX) + (long) (y - cellY) * (y - cellY) + (long) (z - cellZ) * (z - cellZ);
+						minDistance = java.lang.Math.min(minDistance, distance);
+					}
+				}
+			}
+
+			int nearestX = java.lang.Math.round((nearest.x - origin) / cellSize - 0.5f);
+			int nearestY = java.lang.Math.round((nearest.y - origin) / cellSize - 0.5f);
+			int nearestZ = java.lang.Math.round((nearest.z - origin) / cellSize - 0.5f);
+			long distance = (long) (nearestX - cellX) * (nearestX - cellX) + (long) (nearestY - cellY) * (nearestY - cellY) + (long) (nearestZ - cellZ) * (nearestZ - cellZ);
+			assertEquals(minDistance, distance);
+		}
+	}
+
+	@Test
+	public void testQueriesRelativeToBaseLocation() {
+		FabrikChain3f chain = createRotorChain(3, Math.toRadians(30f));
+		Vector3f baseLocation = new Vector3f(100f, -50f, 20f);
+		chain.setBaseLocation(baseLocation);
+		FabrikReachabilityVolume volume = FabrikReachabilityVolume.compute(chain, 3f);
+
+		Vector3f target = new Vector3f(chain.getLength() * 0.9f, 0f, 0f).add(baseLocation);
+		assertTrue(volume.isReachable(baseLocation, target));
+		assertFalse(volume.isReachable(new Vector3f(), target));
+
+		// the base moved, so did the volume
+		Vector3f movedBaseLocation = new Vector3f(baseLocation).add(0f, 1000f, 0f);
+		assertFalse(volume.isReachable(movedBaseLocation, target));
+		Vector3f nearest = volume.getNearestReachable(movedBaseLocation, target, new Vector3f());
+		assertNotNull(nearest);
+		assertTrue(volume.isReachable(movedBaseLocation, nearest));
+		assertTrue(nearest.distance(movedBaseLocation) <= chain.getLength() + volume.getTolerance());
+	}
+
+	@Test
+	public void testResultDoesNotDependOnParallelism() {
+		FabrikChain3f chain = createRotorChain(4, Math.toRadians(45f));
+		try (ForkJoinPool singleThread = new ForkJoinPool(1); ForkJoinPool fourThreads = new ForkJoinPool(4)) {
+			FabrikReachabilityVolume a = FabrikReachabilityVolume.compute(chain, 3f, 2f, singleThread);
+			FabrikReachabilityVolume b = FabrikReachabilityVolume.compute(chain, 3f, 2f, fourThreads);
+			assertEquals(serialize(a), serialize(b));
+		}
+	}
+
+	@Test
+	public void testWriteAndRead() throws IOException {
+		FabrikChain3f chain = createRotorChain(4, Math.toRadians(45f));
+		FabrikReachabilityVolume volume = FabrikReachabilityVolume.compute(chain, 3f);
+
+		Path path = tempDir.toPath().resolve("arm.frch");
+		volume.write(path);
+		FabrikReachabilityVolume readVolume = FabrikReachabilityVolume.read(path);
+
+		assertEquals(volume.getResolution(), readVolume.getResolution());
+		assertEquals(volume.getBoneCount(), readVolume.getBoneCount());
+		assertEquals(volume.getCellSize(), readVolume.getCellSize());
+		assertEquals(volume.getTolerance(), readVolume.getTolerance());
+		assertEquals(volume.getLength(), readVolume.getLength());
+		assertEquals(volume.getReachableCount(), readVolume.getReachableCount());
+		assertEquals(serialize(volume), serialize(readVolume));
+
+		Random random = new Random(123);
+		float extent = volume.getExtent() * 1.2f;
+		Vector3f expected = new Vector3f();
+		Vector3f actual = new Vector3f();
+		for (int i = 0; i < 1000; i++) {
+			float x = random.nextFloat(-extent, extent);
+			float y = random.nextFloat(-extent, extent);
+			float z = random.nextFloat(-extent, extent);
+			assertEquals(volume.isReachable(x, y, z), readVolume.isReachable(x, y, z));
+			assertEquals(volume.getNearestReachable(x, y, z, expected), readVolume.getNearestReachable(x, y, z, actual));
+		}
+	}
+
+	@Test
+	public void testInvalidVolumes() {
+		FabrikChain3f chain = createRotorChain(4, Math.toRadians(45f));
+		assertThrows(IllegalArgumentException.class, () -> FabrikReachabilityVolume.compute(chain, 0f));
+		assertThrows(IllegalArgumentException.class, () -> FabrikReachabilityVolume.compute(chain, Float.NaN));
+		assertThrows(IllegalArgumentException.class, () -> FabrikReachabilityVolume.compute(chain, 1f, -1f, ForkJoinPool.commonPool()));
+		// too many voxels per axis
+		assertThrows(IllegalArgumentException.class, () -> FabrikReachabilityVolume.compute(chain, 0.01f));
+
+		ByteBuffer buffer = serialize(FabrikReachabilityVolume.compute(chain, 3f));
+		assertThrows(IllegalArgumentException.class, () -> FabrikReachabilityVolume.read(buffer.duplicate().limit(buffer.limit() - 8)));
+
+		ByteBuffer wrongMagic = buffer.duplicate();
+		wrongMagic.put(0, (byte) 0);
+		assertThrows(IllegalArgumentException.class, () -> FabrikReachabilityVolume.read(wrongMagic));
+	}
+
+	private static ByteBuffer serialize(FabrikReachabilityVolume volume) {
+		ByteBuffer buffer = ByteBuffer.allocate(volume.getSerializedSize());
+		volume.write(buffer);
+		assertFalse(buffer.hasRemaining());
+		return buffer.flip();
+	}
+
+}
@@ -0,0 +1,191 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RigFormatTests {
+
+	@TempDir
+	public File tempDir;
+
+	@Test
+	public void testLoadedRigSolvesLikeOriginal() throws Exception {
+		FabrikStructure3f expected = StructureSolvingTests.createCreature();
+		Path path = new File(tempDir, "creature.rig").toPath();
+		FabrikRigFormat.writeRig(expected, path);
+
+		MappedByteBuffer buffer = FabrikRigFormat.map(path);
+		FabrikStructure3f actual = FabrikRigFormat.readRig(buffer);
+		assertEquals(buffer.capacity(), buffer.position());
+		assertEquals(expected.getChainCount(), actual.getChainCount());
+
+		for (int i = 0; i < expected.getChainCount(); i++) {
+			FabrikChain3f expectedChain = expected.getChain(i);
+			FabrikChain3f actualChain = actual.getChain(i);
+			assertEquals(expectedChain.getBoneCount(), actualChain.getBoneCount());
+			assertEquals(expectedChain.getConnectedToChainId(), actualChain.getConnectedToChainId());
+			assertEquals(expectedChain.getConnectedToBoneIndex(), actualChain.getConnectedToBoneIndex());
+			assertEquals(expectedChain.isEmbeddedTargetEnabled(), actualChain.isEmbeddedTargetEnabled());
+			assertEquals(expectedChain.getEmbeddedTarget(), actualChain.getEmbeddedTarget());
+			for (int j = 0; j < expectedChain.getBoneCount(); j++) {
+				assertEquals(expectedChain.getBone(j).getBoneConnectionPoint(), actualChain.getBone(j).getBoneConnectionPoint());
+			}
+		}
+
+		assertSameSolutions(expected, actual);
+	}
+
+	@Test
+	public void testPackedRigSolvesLikeOriginal() {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		ByteBuffer buffer = ByteBuffer.allocate(FabrikRigFormat.getRigSize(structure));
+		FabrikRigFormat.writeRig(structure, buffer);
+
+		FabrikPackedChain3f[] chains = FabrikRigFormat.readPackedRig(buffer.flip());
+		assertEquals(structure.getChainCount(), chains.length);
+
+		FabrikPackedSolver3f solver = new FabrikPackedSolver3f();
+		Random random = new Random(42);
+		Vector3f target = new Vector3f();
+		for (int i = 0; i < chains.length; i++) {
+			FabrikPackedChain3f expected = FabrikPackedChain3f.from(structure.getChain(i));
+			FabrikPackedChain3f actual = chains[i];
+			assertEquals(expected.getBoneCount(), actual.getBoneCount());
+			assertEquals(expected.getLength(), actual.getLength());
+
+			for (int j = 0; j < 20; j++) {
+				target.set(random.nextFloat(-30f, 30f), random.nextFloat(-30f, 30f), random.nextFloat(-30f, 30f));
+				assertEquals(solver.solveForTarget(expected, target), solver.solveForTarget(actual, target), "solve distance of chain " + i);
+			}
+		}
+	}
+
+	@Test
+	public void testFrozenRigStaysFrozen() {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature().freeze();
+		ByteBuffer buffer = ByteBuffer.allocate(FabrikRigFormat.getRigSize(structure));
+		FabrikRigFormat.writeRig(structure, buffer);
+
+		assertTrue(FabrikRigFormat.readRig(buffer.flip()).isFrozen());
+	}
+
+	@Test
+	public void testManyRigsInOneBuffer() {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		int rigSize = FabrikRigFormat.getRigSize(structure);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(rigSize * 10);
+		for (int i = 0; i < 10; i++) {
+			FabrikRigFormat.writeRig(structure, buffer);
+		}
+		assertFalse(buffer.hasRemaining());
+
+		buffer.flip();
+		for (int i = 0; i < 10; i++) {
+			assertEquals(structure.getChainCount(), FabrikRigFormat.readRig(buffer).getChainCount());
+			assertEquals(rigSize * (i + 1), buffer.position());
+		}
+	}
+
+	@Test
+	public void testPoseRoundTrip() throws Exception {
+		FabrikStructure3f expected = StructureSolvingTests.createCreature();
+		FabrikStructure3f actual = StructureSolvingTests.createCreature();
+		FabrikPackedChain3f[] packedChains = new FabrikPackedChain3f[actual.getChainCount()];
+		for (int i = 0; i < packedChains.length; i++) {
+			packedChains[i] = FabrikPackedChain3f.from(actual.getChain(i));
+		}
+
+		new FabrikSolver3f().solveForTarget(expected, new Vector3f(10f, 25f, -5f));
+		Path path = new File(tempDir, "creature.pose").toPath();
+		FabrikRigFormat.writePose(expected, path);
+
+		MappedByteBuffer buffer = FabrikRigFormat.map(path);
+		FabrikRigFormat.readPose(buffer, actual);
+		FabrikRigFormat.readPose(buffer.rewind(), packedChains);
+
+		Vector3f location = new Vector3f();
+		for (int i = 0; i < expected.getChainCount(); i++) {
+			FabrikChain3f expectedChain = expected.getChain(i);
+			for (int j = 0; j < expectedChain.getBoneCount(); j++) {
+				FabrikBone3f expectedBone = expectedChain.getBone(j);
+				assertEquals(expectedBone.getStartLocation(), actual.getChain(i).getBone(j).getStartLocation());
+				assertEquals(expectedBone.getEndLocation(), actual.getChain(i).getBone(j).getEndLocation());
+				assertEquals(expectedBone.getStartLocation(), packedChains[i].getBoneStartLocation(j, location));
+				assertEquals(expectedBone.getEndLocation(), packedChains[i].getBoneEndLocation(j, location));
+				assertEquals(expectedBone.getDirection(), packedChains[i].getBoneDirection(j, location));
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidBuffersAreRejected() {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		ByteBuffer rig = ByteBuffer.allocate(FabrikRigFormat.getRigSize(structure));
+		FabrikRigFormat.writeRig(structure, rig);
+		rig.flip();
+
+		// a pose is not a rig
+		ByteBuffer pose = ByteBuffer.allocate(FabrikRigFormat.getPoseSize(structure));
+		FabrikRigFormat.writePose(structure, pose);
+		assertThrows(IllegalArgumentException.class, () -> FabrikRigFormat.readRig(pose.flip()));
+
+		// unsupported version
+		ByteBuffer newerVersion = ByteBuffer.allocate(rig.remaining()).put(rig.duplicate()).flip();
+		newerVersion.put(4, (byte) (FabrikRigFormat.VERSION + 1));
+		assertThrows(IllegalArgumentException.class, () -> FabrikRigFormat.readRig(newerVersion));
+
+		// truncated
+		ByteBuffer truncated = rig.duplicate().limit(rig.limit() - 10);
+		assertThrows(IllegalArgumentException.class, () -> FabrikRigFormat.readRig(truncated));
+
+		// truncated within the header, after the chain count
+		ByteBuffer truncatedHeader = rig.duplicate().limit(14);
+		assertThrows(IllegalArgumentException.class, () -> FabrikRigFormat.readRig(truncatedHeader));
+		assertThrows(IllegalArgumentException.class, () -> FabrikRigFormat.readPackedRig(truncatedHeader.rewind()));
+
+		// corrupt chain count larger than the chains which fit into the buffer
+		ByteBuffer hugeChainCount = ByteBuffer.allocate(rig.remaining()).put(rig.duplicate()).flip();
+		hugeChainCount.order(ByteOrder.LITTLE_ENDIAN).putInt(8, Integer.MAX_VALUE);
+		assertThrows(IllegalArgumentException.class, () -> FabrikRigFormat.readRig(hugeChainCount));
+		assertThrows(IllegalArgumentException.class, () -> FabrikRigFormat.readPackedRig(hugeChainCount));
+
+		// pose of another structure
+		FabrikStructure3f other = new FabrikStructure3f();
+		other.addChain(structure.getChain(0));
+		assertThrows(IllegalArgumentException.class, () -> FabrikRigFormat.readPose(pose.rewind(), other));
+	}
+
+	private static void assertSameSolutions(FabrikStructure3f expected, FabrikStructure3f actual) {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		float[] expectedDistances = new float[expected.getChainCount()];
+		float[] actualDistances = new float[actual.getChainCount()];
+		Vector3f target = new Vector3f();
+
+		Random random = new Random(123);
+		for (int i = 0; i < 100; i++) {
+			target.set(random.nextFloat(-40f, 40f), random.nextFloat(-20f, 60f), random.nextFloat(-40f, 40f));
+			solver.solveForTarget(expected, target, expectedDistances);
+			solver.solveForTarget(actual, target, actualDistances);
+
+			for (int j = 0; j < expectedDistances.length; j++) {
+				assertEquals(expectedDistances[j], actualDistances[j], "solve distance of chain " + j);
+				FabrikChain3f expectedChain = expected.getChain(j);
+				for (int k = 0; k < expectedChain.getBoneCount(); k++) {
+					assertEquals(expectedChain.getBone(k).getEndLocation(), actual.getChain(j).getBone(k).getEndLocation(), "chain " + j + " bone " + k);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RigTemplateTests {
+
+	@Test
+	public void testInstanceSolveMatchesStructureSolve() {
+		FabrikStructure3f expected = StructureSolvingTests.createCreature();
+		FabrikRigTemplate template = FabrikRigTemplate.of(expected);
+		FabrikRigInstance[] instances = template.spawn(3);
+
+		FabrikSolver3f solver = new FabrikSolver3f();
+		FabrikRigSolver3f rigSolver = new FabrikRigSolver3f(template);
+		float[] expectedDistances = new float[expected.getChainCount()];
+		float[] actualDistances = new float[template.getChainCount()];
+
+		Random random = new Random(123);
+		Vector3f target = new Vector3f();
+		for (int i = 0; i < 200; i++) {
+			target.set(random.nextFloat(-40f, 40f), random.nextFloat(-20f, 60f), random.nextFloat(-40f, 40f));
+
+			// instances keep no state of previous solves, e.g. the legs are solved again for their unchanged embedded targets
+			for (FabrikChain3f chain : expected.getChains()) {
+				chain.markDirty();
+			}
+			solver.solveForTarget(expected, target, expectedDistances);
+
+			// solving the other instances in between must not leak into the solve of the first instance
+			rigSolver.solveForTarget(instances[1], new Vector3f(target).negate(), actualDistances);
+			rigSolver.solveForTarget(instances[0], target, actualDistances);
+			rigSolver.solveForTarget(instances[2], new Vector3f(), new float[template.getChainCount()]);
+
+			assertArrayEquals(expectedDistances, actualDistances, 0.001f);
+			assertSamePose(expected, instances[0]);
+		}
+	}
+
+	@Test
+	public void testInstancesAreIndependent() {
+		// without the embedded targets of the legs, which don't move with the instance
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		for (FabrikChain3f chain : structure.getChains()) {
+			chain.setUseEmbeddedTarget(false);
+		}
+		FabrikRigTemplate template = FabrikRigTemplate.of(structure);
+		FabrikRigInstance[] instances = template.spawn(2);
+		FabrikRigInstance moved = template.spawn(new Vector3f(100f, 0f, -50f));
+
+		FabrikRigSolver3f solver = new FabrikRigSolver3f(template);
+		Vector3f target = new Vector3f(10f, 25f, -5f);
+		solver.solveForTarget(instances[0], target);
+		solver.solveForTarget(moved, new Vector3f(target).add(100f, 0f, -50f));
+
+		// the second instance of the batch keeps the rest pose
+		assertSamePose(structure, instances[1]);
+
+		// the moved instance stays anchored at its own base and solves to the same pose relative to it
+		Vector3f location = new Vector3f();
+		Vector3f movedLocation = new Vector3f();
+		for (int i = 0; i < template.getChainCount(); i++) {
+			for (int j = 0; j <= template.getBoneCount(i); j++) {
+				instances[0].getJointLocation(i, j, location).add(100f, 0f, -50f);
+				moved.getJointLocation(i, j, movedLocation);
+				assertEquals(0f, location.distance(movedLocation), 0.01f, "chain " + i + " joint " + j);
+			}
+		}
+	}
+
+	@Test
+	public void testTemplateIsIndependentOfStructure() {
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		FabrikRigTemplate template = FabrikRigTemplate.of(structure);
+		FabrikStructure3f restPose = StructureSolvingTests.createCreature();
+
+		new FabrikSolver3f().solveForTarget(structure, new Vector3f(10f, 25f, -5f));
+		assertSamePose(restPose, template.spawn());
+		assertEquals(template.getChainCount(), template.createStructure().getChainCount());
+	}
+
+	@Test
+	public void testForeignInstancesAreRejected() {
+		FabrikRigTemplate template = FabrikRigTemplate.of(StructureSolvingTests.createCreature());
+		FabrikRigTemplate otherTemplate = FabrikRigTemplate.of(StructureSolvingTests.createCreature());
+
+		FabrikRigSolver3f solver = new FabrikRigSolver3f(template);
+		assertThrows(IllegalArgumentException.class, () -> solver.solveForTarget(otherTemplate.spawn(), new Vector3f()));
+		assertThrows(IllegalArgumentException.class, () -> template.spawn().copyPoseTo(new FabrikStructure3f()));
+		assertThrows(IllegalArgumentException.class, () -> template.spawn(-1));
+	}
+
+	private static void assertSamePose(FabrikStructure3f expected, FabrikRigInstance actual) {
+		Vector3f location = new Vector3f();
+		for (int i = 0; i < expected.getChainCount(); i++) {
+			FabrikChain3f chain = expected.getChain(i);
+			for (int j = 0; j < chain.getBoneCount(); j++) {
+				assertEquals(chain.getBone(j).getStartLocation(), actual.getJointLocation(i, j, location), "chain " + i + " joint " + j);
+			}
+			assertEquals(chain.getEndEffectorBone().getEndLocation(), actual.getJointLocation(i, chain.getBoneCount(), location), "chain " + i + " end");
+		}
+	}
+
+}
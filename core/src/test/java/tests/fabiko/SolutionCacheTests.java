@@ -0,0 +1,251 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import com.github.elenterius.fabiko.core.SolveResult.Termination;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.util.TestChains.createRotorChain;
+import static tests.util.TestChains.createUnconstrainedChain;
+
+public class SolutionCacheTests {
+
+	@Test
+	public void testHitServesCachedPose() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		SolverMetrics metrics = new SolverMetrics();
+		solver.setMetrics(metrics);
+
+		FabrikChain3f chain = createRotorChain(6, Math.toRadians(60f));
+		FabrikSolutionCache cache = new FabrikSolutionCache(8, 1f);
+		chain.setSolutionCache(cache);
+
+		// targets at the center of a cell, so that small offsets stay in the same cell
+		Vector3f target = new Vector3f(20.5f, 15.5f, -5.5f);
+		SolveResult result = new SolveResult();
+		solver.solveForTarget(chain, target, result);
+		assertNotEquals(Termination.CACHE_HIT, result.getTermination(0));
+		float[] cachedPose = getPose(chain);
+
+		solver.solveForTarget(chain, new Vector3f(-10.5f, 30.5f, 12.5f), result);
+		assertNotEquals(Termination.CACHE_HIT, result.getTermination(0));
+
+		Vector3f nearbyTarget = new Vector3f(target).add(0.2f, -0.1f, 0.3f);
+		solver.solveForTarget(chain, nearbyTarget, result);
+		assertEquals(Termination.CACHE_HIT, result.getTermination(0));
+		assertEquals(0, result.getIterations(0));
+		assertArrayEquals(cachedPose, getPose(chain));
+		assertEquals(chain.getEndEffectorBone().getEndLocation().distance(nearbyTarget), result.getSolveDistance(0));
+		assertEquals(result.getSolveDistance(0), chain.getCurrentSolveDistance());
+		assertTrue(chain.isSolved(nearbyTarget));
+
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(1d / 3d, cache.getHitRate(), 1e-9);
+		assertEquals(2, cache.size());
+		assertEquals(1, metrics.getTerminationCount(Termination.CACHE_HIT));
+	}
+
+	@Test
+	public void testUnsolvedPosesAreNotCached() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		SolveResult result = new SolveResult();
+
+		// the constrained chain can't bend back towards its base, so the solve ends without reaching the target
+		FabrikChain3f chain = createRotorChain(4, Math.toRadians(45f));
+		FabrikSolutionCache cache = new FabrikSolutionCache(8, 1f);
+		chain.setSolutionCache(cache);
+
+		Vector3f target = new Vector3f(-20.5f, 0.5f, 0.5f);
+		solver.solveForTarget(chain, target, result);
+		assertTrue(result.getTermination(0) == Termination.STALLED || result.getTermination(0) == Termination.MAX_ITERATIONS, result.getTermination(0).name());
+		assertEquals(0, cache.size());
+
+		solver.solveForTarget(chain, new Vector3f(target).add(0.2f, -0.1f, 0.3f), result);
+		assertNotEquals(Termination.CACHE_HIT, result.getTermination(0));
+		assertEquals(0, cache.getHitCount());
+
+		// a chain stretched towards a target out of reach isn't cached either
+		FabrikChain3f unconstrainedChain = createUnconstrainedChain(3);
+		FabrikSolutionCache unconstrainedCache = new FabrikSolutionCache(8, 1f);
+		unconstrainedChain.setSolutionCache(unconstrainedCache);
+		solver.setClosedFormSolving(true);
+
+		Vector3f unreachableTarget = new Vector3f(100.5f, 0.5f, 0.5f);
+		solver.solveForTarget(unconstrainedChain, unreachableTarget, result);
+		assertEquals(Termination.CLOSED_FORM, result.getTermination(0));
+		assertEquals(0, unconstrainedCache.size());
+
+		solver.solveForTarget(unconstrainedChain, new Vector3f(unreachableTarget).add(0.2f, -0.1f, 0.3f), result);
+		assertNotEquals(Termination.CACHE_HIT, result.getTermination(0));
+		assertEquals(0, unconstrainedCache.getHitCount());
+	}
+
+	@Test
+	public void testHitMovesPoseToBaseLocation() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		FabrikChain3f chain = createRotorChain(6, Math.toRadians(60f));
+		FabrikSolutionCache cache = new FabrikSolutionCache(8, 1f);
+		chain.setSolutionCache(cache);
+
+		Vector3f baseLocation = new Vector3f(0.5f, 0.5f, 0.5f);
+		chain.setBaseLocation(baseLocation);
+		Vector3f target = new Vector3f(20.5f, 15.5f, -5.5f);
+		solver.solveForTarget(chain, target);
+		float[] cachedPose = getPose(chain);
+
+		// move the base within its cell
+		Vector3f offset = new Vector3f(0.25f, -0.25f, 0.125f);
+		baseLocation.add(offset);
+		solver.solveForTarget(chain, target);
+		assertEquals(1, cache.getHitCount());
+
+		float[] pose = getPose(chain);
+		for (int i = 0; i < pose.length; i += 3) {
+			assertEquals(cachedPose[i] + offset.x, pose[i], 1e-5f);
+			assertEquals(cachedPose[i + 1] + offset.y, pose[i + 1], 1e-5f);
+			assertEquals(cachedPose[i + 2] + offset.z, pose[i + 2], 1e-5f);
+		}
+		assertEquals(0f, chain.getBaseLocation().distance(baseLocation), 1e-6f);
+	}
+
+	@Test
+	public void testMissStartsFromNearestCachedPose() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		solver.setClosedFormSolving(false);
+		FabrikChain3f chain = createRotorChain(8, Math.PI_f);
+		FabrikSolutionCache cache = new FabrikSolutionCache(8, 1f);
+		chain.setSolutionCache(cache);
+
+		Vector3f baseLocation = new Vector3f();
+		chain.setBaseLocation(baseLocation);
+		Vector3f target = new Vector3f(30.5f, 25.5f, -10.5f);
+		SolveResult result = new SolveResult();
+		solver.solveForTarget(chain, target, result);
+		assertEquals(Termination.SOLVED, result.getTermination(0));
+
+		solver.solveForTarget(chain, new Vector3f(-20.5f, -30.5f, 5.5f), result);
+		assertEquals(0, cache.getWarmStartCount(), "the last pose is nearer than any cached pose");
+
+		// the same target relative to a base location in another cell, the translated cached pose is already a solution
+		Vector3f offset = new Vector3f(50f, -20f, 10f);
+		baseLocation.add(offset);
+		solver.solveForTarget(chain, target.add(offset), result);
+		assertEquals(1, cache.getWarmStartCount());
+		assertEquals(Termination.SOLVED, result.getTermination(0));
+		assertEquals(1, result.getIterations(0));
+		assertEquals(3, cache.size());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedPoseIsEvicted() {
+		// all targets can be reached, so every solve is cached
+		FabrikSolver3f solver = new FabrikSolver3f();
+		FabrikChain3f chain = createUnconstrainedChain(4);
+		FabrikSolutionCache cache = new FabrikSolutionCache(2, 1f);
+		chain.setSolutionCache(cache);
+
+		Vector3f a = new Vector3f(10.5f, 10.5f, 0.5f);
+		Vector3f b = new Vector3f(-10.5f, 10.5f, 0.5f);
+		Vector3f c = new Vector3f(0.5f, -10.5f, 10.5f);
+		SolveResult result = new SolveResult();
+
+		solver.solveForTarget(chain, a, result);
+		solver.solveForTarget(chain, b, result);
+		solver.solveForTarget(chain, a, result);
+		assertEquals(Termination.CACHE_HIT, result.getTermination(0));
+
+		solver.solveForTarget(chain, c, result);
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(2, cache.size());
+
+		solver.solveForTarget(chain, a, result);
+		assertEquals(Termination.CACHE_HIT, result.getTermination(0));
+		solver.solveForTarget(chain, b, result);
+		assertNotEquals(Termination.CACHE_HIT, result.getTermination(0));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		solver.solveForTarget(chain, c, result);
+		assertNotEquals(Termination.CACHE_HIT, result.getTermination(0));
+
+		cache.resetStatistics();
+		assertEquals(0, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+		assertEquals(0, cache.getEvictionCount());
+		assertEquals(0d, cache.getHitRate());
+	}
+
+	/// Compares the hits and evictions with a [LinkedHashMap] in access order keyed by the quantized target, which only
+	/// holds the targets whose solve reached the solve distance threshold.
+	@Test
+	public void testCacheMatchesReferenceLeastRecentlyUsedMap() {
+		int capacity = 8;
+		float cellSize = 2f;
+
+		FabrikSolver3f solver = new FabrikSolver3f();
+		FabrikChain3f chain = createRotorChain(3, Math.toRadians(60f));
+		FabrikSolutionCache cache = new FabrikSolutionCache(capacity, cellSize);
+		chain.setSolutionCache(cache);
+
+		Map<List<Integer>, Boolean> expected = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<List<Integer>, Boolean> eldest) {
+				return size() > capacity;
+			}
+		};
+
+		Random random = new Random(123);
+		SolveResult result = new SolveResult();
+		Vector3f target = new Vector3f();
+		long expectedHits = 0;
+		for (int i = 0; i < 2000; i++) {
+			// few distinct cells in front of the chain, so that cells are requested again after they were evicted
+			target.set(random.nextInt(5, 11), random.nextInt(-3, 3), random.nextInt(-3, 3)).mul(cellSize).add(random.nextFloat(), random.nextFloat(), random.nextFloat());
+			if (chain.isSolved(target)) continue;
+
+			List<Integer> key = List.of((int) Math.floor(target.x / cellSize), (int) Math.floor(target.y / cellSize), (int) Math.floor(target.z / cellSize));
+			boolean hit = expected.get(key) != null;
+
+			solver.solveForTarget(chain, target, result);
+			assertEquals(hit, result.getTermination(0) == Termination.CACHE_HIT, "solve " + i);
+			if (hit) {
+				expectedHits++;
+			}
+			else if (result.getSolveDistance(0) <= chain.getSolveDistanceThreshold()) {
+				expected.put(key, Boolean.TRUE);
+			}
+		}
+
+		assertEquals(expectedHits, cache.getHitCount());
+		assertEquals(expected.size(), cache.size());
+		assertTrue(cache.getEvictionCount() > 0);
+	}
+
+	@Test
+	public void testInvalidCaches() {
+		assertThrows(IllegalArgumentException.class, () -> new FabrikSolutionCache(0, 1f));
+		assertThrows(IllegalArgumentException.class, () -> new FabrikSolutionCache(8, 0f));
+		assertThrows(IllegalArgumentException.class, () -> new FabrikSolutionCache(8, Float.NaN));
+	}
+
+	private static float[] getPose(FabrikChain3f chain) {
+		float[] pose = new float[(chain.getBoneCount() + 1) * 3];
+		for (int i = 0; i <= chain.getBoneCount(); i++) {
+			Vector3fc location = i < chain.getBoneCount() ? chain.getBone(i).getStartLocation() : chain.getEndEffectorBone().getEndLocation();
+			pose[i * 3] = location.x();
+			pose[i * 3 + 1] = location.y();
+			pose[i * 3 + 2] = location.z();
+		}
+		return pose;
+	}
+
+}
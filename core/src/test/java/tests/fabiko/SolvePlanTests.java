@@ -0,0 +1,135 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikBone3f;
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikJoint3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.FabrikWorld;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static tests.util.TestChains.RIGHT;
+import static tests.util.TestChains.UP;
+import static tests.util.TestChains.createHingeChain;
+import static tests.util.TestChains.createRotorChain;
+
+/// The solve plan compiled for a chain must not outlive changes to its bones and joints, after a change the chain has to
+/// be solved exactly like a chain which had the changed joints from the start.
+public class SolvePlanTests {
+
+	private final FabrikSolver3f solver = new FabrikSolver3f();
+
+	@Test
+	public void testModifiedRotorConstraintIsApplied() {
+		float narrowAngle = Math.toRadians(15f);
+		float wideAngle = Math.toRadians(60f);
+
+		assertChangeIsApplied(
+				createRotorChain(10, RIGHT, narrowAngle, bone -> bone % 2 == 0),
+				chain -> {
+					for (FabrikBone3f bone : chain.getBones()) {
+						((FabrikJoint3f.Rotor) bone.getJoint()).setConstraintAngle(wideAngle);
+					}
+				}
+		);
+	}
+
+	@Test
+	public void testModifiedHingeConstraintIsApplied() {
+		assertChangeIsApplied(
+				createHingeChain(10, bone -> bone % 2 == 0),
+				chain -> {
+					for (int i = 1; i < chain.getBoneCount(); i++) {
+						FabrikJoint3f.Hinge hinge = (FabrikJoint3f.Hinge) chain.getBone(i).getJoint();
+						hinge.setConstraintAngles(Math.toRadians(10f), Math.toRadians(20f));
+						hinge.setRotationAxis(FabrikWorld.FORWARDS);
+					}
+				}
+		);
+	}
+
+	@Test
+	public void testReplacedJointIsApplied() {
+		assertChangeIsApplied(
+				createRotorChain(10, RIGHT, Math.toRadians(45f), bone -> bone % 2 == 0),
+				chain -> {
+					for (int i = 1; i < chain.getBoneCount(); i += 2) {
+						FabrikJoint3f.GlobalHinge hinge = new FabrikJoint3f.GlobalHinge();
+						hinge.setRotationAxis(UP);
+						hinge.setReferenceAxis(RIGHT);
+						hinge.setConstraintAngles(Math.toRadians(30f), Math.toRadians(90f));
+						chain.getBone(i).setJoint(hinge);
+					}
+				}
+		);
+	}
+
+	@Test
+	public void testReplacedBoneIsApplied() {
+		assertChangeIsApplied(
+				createRotorChain(10, RIGHT, Math.toRadians(15f), bone -> bone % 2 == 0),
+				chain -> {
+					FabrikBone3f[] bones = chain.getBones();
+					int index = bones.length / 2;
+					FabrikBone3f bone = new FabrikBone3f(bones[index]);
+					bone.setJoint(new FabrikJoint3f.LocalRotor());
+					bones[index] = bone;
+				}
+		);
+	}
+
+	/// Solves the chain, applies the change to it and compares its solutions with a chain which had the change applied
+	/// before its first solve.
+	private void assertChangeIsApplied(FabrikChain3f chain, Consumer<FabrikChain3f> change) {
+		Random random = new Random(42);
+		Vector3f target = new Vector3f();
+		float halfLength = chain.getLength() / 2f;
+
+		solver.solveForTarget(chain, randomTarget(random, halfLength, target));
+		FabrikChain3f unchanged = copyOf(chain);
+
+		change.accept(chain);
+		FabrikChain3f expected = copyOf(chain);
+
+		int differentSolutions = 0;
+		for (int i = 0; i < 100; i++) {
+			randomTarget(random, halfLength, target);
+			float distance = solver.solveForTarget(chain, target);
+			float expectedDistance = solver.solveForTarget(expected, target);
+			float unchangedDistance = solver.solveForTarget(unchanged, target);
+
+			assertEquals(expectedDistance, distance, "solve distance of target " + i);
+			for (int j = 0; j < chain.getBoneCount(); j++) {
+				assertEquals(expected.getBone(j).getEndLocation(), chain.getBone(j).getEndLocation(), "end location of bone " + j + " for target " + i);
+			}
+
+			if (unchangedDistance != distance) differentSolutions++;
+		}
+
+		// the change must actually matter, otherwise a stale solve plan would go unnoticed
+		assertNotEquals(0, differentSolutions);
+	}
+
+	/// @return a copy of the chain in its current pose with copies of its bones and joints
+	private static FabrikChain3f copyOf(FabrikChain3f chain) {
+		FabrikBone3f[] bones = new FabrikBone3f[chain.getBoneCount()];
+		for (int i = 0; i < bones.length; i++) {
+			bones[i] = new FabrikBone3f(chain.getBone(i));
+		}
+
+		FabrikChain3f copy = new FabrikChain3f(chain);
+		System.arraycopy(bones, 0, copy.getBones(), 0, bones.length);
+		return copy;
+	}
+
+	private static Vector3f randomTarget(Random random, float halfLength, Vector3f dest) {
+		return dest.set(random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength));
+	}
+
+}
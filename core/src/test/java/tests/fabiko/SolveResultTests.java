@@ -0,0 +1,140 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.FabrikStructure3f;
+import com.github.elenterius.fabiko.core.SolveResult;
+import com.github.elenterius.fabiko.core.SolveResult.Termination;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.util.TestChains.createRotorChain;
+
+public class SolveResultTests {
+
+	@Test
+	public void testChainSolveStatistics() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		SolveResult result = new SolveResult();
+		Random random = new Random(123);
+		EnumSet<Termination> terminations = EnumSet.noneOf(Termination.class);
+
+		for (int i = 0; i < 1000; i++) {
+			FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f));
+			Vector3f target = randomTarget(random, chain.getLength());
+
+			solver.solveForTarget(chain, target, result);
+
+			assertEquals(1, result.getChainCount());
+			assertEquals(chain.getCurrentSolveDistance(), result.getSolveDistance(0));
+			assertEquals(result.getSolveDistance(0), result.getSolveDistance());
+			assertTrue(result.getIterations(0) >= 1 && result.getIterations(0) <= chain.getMaxIterationAttempts());
+			assertTrue(result.getBestIteration(0) >= 0 && result.getBestIteration(0) < result.getIterations(0));
+			assertTrue(result.getElapsedNanos(0) >= 0);
+			assertEquals(result.getElapsedNanos(0), result.getElapsedNanos());
+
+			Termination termination = result.getTermination(0);
+			terminations.add(termination);
+			switch (termination) {
+				case SOLVED -> assertTrue(result.getSolveDistance(0) <= chain.getSolveDistanceThreshold());
+				case MAX_ITERATIONS -> assertEquals(chain.getMaxIterationAttempts(), result.getIterations(0));
+				case STALLED -> assertTrue(result.getSolveDistance(0) > chain.getSolveDistanceThreshold());
+				default -> fail("Unexpected termination " + termination);
+			}
+
+			// the chain is already solved for the same target
+			solver.solveForTarget(chain, target, result);
+			assertEquals(Termination.ALREADY_SOLVED, result.getTermination(0));
+			assertEquals(0, result.getIterations(0));
+			assertEquals(-1, result.getBestIteration(0));
+			assertEquals(chain.getCurrentSolveDistance(), result.getSolveDistance(0));
+		}
+
+		assertTrue(terminations.contains(Termination.SOLVED));
+		assertTrue(terminations.contains(Termination.STALLED));
+	}
+
+	@Test
+	public void testBudgetedSolveStatistics() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		SolveResult result = new SolveResult();
+		Random random = new Random(321);
+
+		for (int i = 0; i < 100; i++) {
+			FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f));
+			Vector3f target = randomTarget(random, chain.getLength());
+
+			solver.solveForTargetWithin(chain, target, 2, result);
+			assertTrue(result.getIterations(0) <= 2);
+			assertEquals(chain.isSolvePending(), result.getTermination(0) == Termination.BUDGET_EXHAUSTED);
+
+			if (chain.isSolvePending()) {
+				// best iteration is counted from the start of the solve
+				solver.solveForTargetWithin(chain, target, 1, result);
+				assertEquals(1, result.getIterations(0));
+				assertTrue(result.getBestIteration(0) <= 2);
+			}
+		}
+	}
+
+	@Test
+	public void testClosedFormSolveStatistics() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		solver.setClosedFormSolving(true);
+		SolveResult result = new SolveResult();
+
+		solver.solveForTarget(createRotorChain(2, Math.toRadians(45f)), new Vector3f(19.5f, 1f, 0f), result);
+
+		assertEquals(Termination.CLOSED_FORM, result.getTermination(0));
+		assertEquals(0, result.getIterations(0));
+		assertEquals(0f, result.getSolveDistance(0), 0.001f);
+	}
+
+	@Test
+	public void testStructureSolveStatistics() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		FabrikStructure3f expected = StructureSolvingTests.createCreature();
+		FabrikStructure3f actual = StructureSolvingTests.createCreature();
+		SolveResult result = new SolveResult();
+		float[] expectedDistances = new float[expected.getChainCount()];
+		Random random = new Random(456);
+
+		for (int i = 0; i < 100; i++) {
+			Vector3f target = new Vector3f(random.nextFloat(-40f, 40f), random.nextFloat(-20f, 60f), random.nextFloat(-40f, 40f));
+
+			solver.solveForTarget(expected, target, expectedDistances);
+			solver.solveForTarget(actual, target, result);
+
+			assertEquals(actual.getChainCount(), result.getChainCount());
+
+			long elapsedNanos = 0;
+			int iterations = 0;
+			int terminations = 0;
+			for (int j = 0; j < result.getChainCount(); j++) {
+				assertEquals(expectedDistances[j], result.getSolveDistance(j));
+				elapsedNanos += result.getElapsedNanos(j);
+				iterations += result.getIterations(j);
+			}
+			for (Termination termination : Termination.values()) {
+				terminations += result.countTerminations(termination);
+			}
+
+			assertEquals(elapsedNanos, result.getElapsedNanos());
+			assertEquals(iterations, result.getIterations());
+			assertEquals(result.getChainCount(), terminations);
+		}
+
+		assertThrows(IndexOutOfBoundsException.class, () -> result.getSolveDistance(result.getChainCount()));
+	}
+
+	private static Vector3f randomTarget(Random random, float chainLength) {
+		float halfLength = chainLength / 2f;
+		return new Vector3f(random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength));
+	}
+
+}
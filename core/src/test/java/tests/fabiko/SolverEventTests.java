@@ -0,0 +1,111 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import com.github.elenterius.fabiko.core.FabrikSolver3f;
+import com.github.elenterius.fabiko.core.FabrikStructure3f;
+import com.github.elenterius.fabiko.core.SolveResult;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SolverEventTests {
+
+	@Test
+	public void testChainSolveEvents() throws IOException {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		FabrikChain3f chain = FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), new Vector3f(1, 0, 0), 10f, Math.toRadians(45f), true)
+				.addRotorConstrainedBone(new Vector3f(1, 0, 0), 10f, Math.toRadians(45f), true)
+				.addRotorConstrainedBone(new Vector3f(1, 0, 0), 10f, Math.toRadians(45f), true)
+				.build();
+		SolveResult result = new SolveResult();
+
+		List<RecordedEvent> events = record(() -> {
+			solver.solveForTarget(chain, new Vector3f(5f, 10f, 5f), result);
+			solver.solveForTarget(chain, new Vector3f(5f, 10f, 5f));
+		});
+
+		List<RecordedEvent> chainEvents = events.stream().filter(event -> event.getEventType().getName().equals("fabiko.ChainSolve")).toList();
+		assertEquals(2, chainEvents.size());
+
+		RecordedEvent event = chainEvents.getFirst();
+		assertEquals(3, event.getInt("boneCount"));
+		assertEquals(result.getIterations(0), event.getInt("iterations"));
+		assertEquals(result.getBestIteration(0), event.getInt("bestIteration"));
+		assertEquals(result.getTermination(0).name(), event.getString("termination"));
+		assertEquals(result.getSolveDistance(0), event.getFloat("solveDistance"));
+
+		assertEquals(SolveResult.Termination.ALREADY_SOLVED.name(), chainEvents.get(1).getString("termination"));
+	}
+
+	@Test
+	public void testStructureSolveEvents() throws IOException {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		SolveResult result = new SolveResult();
+
+		List<RecordedEvent> events = record(() -> solver.solveForTarget(structure, new Vector3f(5f, 30f, 5f), result));
+
+		List<RecordedEvent> structureEvents = events.stream().filter(event -> event.getEventType().getName().equals("fabiko.StructureSolve")).toList();
+		assertEquals(1, structureEvents.size());
+
+		RecordedEvent event = structureEvents.getFirst();
+		int boneCount = structure.getChains().stream().mapToInt(FabrikChain3f::getBoneCount).sum();
+		assertEquals(structure.getChainCount(), event.getInt("chainCount"));
+		assertEquals(boneCount, event.getInt("boneCount"));
+		assertEquals(result.getIterations(), event.getInt("iterations"));
+		assertEquals(result.getSolveDistance(), event.getFloat("maxSolveDistance"));
+
+		long chainEvents = events.stream().filter(e -> e.getEventType().getName().equals("fabiko.ChainSolve")).count();
+		assertEquals(structure.getChainCount(), chainEvents);
+	}
+
+	@Test
+	public void testRecordingWithoutSolverEvents() throws IOException {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+
+		// e.g. an always-on profiling recording, the solver neither creates nor records its events
+		List<RecordedEvent> events = record(() -> {
+			solver.solveForTarget(structure, new Vector3f(5f, 30f, 5f));
+			solver.solveForTarget(structure, new Vector3f(5f, 30f, 5f));
+		}, "jdk.ThreadSleep");
+
+		assertTrue(events.stream().noneMatch(event -> event.getEventType().getName().startsWith("fabiko.")));
+	}
+
+	private static List<RecordedEvent> record(Runnable runnable) throws IOException {
+		return record(runnable, "fabiko.ChainSolve", "fabiko.StructureSolve");
+	}
+
+	private static List<RecordedEvent> record(Runnable runnable, String... eventNames) throws IOException {
+		Path file = Files.createTempFile("fabiko", ".jfr");
+		try {
+			try (Recording recording = new Recording()) {
+				for (String eventName : eventNames) {
+					recording.enable(eventName);
+				}
+				recording.start();
+				runnable.run();
+				recording.stop();
+				recording.dump(file);
+			}
+			return RecordingFile.readAllEvents(file);
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+}
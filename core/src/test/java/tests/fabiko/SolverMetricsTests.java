@@ -0,0 +1,194 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import com.github.elenterius.fabiko.core.SolveResult.Termination;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tests.util.TestChains.createRotorChain;
+import static tests.util.TestChains.createUnconstrainedChain;
+
+public class SolverMetricsTests {
+
+	@Test
+	public void testChainSolveMetrics() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		SolverMetrics metrics = new SolverMetrics();
+		solver.setMetrics(metrics);
+
+		SolveResult result = new SolveResult();
+		long[] expectedTerminations = new long[Termination.values().length];
+		long expectedIterations = 0;
+		Random random = new Random(123);
+
+		for (int i = 0; i < 500; i++) {
+			FabrikChain3f chain = createRotorChain(10, Math.toRadians(45f));
+			float halfLength = chain.getLength() / 2f;
+			Vector3f target = new Vector3f(random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength), random.nextFloat(-halfLength, halfLength));
+
+			solver.solveForTarget(chain, target, result);
+			expectedIterations += result.getIterations(0);
+			expectedTerminations[result.getTermination(0).ordinal()]++;
+		}
+
+		assertEquals(500, metrics.getSolveCount());
+		assertEquals(expectedIterations, metrics.getIterationCount());
+		assertEquals((double) expectedIterations / 500, metrics.getMeanIterations(), 1e-9);
+
+		Map<String, Long> terminationCounts = metrics.getTerminationCounts();
+		for (Termination termination : Termination.values()) {
+			assertEquals(expectedTerminations[termination.ordinal()], metrics.getTerminationCount(termination));
+			assertEquals(expectedTerminations[termination.ordinal()], terminationCounts.get(termination.name()));
+		}
+
+		long histogramSum = 0;
+		for (long count : metrics.getIterationHistogram()) {
+			histogramSum += count;
+		}
+		assertEquals(500, histogramSum);
+
+		assertEquals(1.0, metrics.getConvergedRatio() + metrics.getStalledRatio(), 1e-9);
+		assertTrue(metrics.getLatencyP50Nanos() <= metrics.getLatencyP99Nanos());
+		assertTrue(metrics.getLatencyP99Nanos() <= metrics.getMaxLatencyNanos());
+		assertTrue(metrics.getMaxLatencyNanos() > 0);
+
+		metrics.reset();
+		assertEquals(0, metrics.getSolveCount());
+		assertEquals(0, metrics.getLatencyP99Nanos());
+		assertEquals(0, metrics.getConvergedRatio());
+	}
+
+	@Test
+	public void testLatencyPercentiles() {
+		SolverMetrics metrics = new SolverMetrics();
+		for (int i = 1; i <= 1000; i++) {
+			metrics.recordSolve(1, Termination.SOLVED, i * 1000L);
+		}
+
+		// percentiles are at most 25% above the exact value
+		long p50 = metrics.getLatencyP50Nanos();
+		long p99 = metrics.getLatencyP99Nanos();
+		assertTrue(p50 >= 500_000 && p50 <= 625_000, "p50 = " + p50);
+		assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 = " + p99);
+		assertEquals(1_000_000, metrics.getLatencyPercentileNanos(1));
+		assertEquals(1.0, metrics.getConvergedRatio());
+
+		assertThrows(IllegalArgumentException.class, () -> metrics.getLatencyPercentileNanos(1.5));
+	}
+
+	@Test
+	public void testCacheHitsCountAsConverged() {
+		SolverMetrics metrics = new SolverMetrics();
+		metrics.recordSolve(0, Termination.CACHE_HIT, 100);
+		metrics.recordSolve(0, Termination.CACHE_HIT, 100);
+		metrics.recordSolve(4, Termination.SOLVED, 100);
+		metrics.recordSolve(10, Termination.STALLED, 100);
+
+		assertEquals(0.75, metrics.getConvergedRatio(), 1e-9);
+		assertEquals(0.25, metrics.getStalledRatio(), 1e-9);
+	}
+
+	@Test
+	public void testUnreachedClosedFormSolvesCountAsStalled() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		solver.setClosedFormSolving(true);
+		SolverMetrics metrics = new SolverMetrics();
+		solver.setMetrics(metrics);
+
+		FabrikChain3f chain = createUnconstrainedChain(3);
+		// the stretched chain just reaches the first target, but not the second one
+		solver.solveForTarget(chain, new Vector3f(0f, 0f, chain.getLength()));
+		solver.solveForTarget(chain, new Vector3f(0f, 0f, chain.getLength() * 2f));
+
+		assertEquals(2, metrics.getTerminationCount(Termination.CLOSED_FORM));
+		assertEquals(0.5, metrics.getConvergedRatio(), 1e-9);
+		assertEquals(0.5, metrics.getStalledRatio(), 1e-9);
+
+		// closed form solves recorded without a solve distance count as converged
+		metrics.recordSolve(0, Termination.CLOSED_FORM, 100);
+		assertEquals(2.0 / 3.0, metrics.getConvergedRatio(), 1e-9);
+
+		metrics.reset();
+		metrics.recordSolve(0, Termination.CLOSED_FORM, 100);
+		assertEquals(1.0, metrics.getConvergedRatio());
+	}
+
+	@Test
+	public void testReadingSolveRateDoesNotResetIt() throws InterruptedException {
+		SolverMetrics metrics = new SolverMetrics();
+		for (int i = 0; i < 1000; i++) {
+			metrics.recordSolve(1, Termination.SOLVED, 100);
+		}
+		Thread.sleep(5);
+
+		// every reader sees the rate over the recent window, regardless of who read it before
+		double rate = metrics.getSolvesPerSecond();
+		double secondRate = metrics.getSolvesPerSecond();
+		assertTrue(rate > 0);
+		assertTrue(secondRate > 0 && secondRate <= rate, rate + " then " + secondRate);
+
+		metrics.reset();
+		assertEquals(0, metrics.getSolvesPerSecond());
+	}
+
+	@Test
+	public void testParallelStructureSolveMetrics() {
+		FabrikSolver3f solver = new FabrikSolver3f();
+		SolverMetrics metrics = new SolverMetrics();
+		solver.setMetrics(metrics);
+
+		FabrikStructure3f structure = StructureSolvingTests.createCreature();
+		float[] solveDistances = new float[structure.getChainCount()];
+		try (ForkJoinPool pool = new ForkJoinPool(2)) {
+			solver.solveForTarget(structure, new Vector3f(10f, 20f, 10f), solveDistances, pool);
+		}
+
+		assertEquals(structure.getChainCount(), metrics.getSolveCount());
+	}
+
+	@Test
+	public void testCrowdSolveMetrics() {
+		FabrikCrowdSolver3f crowdSolver = new FabrikCrowdSolver3f(ForkJoinPool.commonPool(), 2);
+		SolverMetrics metrics = new SolverMetrics();
+		crowdSolver.setMetrics(metrics);
+
+		FabrikStructure3f structure1 = StructureSolvingTests.createCreature();
+		FabrikStructure3f structure2 = StructureSolvingTests.createCreature();
+		FabrikCrowdSolver3f.Report report = crowdSolver.solveForTarget(List.of(structure1, structure2), new Vector3f(10f, 20f, 10f));
+
+		assertEquals(report.chainCount(), metrics.getSolveCount());
+	}
+
+	@Test
+	public void testPlatformMBean() throws Exception {
+		SolverMetrics metrics = new SolverMetrics();
+		ObjectName name = metrics.register("test");
+		try {
+			assertThrows(IllegalStateException.class, () -> metrics.register("test"));
+
+			metrics.recordSolve(3, Termination.STALLED, 100);
+
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			assertTrue(server.isRegistered(name));
+			assertEquals(1L, server.getAttribute(name, "SolveCount"));
+			assertEquals(3L, server.getAttribute(name, "IterationCount"));
+			assertEquals(1.0, server.getAttribute(name, "StalledRatio"));
+		}
+		finally {
+			metrics.unregister();
+		}
+
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+	}
+
+}
@@ -0,0 +1,310 @@
+package tests.fabiko;
+
+import com.github.elenterius.fabiko.core.*;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StructureSolvingTests {
+
+	private static final Vector3fc RIGHT = new Vector3f(1, 0, 0);
+	private static final Vector3fc LEFT = new Vector3f(-1, 0, 0);
+	private static final Vector3fc UP = new Vector3f(0, 1, 0);
+	private static final Vector3fc DOWN = new Vector3f(0, -1, 0);
+	private static final Vector3fc FORWARDS = new Vector3f(0, 0, -1);
+
+	@Test
+	public void testParallelSolveMatchesSequentialSolve() {
+		FabrikStructure3f expected = createCreature();
+		FabrikStructure3f actual = createCreature();
+
+		FabrikSolver3f solver = new FabrikSolver3f();
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		float[] expectedDistances = new float[expected.getChainCount()];
+		float[] actualDistances = new float[actual.getChainCount()];
+		Vector3f target = new Vector3f();
+
+		try {
+			Random random = new Random(123);
+			for (int i = 0; i < 500; i++) {
+				target.set(random.nextFloat(-40f, 40f), random.nextFloat(-20f, 60f), random.nextFloat(-40f, 40f));
+
+				solver.solveForTarget(expected, target, expectedDistances);
+				solver.solveForTarget(actual, target, actualDistances, pool);
+
+				for (int j = 0; j < expectedDistances.length; j++) {
+					assertEquals(expectedDistances[j], actualDistances[j], "solve distance of chain " + j);
+				}
+				assertEqualLocations(expected, actual);
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testCrowdSolveMatchesSequentialSolve() {
+		List<FabrikStructure3f> expected = new ArrayList<>();
+		List<FabrikStructure3f> actual = new ArrayList<>();
+		List<Vector3f> targets = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			expected.add(createCreature());
+			actual.add(createCreature());
+			targets.add(new Vector3f());
+		}
+
+		FabrikSolver3f solver = new FabrikSolver3f();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		FabrikCrowdSolver3f crowdSolver = new FabrikCrowdSolver3f(pool, 8);
+
+		try {
+			Random random = new Random(123);
+			for (int i = 0; i < 20; i++) {
+				for (Vector3f target : targets) {
+					target.set(random.nextFloat(-40f, 40f), random.nextFloat(-20f, 60f), random.nextFloat(-40f, 40f));
+				}
+
+				for (int j = 0; j < expected.size(); j++) {
+					solver.solveForTarget(expected.get(j), targets.get(j));
+				}
+				FabrikCrowdSolver3f.Report report = crowdSolver.solveForTargets(actual, targets);
+
+				assertEquals(actual.size(), report.structureCount());
+				assertEquals(actual.size() * actual.getFirst().getChainCount(), report.chainCount());
+				for (int j = 0; j < expected.size(); j++) {
+					assertEqualLocations(expected.get(j), actual.get(j));
+				}
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testFrozenSolveMatchesSequentialSolve() {
+		FabrikStructure3f expected = createCreature();
+		FabrikStructure3f actual = createCreature().freeze();
+
+		FabrikSolver3f solver = new FabrikSolver3f();
+		SolveResult expectedResult = new SolveResult();
+		SolveResult actualResult = new SolveResult();
+		float[] expectedDistances = new float[expected.getChainCount()];
+		float[] actualDistances = new float[actual.getChainCount()];
+		Vector3f target = new Vector3f();
+
+		Random random = new Random(123);
+		for (int i = 0; i < 500; i++) {
+			target.set(random.nextFloat(-40f, 40f), random.nextFloat(-20f, 60f), random.nextFloat(-40f, 40f));
+
+			if (i % 2 == 0) {
+				solver.solveForTarget(expected, target, expectedDistances);
+				solver.solveForTarget(actual, target, actualDistances);
+			}
+			else {
+				solver.solveForTarget(expected, target, expectedResult);
+				solver.solveForTarget(actual, target, actualResult);
+				for (int j = 0; j < expectedDistances.length; j++) {
+					expectedDistances[j] = expectedResult.getSolveDistance(j);
+					actualDistances[j] = actualResult.getSolveDistance(j);
+					assertEquals(expectedResult.getIterations(j), actualResult.getIterations(j), "iterations of chain " + j);
+				}
+			}
+
+			for (int j = 0; j < expectedDistances.length; j++) {
+				assertEquals(expectedDistances[j], actualDistances[j], "solve distance of chain " + j);
+			}
+			assertEqualLocations(expected, actual);
+		}
+	}
+
+	@Test
+	public void testFrozenStructureSolvesHostChainFirst() {
+		// the arm is added to the structure before the spine it is connected to
+		FabrikStructure3f expected = createSpineWithArm();
+		FabrikStructure3f actual = createArmBeforeSpine().freeze();
+
+		FabrikSolver3f solver = new FabrikSolver3f();
+		float[] expectedDistances = new float[2];
+		float[] actualDistances = new float[2];
+		Vector3f target = new Vector3f();
+
+		Random random = new Random(456);
+		for (int i = 0; i < 100; i++) {
+			target.set(random.nextFloat(-40f, 40f), random.nextFloat(-20f, 60f), random.nextFloat(-40f, 40f));
+			solver.solveForTarget(expected, target, expectedDistances);
+			solver.solveForTarget(actual, target, actualDistances);
+
+			assertEquals(expectedDistances[0], actualDistances[1], "solve distance of the spine");
+			assertEquals(expectedDistances[1], actualDistances[0], "solve distance of the arm");
+			assertEquals(expected.getChain(1).getEndEffectorBone().getEndLocation(), actual.getChain(0).getEndEffectorBone().getEndLocation());
+		}
+	}
+
+	@Test
+	public void testParallelAndCrowdSolveOfFrozenStructureMatchSequentialSolve() {
+		// solving the chains in index order would solve the arm before the spine it is connected to
+		FabrikStructure3f expected = createArmBeforeSpine().freeze();
+		FabrikStructure3f parallel = createArmBeforeSpine().freeze();
+		List<FabrikStructure3f> crowd = List.of(createArmBeforeSpine().freeze(), createArmBeforeSpine().freeze());
+
+		FabrikSolver3f solver = new FabrikSolver3f();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		FabrikCrowdSolver3f crowdSolver = new FabrikCrowdSolver3f(pool, 1);
+
+		float[] expectedDistances = new float[2];
+		float[] actualDistances = new float[2];
+		Vector3f target = new Vector3f();
+
+		try {
+			Random random = new Random(456);
+			for (int i = 0; i < 100; i++) {
+				target.set(random.nextFloat(-40f, 40f), random.nextFloat(-20f, 60f), random.nextFloat(-40f, 40f));
+				solver.solveForTarget(expected, target, expectedDistances);
+				solver.solveForTarget(parallel, target, actualDistances, pool);
+				crowdSolver.solveForTarget(crowd, target);
+
+				assertArrayEquals(expectedDistances, actualDistances);
+				assertEqualLocations(expected, parallel);
+				for (FabrikStructure3f actual : crowd) {
+					assertEqualLocations(expected, actual);
+				}
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testFrozenStructureRejectsChanges() {
+		FabrikStructure3f structure = createCreature().freeze();
+		FabrikChain3f chain = FabrikChain3f.builder().addFreelyRotatingRotorBaseBone(new Vector3f(), UP, 1f, true).build();
+
+		assertTrue(structure.isFrozen());
+		assertThrows(IllegalStateException.class, () -> structure.addChain(chain));
+		assertThrows(IllegalStateException.class, () -> structure.connectChain(chain, 0, 1));
+		assertThrows(IllegalStateException.class, () -> structure.removeChain(1));
+	}
+
+	@Test
+	public void testFreezeRejectsConnectionCycle() {
+		FabrikStructure3f structure = new FabrikStructure3f();
+		FabrikChain3f first = FabrikChain3f.builder().addFreelyRotatingRotorBaseBone(new Vector3f(), UP, 1f, true).build();
+		FabrikChain3f second = FabrikChain3f.builder().addFreelyRotatingRotorBaseBone(new Vector3f(), UP, 1f, true).build();
+		structure.addChain(first);
+		structure.addChain(second);
+		first.connectToStructure(structure, 1, 0);
+		second.connectToStructure(structure, 0, 0);
+
+		assertThrows(IllegalStateException.class, structure::freeze);
+		assertFalse(structure.isFrozen());
+	}
+
+	private static void assertEqualLocations(FabrikStructure3f expected, FabrikStructure3f actual) {
+		for (int i = 0; i < expected.getChainCount(); i++) {
+			FabrikChain3f expectedChain = expected.getChain(i);
+			FabrikChain3f actualChain = actual.getChain(i);
+			for (int j = 0; j < expectedChain.getBoneCount(); j++) {
+				String message = "chain " + i + " bone " + j;
+				FabrikBone3f expectedBone = expectedChain.getBone(j);
+				FabrikBone3f actualBone = actualChain.getBone(j);
+				assertEquals(expectedBone.getStartLocation().x(), actualBone.getStartLocation().x(), message);
+				assertEquals(expectedBone.getStartLocation().y(), actualBone.getStartLocation().y(), message);
+				assertEquals(expectedBone.getStartLocation().z(), actualBone.getStartLocation().z(), message);
+				assertEquals(expectedBone.getEndLocation().x(), actualBone.getEndLocation().x(), message);
+				assertEquals(expectedBone.getEndLocation().y(), actualBone.getEndLocation().y(), message);
+				assertEquals(expectedBone.getEndLocation().z(), actualBone.getEndLocation().z(), message);
+			}
+		}
+	}
+
+	/// A spine with an arm connected to the end of its last bone
+	private static FabrikStructure3f createSpineWithArm() {
+		FabrikStructure3f structure = new FabrikStructure3f();
+
+		FabrikChain3f.ConsecutiveBoneBuilder spine = FabrikChain3f.builder().addRotorConstrainedBaseBone(new Vector3f(), UP, 10f, Math.toRadians(30f), false);
+		for (int i = 1; i < 4; i++) {
+			spine.addRotorConstrainedBone(UP, 10f, Math.toRadians(20f), true);
+		}
+		structure.addChain(spine.build());
+
+		FabrikChain3f arm = FabrikChain3f.builder()
+				.addHingeConstrainedBaseBone(new Vector3f(), RIGHT, 7f, FORWARDS, 1f, 1f, UP, true)
+				.addHingeConstrainedBone(RIGHT, 7f, UP, Math.toRadians(120f), 0f, FORWARDS, true)
+				.addRotorConstrainedBone(RIGHT, 2f, Math.toRadians(60f), true)
+				.build();
+		structure.connectChain(arm, 0, 3);
+
+		return structure;
+	}
+
+	/// @return the structure of [#createSpineWithArm()] with the arm added before the spine it is connected to
+	private static FabrikStructure3f createArmBeforeSpine() {
+		FabrikStructure3f source = createSpineWithArm();
+		FabrikChain3f spine = source.getChain(0);
+		FabrikChain3f arm = source.getChain(1);
+
+		FabrikStructure3f structure = new FabrikStructure3f();
+		structure.addChain(arm);
+		structure.addChain(spine);
+		arm.connectToStructure(structure, 1, 3);
+		return structure;
+	}
+
+	/// A spine with four legs, two arms and a head
+	static FabrikStructure3f createCreature() {
+		FabrikStructure3f structure = new FabrikStructure3f();
+
+		FabrikChain3f.ConsecutiveBoneBuilder spine = FabrikChain3f.builder().addRotorConstrainedBaseBone(new Vector3f(), UP, 10f, Math.toRadians(30f), false);
+		for (int i = 1; i < 4; i++) {
+			spine.addRotorConstrainedBone(UP, 10f, Math.toRadians(20f), true);
+		}
+		structure.addChain(spine.build());
+
+		for (int i = 0; i < 4; i++) {
+			FabrikChain3f leg = FabrikChain3f.builder()
+					.addRotorConstrainedBaseBone(new Vector3f(), DOWN, 8f, Math.toRadians(45f), true)
+					.addHingeConstrainedBone(DOWN, 8f, RIGHT, Math.toRadians(90f), 0f, FORWARDS, true)
+					.addRotorConstrainedBone(FORWARDS, 3f, Math.toRadians(30f), true)
+					.build();
+			leg.setUseEmbeddedTarget(true);
+			leg.setEmbeddedTargetFrom(new Vector3f(i < 2 ? -6f : 6f, -16f, i % 2 == 0 ? -5f : 5f));
+			structure.connectChain(leg, 0, i < 2 ? 0 : 1, BoneConnectionPoint.START);
+		}
+
+		for (int i = 0; i < 2; i++) {
+			FabrikChain3f arm = FabrikChain3f.builder()
+					.addHingeConstrainedBaseBone(new Vector3f(), i == 0 ? LEFT : RIGHT, 7f, FORWARDS, 1f, 1f, UP, true)
+					.addHingeConstrainedBone(i == 0 ? LEFT : RIGHT, 7f, UP, Math.toRadians(120f), 0f, FORWARDS, true)
+					.addRotorConstrainedBone(i == 0 ? LEFT : RIGHT, 2f, Math.toRadians(60f), true)
+					.build();
+			structure.connectChain(arm, 0, 3);
+		}
+
+		FabrikChain3f neck = FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), UP, 3f, Math.toRadians(30f), true)
+				.addRotorConstrainedBone(UP, 3f, Math.toRadians(30f), true)
+				.build();
+		int neckIndex = structure.getChainCount();
+		structure.connectChain(neck, 0, 3);
+
+		FabrikChain3f head = FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), FORWARDS, 4f, Math.toRadians(20f), true)
+				.build();
+		structure.connectChain(head, neckIndex, 1);
+
+		return structure;
+	}
+
+}
@@ -0,0 +1,72 @@
+package tests.util;
+
+import com.github.elenterius.fabiko.core.FabrikChain3f;
+import org.joml.Math;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.function.IntPredicate;
+
+/// Builds the chains shared by the tests, every chain starts at the origin and all of its bones point in the same
+/// direction.
+public final class TestChains {
+
+	public static final Vector3fc RIGHT = new Vector3f(1, 0, 0);
+	public static final Vector3fc UP = new Vector3f(0, 1, 0);
+
+	public static final float BONE_LENGTH = 10f;
+
+	private TestChains() {
+	}
+
+	/// @return a chain along the x-axis with freely rotating local rotor joints
+	public static FabrikChain3f createUnconstrainedChain(int boneCount) {
+		return createRotorChain(boneCount, Math.PI_f);
+	}
+
+	/// @return a chain along the x-axis with local rotor joints
+	public static FabrikChain3f createRotorChain(int boneCount, float constraintAngle) {
+		return createRotorChain(boneCount, RIGHT, constraintAngle, bone -> true);
+	}
+
+	/// @return a chain along the x-axis with local or global rotor joints
+	public static FabrikChain3f createRotorChain(int boneCount, float constraintAngle, boolean isLocalRotor) {
+		return createRotorChain(boneCount, RIGHT, constraintAngle, bone -> isLocalRotor);
+	}
+
+	/// @param direction    the direction of all bones, which is the constraint axis of the base bone as well
+	/// @param isLocalRotor tests the index of a bone, whether its joint is a local or a global rotor
+	public static FabrikChain3f createRotorChain(int boneCount, Vector3fc direction, float constraintAngle, IntPredicate isLocalRotor) {
+		FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder()
+				.addRotorConstrainedBaseBone(new Vector3f(), direction, BONE_LENGTH, constraintAngle, isLocalRotor.test(0));
+
+		for (int i = 1; i < boneCount; i++) {
+			builder.addRotorConstrainedBone(direction, BONE_LENGTH, constraintAngle, isLocalRotor.test(i));
+		}
+
+		return builder.build();
+	}
+
+	/// @return a chain along the x-axis whose hinges rotate about the y-axis by up to 90° clockwise and 45°
+	/// anticlockwise
+	public static FabrikChain3f createHingeChain(int boneCount, boolean isLocalHinge) {
+		return createHingeChain(boneCount, bone -> isLocalHinge);
+	}
+
+	/// @param isLocalHinge tests the index of a bone, whether its joint is a local or a global hinge
+	/// @see #createHingeChain(int, boolean)
+	public static FabrikChain3f createHingeChain(int boneCount, IntPredicate isLocalHinge) {
+		float clockwiseAngle = Math.toRadians(90f);
+		float anticlockwiseAngle = Math.toRadians(45f);
+
+		FabrikChain3f.ConsecutiveBoneBuilder builder = FabrikChain3f.builder()
+				.addHingeConstrainedBaseBone(new Vector3f(), RIGHT, BONE_LENGTH, UP, clockwiseAngle, anticlockwiseAngle, RIGHT, isLocalHinge.test(0));
+
+		for (int i = 1; i < boneCount; i++) {
+			builder.addHingeConstrainedBone(RIGHT, BONE_LENGTH, UP, clockwiseAngle, anticlockwiseAngle, RIGHT, isLocalHinge.test(i));
+		}
+
+		return builder.build();
+	}
+
+}
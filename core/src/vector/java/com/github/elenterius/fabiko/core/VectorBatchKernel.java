@@ -0,0 +1,329 @@
+package com.github.elenterius.fabiko.core;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/// Solves the lanes of a [FabrikChainBatch3f] with the incubating Vector API, several chains per vector instruction.
+///
+/// The arithmetic mirrors the [ScalarBatchKernel] operation by operation, branches are replaced by masked blends. This
+/// class lives in the `vector` source set, the only one compiled with the `jdk.incubator.vector` module. It is loaded
+/// reflectively by the [FabrikBatchSolver3f] and only when the module is available, see
+/// [FabrikBatchSolver3f#isVectorApiAvailable()].
+///
+/// Vector operations are only compiled to vector instructions when their species is a constant, each vector width
+/// therefore has its own subclass which returns the species from a static final field. Vectors which are passed to or
+/// returned from a method that isn't inlined are allocated, so the methods only exchange vectors through arrays and are
+/// kept small enough for all vector operations within them to be inlined.
+abstract sealed class VectorBatchKernel implements BatchKernel {
+
+	/// scratch slot of the directions of the bones being solved
+	private static final int DIRECTION = 0;
+	/// scratch slot of the constraint axes
+	private static final int AXIS = 3;
+	/// scratch slot of the parts of the directions perpendicular to the constraint axes
+	private static final int PERPENDICULAR = 6;
+	/// scratch slot of the squared lengths of the perpendicular parts
+	private static final int LENGTH_SQUARED = 9;
+
+	/// The scratch vectors, one vector per slot and `[x, y, z]` vectors per 3d slot.
+	private final float[] scratch;
+
+	private VectorBatchKernel() {
+		scratch = new float[10 * species().length()];
+	}
+
+	/// Called reflectively by [FabrikBatchSolver3f].
+	///
+	/// @param laneWidth the width of the vectors in bits (64, 128, 256 or 512)
+	static BatchKernel create(int laneWidth) {
+		return switch (laneWidth) {
+			case 64 -> new Kernel64();
+			case 128 -> new Kernel128();
+			case 256 -> new Kernel256();
+			case 512 -> new Kernel512();
+			default -> throw new IllegalArgumentException("Lane width must be 64, 128, 256 or 512 bits but was " + laneWidth + ".");
+		};
+	}
+
+	/// Called reflectively by [FabrikBatchSolver3f].
+	///
+	/// @return the width in bits of the widest vectors supported by the platform
+	static int getPreferredLaneWidth() {
+		return FloatVector.SPECIES_PREFERRED.vectorBitSize();
+	}
+
+	abstract VectorSpecies<Float> species();
+
+	@Override
+	public void solveIteration(FabrikChainBatch3f batch) {
+		VectorSpecies<Float> species = species();
+		for (int lane = 0; lane < batch.stride; lane += species.length()) {
+			if (VectorMask.fromArray(species, batch.active, lane).anyTrue()) {
+				solveIteration(batch, lane);
+			}
+		}
+	}
+
+	@Override
+	public void storeBestSolution(FabrikChainBatch3f batch) {
+		VectorSpecies<Float> species = species();
+		int stride = batch.stride;
+		float[] locations = batch.locations;
+		float[] bestSolution = batch.bestSolution;
+
+		for (int lane = 0; lane < stride; lane += species.length()) {
+			VectorMask<Float> improved = VectorMask.fromArray(species, batch.improved, lane);
+			if (!improved.anyTrue()) continue;
+
+			for (int i = lane; i < locations.length; i += stride) {
+				FloatVector.fromArray(species, locations, i).intoArray(bestSolution, i, improved);
+			}
+		}
+	}
+
+	private void solveIteration(FabrikChainBatch3f batch, int lane) {
+		int stride = batch.stride;
+		int boneCount = batch.boneCount;
+		float[] locations = batch.locations;
+		int length = species().length();
+
+		// forward pass from end effector to base bone, snap the end effector's end location to the target
+		int endEffector = boneCount - 1;
+		copyVector(batch.targets, lane, stride, locations, boneCount * 3 * stride + lane, stride);
+
+		// rotors don't get constrained on this forward pass
+		loadDirection(locations, endEffector, stride, lane, DIRECTION, true);
+		placeJoint(batch, endEffector, endEffector + 1, endEffector, lane);
+
+		// the reversed directions are the exact negations of the directions
+		for (int i = endEffector - 1; i >= 0; i--) {
+			loadDirection(locations, i + 1, stride, lane, AXIS, true);
+			loadDirection(locations, i, stride, lane, DIRECTION, true);
+			constrainToCone(batch.jointCosines, batch.jointSines, i * stride + lane);
+			placeJoint(batch, i, i + 1, i, lane);
+		}
+
+		// backward pass from base bone to end effector
+		placeBaseJoint(batch, lane);
+
+		copyVector(batch.baseboneConstraints, lane, stride, scratch, AXIS * length, length);
+		loadDirection(locations, 0, stride, lane, DIRECTION, false);
+		constrainToCone(batch.jointCosines, batch.jointSines, lane);
+		placeJoint(batch, 1, 0, 0, lane);
+
+		for (int i = 1; i < boneCount; i++) {
+			loadDirection(locations, i - 1, stride, lane, AXIS, false);
+			loadDirection(locations, i, stride, lane, DIRECTION, false);
+			constrainToCone(batch.jointCosines, batch.jointSines, i * stride + lane);
+			placeJoint(batch, i + 1, i, i, lane);
+		}
+
+		storeIterationDistance(batch, lane);
+	}
+
+	/// Copy `[x, y, z]` vectors from one array to another.
+	private void copyVector(float[] src, int srcOffset, int srcStride, float[] dest, int destOffset, int destStride) {
+		VectorSpecies<Float> species = species();
+		FloatVector.fromArray(species, src, srcOffset).intoArray(dest, destOffset);
+		FloatVector.fromArray(species, src, srcOffset + srcStride).intoArray(dest, destOffset + destStride);
+		FloatVector.fromArray(species, src, srcOffset + 2 * srcStride).intoArray(dest, destOffset + 2 * destStride);
+	}
+
+	/// Load the [unit][org.joml.Vector3f#normalize()] directions of the bones from their start and end locations into
+	/// the scratch slot.
+	///
+	/// @param reversed load the directions from the end to the start of the bones instead
+	private void loadDirection(float[] locations, int boneIndex, int stride, int lane, int slot, boolean reversed) {
+		VectorSpecies<Float> species = species();
+		int start = boneIndex * 3 * stride + lane;
+		int end = start + 3 * stride;
+		if (reversed) {
+			int swap = start;
+			start = end;
+			end = swap;
+		}
+
+		FloatVector x = FloatVector.fromArray(species, locations, end).sub(FloatVector.fromArray(species, locations, start));
+		FloatVector y = FloatVector.fromArray(species, locations, end + stride).sub(FloatVector.fromArray(species, locations, start + stride));
+		FloatVector z = FloatVector.fromArray(species, locations, end + 2 * stride).sub(FloatVector.fromArray(species, locations, start + 2 * stride));
+		FloatVector invLength = FloatVector.broadcast(species, 1f).div(x.mul(x).add(y.mul(y).add(z.mul(z))).sqrt());
+
+		int length = species.length();
+		x.mul(invLength).intoArray(scratch, slot * length);
+		y.mul(invLength).intoArray(scratch, (slot + 1) * length);
+		z.mul(invLength).intoArray(scratch, (slot + 2) * length);
+	}
+
+	/// Set the joint locations to the locations of the other joints plus the scratch directions times the bone lengths,
+	/// without fusing the multiplication and addition just like the [ScalarBatchKernel].
+	private void placeJoint(FabrikChainBatch3f batch, int jointIndex, int fromJointIndex, int boneIndex, int lane) {
+		VectorSpecies<Float> species = species();
+		int stride = batch.stride;
+		float[] locations = batch.locations;
+		int from = fromJointIndex * 3 * stride + lane;
+		int to = jointIndex * 3 * stride + lane;
+		int length = species.length();
+
+		FloatVector boneLength = FloatVector.fromArray(species, batch.lengths, boneIndex * stride + lane);
+		FloatVector.fromArray(species, scratch, DIRECTION * length).mul(boneLength).add(FloatVector.fromArray(species, locations, from)).intoArray(locations, to);
+		FloatVector.fromArray(species, scratch, (DIRECTION + 1) * length).mul(boneLength).add(FloatVector.fromArray(species, locations, from + stride)).intoArray(locations, to + stride);
+		FloatVector.fromArray(species, scratch, (DIRECTION + 2) * length).mul(boneLength).add(FloatVector.fromArray(species, locations, from + 2 * stride)).intoArray(locations, to + 2 * stride);
+	}
+
+	/// Snap the start locations of the base bones back to the fixed base, or project them backwards from the end to the
+	/// start by their length in the lanes without fixed base.
+	private void placeBaseJoint(FabrikChainBatch3f batch, int lane) {
+		VectorSpecies<Float> species = species();
+		int stride = batch.stride;
+		float[] locations = batch.locations;
+
+		VectorMask<Float> fixedBaseMode = VectorMask.fromArray(species, batch.fixedBaseMode, lane);
+		if (!fixedBaseMode.allTrue()) {
+			// end - direction * length is the same as reversed direction * length + end
+			loadDirection(locations, 0, stride, lane, DIRECTION, true);
+			placeJoint(batch, 0, 1, 0, lane);
+		}
+
+		float[] base = batch.fixedBaseLocations;
+		FloatVector.fromArray(species, base, lane).intoArray(locations, lane, fixedBaseMode);
+		FloatVector.fromArray(species, base, stride + lane).intoArray(locations, stride + lane, fixedBaseMode);
+		FloatVector.fromArray(species, base, 2 * stride + lane).intoArray(locations, 2 * stride + lane, fixedBaseMode);
+	}
+
+	private void storeIterationDistance(FabrikChainBatch3f batch, int lane) {
+		VectorSpecies<Float> species = species();
+		int stride = batch.stride;
+		float[] locations = batch.locations;
+		float[] targets = batch.targets;
+
+		int end = batch.boneCount * 3 * stride + lane;
+		FloatVector x = FloatVector.fromArray(species, locations, end).sub(FloatVector.fromArray(species, targets, lane));
+		FloatVector y = FloatVector.fromArray(species, locations, end + stride).sub(FloatVector.fromArray(species, targets, stride + lane));
+		FloatVector z = FloatVector.fromArray(species, locations, end + 2 * stride).sub(FloatVector.fromArray(species, targets, 2 * stride + lane));
+		x.mul(x).add(y.mul(y).add(z.mul(z))).sqrt().intoArray(batch.iterationDistances, lane);
+	}
+
+	/// Keep the scratch directions within the cones about the scratch axes, see [ScalarBatchKernel].
+	private void constrainToCone(float[] cosines, float[] sines, int offset) {
+		if (!computePerpendiculars(cosines, offset)) return;
+
+		VectorSpecies<Float> species = species();
+		int length = species.length();
+		if (FloatVector.fromArray(species, scratch, LENGTH_SQUARED * length).compare(VectorOperators.LT, 1e-12f).anyTrue()) {
+			replaceOppositePerpendiculars();
+		}
+
+		FloatVector ax = FloatVector.fromArray(species, scratch, AXIS * length);
+		FloatVector ay = FloatVector.fromArray(species, scratch, (AXIS + 1) * length);
+		FloatVector az = FloatVector.fromArray(species, scratch, (AXIS + 2) * length);
+		FloatVector dx = FloatVector.fromArray(species, scratch, DIRECTION * length);
+		FloatVector dy = FloatVector.fromArray(species, scratch, (DIRECTION + 1) * length);
+		FloatVector dz = FloatVector.fromArray(species, scratch, (DIRECTION + 2) * length);
+
+		FloatVector cosAngle = FloatVector.fromArray(species, cosines, offset);
+		VectorMask<Float> inside = ax.mul(dx).add(ay.mul(dy).add(az.mul(dz))).compare(VectorOperators.GE, cosAngle);
+
+		FloatVector invLength = FloatVector.broadcast(species, 1f).div(FloatVector.fromArray(species, scratch, LENGTH_SQUARED * length).sqrt());
+		FloatVector scale = FloatVector.fromArray(species, sines, offset).mul(invLength);
+		ax.mul(cosAngle).add(FloatVector.fromArray(species, scratch, PERPENDICULAR * length).mul(scale)).blend(dx, inside).intoArray(scratch, DIRECTION * length);
+		ay.mul(cosAngle).add(FloatVector.fromArray(species, scratch, (PERPENDICULAR + 1) * length).mul(scale)).blend(dy, inside).intoArray(scratch, (DIRECTION + 1) * length);
+		az.mul(cosAngle).add(FloatVector.fromArray(species, scratch, (PERPENDICULAR + 2) * length).mul(scale)).blend(dz, inside).intoArray(scratch, (DIRECTION + 2) * length);
+	}
+
+	/// Store the parts of the scratch directions perpendicular to the scratch axes and their squared lengths.
+	///
+	/// @return false if all directions are already within their cones
+	private boolean computePerpendiculars(float[] cosines, int offset) {
+		VectorSpecies<Float> species = species();
+		int length = species.length();
+		FloatVector ax = FloatVector.fromArray(species, scratch, AXIS * length);
+		FloatVector ay = FloatVector.fromArray(species, scratch, (AXIS + 1) * length);
+		FloatVector az = FloatVector.fromArray(species, scratch, (AXIS + 2) * length);
+		FloatVector dx = FloatVector.fromArray(species, scratch, DIRECTION * length);
+		FloatVector dy = FloatVector.fromArray(species, scratch, (DIRECTION + 1) * length);
+		FloatVector dz = FloatVector.fromArray(species, scratch, (DIRECTION + 2) * length);
+
+		FloatVector dot = ax.mul(dx).add(ay.mul(dy).add(az.mul(dz)));
+		if (!dot.compare(VectorOperators.LT, FloatVector.fromArray(species, cosines, offset)).anyTrue()) return false;
+
+		FloatVector px = dx.sub(ax.mul(dot));
+		FloatVector py = dy.sub(ay.mul(dot));
+		FloatVector pz = dz.sub(az.mul(dot));
+		px.intoArray(scratch, PERPENDICULAR * length);
+		py.intoArray(scratch, (PERPENDICULAR + 1) * length);
+		pz.intoArray(scratch, (PERPENDICULAR + 2) * length);
+		px.mul(px).add(py.mul(py)).add(pz.mul(pz)).intoArray(scratch, LENGTH_SQUARED * length);
+		return true;
+	}
+
+	/// Replace the perpendicular parts of the directions which are opposite to their axes with a unit vector
+	/// perpendicular to the axis, every direction on the cone surface is equally close.
+	///
+	/// Lanes whose directions are within their cones may be replaced as well, their result is discarded.
+	private void replaceOppositePerpendiculars() {
+		VectorSpecies<Float> species = species();
+		int length = species.length();
+		FloatVector ax = FloatVector.fromArray(species, scratch, AXIS * length);
+		FloatVector ay = FloatVector.fromArray(species, scratch, (AXIS + 1) * length);
+		FloatVector az = FloatVector.fromArray(species, scratch, (AXIS + 2) * length);
+		FloatVector lengthSquared = FloatVector.fromArray(species, scratch, LENGTH_SQUARED * length);
+		VectorMask<Float> opposite = lengthSquared.compare(VectorOperators.LT, 1e-12f);
+
+		FloatVector magX = az.mul(az).add(ay.mul(ay));
+		FloatVector magY = az.mul(az).add(ax.mul(ax));
+		FloatVector magZ = ay.mul(ay).add(ax.mul(ax));
+		VectorMask<Float> useX = magX.compare(VectorOperators.GT, magY).and(magX.compare(VectorOperators.GT, magZ));
+		VectorMask<Float> useY = useX.not().and(magY.compare(VectorOperators.GT, magZ));
+		VectorMask<Float> useZ = useX.or(useY).not();
+
+		FloatVector zero = FloatVector.zero(species);
+		FloatVector invLength = FloatVector.broadcast(species, 1f).div(magZ.blend(magX, useX).blend(magY, useY).sqrt());
+		FloatVector x = ay.mul(invLength).blend(zero, useX).blend(az.neg().mul(invLength), useY);
+		FloatVector y = az.mul(invLength).blend(zero, useY).blend(ax.neg().mul(invLength), useZ);
+		FloatVector z = ay.neg().mul(invLength).blend(ax.mul(invLength), useY).blend(zero, useZ);
+
+		FloatVector.fromArray(species, scratch, PERPENDICULAR * length).blend(x, opposite).intoArray(scratch, PERPENDICULAR * length);
+		FloatVector.fromArray(species, scratch, (PERPENDICULAR + 1) * length).blend(y, opposite).intoArray(scratch, (PERPENDICULAR + 1) * length);
+		FloatVector.fromArray(species, scratch, (PERPENDICULAR + 2) * length).blend(z, opposite).intoArray(scratch, (PERPENDICULAR + 2) * length);
+		lengthSquared.blend(1f, opposite).intoArray(scratch, LENGTH_SQUARED * length);
+	}
+
+	private static final class Kernel64 extends VectorBatchKernel {
+		private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_64;
+
+		@Override
+		VectorSpecies<Float> species() {
+			return SPECIES;
+		}
+	}
+
+	private static final class Kernel128 extends VectorBatchKernel {
+		private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_128;
+
+		@Override
+		VectorSpecies<Float> species() {
+			return SPECIES;
+		}
+	}
+
+	private static final class Kernel256 extends VectorBatchKernel {
+		private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_256;
+
+		@Override
+		VectorSpecies<Float> species() {
+			return SPECIES;
+		}
+	}
+
+	private static final class Kernel512 extends VectorBatchKernel {
+		private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_512;
+
+		@Override
+		VectorSpecies<Float> species() {
+			return SPECIES;
+		}
+	}
+
+}
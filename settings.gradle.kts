@@ -10,4 +10,4 @@ plugins {
 }
 
 rootProject.name = "fabiko"
-include(":core", ":visualisation", ":demo")
+include(":core", ":visualisation", ":demo", ":baker")